@@ -0,0 +1,115 @@
+package com.codewithshiva.retailpos.benchmarks;
+
+import com.codewithshiva.retailpos.dto.sale.CreateSaleItemRequest;
+import com.codewithshiva.retailpos.dto.sale.CreateSaleRequest;
+import com.codewithshiva.retailpos.model.SaleItemWithVariant;
+import com.codewithshiva.retailpos.model.SaleWithDetails;
+import com.codewithshiva.retailpos.model.Settings;
+import com.codewithshiva.retailpos.model.Variant;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Representative sample data shared by the benchmarks.
+ */
+final class Fixtures {
+
+    static final BigDecimal TAX_PERCENT = new BigDecimal("5.00");
+    static final BigDecimal AVG_COST = new BigDecimal("412.37");
+
+    private Fixtures() {
+    }
+
+    /**
+     * A counter sale with the given number of lines, mixing item discounts and a bill discount.
+     */
+    static CreateSaleRequest saleRequest(int lines) {
+        List<CreateSaleItemRequest> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            BigDecimal unitPrice = new BigDecimal("499.00").add(BigDecimal.valueOf(i * 150L));
+            BigDecimal itemDiscount = i % 3 == 0 ? new BigDecimal("10.00") : null;
+            items.add(new CreateSaleItemRequest((long) (i + 1), 1 + i % 4, unitPrice, itemDiscount));
+        }
+        return new CreateSaleRequest("Walk-in Customer", "9876543210", "UPI", new BigDecimal("2.50"), items, null);
+    }
+
+    static Variant variant(Long id) {
+        return Variant.builder()
+                .id(id)
+                .productId(1L)
+                .sku("SKU-" + id)
+                .barcode("890000000" + id)
+                .size("M")
+                .color("Blue")
+                .sellingPrice(new BigDecimal("799.00"))
+                .avgCost(AVG_COST)
+                .stockQty(1000)
+                .status("ACTIVE")
+                .defaultDiscountPercent(BigDecimal.ZERO)
+                .build();
+    }
+
+    static SaleWithDetails saleWithDetails(int lines) {
+        return SaleWithDetails.builder()
+                .id(1L)
+                .billNo("INV-000123")
+                .soldAt(OffsetDateTime.now())
+                .customerName("Walk-in Customer")
+                .customerPhone("9876543210")
+                .paymentMode("UPI")
+                .subtotal(new BigDecimal("5296.10"))
+                .discountPercent(new BigDecimal("2.50"))
+                .discountAmount(new BigDecimal("132.40"))
+                .taxPercent(TAX_PERCENT)
+                .taxAmount(new BigDecimal("252.20"))
+                .total(new BigDecimal("5163.70"))
+                .profit(new BigDecimal("1023.45"))
+                .status("COMPLETED")
+                .createdBy(1L)
+                .createdAt(OffsetDateTime.now())
+                .updatedAt(OffsetDateTime.now())
+                .createdByName("Administrator")
+                .itemCount(lines)
+                .build();
+    }
+
+    static List<SaleItemWithVariant> saleItems(int lines) {
+        List<SaleItemWithVariant> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            items.add(SaleItemWithVariant.builder()
+                    .id((long) (i + 1))
+                    .variantId((long) (i + 1))
+                    .variantSku("SKU-" + (i + 1))
+                    .variantBarcode("890000000" + (i + 1))
+                    .productName("Cotton Kurta Set " + (i + 1))
+                    .productHsn("6204")
+                    .size("M")
+                    .color("Blue")
+                    .qty(1 + i % 4)
+                    .unitPrice(new BigDecimal("499.00").add(BigDecimal.valueOf(i * 150L)))
+                    .unitCostAtSale(AVG_COST)
+                    .itemDiscountPercent(i % 3 == 0 ? new BigDecimal("10.00") : BigDecimal.ZERO)
+                    .build());
+        }
+        return items;
+    }
+
+    static Settings settings() {
+        return Settings.builder()
+                .id(1)
+                .shopName("MJ Textiles")
+                .address("12 Market Road, Chennai")
+                .phone("044-2345678")
+                .email("billing@mjtextiles.example")
+                .gstNumber("33ABCDE1234F1Z5")
+                .currency("INR")
+                .taxPercent(TAX_PERCENT)
+                .invoicePrefix("INV")
+                .lastBillNumber(123)
+                .lowStockThreshold(10)
+                .build();
+    }
+}
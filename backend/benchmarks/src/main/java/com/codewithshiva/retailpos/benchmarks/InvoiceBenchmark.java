@@ -0,0 +1,77 @@
+package com.codewithshiva.retailpos.benchmarks;
+
+import com.codewithshiva.retailpos.dao.SaleDao;
+import com.codewithshiva.retailpos.dao.SettingsDao;
+import com.codewithshiva.retailpos.dao.VariantDao;
+import com.codewithshiva.retailpos.service.InvoiceService;
+import com.codewithshiva.retailpos.service.PriceSnapshotService;
+import com.codewithshiva.retailpos.service.SalePricingCalculator;
+import com.codewithshiva.retailpos.service.SaleService;
+import com.codewithshiva.retailpos.service.SettingsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Invoice PDF rendering and the Indian-numbering amount-to-words conversion.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceBenchmark {
+
+    @Param({"5", "40"})
+    private int lines;
+
+    private InvoiceService invoiceService;
+    private Method convertAmountToWords;
+    private BigDecimal amount;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        SaleDao saleDao = StubDaos.stub(SaleDao.class, Map.of(
+                "findByIdWithDetails", args -> Optional.of(Fixtures.saleWithDetails(lines)),
+                "findItemsBySaleId", args -> Fixtures.saleItems(lines)));
+        SettingsDao settingsDao = StubDaos.stub(SettingsDao.class, Map.of(
+                "get", args -> Optional.of(Fixtures.settings())));
+
+        VariantDao variantDao = StubDaos.stub(VariantDao.class, Map.of());
+        PriceSnapshotService priceSnapshotService = new PriceSnapshotService(variantDao, settingsDao);
+
+        invoiceService = new InvoiceService(
+                new SaleService(saleDao, variantDao, new SalePricingCalculator(), priceSnapshotService),
+                new SettingsService(settingsDao, priceSnapshotService));
+
+        // Private helper; accessed reflectively so the production class keeps its encapsulation
+        convertAmountToWords = InvoiceService.class.getDeclaredMethod("convertAmountToWords", BigDecimal.class);
+        convertAmountToWords.setAccessible(true);
+        amount = new BigDecimal("1234567.89");
+    }
+
+    @Benchmark
+    public byte[] renderInvoice() {
+        return invoiceService.generateSaleInvoice(1L);
+    }
+
+    @Benchmark
+    public Object amountToWords() throws ReflectiveOperationException {
+        return convertAmountToWords.invoke(invoiceService, amount);
+    }
+}
@@ -0,0 +1,57 @@
+package com.codewithshiva.retailpos.benchmarks;
+
+import com.codewithshiva.retailpos.config.JacksonConfig;
+import com.codewithshiva.retailpos.dto.ApiResponse;
+import com.codewithshiva.retailpos.dto.Views;
+import com.codewithshiva.retailpos.dto.sale.SaleDetailResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response serialization with the role-based JSON views applied by
+ * {@code JsonViewResponseBodyAdvice}, using the application's ObjectMapper configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonViewSerializationBenchmark {
+
+    private ObjectWriter employeeWriter;
+    private ObjectWriter adminWriter;
+    private ApiResponse<SaleDetailResponse> body;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+        employeeWriter = objectMapper.writerWithView(Views.Employee.class);
+        adminWriter = objectMapper.writerWithView(Views.Admin.class);
+        body = ApiResponse.success(SaleDetailResponse.fromSaleWithDetails(
+                Fixtures.saleWithDetails(10), Fixtures.saleItems(10)));
+    }
+
+    @Benchmark
+    public byte[] employeeView() throws JsonProcessingException {
+        return employeeWriter.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public byte[] adminView() throws JsonProcessingException {
+        return adminWriter.writeValueAsBytes(body);
+    }
+}
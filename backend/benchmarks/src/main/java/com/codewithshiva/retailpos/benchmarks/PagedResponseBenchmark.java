@@ -0,0 +1,57 @@
+package com.codewithshiva.retailpos.benchmarks;
+
+import com.codewithshiva.retailpos.dto.PagedResponse;
+import com.codewithshiva.retailpos.dto.sale.SaleListResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory pagination through {@link PagedResponse#of}, including building the list
+ * responses that the controllers page over.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PagedResponseBenchmark {
+
+    @Param({"1000", "50000"})
+    private int rows;
+
+    private List<SaleListResponse> sales;
+    private int middlePage;
+
+    @Setup
+    public void setUp() {
+        sales = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            sales.add(SaleListResponse.fromSaleWithDetails(Fixtures.saleWithDetails(3)));
+        }
+        middlePage = rows / 20 / 2;
+    }
+
+    @Benchmark
+    public PagedResponse<SaleListResponse> firstPage() {
+        return PagedResponse.of(sales, 0, 20);
+    }
+
+    @Benchmark
+    public PagedResponse<SaleListResponse> middlePage() {
+        return PagedResponse.of(sales, middlePage, 20);
+    }
+}
@@ -0,0 +1,72 @@
+package com.codewithshiva.retailpos.benchmarks;
+
+import com.codewithshiva.retailpos.dao.ReportDao;
+import com.codewithshiva.retailpos.model.report.ProductSalesData;
+import com.codewithshiva.retailpos.model.report.SalesPeriodData;
+import com.codewithshiva.retailpos.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CSV export formatting in {@link ReportService#exportReportAsCsv} over a year of daily rows
+ * and a full page of top sellers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportCsvBenchmark {
+
+    private ReportService reportService;
+
+    @Setup
+    public void setUp() {
+        List<SalesPeriodData> days = new ArrayList<>();
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < 365; i++) {
+            days.add(new SalesPeriodData(day.plusDays(i).toString(),
+                    BigDecimal.valueOf(2_500_000L + i * 3_700L, 2),
+                    BigDecimal.valueOf(600_000L + i * 1_100L, 2),
+                    40L + i % 25));
+        }
+
+        List<ProductSalesData> topSellers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            topSellers.add(new ProductSalesData((long) i, "Cotton Kurta, Printed " + i, "SKU-" + i,
+                    "Kurtas", "MJ", 120L - i, new BigDecimal("48210.50"), new BigDecimal("31022.75"),
+                    new BigDecimal("17187.75")));
+        }
+
+        ReportDao reportDao = StubDaos.stub(ReportDao.class, Map.of(
+                "getSalesByDay", args -> days,
+                "getTopSellingProducts", args -> topSellers));
+        reportService = new ReportService(reportDao);
+    }
+
+    @Benchmark
+    public byte[] salesSummaryCsv() {
+        return reportService.exportReportAsCsv("sales-summary", "2025-01-01", "2025-12-31", null, null, "day");
+    }
+
+    @Benchmark
+    public byte[] productPerformanceCsv() {
+        return reportService.exportReportAsCsv("product-performance", "2025-01-01", "2025-12-31", null, null, null);
+    }
+}
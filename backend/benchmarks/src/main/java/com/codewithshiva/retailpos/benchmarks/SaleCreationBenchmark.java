@@ -0,0 +1,102 @@
+package com.codewithshiva.retailpos.benchmarks;
+
+import com.codewithshiva.retailpos.dao.SaleDao;
+import com.codewithshiva.retailpos.dao.SettingsDao;
+import com.codewithshiva.retailpos.dao.VariantDao;
+import com.codewithshiva.retailpos.dto.sale.CreateSaleRequest;
+import com.codewithshiva.retailpos.dto.sale.QuoteSaleItemRequest;
+import com.codewithshiva.retailpos.dto.sale.QuoteSaleRequest;
+import com.codewithshiva.retailpos.dto.sale.SaleDetailResponse;
+import com.codewithshiva.retailpos.dto.sale.SaleQuoteResponse;
+import com.codewithshiva.retailpos.model.VariantPriceSnapshot;
+import com.codewithshiva.retailpos.service.PriceSnapshotService;
+import com.codewithshiva.retailpos.service.SalePricingCalculator;
+import com.codewithshiva.retailpos.service.SaleService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pricing, tax extraction and profit math of {@link SaleService#createSale} and the cart quote
+ * with the database round trips replaced by in-memory stubs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaleCreationBenchmark {
+
+    @Param({"1", "5", "20"})
+    private int lines;
+
+    private SaleService saleService;
+    private CreateSaleRequest request;
+    private CreateSaleRequest quotedRequest;
+    private QuoteSaleRequest quoteRequest;
+
+    @Setup
+    public void setUp() {
+        SaleDao saleDao = StubDaos.stub(SaleDao.class, Map.of(
+                "getVariantStockQty", args -> 1000,
+                "generateBillNumber", args -> "INV-000123",
+                "getTaxPercent", args -> Fixtures.TAX_PERCENT,
+                "decreaseVariantStockOnSale", args -> Fixtures.AVG_COST,
+                "create", args -> 1L,
+                "createItem", args -> 1L,
+                "findByIdWithDetails", args -> Optional.of(Fixtures.saleWithDetails(lines)),
+                "findItemsBySaleId", args -> Fixtures.saleItems(lines)));
+        VariantDao variantDao = StubDaos.stub(VariantDao.class, Map.of(
+                "findById", args -> Optional.of(Fixtures.variant((Long) args[0])),
+                "findPriceSnapshots", args -> priceSnapshots((List<?>) args[0])));
+        SettingsDao settingsDao = StubDaos.stub(SettingsDao.class, Map.of(
+                "get", args -> Optional.of(Fixtures.settings())));
+
+        saleService = new SaleService(saleDao, variantDao, new SalePricingCalculator(),
+                new PriceSnapshotService(variantDao, settingsDao));
+        request = Fixtures.saleRequest(lines);
+        quoteRequest = new QuoteSaleRequest(request.getDiscountPercent(), request.getItems().stream()
+                .map(item -> new QuoteSaleItemRequest(item.getVariantId(), item.getQty(), null, null))
+                .toList());
+        SaleQuoteResponse quote = saleService.quoteSale(quoteRequest);
+        quotedRequest = Fixtures.saleRequest(lines);
+        quotedRequest.setSnapshotVersion(quote.getSnapshotVersion());
+    }
+
+    @Benchmark
+    public SaleDetailResponse createSale() {
+        return saleService.createSale(request, 1L);
+    }
+
+    @Benchmark
+    public SaleDetailResponse createQuotedSale() {
+        return saleService.createSale(quotedRequest, 1L);
+    }
+
+    @Benchmark
+    public SaleQuoteResponse quoteSale() {
+        return saleService.quoteSale(quoteRequest);
+    }
+
+    private static List<VariantPriceSnapshot> priceSnapshots(List<?> ids) {
+        return ids.stream()
+                .map(id -> Fixtures.variant((Long) id))
+                .map(variant -> new VariantPriceSnapshot(variant.getId(), variant.getProductId(), "Cotton Shirt",
+                        variant.getSku(), variant.getBarcode(), variant.getSellingPrice(), variant.getDefaultDiscountPercent()))
+                .toList();
+    }
+}
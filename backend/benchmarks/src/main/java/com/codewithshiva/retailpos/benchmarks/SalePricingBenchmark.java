@@ -0,0 +1,97 @@
+package com.codewithshiva.retailpos.benchmarks;
+
+import com.codewithshiva.retailpos.dto.sale.CreateSaleItemRequest;
+import com.codewithshiva.retailpos.service.SalePricingCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sale pricing math in isolation: the original two-pass BigDecimal formulation from
+ * {@code SaleService#createSale} against the single-pass fixed-point {@link SalePricingCalculator}.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SalePricingBenchmark {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Param({"1", "5", "20"})
+    private int lines;
+
+    private final SalePricingCalculator calculator = new SalePricingCalculator();
+    private List<CreateSaleItemRequest> items;
+    private List<BigDecimal> unitCosts;
+    private BigDecimal discountPercent;
+
+    @Setup
+    public void setUp() {
+        items = Fixtures.saleRequest(lines).getItems();
+        discountPercent = Fixtures.saleRequest(lines).getDiscountPercent();
+        unitCosts = new ArrayList<>(Collections.nCopies(lines, Fixtures.AVG_COST));
+    }
+
+    @Benchmark
+    public void legacyBigDecimal(Blackhole blackhole) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CreateSaleItemRequest item : items) {
+            BigDecimal itemDiscountPct = item.getItemDiscountPercent() != null ? item.getItemDiscountPercent() : BigDecimal.ZERO;
+            BigDecimal itemDiscountFactor = BigDecimal.ONE.subtract(itemDiscountPct.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+            BigDecimal effectiveUnitPrice = item.getUnitPrice().multiply(itemDiscountFactor).setScale(2, RoundingMode.HALF_UP);
+            subtotal = subtotal.add(effectiveUnitPrice.multiply(BigDecimal.valueOf(item.getQty())));
+        }
+
+        BigDecimal taxDivisor = BigDecimal.ONE.add(Fixtures.TAX_PERCENT.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+        BigDecimal taxAmount = subtotal.subtract(subtotal.divide(taxDivisor, 2, RoundingMode.HALF_UP));
+        BigDecimal discountAmount = subtotal.multiply(discountPercent).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+        BigDecimal total = subtotal.subtract(discountAmount);
+
+        BigDecimal globalDiscountFactor = BigDecimal.ONE.subtract(discountPercent.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+        BigDecimal totalProfit = BigDecimal.ZERO;
+        for (int i = 0; i < items.size(); i++) {
+            CreateSaleItemRequest item = items.get(i);
+            BigDecimal itemDiscountPct = item.getItemDiscountPercent() != null ? item.getItemDiscountPercent() : BigDecimal.ZERO;
+            BigDecimal itemDiscountFactor = BigDecimal.ONE.subtract(itemDiscountPct.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+            BigDecimal effectiveUnitPrice = item.getUnitPrice().multiply(itemDiscountFactor).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal lineAmount = effectiveUnitPrice.multiply(BigDecimal.valueOf(item.getQty()));
+            BigDecimal revenue = lineAmount.divide(taxDivisor, 2, RoundingMode.HALF_UP)
+                    .multiply(globalDiscountFactor)
+                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal cost = unitCosts.get(i).multiply(BigDecimal.valueOf(item.getQty()));
+            totalProfit = totalProfit.add(revenue.subtract(cost));
+        }
+
+        blackhole.consume(taxAmount);
+        blackhole.consume(total);
+        blackhole.consume(totalProfit);
+    }
+
+    @Benchmark
+    public void fixedPointCalculator(Blackhole blackhole) {
+        SalePricingCalculator.SalePricing pricing = calculator.price(items, Fixtures.TAX_PERCENT, discountPercent);
+        blackhole.consume(pricing.getTaxAmount());
+        blackhole.consume(pricing.getTotal());
+        blackhole.consume(pricing.getProfit(unitCosts));
+    }
+}
@@ -0,0 +1,63 @@
+package com.codewithshiva.retailpos.benchmarks;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * In-memory stand-ins for the JDBI SqlObject DAOs so services can be benchmarked without a database.
+ * Methods without an explicit answer return an "empty" value for their return type.
+ */
+final class StubDaos {
+
+    private StubDaos() {
+    }
+
+    static <T> T stub(Class<T> daoType, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(
+                daoType.getClassLoader(),
+                new Class<?>[]{daoType},
+                (instance, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return handleObjectMethod(instance, method, args);
+                    }
+                    Function<Object[], Object> answer = answers.get(method.getName());
+                    return answer != null ? answer.apply(args) : emptyValue(method.getReturnType());
+                });
+        return daoType.cast(proxy);
+    }
+
+    private static Object handleObjectMethod(Object instance, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> instance == args[0];
+            case "hashCode" -> System.identityHashCode(instance);
+            default -> "Stub";
+        };
+    }
+
+    private static Object emptyValue(Class<?> type) {
+        if (type == Optional.class) {
+            return Optional.empty();
+        }
+        if (type == List.class) {
+            return List.of();
+        }
+        if (type == BigDecimal.class) {
+            return BigDecimal.ZERO;
+        }
+        if (type == Long.class || type == long.class) {
+            return 0L;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 0;
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return false;
+        }
+        return null;
+    }
+}
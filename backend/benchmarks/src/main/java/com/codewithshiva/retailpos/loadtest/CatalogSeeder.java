@@ -0,0 +1,218 @@
+package com.codewithshiva.retailpos.loadtest;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeds a realistic catalog and sales history with set-based SQL so that even
+ * 50k variants and years of sales load in well under a minute.
+ * Seeded rows are recognisable by the "LT" prefix on SKUs, barcodes and bill numbers;
+ * seeding is skipped when they already exist.
+ */
+class CatalogSeeder {
+
+    record SeededVariant(long id, String barcode, BigDecimal sellingPrice, String productName) {
+    }
+
+    private final LoadTestConfig config;
+    private final String dbUrl;
+
+    CatalogSeeder(LoadTestConfig config, String dbUrl) {
+        this.config = config;
+        this.dbUrl = dbUrl;
+    }
+
+    List<SeededVariant> seed() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(dbUrl, config.dbUser(), config.dbPassword())) {
+            connection.setAutoCommit(false);
+            if (!alreadySeeded(connection)) {
+                long started = System.nanoTime();
+                long adminId = adminId(connection);
+                seedCatalog(connection, adminId);
+                seedPurchases(connection, adminId);
+                seedSales(connection, adminId);
+                connection.commit();
+                try (Statement statement = connection.createStatement()) {
+                    connection.setAutoCommit(true);
+                    statement.execute("VACUUM ANALYZE");
+                }
+                System.out.printf("Seeded %d variants and %d years of sales in %d s%n",
+                        config.variants(), config.years(), (System.nanoTime() - started) / 1_000_000_000L);
+            } else {
+                connection.rollback();
+                System.out.println("Catalog already seeded, reusing existing data");
+            }
+            return loadVariants(connection);
+        }
+    }
+
+    private boolean alreadySeeded(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM variants WHERE sku LIKE 'LT-%')")) {
+            rs.next();
+            return rs.getBoolean(1);
+        }
+    }
+
+    private long adminId(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT id FROM users WHERE username = ?")) {
+            statement.setString(1, config.username());
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next()) {
+                    throw new IllegalStateException("Login user " + config.username() + " does not exist");
+                }
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private void seedCatalog(Connection connection, long adminId) throws SQLException {
+        int products = Math.max(1, config.variants() / config.variantsPerProduct());
+
+        execute(connection, """
+                INSERT INTO suppliers (name, phone, created_by)
+                SELECT 'LT Supplier ' || g, '90000' || lpad(g::text, 5, '0'), ?
+                FROM generate_series(1, 50) g
+                ON CONFLICT (name) DO NOTHING
+                """, adminId);
+
+        execute(connection, """
+                INSERT INTO products (name, brand, category, hsn, default_discount_percent, created_by)
+                SELECT 'LT Product ' || g,
+                       (ARRAY['MJ', 'Raymond', 'Arvind', 'Fabindia', 'Biba', 'Siyaram'])[1 + g % 6],
+                       (ARRAY['Shirts', 'Sarees', 'Kurtas', 'Trousers', 'Dhotis', 'Towels', 'Bedsheets', 'Dress Material'])[1 + g % 8],
+                       '62' || lpad((g % 100)::text, 2, '0'),
+                       CASE WHEN g % 10 = 0 THEN 10 ELSE 0 END,
+                       ?
+                FROM generate_series(1, ?) g
+                """, adminId, products);
+
+        execute(connection, """
+                INSERT INTO variants (product_id, sku, barcode, size, color, selling_price, status, created_by)
+                SELECT p.id,
+                       'LT-' || p.id || '-' || s,
+                       'LT' || lpad((p.id * 10 + s)::text, 12, '0'),
+                       (ARRAY['S', 'M', 'L', 'XL', 'XXL'])[1 + s % 5],
+                       (ARRAY['Red', 'Blue', 'Green', 'White', 'Black', 'Maroon'])[1 + (p.id + s) % 6],
+                       (199 + (p.id * 37 + s * 11) % 2800)::numeric(12, 2),
+                       'ACTIVE',
+                       ?
+                FROM products p
+                CROSS JOIN generate_series(1, ?) s
+                WHERE p.name LIKE 'LT Product %'
+                """, adminId, config.variantsPerProduct());
+
+        // Stock rows are created empty by a trigger on variants; fill in opening stock and cost
+        execute(connection, """
+                UPDATE variant_stock vs
+                SET stock_qty = (v.id * 7) % 400,
+                    avg_cost = round(v.selling_price * 0.62, 2)
+                FROM variants v
+                WHERE v.id = vs.variant_id AND v.sku LIKE 'LT-%'
+                """);
+    }
+
+    private void seedPurchases(Connection connection, long adminId) throws SQLException {
+        // One opening purchase per 200 variants, dated before the sales history starts
+        execute(connection, """
+                INSERT INTO purchases (supplier_id, invoice_no, purchased_at, total_cost, created_by)
+                SELECT (SELECT MIN(id) FROM suppliers WHERE name LIKE 'LT Supplier %') + g % 50,
+                       'LT-PUR-' || g,
+                       NOW() - (? * INTERVAL '1 year') - INTERVAL '7 days',
+                       0,
+                       ?
+                FROM generate_series(0, (SELECT COUNT(*) FROM variants WHERE sku LIKE 'LT-%') / 200) g
+                """, config.years(), adminId);
+
+        execute(connection, """
+                INSERT INTO purchase_items (purchase_id, variant_id, qty, unit_cost)
+                SELECT p.id, v.id, 50 + v.id % 100, v.avg_cost
+                FROM (SELECT v.id, vs.avg_cost, (ROW_NUMBER() OVER (ORDER BY v.id) - 1) / 200 AS batch
+                      FROM variants v
+                      JOIN variant_stock vs ON vs.variant_id = v.id
+                      WHERE v.sku LIKE 'LT-%') v
+                JOIN purchases p ON p.invoice_no = 'LT-PUR-' || v.batch
+                """);
+
+        execute(connection, """
+                UPDATE purchases p
+                SET total_cost = t.total
+                FROM (SELECT purchase_id, SUM(qty * unit_cost) AS total FROM purchase_items GROUP BY purchase_id) t
+                WHERE t.purchase_id = p.id AND p.invoice_no LIKE 'LT-PUR-%'
+                """);
+    }
+
+    private void seedSales(Connection connection, long adminId) throws SQLException {
+        int days = config.years() * 365;
+        int sales = days * config.salesPerDay();
+
+        // Monthly partitions for the whole history (older sales would land in the default partition)
+        execute(connection, "SELECT create_sales_partitions((NOW() - ? * INTERVAL '1 day')::date, CURRENT_DATE)", days);
+
+        execute(connection, """
+                INSERT INTO sales (bill_no, sold_at, customer_name, customer_phone, payment_mode,
+                                   subtotal, discount_percent, discount_amount, tax_percent, tax_amount,
+                                   total, profit, status, created_by)
+                SELECT 'LT' || lpad(g::text, 10, '0'),
+                       NOW() - (g::numeric / ? * ?) * INTERVAL '1 day',
+                       CASE WHEN g % 3 = 0 THEN 'Customer ' || g % 5000 END,
+                       CASE WHEN g % 3 = 0 THEN '98' || lpad((g % 5000)::text, 8, '0') END,
+                       (ARRAY['CASH', 'CARD', 'UPI', 'CREDIT'])[1 + g % 4],
+                       0, 0, 0, 0, 0, 0, 0, 'COMPLETED', ?
+                FROM generate_series(1, ?) g
+                """, sales, days, adminId, sales);
+
+        // 1-4 lines per bill, spread pseudo-randomly over the catalog
+        execute(connection, """
+                WITH ids AS (SELECT array_agg(id ORDER BY id) AS a FROM variants WHERE sku LIKE 'LT-%')
+                INSERT INTO sale_items (sale_id, sold_at, variant_id, qty, unit_price, unit_cost_at_sale, item_discount_percent)
+                SELECT s.id, s.sold_at, v.id, 1 + (s.id + i) % 3, v.selling_price, vs.avg_cost, 0
+                FROM sales s
+                CROSS JOIN ids
+                CROSS JOIN LATERAL generate_series(1, 1 + (s.id % 4)::int) i
+                JOIN variants v ON v.id = ids.a[1 + ((s.id * 7919 + i * 104729) % array_length(ids.a, 1))::int]
+                JOIN variant_stock vs ON vs.variant_id = v.id
+                WHERE s.bill_no LIKE 'LT%'
+                """);
+
+        execute(connection, """
+                UPDATE sales s
+                SET subtotal = t.amount, total = t.amount, profit = t.amount - t.cost
+                FROM (SELECT sale_id, sold_at, SUM(qty * unit_price) AS amount, SUM(qty * unit_cost_at_sale) AS cost
+                      FROM sale_items GROUP BY sale_id, sold_at) t
+                WHERE t.sale_id = s.id AND t.sold_at = s.sold_at AND s.bill_no LIKE 'LT%'
+                """);
+    }
+
+    private List<SeededVariant> loadVariants(Connection connection) throws SQLException {
+        List<SeededVariant> variants = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("""
+                     SELECT v.id, v.barcode, v.selling_price, p.name
+                     FROM variants v JOIN products p ON p.id = v.product_id
+                     WHERE v.sku LIKE 'LT-%' AND v.status = 'ACTIVE'
+                     ORDER BY v.id
+                     """)) {
+            while (rs.next()) {
+                variants.add(new SeededVariant(rs.getLong(1), rs.getString(2), rs.getBigDecimal(3), rs.getString(4)));
+            }
+        }
+        return variants;
+    }
+
+    private void execute(Connection connection, String sql, Object... params) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            statement.execute();
+        }
+    }
+}
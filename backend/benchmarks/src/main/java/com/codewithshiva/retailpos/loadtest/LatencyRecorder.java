@@ -0,0 +1,82 @@
+package com.codewithshiva.retailpos.loadtest;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Collects per-operation latencies and error counts for the measurement window.
+ * Latencies are kept raw (one long per request) so percentiles are exact; a two-minute
+ * run at a few thousand requests per second needs only a few megabytes.
+ */
+class LatencyRecorder {
+
+    record Summary(long count, long errors, double throughput, double p50Ms, double p99Ms, double maxMs) {
+    }
+
+    private final Map<Operation, Samples> samples = new EnumMap<>(Operation.class);
+    private volatile boolean recording;
+
+    LatencyRecorder() {
+        for (Operation operation : Operation.values()) {
+            samples.put(operation, new Samples());
+        }
+    }
+
+    void start() {
+        recording = true;
+    }
+
+    void stop() {
+        recording = false;
+    }
+
+    void record(Operation operation, long latencyNanos, boolean success) {
+        if (recording) {
+            samples.get(operation).add(latencyNanos, success);
+        }
+    }
+
+    Map<Operation, Summary> summarize(double elapsedSeconds) {
+        Map<Operation, Summary> result = new EnumMap<>(Operation.class);
+        samples.forEach((operation, s) -> result.put(operation, s.summarize(elapsedSeconds)));
+        return result;
+    }
+
+    private static final class Samples {
+        private long[] latencies = new long[4096];
+        private int size;
+        private long errors;
+
+        synchronized void add(long latencyNanos, boolean success) {
+            if (!success) {
+                errors++;
+                return;
+            }
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+        }
+
+        synchronized Summary summarize(double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new Summary(
+                    size,
+                    errors,
+                    elapsedSeconds > 0 ? size / elapsedSeconds : 0,
+                    percentileMs(sorted, 0.50),
+                    percentileMs(sorted, 0.99),
+                    sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1_000_000.0);
+        }
+
+        private static double percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.codewithshiva.retailpos.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Issues the workload's HTTP requests against the API, authenticating as a cashier.
+ */
+class LoadTestClient {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String apiBase;
+    private final String username;
+    private final String password;
+    private final List<CatalogSeeder.SeededVariant> variants;
+    private final ConcurrentLinkedDeque<Long> voidableSales = new ConcurrentLinkedDeque<>();
+    private volatile String accessToken;
+
+    LoadTestClient(String baseUrl, String username, String password, List<CatalogSeeder.SeededVariant> variants) {
+        this.apiBase = baseUrl.replaceAll("/$", "") + "/api/v1";
+        this.username = username;
+        this.password = password;
+        this.variants = variants;
+    }
+
+    /**
+     * A request ready to send, tagged with the operation it measures.
+     */
+    record PreparedRequest(Operation operation, HttpRequest.Builder request) {
+    }
+
+    /**
+     * Build the request for an operation. A void with no sale left to void becomes a checkout,
+     * so latencies are always recorded against the endpoint that was actually called.
+     */
+    PreparedRequest prepare(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case SCAN -> new PreparedRequest(operation, get("/variants/barcode/" + randomVariant().barcode()));
+            case SEARCH -> {
+                String name = randomVariant().productName();
+                // Prefix of a product name, e.g. "LT Product 12", matches a handful of products
+                yield new PreparedRequest(operation,
+                        get("/variants/search?limit=20&q=" + encode(name.substring(0, Math.min(name.length(), 13)))));
+            }
+            case CHECKOUT -> new PreparedRequest(operation, json("/sales", "POST", checkoutBody(random)));
+            case VOID -> {
+                Long saleId = voidableSales.pollFirst();
+                if (saleId == null) {
+                    yield prepare(Operation.CHECKOUT);
+                }
+                yield new PreparedRequest(operation, json("/sales/" + saleId + "/void", "PUT",
+                        objectMapper.createObjectNode().put("reason", "Load test void").toString()));
+            }
+            case DASHBOARD -> new PreparedRequest(operation, get("/dashboard/stats?period=today"));
+            case REPORT -> {
+                LocalDate end = LocalDate.now();
+                LocalDate start = end.minusDays(random.nextInt(7, 90));
+                yield new PreparedRequest(operation,
+                        get("/reports/sales-summary?groupBy=day&startDate=" + start + "&endDate=" + end));
+            }
+        };
+    }
+
+    /**
+     * Send a prepared request and return whether the API answered with a 2xx status.
+     */
+    boolean execute(PreparedRequest prepared) throws IOException, InterruptedException {
+        HttpResponse<String> response = send(prepared.request());
+        if (response.statusCode() == 401) {
+            // Access tokens are short-lived; log in again and retry once
+            login();
+            response = send(prepared.request().setHeader("Authorization", "Bearer " + accessToken));
+        }
+        boolean success = response.statusCode() / 100 == 2;
+        if (success && prepared.operation() == Operation.CHECKOUT) {
+            voidableSales.offer(objectMapper.readTree(response.body()).path("data").path("id").asLong());
+        }
+        return success;
+    }
+
+    synchronized void login() throws IOException, InterruptedException {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("username", username)
+                .put("password", password);
+        HttpResponse<String> response = send(HttpRequest.newBuilder(URI.create(apiBase + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString())));
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed with HTTP " + response.statusCode() + ": " + response.body());
+        }
+        accessToken = objectMapper.readTree(response.body()).path("data").path("accessToken").asText();
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String checkoutBody(ThreadLocalRandom random) {
+        ObjectNode body = objectMapper.createObjectNode().put("paymentMode", "UPI");
+        if (random.nextInt(10) == 0) {
+            body.put("discountPercent", 5);
+        }
+        ArrayNode items = body.putArray("items");
+        int lines = random.nextInt(1, 5);
+        for (int i = 0; i < lines; i++) {
+            CatalogSeeder.SeededVariant variant = randomVariant();
+            items.addObject()
+                    .put("variantId", variant.id())
+                    .put("qty", 1)
+                    .put("unitPrice", variant.sellingPrice());
+        }
+        return body.toString();
+    }
+
+    private CatalogSeeder.SeededVariant randomVariant() {
+        return variants.get(ThreadLocalRandom.current().nextInt(variants.size()));
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(URI.create(apiBase + path))
+                .header("Authorization", "Bearer " + accessToken)
+                .GET();
+    }
+
+    private HttpRequest.Builder json(String path, String method, String body) {
+        return HttpRequest.newBuilder(URI.create(apiBase + path))
+                .header("Authorization", "Bearer " + accessToken)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
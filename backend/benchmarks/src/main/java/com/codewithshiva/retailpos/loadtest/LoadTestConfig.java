@@ -0,0 +1,78 @@
+package com.codewithshiva.retailpos.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Load-test options, parsed from {@code --key=value} command line arguments.
+ *
+ * <pre>
+ * --embedded                 start an embedded PostgreSQL and boot the app in-process (default when no --base-url)
+ * --base-url=URL             target an already running app instead, e.g. http://localhost:8080
+ * --db-url/--db-user/--db-password  database of that app, used for seeding and lock-wait sampling
+ * --username/--password      login used by the virtual cashiers (default admin/admin123)
+ * --variants=50000           catalog size to seed
+ * --variants-per-product=5
+ * --years=3                  sales history to seed
+ * --sales-per-day=150
+ * --concurrency=32           concurrent virtual users
+ * --warmup=15 --duration=120 seconds
+ * --mix=scan:30,search:20,checkout:25,void:2,dashboard:15,report:8
+ * --output=target/loadtest-result.json
+ * </pre>
+ */
+record LoadTestConfig(
+        boolean embedded,
+        String baseUrl,
+        String dbUrl,
+        String dbUser,
+        String dbPassword,
+        String username,
+        String password,
+        int variants,
+        int variantsPerProduct,
+        int years,
+        int salesPerDay,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        String output) {
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+
+        String baseUrl = options.get("base-url");
+        boolean embedded = baseUrl == null || Boolean.parseBoolean(options.getOrDefault("embedded", "false"));
+
+        return new LoadTestConfig(
+                embedded,
+                baseUrl,
+                options.get("db-url"),
+                options.getOrDefault("db-user", "postgres"),
+                options.getOrDefault("db-password", "postgres"),
+                options.getOrDefault("username", "admin"),
+                options.getOrDefault("password", "admin123"),
+                Integer.parseInt(options.getOrDefault("variants", "50000")),
+                Integer.parseInt(options.getOrDefault("variants-per-product", "5")),
+                Integer.parseInt(options.getOrDefault("years", "3")),
+                Integer.parseInt(options.getOrDefault("sales-per-day", "150")),
+                Integer.parseInt(options.getOrDefault("concurrency", "32")),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15"))),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "120"))),
+                Operation.parseMix(options.getOrDefault("mix", Operation.DEFAULT_MIX)),
+                options.getOrDefault("output", "target/loadtest-result.json"));
+    }
+}
@@ -0,0 +1,194 @@
+package com.codewithshiva.retailpos.loadtest;
+
+import com.codewithshiva.retailpos.RetailposApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * End-to-end load test: boots the app against an embedded (or existing) PostgreSQL, seeds a
+ * catalog with sales history, drives a weighted mix of cashier and back-office requests from
+ * concurrent virtual users, and reports throughput, p50/p99 latency and lock waits per endpoint.
+ *
+ * <p>Run with {@code ../mvnw exec:java@loadtest -Dloadtest.args="--variants=50000 --duration=120"}.
+ * See {@link LoadTestConfig} for all options.
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+
+        EmbeddedPostgres postgres = null;
+        ConfigurableApplicationContext app = null;
+        try {
+            String baseUrl = config.baseUrl();
+            String dbUrl = config.dbUrl();
+            if (config.embedded()) {
+                postgres = EmbeddedPostgres.builder().start();
+                dbUrl = postgres.getJdbcUrl("postgres", "postgres");
+                app = bootApplication(dbUrl, config);
+                baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+            } else if (dbUrl == null) {
+                throw new IllegalArgumentException("--db-url is required with --base-url (used for seeding and lock sampling)");
+            }
+
+            List<CatalogSeeder.SeededVariant> variants = new CatalogSeeder(config, dbUrl).seed();
+            LoadTestClient client = new LoadTestClient(baseUrl, config.username(), config.password(), variants);
+            client.login();
+
+            run(config, client, dbUrl);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext bootApplication(String dbUrl, LoadTestConfig config) {
+        return new SpringApplicationBuilder(RetailposApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=" + dbUrl,
+                        "spring.datasource.username=" + config.dbUser(),
+                        "spring.datasource.password=" + config.dbPassword(),
+                        "jwt.secret=load-test-secret-key-that-is-at-least-32-characters",
+                        // Generous pool so the database, not the pool, is what saturates
+                        "spring.datasource.hikari.maximum-pool-size=" + Math.max(10, config.concurrency()),
+                        "app.backup.cron=-",
+                        "logging.level.com.codewithshiva=WARN")
+                .run();
+    }
+
+    private static void run(LoadTestConfig config, LoadTestClient client, String dbUrl) throws Exception {
+        LatencyRecorder recorder = new LatencyRecorder();
+        LockWaitSampler sampler = new LockWaitSampler(dbUrl, config.dbUser(), config.dbPassword());
+        Thread samplerThread = Thread.ofPlatform().daemon().name("lock-wait-sampler").start(sampler);
+        WriteAmplificationProbe writeProbe = new WriteAmplificationProbe(dbUrl, config.dbUser(), config.dbPassword());
+        WriteAmplificationProbe.Snapshot writesBefore;
+
+        Operation[] weighted = weightedOperations(config.mix());
+        long warmupEnd = System.nanoTime() + config.warmup().toNanos();
+        long end = warmupEnd + config.duration().toNanos();
+
+        System.out.printf("Running %d virtual users: %d s warm-up, %d s measured%n",
+                config.concurrency(), config.warmup().toSeconds(), config.duration().toSeconds());
+
+        try (ExecutorService users = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.concurrency(); i++) {
+                users.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        LoadTestClient.PreparedRequest request = client.prepare(
+                                weighted[ThreadLocalRandom.current().nextInt(weighted.length)]);
+                        long started = System.nanoTime();
+                        boolean success;
+                        try {
+                            success = client.execute(request);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return null;
+                        } catch (Exception e) {
+                            success = false;
+                        }
+                        recorder.record(request.operation(), System.nanoTime() - started, success);
+                    }
+                    return null;
+                });
+            }
+
+            Thread.sleep(config.warmup().toMillis());
+            writesBefore = writeProbe.snapshot();
+            recorder.start();
+            sampler.startRecording();
+        }
+        recorder.stop();
+        sampler.stop();
+        samplerThread.join();
+        WriteAmplificationProbe.Snapshot writesAfter = writeProbe.snapshotAfterFlush();
+
+        report(config, recorder.summarize(config.duration().toSeconds()), sampler, writesBefore, writesAfter);
+    }
+
+    private static Operation[] weightedOperations(Map<Operation, Integer> mix) {
+        List<Operation> operations = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                operations.add(operation);
+            }
+        });
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("Workload mix is empty");
+        }
+        return operations.toArray(Operation[]::new);
+    }
+
+    private static void report(LoadTestConfig config, Map<Operation, LatencyRecorder.Summary> summaries,
+                               LockWaitSampler sampler, WriteAmplificationProbe.Snapshot writesBefore,
+                               WriteAmplificationProbe.Snapshot writesAfter) throws Exception {
+        Map<String, Long> lockWaits = sampler.lockWaitMillis();
+
+        System.out.println();
+        System.out.printf("%-34s %9s %7s %9s %9s %9s %9s %12s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p99 ms", "Max ms", "Lock wait ms");
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        summaries.forEach((operation, summary) -> {
+            long lockWaitMs = lockWaits.getOrDefault(operation.endpoint(), 0L);
+            System.out.printf("%-34s %9d %7d %9.1f %9.2f %9.2f %9.2f %12d%n",
+                    operation.endpoint(), summary.count(), summary.errors(), summary.throughput(),
+                    summary.p50Ms(), summary.p99Ms(), summary.maxMs(), lockWaitMs);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("requests", summary.count());
+            entry.put("errors", summary.errors());
+            entry.put("throughputPerSecond", summary.throughput());
+            entry.put("p50Ms", summary.p50Ms());
+            entry.put("p99Ms", summary.p99Ms());
+            entry.put("maxMs", summary.maxMs());
+            entry.put("lockWaitMs", lockWaitMs);
+            endpoints.put(operation.endpoint(), entry);
+        });
+
+        Map<String, Long> unattributed = new LinkedHashMap<>(lockWaits);
+        for (Operation operation : Operation.values()) {
+            unattributed.remove(operation.endpoint());
+        }
+        if (!unattributed.isEmpty()) {
+            System.out.println();
+            System.out.println("Lock waits not attributed to an endpoint:");
+            unattributed.forEach((statement, ms) -> System.out.printf("  %6d ms  %s%n", ms, statement));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("concurrency", config.concurrency());
+        result.put("durationSeconds", config.duration().toSeconds());
+        result.put("variants", config.variants());
+        result.put("lockWaitSamples", sampler.sampleCount());
+        result.put("endpoints", endpoints);
+        result.put("unattributedLockWaitsMs", unattributed);
+        result.put("writes", WriteAmplificationProbe.report(
+                writesBefore, writesAfter, summaries.get(Operation.CHECKOUT).count()));
+
+        File output = new File(config.output());
+        if (output.getParentFile() != null) {
+            output.getParentFile().mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, result);
+        System.out.println();
+        System.out.println("Results written to " + output.getAbsolutePath());
+    }
+}
@@ -0,0 +1,110 @@
+package com.codewithshiva.retailpos.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Samples {@code pg_stat_activity} on its own connection to find backends waiting on
+ * heavyweight locks. Each sample is attributed to the endpoint whose SQL is waiting,
+ * using the statements each endpoint is known to issue; unmatched waits are reported
+ * under their (truncated) statement text.
+ */
+class LockWaitSampler implements Runnable {
+
+    private static final long SAMPLE_INTERVAL_MS = 50;
+
+    /** Statement fragments that identify which endpoint issued a waiting query. */
+    private static final Map<String, Operation> STATEMENT_OWNERS = new LinkedHashMap<>();
+
+    static {
+        STATEMENT_OWNERS.put("decrease_variant_stock_on_sale", Operation.CHECKOUT);
+        STATEMENT_OWNERS.put("generate_bill_number", Operation.CHECKOUT);
+        STATEMENT_OWNERS.put("INSERT INTO sale", Operation.CHECKOUT);
+        STATEMENT_OWNERS.put("restore_stock_on_void", Operation.VOID);
+        STATEMENT_OWNERS.put("UPDATE sales", Operation.VOID);
+    }
+
+    private final String dbUrl;
+    private final String dbUser;
+    private final String dbPassword;
+    private final Map<String, LongAdder> waitsByOwner = new ConcurrentHashMap<>();
+    private final LongAdder samples = new LongAdder();
+    private volatile boolean running = true;
+    private volatile boolean recording;
+
+    LockWaitSampler(String dbUrl, String dbUser, String dbPassword) {
+        this.dbUrl = dbUrl;
+        this.dbUser = dbUser;
+        this.dbPassword = dbPassword;
+    }
+
+    void startRecording() {
+        recording = true;
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    /**
+     * Lock waits per endpoint, expressed as milliseconds of backend time spent waiting
+     * (samples x sample interval).
+     */
+    Map<String, Long> lockWaitMillis() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        waitsByOwner.forEach((owner, count) -> result.put(owner, count.sum() * SAMPLE_INTERVAL_MS));
+        return result;
+    }
+
+    long sampleCount() {
+        return samples.sum();
+    }
+
+    @Override
+    public void run() {
+        try (Connection connection = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+             PreparedStatement statement = connection.prepareStatement("""
+                     SELECT query
+                     FROM pg_stat_activity
+                     WHERE wait_event_type = 'Lock'
+                       AND datname = current_database()
+                       AND pid <> pg_backend_pid()
+                     """)) {
+            while (running) {
+                if (recording) {
+                    samples.increment();
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            waitsByOwner.computeIfAbsent(ownerOf(rs.getString(1)), key -> new LongAdder()).increment();
+                        }
+                    }
+                }
+                Thread.sleep(SAMPLE_INTERVAL_MS);
+            }
+        } catch (SQLException e) {
+            System.err.println("Lock-wait sampling stopped: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String ownerOf(String query) {
+        if (query == null) {
+            return "unknown";
+        }
+        for (Map.Entry<String, Operation> entry : STATEMENT_OWNERS.entrySet()) {
+            if (query.contains(entry.getKey())) {
+                return entry.getValue().endpoint();
+            }
+        }
+        String compact = query.replaceAll("\\s+", " ").trim();
+        return "SQL: " + (compact.length() > 80 ? compact.substring(0, 80) + "..." : compact);
+    }
+}
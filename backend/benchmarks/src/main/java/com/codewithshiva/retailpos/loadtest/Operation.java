@@ -0,0 +1,40 @@
+package com.codewithshiva.retailpos.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The request types a virtual user issues, named after the endpoints they hit.
+ */
+enum Operation {
+    SCAN("GET /variants/barcode/{barcode}"),
+    SEARCH("GET /variants/search"),
+    CHECKOUT("POST /sales"),
+    VOID("PUT /sales/{id}/void"),
+    DASHBOARD("GET /dashboard/stats"),
+    REPORT("GET /reports/sales-summary");
+
+    static final String DEFAULT_MIX = "scan:30,search:20,checkout:25,void:2,dashboard:15,report:8";
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,115 @@
+package com.codewithshiva.retailpos.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the write cost of the measured window: WAL generated (from {@code pg_current_wal_lsn})
+ * and, per table, row updates, how many of them were HOT, new dead tuples and growth in size.
+ * Compare WAL per checkout and the HOT share of stock updates across builds to see catalog bloat.
+ */
+class WriteAmplificationProbe {
+
+    /** Tables written on every checkout, void or purchase. */
+    private static final List<String> TABLES = List.of("variants", "variant_stock", "variant_stock_stripes", "low_stock_variants", "inventory_valuation");
+
+    /** Table statistics are flushed by backends asynchronously (at most once a second). */
+    private static final long STATS_FLUSH_WAIT_MS = 1_500;
+
+    record TableStats(long updates, long hotUpdates, long deadTuples, long totalBytes) {
+    }
+
+    record Snapshot(long walLsnBytes, Map<String, TableStats> tables) {
+    }
+
+    private final String dbUrl;
+    private final String dbUser;
+    private final String dbPassword;
+
+    WriteAmplificationProbe(String dbUrl, String dbUser, String dbPassword) {
+        this.dbUrl = dbUrl;
+        this.dbUser = dbUser;
+        this.dbPassword = dbPassword;
+    }
+
+    /**
+     * Snapshot after giving backends time to flush their table statistics.
+     */
+    Snapshot snapshotAfterFlush() throws SQLException, InterruptedException {
+        Thread.sleep(STATS_FLUSH_WAIT_MS);
+        return snapshot();
+    }
+
+    Snapshot snapshot() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(dbUrl, dbUser, dbPassword)) {
+            long walLsnBytes;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')::BIGINT");
+                 ResultSet rs = statement.executeQuery()) {
+                rs.next();
+                walLsnBytes = rs.getLong(1);
+            }
+
+            Map<String, TableStats> tables = new LinkedHashMap<>();
+            try (PreparedStatement statement = connection.prepareStatement("""
+                    SELECT n_tup_upd, n_tup_hot_upd, n_dead_tup, pg_total_relation_size(relid)
+                    FROM pg_stat_user_tables
+                    WHERE schemaname = current_schema() AND relname = ?
+                    """)) {
+                for (String table : TABLES) {
+                    statement.setString(1, table);
+                    try (ResultSet rs = statement.executeQuery()) {
+                        if (rs.next()) {
+                            tables.put(table, new TableStats(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4)));
+                        }
+                    }
+                }
+            }
+            return new Snapshot(walLsnBytes, tables);
+        }
+    }
+
+    /**
+     * Print the difference between two snapshots and return it for the JSON result.
+     */
+    static Map<String, Object> report(Snapshot before, Snapshot after, long checkouts) {
+        long walBytes = after.walLsnBytes() - before.walLsnBytes();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("walBytes", walBytes);
+        result.put("walBytesPerCheckout", checkouts > 0 ? walBytes / checkouts : 0);
+
+        System.out.println();
+        System.out.printf("WAL written: %d KiB (%d bytes per checkout)%n",
+                walBytes / 1024, checkouts > 0 ? walBytes / checkouts : 0);
+        System.out.printf("%-22s %10s %10s %7s %10s %12s%n",
+                "Table", "Updates", "HOT", "HOT %", "Dead rows", "Growth KiB");
+
+        Map<String, Object> tables = new LinkedHashMap<>();
+        after.tables().forEach((table, end) -> {
+            TableStats start = before.tables().getOrDefault(table, new TableStats(0, 0, 0, 0));
+            long updates = end.updates() - start.updates();
+            long hotUpdates = end.hotUpdates() - start.hotUpdates();
+            long deadTuples = end.deadTuples() - start.deadTuples();
+            long growthBytes = end.totalBytes() - start.totalBytes();
+            double hotPercent = updates > 0 ? hotUpdates * 100.0 / updates : 0;
+            System.out.printf("%-22s %10d %10d %7.1f %10d %12d%n",
+                    table, updates, hotUpdates, hotPercent, deadTuples, growthBytes / 1024);
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("updates", updates);
+            entry.put("hotUpdates", hotUpdates);
+            entry.put("hotPercent", hotPercent);
+            entry.put("deadTuples", deadTuples);
+            entry.put("growthBytes", growthBytes);
+            tables.put(table, entry);
+        });
+        result.put("tables", tables);
+        return result;
+    }
+}
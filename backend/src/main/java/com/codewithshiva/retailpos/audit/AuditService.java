@@ -1,5 +1,7 @@
 package com.codewithshiva.retailpos.audit;
 
+import com.codewithshiva.retailpos.datasource.ConnectionWorkload;
+import com.codewithshiva.retailpos.datasource.Workload;
 import com.codewithshiva.retailpos.security.CustomUserDetails;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -33,6 +35,7 @@ public class AuditService {
      * @param ipAddress   The client IP address (captured from AuditContext before async call)
      */
     @Async
+    @ConnectionWorkload(Workload.AUDIT)
     public void logAsync(EntityType entityType, Long entityId, AuditAction action, 
                          String description, Long userId, String username, String ipAddress) {
         try {
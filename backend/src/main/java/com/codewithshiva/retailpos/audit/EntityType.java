@@ -11,5 +11,6 @@ public enum EntityType {
     PURCHASE,
     SUPPLIER,
     STOCK_ADJUSTMENT,
+    STOCK_TAKE,
     SETTINGS
 }
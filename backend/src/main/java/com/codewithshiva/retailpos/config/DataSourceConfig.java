@@ -0,0 +1,106 @@
+package com.codewithshiva.retailpos.config;
+
+import com.codewithshiva.retailpos.datasource.ConnectionPools;
+import com.codewithshiva.retailpos.datasource.ReplicaHealth;
+import com.codewithshiva.retailpos.datasource.RoutingDataSource;
+import com.codewithshiva.retailpos.datasource.Workload;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Connection pools, one per workload (see {@link Workload}), replacing Spring Boot's single pool.
+ * With app.datasource.replica.enabled, read-only transactions (reports, dashboards, lists) run
+ * on the same set of pools against the read replica; writes, migrations and anything outside a
+ * transaction stay on the primary. The low stock tracker's long-lived LISTEN connection is opened
+ * outside these pools.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class DataSourceConfig {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    @Bean
+    public ConnectionPools primaryConnectionPools(DataSourceProperties properties) {
+        return new ConnectionPools(workload -> pool("primary", workload, properties.determineDriverClassName(),
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public ConnectionPools replicaConnectionPools(
+            DataSourceProperties properties,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username}") String username,
+            @Value("${app.datasource.replica.password}") String password,
+            @Value("${app.datasource.replica.connection-timeout-ms:2000}") long connectionTimeoutMs) {
+        return new ConnectionPools(workload -> {
+            HikariDataSource pool = pool("replica", workload, properties.determineDriverClassName(),
+                    url, username, password);
+            pool.setReadOnly(true);
+            // Fail fast so a down replica falls back to the primary instead of stalling reads
+            pool.setConnectionTimeout(connectionTimeoutMs);
+            // Start even when the replica is down; the health check brings it in later
+            pool.setInitializationFailTimeout(-1);
+            return pool;
+        });
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public ReplicaHealth replicaHealth(@Qualifier("replicaConnectionPools") ConnectionPools replicaConnectionPools,
+                                       @Value("${app.datasource.replica.max-lag-seconds:30}") double maxLagSeconds) {
+        return new ReplicaHealth(replicaConnectionPools.get(Workload.BACKGROUND), maxLagSeconds);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryConnectionPools") ConnectionPools primaryConnectionPools,
+                                 @Qualifier("replicaConnectionPools") ObjectProvider<ConnectionPools> replicaConnectionPools,
+                                 ObjectProvider<ReplicaHealth> replicaHealth,
+                                 @Value("${app.datasource.replica.sticky-seconds:10}") long stickySeconds) {
+        ConnectionPools replica = replicaConnectionPools.getIfAvailable();
+        RoutingDataSource routing = replica == null
+                ? new RoutingDataSource(primaryConnectionPools)
+                : new RoutingDataSource(primaryConnectionPools, replica, replicaHealth.getObject(), stickySeconds * 1000);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Pool of one workload, sized by {@code app.datasource.pools.<workload>.*} and named
+     * {@code <target>-<workload>} (the pool tag of its hikaricp.* metrics).
+     */
+    private HikariDataSource pool(String target, Workload workload, String driverClassName,
+                                  String url, String username, String password) {
+        String prefix = "app.datasource.pools." + workload.getKey();
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(driverClassName)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        pool.setPoolName(target + "-" + workload.getKey());
+        pool.setMaximumPoolSize(environment.getProperty(prefix + ".maximum-pool-size", Integer.class,
+                workload.getDefaultPoolSize()));
+        pool.setConnectionTimeout(environment.getProperty(prefix + ".connection-timeout-ms", Long.class,
+                workload.getDefaultConnectionTimeoutMs()));
+        pool.setMetricRegistry(meterRegistry);
+        return pool;
+    }
+}
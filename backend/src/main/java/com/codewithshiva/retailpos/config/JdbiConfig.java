@@ -1,21 +1,31 @@
 package com.codewithshiva.retailpos.config;
 
 import com.codewithshiva.retailpos.audit.AuditDao;
+import com.codewithshiva.retailpos.dao.CatalogImportDao;
 import com.codewithshiva.retailpos.dao.DashboardDao;
 import com.codewithshiva.retailpos.dao.InventoryDao;
+import com.codewithshiva.retailpos.dao.InventorySnapshotDao;
+import com.codewithshiva.retailpos.dao.InventoryValuationDao;
 import com.codewithshiva.retailpos.dao.LookupDao;
+import com.codewithshiva.retailpos.dao.PriceRevisionDao;
 import com.codewithshiva.retailpos.dao.ProductDao;
 import com.codewithshiva.retailpos.dao.PurchaseDao;
 import com.codewithshiva.retailpos.dao.RefreshTokenDao;
 import com.codewithshiva.retailpos.dao.ReportDao;
 import com.codewithshiva.retailpos.dao.SaleDao;
+import com.codewithshiva.retailpos.dao.SalesPartitionDao;
 import com.codewithshiva.retailpos.dao.SettingsDao;
+import com.codewithshiva.retailpos.dao.StockTakeDao;
 import com.codewithshiva.retailpos.dao.SupplierDao;
 import com.codewithshiva.retailpos.dao.UserDao;
 import com.codewithshiva.retailpos.dao.VariantDao;
+import com.codewithshiva.retailpos.dao.VariantStatsDao;
+import com.codewithshiva.retailpos.dao.VariantStockDao;
 import com.codewithshiva.retailpos.model.Role;
+import com.codewithshiva.retailpos.profiling.SqlProfiler;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.mapper.ColumnMapper;
+import org.jdbi.v3.core.statement.SqlStatements;
 import org.jdbi.v3.core.statement.StatementContext;
 import org.jdbi.v3.postgres.PostgresPlugin;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
@@ -25,6 +35,7 @@ import org.springframework.jdbc.datasource.DataSourceTransactionManager;
 import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
 
 import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
@@ -35,7 +46,7 @@ import java.sql.SQLException;
 public class JdbiConfig {
 
     @Bean
-    public Jdbi jdbi(DataSource dataSource) {
+    public Jdbi jdbi(DataSource dataSource, SqlProfiler sqlProfiler) {
         // Wrap datasource to make it Spring transaction-aware
         TransactionAwareDataSourceProxy proxy = new TransactionAwareDataSourceProxy(dataSource);
         
@@ -48,6 +59,12 @@ public class JdbiConfig {
         
         // Register column mapper for Role enum
         jdbi.registerColumnMapper(Role.class, new RoleMapper());
+
+        // Bind BigDecimal[] as numeric[] (multi-row inserts via unnest)
+        jdbi.registerArrayType(BigDecimal.class, "numeric");
+
+        // Profile statement counts/timings for slow-query and N+1 detection
+        jdbi.getConfig(SqlStatements.class).setSqlLogger(sqlProfiler);
         
         return jdbi;
     }
@@ -81,6 +98,41 @@ public class JdbiConfig {
         return jdbi.onDemand(VariantDao.class);
     }
 
+    @Bean
+    public VariantStatsDao variantStatsDao(Jdbi jdbi) {
+        return jdbi.onDemand(VariantStatsDao.class);
+    }
+
+    @Bean
+    public InventoryValuationDao inventoryValuationDao(Jdbi jdbi) {
+        return jdbi.onDemand(InventoryValuationDao.class);
+    }
+
+    @Bean
+    public VariantStockDao variantStockDao(Jdbi jdbi) {
+        return jdbi.onDemand(VariantStockDao.class);
+    }
+
+    @Bean
+    public InventorySnapshotDao inventorySnapshotDao(Jdbi jdbi) {
+        return jdbi.onDemand(InventorySnapshotDao.class);
+    }
+
+    @Bean
+    public StockTakeDao stockTakeDao(Jdbi jdbi) {
+        return jdbi.onDemand(StockTakeDao.class);
+    }
+
+    @Bean
+    public CatalogImportDao catalogImportDao(Jdbi jdbi) {
+        return jdbi.onDemand(CatalogImportDao.class);
+    }
+
+    @Bean
+    public PriceRevisionDao priceRevisionDao(Jdbi jdbi) {
+        return jdbi.onDemand(PriceRevisionDao.class);
+    }
+
     @Bean
     public SupplierDao supplierDao(Jdbi jdbi) {
         return jdbi.onDemand(SupplierDao.class);
@@ -101,6 +153,11 @@ public class JdbiConfig {
         return jdbi.onDemand(SaleDao.class);
     }
 
+    @Bean
+    public SalesPartitionDao salesPartitionDao(Jdbi jdbi) {
+        return jdbi.onDemand(SalesPartitionDao.class);
+    }
+
     @Bean
     public DashboardDao dashboardDao(Jdbi jdbi) {
         return jdbi.onDemand(DashboardDao.class);
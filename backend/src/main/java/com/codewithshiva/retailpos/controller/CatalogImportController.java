@@ -0,0 +1,70 @@
+package com.codewithshiva.retailpos.controller;
+
+import com.codewithshiva.retailpos.dto.ApiResponse;
+import com.codewithshiva.retailpos.dto.product.CatalogImportResponse;
+import com.codewithshiva.retailpos.dto.product.CatalogImportRowRequest;
+import com.codewithshiva.retailpos.exception.BadRequestException;
+import com.codewithshiva.retailpos.security.CustomUserDetails;
+import com.codewithshiva.retailpos.service.CatalogImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Controller for bulk catalog import. Admin only.
+ * Each row is a variant with its product's name, brand, category and HSN; products are
+ * created or updated by name and brand, variants by SKU.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/products/import")
+@RequiredArgsConstructor
+@Tag(name = "Catalog Import", description = "Bulk create and update of products and variants (Admin only)")
+public class CatalogImportController {
+
+    private final CatalogImportService catalogImportService;
+
+    @PostMapping(consumes = "text/csv")
+    @Operation(summary = "Import CSV", description = "Stream a CSV with a header row; valid rows are imported, rejected rows reported")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CatalogImportResponse>> importCsv(
+            HttpServletRequest request,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        log.info("Catalog CSV import request - dryRun: {}", dryRun);
+        try (Reader csv = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            CatalogImportResponse result = catalogImportService.importCsv(csv, dryRun, userDetails.getUserId());
+            return ResponseEntity.ok(ApiResponse.success(result));
+        } catch (IOException e) {
+            throw new BadRequestException("INVALID_CSV", "Failed to read CSV: " + e.getMessage());
+        }
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Import JSON", description = "Import an array of rows; valid rows are imported, rejected rows reported")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<CatalogImportResponse>> importJson(
+            @RequestBody List<CatalogImportRowRequest> rows,
+            @RequestParam(defaultValue = "false") boolean dryRun,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        log.info("Catalog JSON import request - rows: {}, dryRun: {}", rows.size(), dryRun);
+        CatalogImportResponse result = catalogImportService.importRows(rows, dryRun, userDetails.getUserId());
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+}
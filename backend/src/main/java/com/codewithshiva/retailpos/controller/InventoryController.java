@@ -49,14 +49,28 @@ public class InventoryController {
             @PathVariable Long variantId,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam(required = false) String type) {
-        log.debug("Get stock movements request for variant ID: {} with filters - startDate: {}, endDate: {}, type: {}", 
-                variantId, startDate, endDate, type);
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Get stock movements request for variant ID: {} with filters - startDate: {}, endDate: {}, type: {}, beforeId: {}, limit: {}", 
+                variantId, startDate, endDate, type, beforeId, limit);
         List<StockMovementResponse> movements = inventoryService.getStockMovements(
-                variantId, startDate, endDate, type);
+                variantId, startDate, endDate, type, beforeId, limit);
         return ResponseEntity.ok(ApiResponse.success(movements));
     }
 
+    @GetMapping("/stock/{variantId}")
+    @Operation(summary = "Get Stock As Of Date", description = "Get a variant's stock at the end of a given date")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
+    public ResponseEntity<ApiResponse<StockAsOfResponse>> getStockAsOf(
+            @PathVariable Long variantId,
+            @RequestParam String date) {
+        log.debug("Get stock as of {} request for variant ID: {}", date, variantId);
+        StockAsOfResponse stock = inventoryService.getStockAsOf(variantId, date);
+        return ResponseEntity.ok(ApiResponse.success(stock));
+    }
+
     @GetMapping("/suppliers/{variantId}")
     @Operation(summary = "Get Supplier Summary", description = "Get all suppliers who have supplied a particular variant")
     @SecurityRequirement(name = "bearerAuth")
@@ -32,7 +32,9 @@ public class ProductController {
     private final ProductService productService;
 
     @GetMapping
-    @Operation(summary = "List Products", description = "Get all products with optional filters and pagination")
+    @Operation(summary = "List Products", description = "Get products with optional filters. Paged and sorted in the database: "
+            + "page/size for OFFSET pages, or cursor (nextCursor of the previous page) for keyset paging; "
+            + "sort is name, brand, category, createdAt or updatedAt with optional ,asc/,desc; count=false skips the total.")
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<ApiResponse<PagedResponse<ProductResponse>>> listProducts(
             @RequestParam(required = false) String category,
@@ -40,14 +42,29 @@ public class ProductController {
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "false") boolean includeInactive,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        log.debug("List products request - category: {}, brand: {}, search: {}, includeInactive: {}, page: {}, size: {}",
-                category, brand, search, includeInactive, page, size);
-        List<ProductResponse> products = productService.listProducts(category, brand, search, includeInactive);
-        PagedResponse<ProductResponse> pagedResponse = PagedResponse.of(products, page, size);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
+        log.debug("List products request - category: {}, brand: {}, search: {}, includeInactive: {}, page: {}, size: {}, sort: {}",
+                category, brand, search, includeInactive, page, size, sort);
+        PagedResponse<ProductResponse> pagedResponse = productService.listProducts(
+                category, brand, search, includeInactive, page, size, sort, cursor, count);
         return ResponseEntity.ok(ApiResponse.success(pagedResponse));
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search Products", description = "Ranked search of active products by name, brand, category or HSN. "
+            + "Words match as prefixes (name weighs most); misspelt words fall back to trigram similarity.")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<ApiResponse<List<ProductResponse>>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Search products request - q: {}, limit: {}", q, limit);
+        List<ProductResponse> products = productService.searchProducts(q, limit);
+        return ResponseEntity.ok(ApiResponse.success(products));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get Product by ID", description = "Get product with all its variants")
     @SecurityRequirement(name = "bearerAuth")
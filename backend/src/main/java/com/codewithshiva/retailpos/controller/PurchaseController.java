@@ -1,6 +1,7 @@
 package com.codewithshiva.retailpos.controller;
 
 import com.codewithshiva.retailpos.dto.ApiResponse;
+import com.codewithshiva.retailpos.dto.PagedResponse;
 import com.codewithshiva.retailpos.dto.purchase.CreatePurchaseRequest;
 import com.codewithshiva.retailpos.dto.purchase.PurchaseDetailResponse;
 import com.codewithshiva.retailpos.dto.purchase.PurchaseListResponse;
@@ -21,8 +22,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * Controller for purchase management endpoints.
  * All endpoints require ADMIN role.
@@ -38,17 +37,24 @@ public class PurchaseController {
     private final PurchaseService purchaseService;
 
     @GetMapping
-    @Operation(summary = "List Purchases", description = "Get all purchases with optional filters")
+    @Operation(summary = "List Purchases", description = "Get purchases with optional filters. Paged and sorted in the database: "
+            + "page/size for OFFSET pages, or cursor (nextCursor of the previous page) for keyset paging; "
+            + "sort is purchasedAt, createdAt or totalCost with optional ,asc/,desc; count=false skips the total.")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<ApiResponse<List<PurchaseListResponse>>> listPurchases(
+    public ResponseEntity<ApiResponse<PagedResponse<PurchaseListResponse>>> listPurchases(
             @RequestParam(required = false) Long supplierId,
             @RequestParam(required = false) String startDate,
             @RequestParam(required = false) String endDate,
-            @RequestParam(required = false) String search) {
-        log.debug("List purchases request - supplierId: {}, startDate: {}, endDate: {}, search: {}", 
-                supplierId, startDate, endDate, search);
-        List<PurchaseListResponse> purchases = purchaseService.listPurchases(
-                supplierId, startDate, endDate, search);
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
+        log.debug("List purchases request - supplierId: {}, startDate: {}, endDate: {}, search: {}, page: {}, size: {}, sort: {}", 
+                supplierId, startDate, endDate, search, page, size, sort);
+        PagedResponse<PurchaseListResponse> purchases = purchaseService.listPurchases(
+                supplierId, startDate, endDate, search, page, size, sort, cursor, count);
         return ResponseEntity.ok(ApiResponse.success(purchases));
     }
 
@@ -85,6 +85,19 @@ public class ReportController {
         return ResponseEntity.ok(ApiResponse.success(report));
     }
 
+    @GetMapping("/inventory-valuation/as-of")
+    @Operation(summary = "Inventory Valuation As Of Date",
+            description = "Get inventory valuation at the end of a past day, from the nearest snapshot plus later movements")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<ApiResponse<InventoryValuationReport>> getInventoryValuationAsOf(
+            @RequestParam String date,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String brand) {
+        log.info("Inventory valuation as-of request - date: {}, category: {}, brand: {}", date, category, brand);
+        InventoryValuationReport report = reportService.getInventoryValuationAsOf(date, category, brand);
+        return ResponseEntity.ok(ApiResponse.success(report));
+    }
+
     @GetMapping("/low-stock")
     @Operation(summary = "Low Stock Report", description = "Get detailed low stock and reorder suggestions")
     @SecurityRequirement(name = "bearerAuth")
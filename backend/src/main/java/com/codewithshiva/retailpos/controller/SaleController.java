@@ -55,6 +55,17 @@ public class SaleController {
         return ResponseEntity.ok(ApiResponse.success(pagedResponse));
     }
 
+    @GetMapping("/search")
+    @Operation(summary = "Search Sales", description = "Find sales by bill number, customer phone (ending in the term) or customer name. Exact bill number matches come first, then phone, then name.")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<ApiResponse<List<SaleListResponse>>> searchSales(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        log.debug("Search sales request - q: {}, limit: {}", q, limit);
+        List<SaleListResponse> sales = saleService.searchSales(q, limit);
+        return ResponseEntity.ok(ApiResponse.success(sales));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get Sale by ID", description = "Get sale with all items")
     @SecurityRequirement(name = "bearerAuth")
@@ -64,6 +75,15 @@ public class SaleController {
         return ResponseEntity.ok(ApiResponse.success(sale));
     }
 
+    @PostMapping("/quote")
+    @Operation(summary = "Quote Sale", description = "Price a cart with current prices, discounts and tax without creating a sale. Returns a snapshot version to pass to Create Sale.")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<ApiResponse<SaleQuoteResponse>> quoteSale(@Valid @RequestBody QuoteSaleRequest request) {
+        log.debug("Quote sale request with {} items", request.getItems().size());
+        SaleQuoteResponse quote = saleService.quoteSale(request);
+        return ResponseEntity.ok(ApiResponse.success(quote));
+    }
+
     @PostMapping
     @Operation(summary = "Create Sale", description = "Create a new sale. Generates bill number, deducts stock, and calculates profit.")
     @SecurityRequirement(name = "bearerAuth")
@@ -0,0 +1,113 @@
+package com.codewithshiva.retailpos.controller;
+
+import com.codewithshiva.retailpos.dto.ApiResponse;
+import com.codewithshiva.retailpos.dto.inventory.*;
+import com.codewithshiva.retailpos.security.CustomUserDetails;
+import com.codewithshiva.retailpos.service.StockTakeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Controller for physical stock take endpoints.
+ * Scanning is open to employees; starting, applying and cancelling require ADMIN role.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/inventory/stock-takes")
+@RequiredArgsConstructor
+@Tag(name = "Stock Takes", description = "Physical stock count sessions and reconciliation")
+public class StockTakeController {
+
+    private final StockTakeService stockTakeService;
+
+    @GetMapping
+    @Operation(summary = "List Stock Takes", description = "Get the most recent stock takes, optionally by status")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
+    public ResponseEntity<ApiResponse<List<StockTakeResponse>>> getStockTakes(
+            @RequestParam(required = false) String status) {
+        log.debug("Get stock takes request - status: {}", status);
+        List<StockTakeResponse> stockTakes = stockTakeService.getStockTakes(status);
+        return ResponseEntity.ok(ApiResponse.success(stockTakes));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get Stock Take", description = "Get a stock take and the number of barcodes scanned so far")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
+    public ResponseEntity<ApiResponse<StockTakeResponse>> getStockTake(@PathVariable Long id) {
+        log.debug("Get stock take request for ID: {}", id);
+        StockTakeResponse stockTake = stockTakeService.getStockTake(id);
+        return ResponseEntity.ok(ApiResponse.success(stockTake));
+    }
+
+    @PostMapping
+    @Operation(summary = "Start Stock Take", description = "Open a count session for all stock or a category/brand")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<StockTakeResponse>> startStockTake(
+            @Valid @RequestBody CreateStockTakeRequest request,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        log.info("Start stock take request - category: {}, brand: {}", request.getCategory(), request.getBrand());
+        StockTakeResponse stockTake = stockTakeService.startStockTake(request, userDetails.getUserId());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success(stockTake, "Stock take started"));
+    }
+
+    @PostMapping("/{id}/scans")
+    @Operation(summary = "Record Scans", description = "Add a batch of barcode counts to an open stock take")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAnyRole('ADMIN','EMPLOYEE')")
+    public ResponseEntity<ApiResponse<StockTakeResponse>> recordScans(
+            @PathVariable Long id,
+            @Valid @RequestBody StockTakeScanRequest request) {
+        log.debug("Record {} scans for stock take ID: {}", request.getScans().size(), id);
+        StockTakeResponse stockTake = stockTakeService.recordScans(id, request);
+        return ResponseEntity.ok(ApiResponse.success(stockTake));
+    }
+
+    @GetMapping("/{id}/variances")
+    @Operation(summary = "Preview Variances", description = "Compare the counts so far with system stock")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<StockTakeVarianceResponse>> getVariances(@PathVariable Long id) {
+        log.info("Preview variances request for stock take ID: {}", id);
+        StockTakeVarianceResponse variances = stockTakeService.getVariances(id);
+        return ResponseEntity.ok(ApiResponse.success(variances));
+    }
+
+    @PostMapping("/{id}/apply")
+    @Operation(summary = "Apply Stock Take", description = "Adjust stock of every variance to the counted quantity")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<StockTakeResponse>> applyStockTake(
+            @PathVariable Long id,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        log.info("Apply stock take request for ID: {}", id);
+        StockTakeResponse stockTake = stockTakeService.applyStockTake(id, userDetails.getUserId());
+        return ResponseEntity.ok(ApiResponse.success(stockTake, "Stock take applied successfully"));
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Cancel Stock Take", description = "Discard an open stock take without adjusting stock")
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<StockTakeResponse>> cancelStockTake(
+            @PathVariable Long id,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        log.info("Cancel stock take request for ID: {}", id);
+        StockTakeResponse stockTake = stockTakeService.cancelStockTake(id, userDetails.getUserId());
+        return ResponseEntity.ok(ApiResponse.success(stockTake, "Stock take cancelled"));
+    }
+}
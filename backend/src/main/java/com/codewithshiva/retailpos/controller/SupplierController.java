@@ -1,6 +1,7 @@
 package com.codewithshiva.retailpos.controller;
 
 import com.codewithshiva.retailpos.dto.ApiResponse;
+import com.codewithshiva.retailpos.dto.PagedResponse;
 import com.codewithshiva.retailpos.dto.supplier.CreateSupplierRequest;
 import com.codewithshiva.retailpos.dto.supplier.SupplierResponse;
 import com.codewithshiva.retailpos.dto.supplier.UpdateSupplierRequest;
@@ -18,8 +19,6 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 /**
  * Controller for supplier management endpoints.
  * All endpoints require ADMIN role.
@@ -35,12 +34,19 @@ public class SupplierController {
     private final SupplierService supplierService;
 
     @GetMapping
-    @Operation(summary = "List Suppliers", description = "Get all suppliers with optional search filter")
+    @Operation(summary = "List Suppliers", description = "Get active suppliers with optional search filter. Paged and sorted in the database: "
+            + "page/size for OFFSET pages, or cursor (nextCursor of the previous page) for keyset paging; "
+            + "sort is name or createdAt with optional ,asc/,desc; count=false skips the total.")
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<ApiResponse<List<SupplierResponse>>> listSuppliers(
-            @RequestParam(required = false) String search) {
-        log.debug("List suppliers request - search: {}", search);
-        List<SupplierResponse> suppliers = supplierService.listSuppliers(search);
+    public ResponseEntity<ApiResponse<PagedResponse<SupplierResponse>>> listSuppliers(
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
+        log.debug("List suppliers request - search: {}, page: {}, size: {}, sort: {}", search, page, size, sort);
+        PagedResponse<SupplierResponse> suppliers = supplierService.listSuppliers(search, page, size, sort, cursor, count);
         return ResponseEntity.ok(ApiResponse.success(suppliers));
     }
 
@@ -4,6 +4,7 @@ import com.codewithshiva.retailpos.dto.ApiResponse;
 import com.codewithshiva.retailpos.dto.PagedResponse;
 import com.codewithshiva.retailpos.dto.variant.*;
 import com.codewithshiva.retailpos.security.CustomUserDetails;
+import com.codewithshiva.retailpos.service.PriceRevisionService;
 import com.codewithshiva.retailpos.service.VariantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -30,9 +31,13 @@ import java.util.List;
 public class VariantController {
 
     private final VariantService variantService;
+    private final PriceRevisionService priceRevisionService;
 
     @GetMapping
-    @Operation(summary = "List Variants", description = "Get all variants with optional filters and pagination")
+    @Operation(summary = "List Variants", description = "Get variants with optional filters. Paged and sorted in the database: "
+            + "page/size for OFFSET pages, or cursor (nextCursor of the previous page) for keyset paging; "
+            + "sort is sku, productName, sellingPrice, stockQty, createdAt or updatedAt with optional ,asc/,desc; "
+            + "count=false skips the total.")
     @SecurityRequirement(name = "bearerAuth")
     public ResponseEntity<ApiResponse<PagedResponse<VariantListResponse>>> listVariants(
             @RequestParam(required = false) Long productId,
@@ -43,12 +48,14 @@ public class VariantController {
             @RequestParam(required = false) Boolean outOfStock,
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        log.debug("List variants request - productId: {}, category: {}, brand: {}, status: {}, lowStock: {}, outOfStock: {}, search: {}, page: {}, size: {}",
-                productId, category, brand, status, lowStock, outOfStock, search, page, size);
-        List<VariantListResponse> variants = variantService.listVariants(
-                productId, category, brand, status, lowStock, outOfStock, search);
-        PagedResponse<VariantListResponse> pagedResponse = PagedResponse.of(variants, page, size);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "true") boolean count) {
+        log.debug("List variants request - productId: {}, category: {}, brand: {}, status: {}, lowStock: {}, outOfStock: {}, search: {}, page: {}, size: {}, sort: {}",
+                productId, category, brand, status, lowStock, outOfStock, search, page, size, sort);
+        PagedResponse<VariantListResponse> pagedResponse = variantService.listVariants(
+                productId, category, brand, status, lowStock, outOfStock, search, page, size, sort, cursor, count);
         return ResponseEntity.ok(ApiResponse.success(pagedResponse));
     }
 
@@ -117,4 +124,43 @@ public class VariantController {
                 : "Variant deactivated successfully";
         return ResponseEntity.ok(ApiResponse.success(message));
     }
+
+    @PutMapping("/{id}/stock-stripes")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Update Stock Stripes",
+            description = "Split a high-traffic variant's stock across stripes so concurrent sales don't block each other (0 turns it off)")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<ApiResponse<Void>> updateStockStripes(
+            @PathVariable Long id,
+            @Valid @RequestBody UpdateStockStripesRequest request) {
+        log.info("Update stock stripes request for variant ID: {} to: {}", id, request.getStripeCount());
+        variantService.updateStockStripes(id, request.getStripeCount());
+        return ResponseEntity.ok(ApiResponse.success("Variant stock stripes updated successfully"));
+    }
+
+    @PostMapping("/bulk-pricing/preview")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Preview Bulk Price Revision",
+            description = "Show the variants of a category/brand/product whose price or discount the revision changes")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<ApiResponse<BulkPriceRevisionResponse>> previewPriceRevision(
+            @Valid @RequestBody BulkPriceRevisionRequest request) {
+        log.info("Preview bulk price revision request - category: {}, brand: {}, productId: {}",
+                request.getCategory(), request.getBrand(), request.getProductId());
+        BulkPriceRevisionResponse preview = priceRevisionService.previewRevision(request);
+        return ResponseEntity.ok(ApiResponse.success(preview));
+    }
+
+    @PostMapping("/bulk-pricing/apply")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Apply Bulk Price Revision",
+            description = "Set or change prices by percentage, round them, and set or clear discounts in one update")
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<ApiResponse<BulkPriceRevisionResponse>> applyPriceRevision(
+            @Valid @RequestBody BulkPriceRevisionRequest request) {
+        log.info("Apply bulk price revision request - category: {}, brand: {}, productId: {}",
+                request.getCategory(), request.getBrand(), request.getProductId());
+        BulkPriceRevisionResponse result = priceRevisionService.applyRevision(request);
+        return ResponseEntity.ok(ApiResponse.success(result, "Prices revised successfully"));
+    }
 }
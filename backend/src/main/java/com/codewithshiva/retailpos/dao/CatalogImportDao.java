@@ -0,0 +1,300 @@
+package com.codewithshiva.retailpos.dao;
+
+import com.codewithshiva.retailpos.model.CatalogImportError;
+import org.jdbi.v3.sqlobject.SqlObject;
+import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+import org.postgresql.PGConnection;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * JDBI DAO for bulk catalog import.
+ * Rows are streamed with COPY into a transaction-scoped staging table (all text, so COPY
+ * never rejects a value), validated with set-based updates that record the first error of
+ * each row, then upserted into products and variants. Must run inside one transaction.
+ */
+public interface CatalogImportDao extends SqlObject {
+
+    /** Staging columns a CSV header may name, in JSON-to-CSV order. */
+    List<String> COLUMNS = List.of("name", "brand", "category", "hsn", "description", "product_discount_percent",
+            "sku", "barcode", "size", "color", "selling_price", "avg_cost", "discount_percent");
+
+    @SqlUpdate("""
+        CREATE TEMP TABLE catalog_import_staging (
+            row_no                      INTEGER GENERATED ALWAYS AS IDENTITY,
+            name                        TEXT,
+            brand                       TEXT,
+            category                    TEXT,
+            hsn                         TEXT,
+            description                 TEXT,
+            product_discount_percent    TEXT,
+            sku                         TEXT,
+            barcode                     TEXT,
+            size                        TEXT,
+            color                       TEXT,
+            selling_price               TEXT,
+            avg_cost                    TEXT,
+            discount_percent            TEXT,
+            error                       TEXT
+        ) ON COMMIT DROP
+        """)
+    void createStagingTable();
+
+    /**
+     * COPY CSV rows (without header) into the staging table. Row numbers follow input order.
+     *
+     * @param columns staging columns in CSV order, each one of {@link #COLUMNS}
+     * @return number of rows copied
+     */
+    default long copyRows(List<String> columns, Reader csv) throws SQLException, IOException {
+        if (!COLUMNS.containsAll(columns)) {
+            throw new IllegalArgumentException("Unknown staging column in " + columns);
+        }
+        String sql = "COPY catalog_import_staging (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)";
+        return getHandle().getConnection().unwrap(PGConnection.class).getCopyAPI().copyIn(sql, csv);
+    }
+
+    /**
+     * Trim values and treat blanks as missing.
+     */
+    @SqlUpdate("""
+        UPDATE catalog_import_staging SET
+            name = NULLIF(BTRIM(name), ''),
+            brand = NULLIF(BTRIM(brand), ''),
+            category = NULLIF(BTRIM(category), ''),
+            hsn = NULLIF(BTRIM(hsn), ''),
+            description = NULLIF(BTRIM(description), ''),
+            product_discount_percent = NULLIF(BTRIM(product_discount_percent), ''),
+            sku = NULLIF(BTRIM(sku), ''),
+            barcode = NULLIF(BTRIM(barcode), ''),
+            size = NULLIF(BTRIM(size), ''),
+            color = NULLIF(BTRIM(color), ''),
+            selling_price = NULLIF(BTRIM(selling_price), ''),
+            avg_cost = NULLIF(BTRIM(avg_cost), ''),
+            discount_percent = NULLIF(BTRIM(discount_percent), '')
+        """)
+    void normalizeRows();
+
+    @SqlUpdate("ANALYZE catalog_import_staging")
+    void analyzeStagingTable();
+
+    /**
+     * Required values, lengths (as in CreateProductRequest / CreateVariantRequest) and number formats.
+     */
+    @SqlUpdate("""
+        UPDATE catalog_import_staging SET error = CASE
+            WHEN name IS NULL THEN 'Product name is required'
+            WHEN LENGTH(name) > 200 THEN 'Product name must not exceed 200 characters'
+            WHEN brand IS NULL THEN 'Brand is required'
+            WHEN LENGTH(brand) > 100 THEN 'Brand must not exceed 100 characters'
+            WHEN category IS NULL THEN 'Category is required'
+            WHEN LENGTH(category) > 100 THEN 'Category must not exceed 100 characters'
+            WHEN hsn IS NULL THEN 'HSN is required'
+            WHEN LENGTH(hsn) > 20 THEN 'HSN must not exceed 20 characters'
+            WHEN LENGTH(description) > 1000 THEN 'Description must not exceed 1000 characters'
+            WHEN product_discount_percent !~ '^[0-9]{1,3}(\\.[0-9]{1,2})?$' THEN 'Product discount must be a percentage'
+            WHEN product_discount_percent::NUMERIC > 100 THEN 'Product discount must not exceed 100%'
+            WHEN sku IS NULL THEN 'SKU is required'
+            WHEN LENGTH(sku) > 50 THEN 'SKU must not exceed 50 characters'
+            WHEN LENGTH(barcode) > 50 THEN 'Barcode must not exceed 50 characters'
+            WHEN LENGTH(size) > 20 THEN 'Size must not exceed 20 characters'
+            WHEN LENGTH(color) > 50 THEN 'Color must not exceed 50 characters'
+            WHEN selling_price IS NULL THEN 'Selling price is required'
+            WHEN selling_price !~ '^[0-9]{1,10}(\\.[0-9]{1,2})?$' THEN 'Selling price must be a non-negative amount'
+            WHEN avg_cost !~ '^[0-9]{1,10}(\\.[0-9]{1,2})?$' THEN 'Average cost must be a non-negative amount'
+            WHEN discount_percent !~ '^[0-9]{1,3}(\\.[0-9]{1,2})?$' THEN 'Discount must be a percentage'
+            WHEN discount_percent::NUMERIC > 100 THEN 'Discount must not exceed 100%'
+        END
+        """)
+    void validateRows();
+
+    /**
+     * Clear the numbers of rejected rows, so later statements can cast without checking the error.
+     */
+    @SqlUpdate("""
+        UPDATE catalog_import_staging
+        SET product_discount_percent = NULL, selling_price = NULL, avg_cost = NULL, discount_percent = NULL
+        WHERE error IS NOT NULL
+        """)
+    void clearRejectedNumbers();
+
+    /**
+     * Hold the catalog lock exclusively until the transaction ends. Variant writes take it
+     * shared (VariantDao#lockCatalogShared), so the checks against the catalog stay true
+     * until the upsert commits, and concurrent imports run one after the other.
+     */
+    @SqlUpdate("SELECT pg_advisory_xact_lock(hashtext('catalog'))")
+    void lockCatalog();
+
+    // ==========================================
+    // Set-wise checks against the rest of the file and the catalog. Each only looks at
+    // rows without an error yet, so a row reports its first problem.
+    // ==========================================
+
+    /**
+     * Later rows repeating a SKU of the file.
+     */
+    @SqlUpdate("""
+        UPDATE catalog_import_staging s
+        SET error = 'Duplicate SKU in file (first on row ' || d.first_row || ')'
+        FROM (
+            SELECT sku, MIN(row_no) AS first_row
+            FROM catalog_import_staging
+            WHERE error IS NULL
+            GROUP BY sku
+            HAVING COUNT(*) > 1
+        ) d
+        WHERE s.sku = d.sku AND s.row_no > d.first_row AND s.error IS NULL
+        """)
+    int rejectDuplicateSkus();
+
+    /**
+     * Later rows repeating a barcode of the file.
+     */
+    @SqlUpdate("""
+        UPDATE catalog_import_staging s
+        SET error = 'Duplicate barcode in file (first on row ' || d.first_row || ')'
+        FROM (
+            SELECT barcode, MIN(row_no) AS first_row
+            FROM catalog_import_staging
+            WHERE error IS NULL AND barcode IS NOT NULL
+            GROUP BY barcode
+            HAVING COUNT(*) > 1
+        ) d
+        WHERE s.barcode = d.barcode AND s.row_no > d.first_row AND s.error IS NULL
+        """)
+    int rejectDuplicateBarcodes();
+
+    /**
+     * Rows whose product details differ from the first row of the same product.
+     */
+    @SqlUpdate("""
+        UPDATE catalog_import_staging s
+        SET error = 'Product details differ from row ' || f.row_no
+        FROM (
+            SELECT DISTINCT ON (name, brand) row_no, name, brand, category, hsn, description, product_discount_percent
+            FROM catalog_import_staging
+            WHERE error IS NULL
+            ORDER BY name, brand, row_no
+        ) f
+        WHERE s.name = f.name AND s.brand = f.brand AND s.error IS NULL
+          AND (s.category, s.hsn, s.description, s.product_discount_percent::NUMERIC)
+              IS DISTINCT FROM (f.category, f.hsn, f.description, f.product_discount_percent::NUMERIC)
+        """)
+    int rejectInconsistentProducts();
+
+    /**
+     * SKUs that already exist under a different product.
+     */
+    @SqlUpdate("""
+        UPDATE catalog_import_staging s
+        SET error = 'SKU belongs to another product: ' || p.brand || ' - ' || p.name
+        FROM variants v
+        JOIN products p ON v.product_id = p.id
+        WHERE v.sku = s.sku AND (p.name, p.brand) <> (s.name, s.brand) AND s.error IS NULL
+        """)
+    int rejectSkusOfOtherProducts();
+
+    /**
+     * Barcodes already used by a variant with a different SKU.
+     */
+    @SqlUpdate("""
+        UPDATE catalog_import_staging s
+        SET error = 'Barcode already exists: ' || s.barcode
+        FROM variants v
+        WHERE v.barcode = s.barcode AND v.sku <> s.sku AND s.error IS NULL
+        """)
+    int rejectBarcodesInUse();
+
+    @SqlQuery("SELECT COUNT(*) FROM catalog_import_staging WHERE error IS NOT NULL")
+    int countErrors();
+
+    @SqlQuery("""
+        SELECT row_no as rowNo, sku, error as message
+        FROM catalog_import_staging
+        WHERE error IS NOT NULL
+        ORDER BY row_no
+        LIMIT :limit
+        """)
+    @RegisterConstructorMapper(CatalogImportError.class)
+    List<CatalogImportError> findErrors(@Bind("limit") int limit);
+
+    /**
+     * Update existing products named in the file. Blank optional values keep the current value.
+     */
+    @SqlUpdate("""
+        UPDATE products p
+        SET category = f.category,
+            hsn = f.hsn,
+            description = COALESCE(f.description, p.description),
+            default_discount_percent = COALESCE(f.product_discount_percent::NUMERIC(5, 2), p.default_discount_percent)
+        FROM (
+            SELECT DISTINCT ON (name, brand) name, brand, category, hsn, description, product_discount_percent
+            FROM catalog_import_staging
+            WHERE error IS NULL
+            ORDER BY name, brand, row_no
+        ) f
+        WHERE p.name = f.name AND p.brand = f.brand
+          AND (p.category, p.hsn, p.description, p.default_discount_percent)
+              IS DISTINCT FROM (f.category, f.hsn, COALESCE(f.description, p.description),
+                                COALESCE(f.product_discount_percent::NUMERIC(5, 2), p.default_discount_percent))
+        """)
+    int updateProducts();
+
+    @SqlUpdate("""
+        INSERT INTO products (name, brand, category, hsn, description, default_discount_percent, created_by)
+        SELECT DISTINCT ON (name, brand)
+               name, brand, category, hsn, description,
+               COALESCE(product_discount_percent::NUMERIC(5, 2), 0), :createdBy
+        FROM catalog_import_staging
+        WHERE error IS NULL
+        ORDER BY name, brand, row_no
+        ON CONFLICT (name, brand) DO NOTHING
+        """)
+    int insertProducts(@Bind("createdBy") Long createdBy);
+
+    /**
+     * Update existing variants by SKU. Blank optional values keep the current value;
+     * avg_cost is left to purchases.
+     */
+    @SqlUpdate("""
+        UPDATE variants v
+        SET barcode = COALESCE(s.barcode, v.barcode),
+            size = COALESCE(s.size, v.size),
+            color = COALESCE(s.color, v.color),
+            selling_price = s.selling_price::NUMERIC(12, 2),
+            default_discount_percent = COALESCE(s.discount_percent::NUMERIC(5, 2), v.default_discount_percent)
+        FROM catalog_import_staging s
+        WHERE v.sku = s.sku AND s.error IS NULL
+          AND (v.barcode, v.size, v.color, v.selling_price, v.default_discount_percent)
+              IS DISTINCT FROM (COALESCE(s.barcode, v.barcode), COALESCE(s.size, v.size), COALESCE(s.color, v.color),
+                                s.selling_price::NUMERIC(12, 2),
+                                COALESCE(s.discount_percent::NUMERIC(5, 2), v.default_discount_percent))
+        """)
+    int updateVariants();
+
+    @SqlUpdate("""
+        WITH new_variants AS (
+            INSERT INTO variants (product_id, sku, barcode, size, color, selling_price, default_discount_percent, created_by)
+            SELECT p.id, s.sku, s.barcode, s.size, s.color, s.selling_price::NUMERIC(12, 2),
+                   s.discount_percent::NUMERIC(5, 2), :createdBy
+            FROM catalog_import_staging s
+            JOIN products p ON p.name = s.name AND p.brand = s.brand
+            WHERE s.error IS NULL
+              AND NOT EXISTS (SELECT 1 FROM variants v WHERE v.sku = s.sku)
+            ORDER BY s.row_no
+            RETURNING id, sku
+        )
+        INSERT INTO variant_stock (variant_id, avg_cost)
+        SELECT n.id, COALESCE(s.avg_cost::NUMERIC(12, 2), 0)
+        FROM new_variants n
+        JOIN catalog_import_staging s ON s.sku = n.sku AND s.error IS NULL
+        """)
+    int insertVariants(@Bind("createdBy") Long createdBy);
+}
@@ -11,6 +11,7 @@ import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * JDBI DAO for Dashboard operations.
@@ -76,8 +77,8 @@ public interface DashboardDao {
      */
     @SqlQuery("""
         SELECT COUNT(*) 
-        FROM variants 
-        WHERE status = 'ACTIVE' AND stock_qty = 0
+        FROM low_stock_variants 
+        WHERE stock_qty = 0
         """)
     Integer getOutOfStockCount();
 
@@ -88,23 +89,25 @@ public interface DashboardDao {
     Integer getTotalSkus();
 
     // ==========================================
-    // Sales Trend using v_daily_sales_summary
+    // Sales Trend (same figures as v_daily_sales_summary, bounded on sold_at
+    // so only the recent partitions are read)
     // ==========================================
 
     @SqlQuery("""
         SELECT 
-            sale_date as saleDate,
-            transaction_count as transactionCount,
-            total_sales as totalSales,
-            total_profit as totalProfit,
-            voided_count as voidedCount,
-            cash_count as cashCount,
-            card_count as cardCount,
-            upi_count as upiCount,
-            credit_count as creditCount
-        FROM v_daily_sales_summary
-        WHERE sale_date >= :startDate
-        ORDER BY sale_date ASC
+            DATE(sold_at) as saleDate,
+            COUNT(*) as transactionCount,
+            SUM(CASE WHEN status = 'COMPLETED' THEN total ELSE 0 END) as totalSales,
+            SUM(CASE WHEN status = 'COMPLETED' THEN profit ELSE 0 END) as totalProfit,
+            COUNT(CASE WHEN status = 'VOIDED' THEN 1 END) as voidedCount,
+            COUNT(CASE WHEN payment_mode = 'CASH' AND status = 'COMPLETED' THEN 1 END) as cashCount,
+            COUNT(CASE WHEN payment_mode = 'CARD' AND status = 'COMPLETED' THEN 1 END) as cardCount,
+            COUNT(CASE WHEN payment_mode = 'UPI' AND status = 'COMPLETED' THEN 1 END) as upiCount,
+            COUNT(CASE WHEN payment_mode = 'CREDIT' AND status = 'COMPLETED' THEN 1 END) as creditCount
+        FROM sales
+        WHERE sold_at >= CAST(:startDate AS TIMESTAMPTZ)
+        GROUP BY DATE(sold_at)
+        ORDER BY DATE(sold_at) ASC
         """)
     @RegisterConstructorMapper(DailySalesSummary.class)
     List<DailySalesSummary> getSalesTrend(@Bind("startDate") java.time.LocalDate startDate);
@@ -124,12 +127,14 @@ public interface DashboardDao {
             SUM(si.qty * si.unit_price) as revenue,
             SUM((si.unit_price - si.unit_cost_at_sale) * si.qty) as profit
         FROM sale_items si
-        JOIN sales s ON si.sale_id = s.id
+        JOIN sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
         JOIN variants v ON si.variant_id = v.id
         JOIN products p ON v.product_id = p.id
         WHERE s.status = 'COMPLETED'
           AND s.sold_at >= :startDate
           AND s.sold_at < :endDate
+          AND si.sold_at >= :startDate
+          AND si.sold_at < :endDate
         GROUP BY si.variant_id, p.name, v.sku, v.size, v.color
         ORDER BY qtySold DESC
         LIMIT :limit
@@ -159,6 +164,41 @@ public interface DashboardDao {
     @RegisterConstructorMapper(LowStockItem.class)
     List<LowStockItem> getLowStockItems(@Bind("limit") Integer limit);
 
+    /**
+     * Get every low stock item, used to load the in-memory low stock set.
+     */
+    @SqlQuery("""
+        SELECT 
+            id as variantId,
+            product_name as productName,
+            sku,
+            size,
+            color,
+            stock_qty as stockQty,
+            low_stock_threshold as threshold
+        FROM v_low_stock_variants
+        """)
+    @RegisterConstructorMapper(LowStockItem.class)
+    List<LowStockItem> getAllLowStockItems();
+
+    /**
+     * Get a single low stock item, empty if the variant is not low on stock.
+     */
+    @SqlQuery("""
+        SELECT 
+            id as variantId,
+            product_name as productName,
+            sku,
+            size,
+            color,
+            stock_qty as stockQty,
+            low_stock_threshold as threshold
+        FROM v_low_stock_variants
+        WHERE id = :variantId
+        """)
+    @RegisterConstructorMapper(LowStockItem.class)
+    Optional<LowStockItem> findLowStockItem(@Bind("variantId") Long variantId);
+
     // ==========================================
     // Recent Sales using v_sales_with_details
     // ==========================================
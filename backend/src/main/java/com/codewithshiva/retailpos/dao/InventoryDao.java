@@ -4,6 +4,8 @@ import com.codewithshiva.retailpos.model.InventorySummary;
 import com.codewithshiva.retailpos.model.StockAdjustment;
 import com.codewithshiva.retailpos.model.StockMovement;
 import com.codewithshiva.retailpos.model.SupplierSummary;
+import com.codewithshiva.retailpos.sql.BindFilter;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
@@ -33,40 +35,51 @@ public interface InventoryDao {
     InventorySummary getInventorySummary();
 
     // ==========================================
-    // Stock Movements - Uses v_stock_movements view
+    // Stock Movements - Uses stock_ledger table
+    // Newest first; pages continue after the entry given as beforeId (keyset)
     // ==========================================
 
+    /**
+     * Filter of a variant's movements (stock_ledger sl); beforeId continues a page after that entry.
+     */
+    static SqlFilter movementFilter(OffsetDateTime startDate, OffsetDateTime endDate, String type, Long beforeId) {
+        return SqlFilter.create()
+                .gte("sl.movement_date", startDate)
+                .lt("sl.movement_date", endDate)
+                .eq("sl.movement_type", type)
+                .matches("""
+                    (sl.movement_date, sl.id) <
+                    (SELECT movement_date, id FROM stock_ledger WHERE id = :value)""", beforeId);
+    }
+
     @SqlQuery("""
-        SELECT id, variant_id as variantId, movement_type as movementType, 
-               movement_date as movementDate, delta_qty as deltaQty,
-               reference_id as referenceId, reference_no as referenceNo,
-               supplier_name as supplierName, unit_cost as unitCost, 
-               notes, created_by as createdBy, created_at as createdAt
-        FROM v_stock_movements
-        WHERE variant_id = :variantId
-        ORDER BY movement_date DESC
+        SELECT sl.id, sl.variant_id as variantId, sl.movement_type as movementType, 
+               sl.movement_date as movementDate, sl.delta_qty as deltaQty, sl.balance_after as balanceAfter,
+               sl.reference_id as referenceId, sl.reference_no as referenceNo,
+               sup.name as supplierName, sl.unit_cost as unitCost, 
+               sl.notes, sl.created_by as createdBy, sl.created_at as createdAt
+        FROM stock_ledger sl
+        LEFT JOIN suppliers sup ON sl.supplier_id = sup.id
+        WHERE sl.variant_id = :variantId
+          AND <filter>
+        ORDER BY sl.movement_date DESC, sl.id DESC
+        LIMIT :limit
         """)
     @RegisterConstructorMapper(StockMovement.class)
-    List<StockMovement> findMovementsByVariantId(@Bind("variantId") Long variantId);
+    List<StockMovement> findMovements(@Bind("variantId") Long variantId,
+                                      @BindFilter SqlFilter filter,
+                                      @Bind("limit") Integer limit);
 
+    /**
+     * Stock of a variant as of the given instant (movements dated before it).
+     */
     @SqlQuery("""
-        SELECT id, variant_id as variantId, movement_type as movementType, 
-               movement_date as movementDate, delta_qty as deltaQty,
-               reference_id as referenceId, reference_no as referenceNo,
-               supplier_name as supplierName, unit_cost as unitCost, 
-               notes, created_by as createdBy, created_at as createdAt
-        FROM v_stock_movements
+        SELECT COALESCE(SUM(delta_qty), 0)::INTEGER
+        FROM stock_ledger
         WHERE variant_id = :variantId
-          AND (:startDate IS NULL OR movement_date >= :startDate)
-          AND (:endDate IS NULL OR movement_date < :endDate)
-          AND (:type IS NULL OR movement_type = :type)
-        ORDER BY movement_date DESC
+          AND movement_date < :asOf
         """)
-    @RegisterConstructorMapper(StockMovement.class)
-    List<StockMovement> findMovementsWithFilters(@Bind("variantId") Long variantId,
-                                                  @Bind("startDate") OffsetDateTime startDate,
-                                                  @Bind("endDate") OffsetDateTime endDate,
-                                                  @Bind("type") String type);
+    int getStockAsOf(@Bind("variantId") Long variantId, @Bind("asOf") OffsetDateTime asOf);
 
     // ==========================================
     // Supplier Summary for Variant
@@ -118,15 +131,25 @@ public interface InventoryDao {
     // Variant Stock Update (for adjustments)
     // ==========================================
 
-    @SqlUpdate("""
-        UPDATE variants
-        SET stock_qty = stock_qty + :deltaQty
-        WHERE id = :variantId
-        """)
+    @SqlUpdate("SELECT adjust_variant_stock(:variantId, :deltaQty)")
     void updateVariantStock(@Bind("variantId") Long variantId, @Bind("deltaQty") Integer deltaQty);
 
     @SqlQuery("""
-        SELECT stock_qty FROM variants WHERE id = :variantId
+        SELECT stock_qty FROM v_variant_stock WHERE variant_id = :variantId
         """)
     Integer getVariantStockQty(@Bind("variantId") Long variantId);
+
+    /**
+     * Variants (of the given ones) whose total stock is below the paired quantity,
+     * in variant id order.
+     */
+    @SqlQuery("""
+        SELECT r.variant_id
+        FROM unnest(CAST(:variantIds AS BIGINT[]), CAST(:qtys AS INTEGER[])) AS r(variant_id, qty)
+        JOIN v_variant_stock vs ON vs.variant_id = r.variant_id
+        WHERE vs.stock_qty < r.qty
+        ORDER BY r.variant_id
+        """)
+    List<Long> findVariantsShortOfStock(@Bind("variantIds") Long[] variantIds,
+                                        @Bind("qtys") Integer[] qtys);
 }
@@ -0,0 +1,38 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * JDBI DAO for end-of-day inventory snapshots (inventory_snapshots, inventory_snapshot_items).
+ * Point-in-time valuation reads them through ReportDao.
+ */
+public interface InventorySnapshotDao {
+
+    /**
+     * Snapshot stock at the end of the given day (UTC). Does nothing if it already exists.
+     *
+     * @return number of variants stored
+     */
+    @SqlQuery("SELECT take_inventory_snapshot(:snapshotDate)")
+    int takeSnapshot(@Bind("snapshotDate") LocalDate snapshotDate);
+
+    @SqlQuery("SELECT snapshot_date FROM inventory_snapshots ORDER BY snapshot_date DESC LIMIT 1")
+    Optional<LocalDate> findLatestSnapshotDate();
+
+    /**
+     * Delete daily snapshots before the given date, keeping month-end snapshots.
+     *
+     * @return number of snapshots deleted
+     */
+    @SqlUpdate("""
+        DELETE FROM inventory_snapshots
+        WHERE snapshot_date < :before
+          AND EXTRACT(DAY FROM snapshot_date + 1) <> 1
+        """)
+    int deleteDailySnapshotsBefore(@Bind("before") LocalDate before);
+}
@@ -0,0 +1,27 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+/**
+ * JDBI DAO for the inventory_valuation table.
+ * Triggers on variants and products append deltas to inventory_valuation_deltas;
+ * this DAO only drives the periodic fold of those deltas and the verify-and-repair pass.
+ */
+public interface InventoryValuationDao {
+
+    /**
+     * Move the pending deltas into the per-category/brand totals.
+     *
+     * @return number of groups updated
+     */
+    @SqlQuery("SELECT fold_inventory_valuation_deltas()")
+    int foldDeltas();
+
+    /**
+     * Recompute the per-category/brand totals from variants and correct any that drifted.
+     *
+     * @return number of groups repaired
+     */
+    @SqlQuery("SELECT repair_inventory_valuation()")
+    int repairInventoryValuation();
+}
@@ -0,0 +1,93 @@
+package com.codewithshiva.retailpos.dao;
+
+import com.codewithshiva.retailpos.model.PriceRevisionLine;
+import com.codewithshiva.retailpos.sql.BindFilter;
+import com.codewithshiva.retailpos.sql.SqlFilter;
+import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * JDBI DAO for bulk price and discount revisions.
+ * Preview and apply share the same revision CTE, so the preview shows exactly the rows
+ * and values the set-based update will write (see bulk_revised_price() for the rules).
+ */
+public interface PriceRevisionDao {
+
+    /** Variants matching the filter with their revised price and discount. */
+    String REVISED = """
+        WITH revised AS (
+            SELECT v.id, v.sku, p.name AS product_name, v.size, v.color,
+                   v.selling_price AS old_price,
+                   bulk_revised_price(v.selling_price, :priceMode, :priceValue,
+                                      :roundTo, :rounding, :priceEnding) AS new_price,
+                   v.default_discount_percent AS old_discount,
+                   CASE :discountMode
+                       WHEN 'SET' THEN CAST(:discountPercent AS NUMERIC(5, 2))
+                       WHEN 'CLEAR' THEN NULL
+                       ELSE v.default_discount_percent
+                   END AS new_discount,
+                   vs.avg_cost
+            FROM variants v
+            JOIN products p ON v.product_id = p.id
+            JOIN variant_stock vs ON vs.variant_id = v.id
+            WHERE <filter>
+        )
+        """;
+
+    /**
+     * Filter of the variants to revise (variants v joined to products p).
+     */
+    static SqlFilter revisionFilter(String category, String brand, Long productId, boolean includeInactive) {
+        return SqlFilter.create()
+                .eq("p.category", category)
+                .eq("p.brand", brand)
+                .eq("v.product_id", productId)
+                .when(!includeInactive, "v.status = 'ACTIVE'");
+    }
+
+    @SqlQuery(REVISED + """
+        SELECT id as variantId, sku, product_name as productName, size, color,
+               old_price as oldPrice, new_price as newPrice,
+               old_discount as oldDiscountPercent, new_discount as newDiscountPercent,
+               avg_cost as avgCost
+        FROM revised
+        WHERE (new_price, new_discount) IS DISTINCT FROM (old_price, old_discount)
+        ORDER BY product_name, sku
+        """)
+    @RegisterConstructorMapper(PriceRevisionLine.class)
+    List<PriceRevisionLine> preview(@BindFilter SqlFilter filter,
+                                    @Bind("priceMode") String priceMode,
+                                    @Bind("priceValue") BigDecimal priceValue,
+                                    @Bind("roundTo") BigDecimal roundTo,
+                                    @Bind("rounding") String rounding,
+                                    @Bind("priceEnding") BigDecimal priceEnding,
+                                    @Bind("discountMode") String discountMode,
+                                    @Bind("discountPercent") BigDecimal discountPercent);
+
+    /**
+     * Write the revision in one statement.
+     *
+     * @return number of variants updated
+     */
+    @SqlUpdate(REVISED + """
+        UPDATE variants v
+        SET selling_price = r.new_price,
+            default_discount_percent = r.new_discount
+        FROM revised r
+        WHERE v.id = r.id
+          AND (r.new_price, r.new_discount) IS DISTINCT FROM (r.old_price, r.old_discount)
+        """)
+    int apply(@BindFilter SqlFilter filter,
+              @Bind("priceMode") String priceMode,
+              @Bind("priceValue") BigDecimal priceValue,
+              @Bind("roundTo") BigDecimal roundTo,
+              @Bind("rounding") String rounding,
+              @Bind("priceEnding") BigDecimal priceEnding,
+              @Bind("discountMode") String discountMode,
+              @Bind("discountPercent") BigDecimal discountPercent);
+}
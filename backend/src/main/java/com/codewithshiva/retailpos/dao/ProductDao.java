@@ -1,9 +1,15 @@
 package com.codewithshiva.retailpos.dao;
 
 import com.codewithshiva.retailpos.model.Product;
+import com.codewithshiva.retailpos.model.ProductWithStockSummary;
 import com.codewithshiva.retailpos.model.Variant;
+import com.codewithshiva.retailpos.paging.PageQuery;
+import com.codewithshiva.retailpos.sql.BindFilter;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.Define;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
@@ -32,48 +38,101 @@ public interface ProductDao {
     Optional<Product> findById(@Bind("id") Long id);
 
     @SqlQuery("""
-        SELECT id, name, brand, category, hsn, description, is_active as isActive,
-               default_discount_percent as defaultDiscountPercent,
-               created_at as createdAt, updated_at as updatedAt, created_by as createdBy
-        FROM products
-        WHERE (:includeInactive = true OR is_active = true)
-        ORDER BY updated_at DESC
+        SELECT p.id, p.name, p.brand, p.category, p.hsn, p.description, p.is_active as isActive,
+               p.default_discount_percent as defaultDiscountPercent,
+               p.created_at as createdAt, p.updated_at as updatedAt, p.created_by as createdBy
+        FROM products p
+        WHERE p.name = :name AND p.brand = :brand
         """)
     @RegisterConstructorMapper(Product.class)
-    List<Product> findAll(@Bind("includeInactive") boolean includeInactive);
+    Optional<Product> findByNameAndBrand(@Bind("name") String name, @Bind("brand") String brand);
 
+    // ==========================================
+    // Product List (paged in the database, see PageQuery)
+    // ==========================================
+
+    /**
+     * Filter of the product list (products p), shared by the page and count queries.
+     * Search matches word prefixes on search_vector, or similar words for typos;
+     * both sides are served by their own index (the text compared for typos must stay
+     * the expression of idx_products_search_trgm).
+     */
+    static SqlFilter listFilter(String category, String brand, String search, boolean includeInactive) {
+        return SqlFilter.create()
+                .when(!includeInactive, "p.is_active = true")
+                .eq("p.category", category)
+                .eq("p.brand", brand)
+                .matches("""
+                    (p.search_vector @@ product_search_query(:value)
+                     OR LOWER(:value) <% LOWER(p.name || ' ' || p.brand || ' ' || p.category))""", search);
+    }
+
+    /**
+     * One page of products with variant counts and stock rolled up from their variants.
+     * The rollup is one aggregate per page row, taken after the page is cut.
+     * Low stock counts members of low_stock_variants (active, at or below the threshold).
+     */
     @SqlQuery("""
-        SELECT id, name, brand, category, hsn, description, is_active as isActive,
-               default_discount_percent as defaultDiscountPercent,
-               created_at as createdAt, updated_at as updatedAt, created_by as createdBy
-        FROM products
-        WHERE (:includeInactive = true OR is_active = true)
-          AND (:category IS NULL OR category = :category)
-          AND (:brand IS NULL OR brand = :brand)
-          AND (:search IS NULL OR (
-               to_tsvector('english', name || ' ' || brand || ' ' || category || ' ' || hsn) @@ plainto_tsquery('english', :search)
-               OR LOWER(name) LIKE LOWER('%' || :search || '%')
-               OR LOWER(brand) LIKE LOWER('%' || :search || '%')
-               OR LOWER(category) LIKE LOWER('%' || :search || '%')
-               OR LOWER(hsn) LIKE LOWER('%' || :search || '%')
-          ))
-        ORDER BY updated_at DESC
+        SELECT p.id, p.name, p.brand, p.category, p.hsn, p.description, p.is_active as isActive,
+               p.default_discount_percent as defaultDiscountPercent,
+               p.created_at as createdAt, p.updated_at as updatedAt, p.created_by as createdBy,
+               s.variant_count as variantCount, s.active_variant_count as activeVariantCount,
+               s.low_stock_variant_count as lowStockVariantCount,
+               s.out_of_stock_variant_count as outOfStockVariantCount, s.total_stock as totalStock
+        FROM (
+            SELECT p.*
+            FROM products p
+            WHERE <filter>
+              AND <keyset>
+            ORDER BY <orderBy>
+            LIMIT :page.limit OFFSET :page.offset
+        ) p
+        CROSS JOIN LATERAL (
+            SELECT COUNT(v.id) AS variant_count,
+                   COUNT(v.id) FILTER (WHERE v.status = 'ACTIVE') AS active_variant_count,
+                   COUNT(lsv.variant_id) AS low_stock_variant_count,
+                   COUNT(v.id) FILTER (WHERE v.status = 'ACTIVE' AND vs.stock_qty = 0) AS out_of_stock_variant_count,
+                   COALESCE(SUM(vs.stock_qty), 0) AS total_stock
+            FROM variants v
+            JOIN v_variant_stock vs ON vs.variant_id = v.id
+            LEFT JOIN low_stock_variants lsv ON lsv.variant_id = v.id
+            WHERE v.product_id = p.id
+        ) s
+        ORDER BY <orderBy>
         """)
-    @RegisterConstructorMapper(Product.class)
-    List<Product> findWithFilters(@Bind("category") String category,
-                                  @Bind("brand") String brand,
-                                  @Bind("search") String search,
-                                  @Bind("includeInactive") boolean includeInactive);
+    @RegisterConstructorMapper(ProductWithStockSummary.class)
+    List<ProductWithStockSummary> findPage(@BindFilter SqlFilter filter,
+                                           @Define("orderBy") String orderBy,
+                                           @Define("keyset") String keyset,
+                                           @BindBean("page") PageQuery<ProductWithStockSummary> page);
+
+    @SqlQuery("SELECT COUNT(*) FROM products p WHERE <filter>")
+    long count(@BindFilter SqlFilter filter);
 
+    // ==========================================
+    // Product Search (ranked, see V12__product_search)
+    // ==========================================
+
+    /**
+     * Active products matching a search term, best first: ranked by ts_rank over the weighted
+     * search_vector (name before brand, category and hsn), then by word similarity for products
+     * only found through the typo fallback.
+     */
     @SqlQuery("""
         SELECT p.id, p.name, p.brand, p.category, p.hsn, p.description, p.is_active as isActive,
                p.default_discount_percent as defaultDiscountPercent,
                p.created_at as createdAt, p.updated_at as updatedAt, p.created_by as createdBy
         FROM products p
-        WHERE p.name = :name AND p.brand = :brand
+        WHERE p.is_active = true
+          AND (p.search_vector @@ product_search_query(:term)
+               OR LOWER(:term) <% LOWER(p.name || ' ' || p.brand || ' ' || p.category))
+        ORDER BY COALESCE(ts_rank(p.search_vector, product_search_query(:term)), 0) DESC,
+                 word_similarity(LOWER(:term), LOWER(p.name || ' ' || p.brand || ' ' || p.category)) DESC,
+                 p.name, p.id
+        LIMIT :limit
         """)
     @RegisterConstructorMapper(Product.class)
-    Optional<Product> findByNameAndBrand(@Bind("name") String name, @Bind("brand") String brand);
+    List<Product> search(@Bind("term") String term, @Bind("limit") int limit);
 
     // ==========================================
     // Product Count Queries
@@ -160,13 +219,14 @@ public interface ProductDao {
     // ==========================================
 
     @SqlQuery("""
-        SELECT id, product_id as productId, sku, barcode, size, color,
-               selling_price as sellingPrice, avg_cost as avgCost, stock_qty as stockQty,
-               status, default_discount_percent as defaultDiscountPercent,
-               created_at as createdAt, updated_at as updatedAt, created_by as createdBy
-        FROM variants
-        WHERE product_id = :productId
-        ORDER BY created_at ASC
+        SELECT v.id, v.product_id as productId, v.sku, v.barcode, v.size, v.color,
+               v.selling_price as sellingPrice, vs.avg_cost as avgCost, vs.stock_qty as stockQty,
+               v.status, v.default_discount_percent as defaultDiscountPercent,
+               v.created_at as createdAt, v.updated_at as updatedAt, v.created_by as createdBy
+        FROM variants v
+        JOIN v_variant_stock vs ON vs.variant_id = v.id
+        WHERE v.product_id = :productId
+        ORDER BY v.created_at ASC
         """)
     @RegisterConstructorMapper(Variant.class)
     List<Variant> findVariantsByProductId(@Bind("productId") Long productId);
@@ -2,14 +2,21 @@ package com.codewithshiva.retailpos.dao;
 
 import com.codewithshiva.retailpos.model.PurchaseItemWithVariant;
 import com.codewithshiva.retailpos.model.PurchaseWithDetails;
+import com.codewithshiva.retailpos.paging.PageQuery;
+import com.codewithshiva.retailpos.sql.BindFilter;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.customizer.Define;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -29,45 +36,58 @@ public interface PurchaseDao {
                supplierName, createdByName, voidedByName,
                itemCount
         FROM v_purchases_with_details
-        ORDER BY purchased_at DESC
+        WHERE id = :id
         """)
     @RegisterConstructorMapper(PurchaseWithDetails.class)
-    List<PurchaseWithDetails> findAll();
+    Optional<PurchaseWithDetails> findByIdWithDetails(@Bind("id") Long id);
 
-    @SqlQuery("""
-        SELECT id, supplierId, invoiceNo,
-               purchasedAt, totalCost, notes, status, voidedAt, voidedBy, voidReason,
-               createdBy, createdAt, updatedAt,
-               supplierName, createdByName, voidedByName,
-               itemCount
-        FROM v_purchases_with_details
-        WHERE (:supplierId IS NULL OR supplierId = :supplierId)
-          AND (:startDate IS NULL OR purchasedAt >= :startDate)
-          AND (:endDate IS NULL OR purchasedAt < :endDate)
-          AND (
-                :search IS NULL
-                OR LOWER(invoiceNo) LIKE LOWER('%' || :search || '%')
-                OR LOWER(supplierName) LIKE LOWER('%' || :search || '%')
-              )
-        ORDER BY purchasedAt DESC
-        """)
-    @RegisterConstructorMapper(PurchaseWithDetails.class)
-    List<PurchaseWithDetails> findWithFilters(@Bind("supplierId") Long supplierId,
-                                              @Bind("startDate") OffsetDateTime startDate,
-                                              @Bind("endDate") OffsetDateTime endDate,
-                                              @Bind("search") String search);
+    // ==========================================
+    // Purchase List (paged in the database, see PageQuery)
+    // ==========================================
+
+    /**
+     * Filter of the purchase list (purchases p joined to suppliers sup), shared by the page and count queries.
+     */
+    static SqlFilter listFilter(Long supplierId, OffsetDateTime startDate, OffsetDateTime endDate, String search) {
+        return SqlFilter.create()
+                .eq("p.supplier_id", supplierId)
+                .gte("p.purchased_at", startDate)
+                .lt("p.purchased_at", endDate)
+                .containsAny(search, "p.invoice_no", "sup.name");
+    }
 
+    /**
+     * One page of purchases with the columns of v_purchases_with_details; user names and
+     * item counts are looked up for the page rows only.
+     */
     @SqlQuery("""
-        SELECT id, supplierId, invoiceNo,
-               purchasedAt, totalCost, notes, status, voidedAt, voidedBy, voidReason,
-               createdBy, createdAt, updatedAt,
-               supplierName, createdByName, voidedByName,
-               itemCount
-        FROM v_purchases_with_details
-        WHERE id = :id
+        SELECT p.id, p.supplier_id as supplierId, p.invoice_no as invoiceNo,
+               p.purchased_at as purchasedAt, p.total_cost as totalCost, p.notes, p.status,
+               p.voided_at as voidedAt, p.voided_by as voidedBy, p.void_reason as voidReason,
+               p.created_by as createdBy, p.created_at as createdAt, p.updated_at as updatedAt,
+               p.supplier_name as supplierName, u.full_name as createdByName, vu.full_name as voidedByName,
+               (SELECT COUNT(*) FROM purchase_items pi WHERE pi.purchase_id = p.id) as itemCount
+        FROM (
+            SELECT p.*, sup.name AS supplier_name
+            FROM purchases p
+            JOIN suppliers sup ON p.supplier_id = sup.id
+            WHERE <filter>
+              AND <keyset>
+            ORDER BY <orderBy>
+            LIMIT :page.limit OFFSET :page.offset
+        ) p
+        LEFT JOIN users u ON p.created_by = u.id
+        LEFT JOIN users vu ON p.voided_by = vu.id
+        ORDER BY <orderBy>
         """)
     @RegisterConstructorMapper(PurchaseWithDetails.class)
-    Optional<PurchaseWithDetails> findByIdWithDetails(@Bind("id") Long id);
+    List<PurchaseWithDetails> findPage(@BindFilter SqlFilter filter,
+                                       @Define("orderBy") String orderBy,
+                                       @Define("keyset") String keyset,
+                                       @BindBean("page") PageQuery<PurchaseWithDetails> page);
+
+    @SqlQuery("SELECT COUNT(*) FROM purchases p JOIN suppliers sup ON p.supplier_id = sup.id WHERE <filter>")
+    long count(@BindFilter SqlFilter filter);
 
     // ==========================================
     // Purchase Items Query with Variant/Product info
@@ -86,15 +106,24 @@ public interface PurchaseDao {
     @RegisterConstructorMapper(PurchaseItemWithVariant.class)
     List<PurchaseItemWithVariant> findItemsByPurchaseId(@Bind("purchaseId") Long purchaseId);
 
+    /**
+     * Variants (of the given ones) with stock movements after the purchase other than
+     * the purchase itself and its edits, in variant id order.
+     */
     @SqlQuery("""
-        SELECT COUNT(*) FROM v_stock_movements
-        WHERE variant_id = :variantId
-          AND movement_date > :purchasedAt
-          AND NOT (movement_type = 'PURCHASE' AND reference_id = :purchaseId)
+        SELECT v.variant_id
+        FROM unnest(CAST(:variantIds AS BIGINT[])) AS v(variant_id)
+        WHERE EXISTS (
+            SELECT 1 FROM stock_ledger sl
+            WHERE sl.variant_id = v.variant_id
+              AND sl.movement_date > :purchasedAt
+              AND NOT (sl.movement_type IN ('PURCHASE', 'PURCHASE_EDIT') AND sl.reference_id = :purchaseId)
+        )
+        ORDER BY v.variant_id
         """)
-    int countSubsequentMovements(@Bind("variantId") Long variantId,
-                                 @Bind("purchasedAt") OffsetDateTime purchasedAt,
-                                 @Bind("purchaseId") Long purchaseId);
+    List<Long> findVariantsWithSubsequentMovements(@Bind("variantIds") Long[] variantIds,
+                                                   @Bind("purchasedAt") OffsetDateTime purchasedAt,
+                                                   @Bind("purchaseId") Long purchaseId);
 
     // ==========================================
     // Purchase Mutations
@@ -147,45 +176,86 @@ public interface PurchaseDao {
     // Purchase Item Mutations
     // ==========================================
 
+    /**
+     * Insert all items of a purchase in one statement, in line order.
+     *
+     * @return number of items inserted
+     */
     @SqlUpdate("""
         INSERT INTO purchase_items (purchase_id, variant_id, qty, unit_cost)
-        VALUES (:purchaseId, :variantId, :qty, :unitCost)
+        SELECT :purchaseId, i.variant_id, i.qty, i.unit_cost
+        FROM unnest(CAST(:variantIds AS BIGINT[]), CAST(:qtys AS INTEGER[]), CAST(:unitCosts AS NUMERIC(12, 2)[]))
+             WITH ORDINALITY AS i(variant_id, qty, unit_cost, line_no)
+        ORDER BY i.line_no
         """)
-    @GetGeneratedKeys("id")
-    Long createItem(@Bind("purchaseId") Long purchaseId,
-                    @Bind("variantId") Long variantId,
-                    @Bind("qty") Integer qty,
-                    @Bind("unitCost") BigDecimal unitCost);
+    int createItems(@Bind("purchaseId") Long purchaseId,
+                    @Bind("variantIds") Long[] variantIds,
+                    @Bind("qtys") Integer[] qtys,
+                    @Bind("unitCosts") BigDecimal[] unitCosts);
 
     @SqlUpdate("""
-        UPDATE purchase_items
-        SET qty = :qty,
-            unit_cost = :unitCost
-        WHERE id = :id
+        UPDATE purchase_items pi
+        SET qty = u.qty,
+            unit_cost = u.unit_cost
+        FROM unnest(CAST(:ids AS BIGINT[]), CAST(:qtys AS INTEGER[]), CAST(:unitCosts AS NUMERIC(12, 2)[]))
+             AS u(id, qty, unit_cost)
+        WHERE pi.id = u.id
         """)
-    void updateItem(@Bind("id") Long id,
-                    @Bind("qty") Integer qty,
-                    @Bind("unitCost") BigDecimal unitCost);
+    int updateItems(@Bind("ids") Long[] ids,
+                    @Bind("qtys") Integer[] qtys,
+                    @Bind("unitCosts") BigDecimal[] unitCosts);
 
     @SqlUpdate("""
         DELETE FROM purchase_items
-        WHERE id = :id
+        WHERE id IN (<ids>)
         """)
-    void deleteItem(@Bind("id") Long id);
+    int deleteItems(@BindList("ids") Collection<Long> ids);
 
     // ==========================================
     // Stock Update Function Call
     // ==========================================
 
     /**
-     * Calls the PostgreSQL function to update variant stock on purchase.
-     * This function:
-     * - Calculates weighted average cost
-     * - Updates stock_qty and avg_cost atomically
-     * - Uses FOR UPDATE row locking
+     * Add the items of a new purchase to stock in one set-based update (see receive_purchase_stock).
+     *
+     * @return number of variants updated
+     */
+    @SqlQuery("SELECT receive_purchase_stock(:purchaseId)")
+    int receivePurchaseStock(@Bind("purchaseId") Long purchaseId);
+
+    /**
+     * Apply the stock deltas of a purchase edit, one entry per variant (see apply_purchase_stock_deltas).
+     * Each delta goes through update_variant_stock_on_purchase at the given unit cost.
+     *
+     * @return number of variants changed
      */
-    @SqlUpdate("SELECT update_variant_stock_on_purchase(:variantId, :qty, :unitCost)")
-    void updateVariantStockOnPurchase(@Bind("variantId") Long variantId,
-                                      @Bind("qty") Integer qty,
-                                      @Bind("unitCost") BigDecimal unitCost);
+    @SqlQuery("""
+        SELECT apply_purchase_stock_deltas(CAST(:variantIds AS BIGINT[]), CAST(:qtys AS INTEGER[]),
+                                           CAST(:unitCosts AS NUMERIC[]))
+        """)
+    int applyStockDeltas(@Bind("variantIds") Long[] variantIds,
+                         @Bind("qtys") Integer[] qtys,
+                         @Bind("unitCosts") BigDecimal[] unitCosts);
+
+    /**
+     * Take the items of a voided purchase back out of stock: one CORRECTION adjustment
+     * per item and the matching stock decrease, all in one statement.
+     *
+     * @return number of items reversed
+     */
+    @SqlQuery("""
+        WITH adjustments AS (
+            INSERT INTO stock_adjustments (variant_id, delta_qty, reason, notes, created_by)
+            SELECT variant_id, -qty, 'CORRECTION', :notes, :createdBy
+            FROM purchase_items
+            WHERE purchase_id = :purchaseId
+            ORDER BY variant_id, id
+            RETURNING variant_id, delta_qty
+        )
+        SELECT COUNT(adjust_variant_stock(variant_id, delta_qty))::INTEGER
+        FROM adjustments
+        """)
+    int reverseItemsStock(@Bind("purchaseId") Long purchaseId,
+                          @Bind("notes") String notes,
+                          @Bind("createdBy") Long createdBy);
 }
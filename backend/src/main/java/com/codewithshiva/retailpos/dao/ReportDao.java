@@ -1,26 +1,61 @@
 package com.codewithshiva.retailpos.dao;
 
 import com.codewithshiva.retailpos.model.report.*;
+import com.codewithshiva.retailpos.sql.BindFilter;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * JDBI DAO for Report operations.
  */
 public interface ReportDao {
 
+    // ==========================================
+    // Category / brand filters of the product and inventory reports
+    // ==========================================
+
+    /** Filter on products p. */
+    static SqlFilter productFilter(String category, String brand) {
+        return SqlFilter.create()
+                .eq("p.category", category)
+                .eq("p.brand", brand);
+    }
+
+    /** Filter on v_inventory_valuation iv. */
+    static SqlFilter valuationFilter(String category, String brand) {
+        return SqlFilter.create()
+                .eq("iv.category", category)
+                .eq("iv.brand", brand);
+    }
+
+    /** Filter on v_low_stock_variants lsv. */
+    static SqlFilter lowStockFilter(String category, String brand) {
+        return SqlFilter.create()
+                .eq("lsv.product_category", category)
+                .eq("lsv.product_brand", brand);
+    }
+
+    /** Filter on v_low_stock_variants lsv, leaving out items at zero stock unless asked for. */
+    static SqlFilter lowStockItemsFilter(String category, String brand, boolean includeOutOfStock) {
+        return lowStockFilter(category, brand)
+                .when(!includeOutOfStock, "lsv.stock_qty > 0");
+    }
+
     // ==========================================
     // Sales Summary Report - Totals
     // ==========================================
 
     @SqlQuery("""
         SELECT COALESCE(SUM(total), 0) 
-        FROM sales 
+        FROM v_all_sales
         WHERE status = 'COMPLETED' 
           AND sold_at >= :startDate 
           AND sold_at < :endDate
@@ -30,7 +65,7 @@ public interface ReportDao {
 
     @SqlQuery("""
         SELECT COALESCE(SUM(profit), 0) 
-        FROM sales 
+        FROM v_all_sales
         WHERE status = 'COMPLETED' 
           AND sold_at >= :startDate 
           AND sold_at < :endDate
@@ -40,7 +75,7 @@ public interface ReportDao {
 
     @SqlQuery("""
         SELECT COUNT(*) 
-        FROM sales 
+        FROM v_all_sales
         WHERE status = 'COMPLETED' 
           AND sold_at >= :startDate 
           AND sold_at < :endDate
@@ -49,18 +84,21 @@ public interface ReportDao {
                                     @Bind("endDate") OffsetDateTime endDate);
 
     // ==========================================
-    // Sales Summary - Daily Breakdown (uses v_daily_sales_summary)
+    // Sales Summary - Daily Breakdown (same figures as v_daily_sales_summary,
+    // bounded on sold_at so only the partitions in range are read)
     // ==========================================
 
     @SqlQuery("""
         SELECT 
-            TO_CHAR(sale_date, 'YYYY-MM-DD') as period,
-            total_sales as sales,
-            total_profit as profit,
-            transaction_count as transactions
-        FROM v_daily_sales_summary
-        WHERE sale_date >= :startDate AND sale_date <= :endDate
-        ORDER BY sale_date
+            TO_CHAR(DATE(sold_at), 'YYYY-MM-DD') as period,
+            SUM(CASE WHEN status = 'COMPLETED' THEN total ELSE 0 END) as sales,
+            SUM(CASE WHEN status = 'COMPLETED' THEN profit ELSE 0 END) as profit,
+            COUNT(*) as transactions
+        FROM v_all_sales
+        WHERE sold_at >= CAST(:startDate AS TIMESTAMPTZ)
+          AND sold_at < CAST(:endDate AS TIMESTAMPTZ) + INTERVAL '1 day'
+        GROUP BY DATE(sold_at)
+        ORDER BY DATE(sold_at)
         """)
     @RegisterConstructorMapper(SalesPeriodData.class)
     List<SalesPeriodData> getSalesByDay(@Bind("startDate") java.time.LocalDate startDate,
@@ -76,7 +114,7 @@ public interface ReportDao {
             COALESCE(SUM(total), 0) as sales,
             COALESCE(SUM(profit), 0) as profit,
             COUNT(*) as transactions
-        FROM sales
+        FROM v_all_sales
         WHERE status = 'COMPLETED'
           AND sold_at >= :startDate 
           AND sold_at < :endDate
@@ -97,7 +135,7 @@ public interface ReportDao {
             COALESCE(SUM(total), 0) as sales,
             COALESCE(SUM(profit), 0) as profit,
             COUNT(*) as transactions
-        FROM sales
+        FROM v_all_sales
         WHERE status = 'COMPLETED'
           AND sold_at >= :startDate 
           AND sold_at < :endDate
@@ -117,7 +155,7 @@ public interface ReportDao {
             payment_mode as mode,
             COALESCE(SUM(total), 0) as amount,
             COUNT(*) as count
-        FROM sales
+        FROM v_all_sales
         WHERE status = 'COMPLETED'
           AND sold_at >= :startDate 
           AND sold_at < :endDate
@@ -143,15 +181,16 @@ public interface ReportDao {
             SUM(si.qty * si.unit_price) as revenue,
             SUM(si.qty * si.unit_cost_at_sale) as cost,
             SUM((si.unit_price - si.unit_cost_at_sale) * si.qty) as profit
-        FROM sale_items si
-        JOIN sales s ON si.sale_id = s.id
+        FROM v_all_sale_items si
+        JOIN v_all_sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
         JOIN variants v ON si.variant_id = v.id
         JOIN products p ON v.product_id = p.id
         WHERE s.status = 'COMPLETED'
           AND s.sold_at >= :startDate
           AND s.sold_at < :endDate
-          AND (:category IS NULL OR p.category = :category)
-          AND (:brand IS NULL OR p.brand = :brand)
+          AND si.sold_at >= :startDate
+          AND si.sold_at < :endDate
+          AND <filter>
         GROUP BY si.variant_id, p.name, v.sku, p.category, p.brand
         ORDER BY 
             CASE WHEN :sortBy = 'qtySold' AND :sortOrder = 'DESC' THEN SUM(si.qty) END DESC,
@@ -166,35 +205,42 @@ public interface ReportDao {
     @RegisterConstructorMapper(ProductSalesData.class)
     List<ProductSalesData> getTopSellingProducts(@Bind("startDate") OffsetDateTime startDate,
                                                   @Bind("endDate") OffsetDateTime endDate,
-                                                  @Bind("category") String category,
-                                                  @Bind("brand") String brand,
+                                                  @BindFilter SqlFilter filter,
                                                   @Bind("sortBy") String sortBy,
                                                   @Bind("sortOrder") String sortOrder,
                                                   @Bind("limit") Integer limit);
 
     // ==========================================
-    // Product Performance - Slow Movers
+    // Product Performance - Slow Movers (recency from variant_stats)
     // ==========================================
 
     @SqlQuery("""
+        WITH range_sales AS (
+            SELECT si.variant_id, SUM(si.qty) as qty
+            FROM v_all_sales s
+            JOIN v_all_sale_items si ON si.sale_id = s.id AND si.sold_at = s.sold_at
+            WHERE s.status = 'COMPLETED'
+              AND s.sold_at >= :startDate
+              AND s.sold_at < :endDate
+              AND si.sold_at >= :startDate
+              AND si.sold_at < :endDate
+            GROUP BY si.variant_id
+        )
         SELECT 
             v.id as variantId,
             p.name as productName,
             v.sku,
-            COALESCE(SUM(si.qty), 0) as qtySold,
-            COALESCE(EXTRACT(DAY FROM NOW() - MAX(s.sold_at))::INTEGER, 999) as daysSinceLastSale,
-            v.stock_qty as stockQty
+            COALESCE(rs.qty, 0) as qtySold,
+            COALESCE(EXTRACT(DAY FROM NOW() - vs.last_sold_at)::INTEGER, 999) as daysSinceLastSale,
+            st.stock_qty as stockQty
         FROM variants v
+        JOIN v_variant_stock st ON st.variant_id = v.id
         JOIN products p ON v.product_id = p.id
-        LEFT JOIN sale_items si ON si.variant_id = v.id
-        LEFT JOIN sales s ON si.sale_id = s.id 
-            AND s.status = 'COMPLETED'
-            AND s.sold_at >= :startDate
-            AND s.sold_at < :endDate
+        LEFT JOIN range_sales rs ON rs.variant_id = v.id
+        LEFT JOIN variant_stats vs ON vs.variant_id = v.id
         WHERE v.status = 'ACTIVE'
-          AND v.stock_qty > 0
-        GROUP BY v.id, p.name, v.sku, v.stock_qty
-        HAVING COALESCE(SUM(si.qty), 0) < 3
+          AND st.stock_qty > 0
+          AND COALESCE(rs.qty, 0) < 3
         ORDER BY qtySold ASC, daysSinceLastSale DESC
         LIMIT :limit
         """)
@@ -214,13 +260,15 @@ public interface ReportDao {
             SUM(si.qty * si.unit_price) as revenue,
             SUM(si.qty * si.unit_cost_at_sale) as cost,
             SUM((si.unit_price - si.unit_cost_at_sale) * si.qty) as profit
-        FROM sale_items si
-        JOIN sales s ON si.sale_id = s.id
+        FROM v_all_sale_items si
+        JOIN v_all_sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
         JOIN variants v ON si.variant_id = v.id
         JOIN products p ON v.product_id = p.id
         WHERE s.status = 'COMPLETED'
           AND s.sold_at >= :startDate
           AND s.sold_at < :endDate
+          AND si.sold_at >= :startDate
+          AND si.sold_at < :endDate
         GROUP BY p.category
         ORDER BY revenue DESC
         """)
@@ -234,22 +282,26 @@ public interface ReportDao {
 
     @SqlQuery("""
         SELECT COALESCE(SUM(si.qty * si.unit_price), 0)
-        FROM sale_items si
-        JOIN sales s ON si.sale_id = s.id
+        FROM v_all_sale_items si
+        JOIN v_all_sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
         WHERE s.status = 'COMPLETED'
           AND s.sold_at >= :startDate
           AND s.sold_at < :endDate
+          AND si.sold_at >= :startDate
+          AND si.sold_at < :endDate
         """)
     BigDecimal getProfitTotalRevenue(@Bind("startDate") OffsetDateTime startDate,
                                       @Bind("endDate") OffsetDateTime endDate);
 
     @SqlQuery("""
         SELECT COALESCE(SUM(si.qty * si.unit_cost_at_sale), 0)
-        FROM sale_items si
-        JOIN sales s ON si.sale_id = s.id
+        FROM v_all_sale_items si
+        JOIN v_all_sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
         WHERE s.status = 'COMPLETED'
           AND s.sold_at >= :startDate
           AND s.sold_at < :endDate
+          AND si.sold_at >= :startDate
+          AND si.sold_at < :endDate
         """)
     BigDecimal getProfitTotalCost(@Bind("startDate") OffsetDateTime startDate,
                                    @Bind("endDate") OffsetDateTime endDate);
@@ -264,11 +316,13 @@ public interface ReportDao {
             COALESCE(SUM(si.qty * si.unit_price), 0) as revenue,
             COALESCE(SUM(si.qty * si.unit_cost_at_sale), 0) as cost,
             COALESCE(SUM((si.unit_price - si.unit_cost_at_sale) * si.qty), 0) as profit
-        FROM sale_items si
-        JOIN sales s ON si.sale_id = s.id
+        FROM v_all_sale_items si
+        JOIN v_all_sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
         WHERE s.status = 'COMPLETED'
           AND s.sold_at >= :startDate
           AND s.sold_at < :endDate
+          AND si.sold_at >= :startDate
+          AND si.sold_at < :endDate
         GROUP BY DATE(s.sold_at)
         ORDER BY period
         """)
@@ -282,11 +336,13 @@ public interface ReportDao {
             COALESCE(SUM(si.qty * si.unit_price), 0) as revenue,
             COALESCE(SUM(si.qty * si.unit_cost_at_sale), 0) as cost,
             COALESCE(SUM((si.unit_price - si.unit_cost_at_sale) * si.qty), 0) as profit
-        FROM sale_items si
-        JOIN sales s ON si.sale_id = s.id
+        FROM v_all_sale_items si
+        JOIN v_all_sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
         WHERE s.status = 'COMPLETED'
           AND s.sold_at >= :startDate
           AND s.sold_at < :endDate
+          AND si.sold_at >= :startDate
+          AND si.sold_at < :endDate
         GROUP BY DATE_TRUNC('week', s.sold_at)
         ORDER BY period
         """)
@@ -300,11 +356,13 @@ public interface ReportDao {
             COALESCE(SUM(si.qty * si.unit_price), 0) as revenue,
             COALESCE(SUM(si.qty * si.unit_cost_at_sale), 0) as cost,
             COALESCE(SUM((si.unit_price - si.unit_cost_at_sale) * si.qty), 0) as profit
-        FROM sale_items si
-        JOIN sales s ON si.sale_id = s.id
+        FROM v_all_sale_items si
+        JOIN v_all_sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
         WHERE s.status = 'COMPLETED'
           AND s.sold_at >= :startDate
           AND s.sold_at < :endDate
+          AND si.sold_at >= :startDate
+          AND si.sold_at < :endDate
         GROUP BY DATE_TRUNC('month', s.sold_at)
         ORDER BY period
         """)
@@ -313,21 +371,22 @@ public interface ReportDao {
                                                   @Bind("endDate") OffsetDateTime endDate);
 
     // ==========================================
-    // Profit Report - By Cashier (uses v_sales_with_details)
+    // Profit Report - By Cashier
     // ==========================================
 
     @SqlQuery("""
         SELECT 
             s.created_by as userId,
-            s.created_by_name as userName,
+            u.full_name as userName,
             COALESCE(SUM(s.total), 0) as revenue,
             COALESCE(SUM(s.profit), 0) as profit,
             COUNT(*) as transactions
-        FROM v_sales_with_details s
+        FROM v_all_sales s
+        LEFT JOIN users u ON s.created_by = u.id
         WHERE s.status = 'COMPLETED'
           AND s.sold_at >= :startDate
           AND s.sold_at < :endDate
-        GROUP BY s.created_by, s.created_by_name
+        GROUP BY s.created_by, u.full_name
         ORDER BY revenue DESC
         """)
     @RegisterConstructorMapper(CashierSalesData.class)
@@ -335,76 +394,127 @@ public interface ReportDao {
                                                @Bind("endDate") OffsetDateTime endDate);
 
     // ==========================================
-    // Inventory Valuation - Summary (uses v_variants_with_products)
+    // Inventory Valuation - Summary (uses v_inventory_valuation running totals)
     // ==========================================
 
     @SqlQuery("""
-        SELECT COUNT(*) FROM variants WHERE status = 'ACTIVE'
+        SELECT COALESCE(SUM(sku_count), 0) FROM v_inventory_valuation
         """)
     Integer getInventoryTotalSkus();
 
     @SqlQuery("""
-        SELECT COALESCE(SUM(stock_qty), 0) FROM variants WHERE status = 'ACTIVE'
+        SELECT COALESCE(SUM(item_count), 0) FROM v_inventory_valuation
         """)
     Long getInventoryTotalItems();
 
     @SqlQuery("""
-        SELECT COALESCE(SUM(stock_value), 0) 
-        FROM v_variants_with_products 
-        WHERE status = 'ACTIVE'
+        SELECT COALESCE(SUM(cost_value), 0) FROM v_inventory_valuation
         """)
     BigDecimal getInventoryTotalCostValue();
 
     @SqlQuery("""
-        SELECT COALESCE(SUM(stock_qty * selling_price), 0) 
-        FROM v_variants_with_products 
-        WHERE status = 'ACTIVE'
+        SELECT COALESCE(SUM(retail_value), 0) FROM v_inventory_valuation
         """)
     BigDecimal getInventoryTotalRetailValue();
 
     // ==========================================
-    // Inventory Valuation - By Category (uses v_variants_with_products)
+    // Inventory Valuation - By Category (uses v_inventory_valuation running totals)
     // ==========================================
 
     @SqlQuery("""
         SELECT 
-            product_category as groupName,
-            COUNT(*) as skuCount,
-            COALESCE(SUM(stock_qty), 0) as itemCount,
-            COALESCE(SUM(stock_value), 0) as costValue,
-            COALESCE(SUM(stock_qty * selling_price), 0) as retailValue
-        FROM v_variants_with_products
-        WHERE status = 'ACTIVE'
-          AND (:category IS NULL OR product_category = :category)
-          AND (:brand IS NULL OR product_brand = :brand)
-        GROUP BY product_category
+            category as groupName,
+            SUM(sku_count) as skuCount,
+            SUM(item_count) as itemCount,
+            SUM(cost_value) as costValue,
+            SUM(retail_value) as retailValue
+        FROM v_inventory_valuation iv
+        WHERE sku_count > 0
+          AND <filter>
+        GROUP BY category
         ORDER BY costValue DESC
         """)
     @RegisterConstructorMapper(InventoryGroupData.class)
-    List<InventoryGroupData> getInventoryByCategory(@Bind("category") String category,
-                                                     @Bind("brand") String brand);
+    List<InventoryGroupData> getInventoryByCategory(@BindFilter SqlFilter filter);
 
     // ==========================================
-    // Inventory Valuation - By Brand (uses v_variants_with_products)
+    // Inventory Valuation - By Brand (uses v_inventory_valuation running totals)
     // ==========================================
 
     @SqlQuery("""
         SELECT 
-            product_brand as groupName,
-            COUNT(*) as skuCount,
-            COALESCE(SUM(stock_qty), 0) as itemCount,
-            COALESCE(SUM(stock_value), 0) as costValue,
-            COALESCE(SUM(stock_qty * selling_price), 0) as retailValue
-        FROM v_variants_with_products
-        WHERE status = 'ACTIVE'
-          AND (:category IS NULL OR product_category = :category)
-          AND (:brand IS NULL OR product_brand = :brand)
-        GROUP BY product_brand
+            brand as groupName,
+            SUM(sku_count) as skuCount,
+            SUM(item_count) as itemCount,
+            SUM(cost_value) as costValue,
+            SUM(retail_value) as retailValue
+        FROM v_inventory_valuation iv
+        WHERE sku_count > 0
+          AND <filter>
+        GROUP BY brand
         ORDER BY costValue DESC
         """)
     @RegisterConstructorMapper(InventoryGroupData.class)
-    List<InventoryGroupData> getInventoryByBrand(@Bind("category") String category,
-                                                  @Bind("brand") String brand);
+    List<InventoryGroupData> getInventoryByBrand(@BindFilter SqlFilter filter);
+
+    // ==========================================
+    // Inventory Valuation - As Of Date (nearest snapshot plus later stock_ledger movements)
+    // ==========================================
+
+    @SqlQuery("""
+        SELECT snapshot_date FROM inventory_snapshots
+        WHERE as_of <= :asOf
+        ORDER BY as_of DESC
+        LIMIT 1
+        """)
+    Optional<LocalDate> findLatestSnapshotDate(@Bind("asOf") OffsetDateTime asOf);
+
+    /**
+     * Valuation per category and brand at :asOf, starting from the snapshot of :snapshotDate
+     * (or from the first movement when null). Cost uses the snapshot's avg_cost, retail value
+     * and the active SKU set use current prices and status. Movements recorded after a snapshot
+     * but dated before it (backdated purchases) are already added to the snapshot itself.
+     */
+    @SqlQuery("""
+        WITH movements AS (
+            SELECT si.variant_id, si.stock_qty, si.avg_cost
+            FROM inventory_snapshot_items si
+            WHERE si.snapshot_date = :snapshotDate
+
+            UNION ALL
+
+            SELECT sl.variant_id, sl.delta_qty, NULL
+            FROM stock_ledger sl
+            WHERE sl.movement_date >= COALESCE(
+                      (SELECT as_of FROM inventory_snapshots WHERE snapshot_date = :snapshotDate),
+                      '-infinity'::TIMESTAMPTZ)
+              AND sl.movement_date < :asOf
+        ),
+        stock AS (
+            SELECT variant_id, SUM(stock_qty)::BIGINT AS stock_qty, MAX(avg_cost) AS avg_cost
+            FROM movements
+            GROUP BY variant_id
+        )
+        SELECT 
+            p.category,
+            p.brand,
+            COUNT(*)::INTEGER as skuCount,
+            COALESCE(SUM(st.stock_qty), 0)::BIGINT as itemCount,
+            COALESCE(SUM(st.stock_qty * COALESCE(st.avg_cost, vs.avg_cost)), 0) as costValue,
+            COALESCE(SUM(st.stock_qty * v.selling_price), 0) as retailValue
+        FROM variants v
+        JOIN products p ON v.product_id = p.id
+        JOIN variant_stock vs ON vs.variant_id = v.id
+        LEFT JOIN stock st ON st.variant_id = v.id
+        WHERE v.status = 'ACTIVE'
+          AND v.created_at < :asOf
+          AND <filter>
+        GROUP BY p.category, p.brand
+        """)
+    @RegisterConstructorMapper(InventoryCategoryBrandData.class)
+    List<InventoryCategoryBrandData> getInventoryAsOf(@Bind("snapshotDate") LocalDate snapshotDate,
+                                                      @Bind("asOf") OffsetDateTime asOf,
+                                                      @BindFilter SqlFilter filter);
 
     // ==========================================
     // Low Stock Report - Counts (uses v_low_stock_variants)
@@ -412,51 +522,24 @@ public interface ReportDao {
 
     @SqlQuery("""
         SELECT COUNT(*) 
-        FROM v_low_stock_variants 
-        WHERE (:category IS NULL OR product_category = :category)
-          AND (:brand IS NULL OR product_brand = :brand)
+        FROM v_low_stock_variants lsv
+        WHERE <filter>
         """)
-    Integer getLowStockCount(@Bind("category") String category,
-                             @Bind("brand") String brand);
+    Integer getLowStockCount(@BindFilter SqlFilter filter);
 
     @SqlQuery("""
         SELECT COUNT(*) 
-        FROM variants v
-        JOIN products p ON v.product_id = p.id
-        WHERE v.status = 'ACTIVE' 
-          AND v.stock_qty = 0
-          AND (:category IS NULL OR p.category = :category)
-          AND (:brand IS NULL OR p.brand = :brand)
+        FROM v_low_stock_variants lsv
+        WHERE lsv.stock_qty = 0
+          AND <filter>
         """)
-    Integer getOutOfStockCount(@Bind("category") String category,
-                               @Bind("brand") String brand);
+    Integer getOutOfStockCount(@BindFilter SqlFilter filter);
 
     // ==========================================
-    // Low Stock Report - Items with Purchase Info
+    // Low Stock Report - Items with Purchase Info (velocity and last purchase from variant_stats)
     // ==========================================
 
     @SqlQuery("""
-        WITH last_purchase AS (
-            SELECT DISTINCT ON (pi.variant_id)
-                pi.variant_id,
-                pi.unit_cost as last_price,
-                sup.name as supplier_name
-            FROM purchase_items pi
-            JOIN purchases p ON pi.purchase_id = p.id
-            JOIN suppliers sup ON p.supplier_id = sup.id
-            ORDER BY pi.variant_id, p.purchased_at DESC
-        ),
-        monthly_sales AS (
-            SELECT 
-                si.variant_id,
-                COALESCE(SUM(si.qty) / 
-                    GREATEST(1, EXTRACT(MONTH FROM AGE(NOW(), MIN(s.sold_at)))::numeric), 0) as avg_monthly
-            FROM sale_items si
-            JOIN sales s ON si.sale_id = s.id
-            WHERE s.status = 'COMPLETED'
-              AND s.sold_at >= NOW() - INTERVAL '6 months'
-            GROUP BY si.variant_id
-        )
         SELECT 
             lsv.id as variantId,
             lsv.product_name as productName,
@@ -465,71 +548,41 @@ public interface ReportDao {
             lsv.product_brand as brand,
             lsv.stock_qty as currentStock,
             lsv.low_stock_threshold as threshold,
-            COALESCE(ms.avg_monthly, 0) as avgMonthlySales,
-            lp.last_price as lastPurchasePrice,
-            lp.supplier_name as lastSupplier
+            COALESCE(vs.avg_monthly_sales, 0) as avgMonthlySales,
+            vs.last_purchase_price as lastPurchasePrice,
+            sup.name as lastSupplier
         FROM v_low_stock_variants lsv
-        LEFT JOIN last_purchase lp ON lp.variant_id = lsv.id
-        LEFT JOIN monthly_sales ms ON ms.variant_id = lsv.id
-        WHERE (:category IS NULL OR lsv.product_category = :category)
-          AND (:brand IS NULL OR lsv.product_brand = :brand)
-          AND (:includeOutOfStock = true OR lsv.stock_qty > 0)
+        LEFT JOIN variant_stats vs ON vs.variant_id = lsv.id
+        LEFT JOIN suppliers sup ON sup.id = vs.last_supplier_id
+        WHERE <filter>
         ORDER BY lsv.stock_qty ASC
         """)
     @RegisterConstructorMapper(LowStockItemData.class)
-    List<LowStockItemData> getLowStockItems(@Bind("category") String category,
-                                             @Bind("brand") String brand,
-                                             @Bind("includeOutOfStock") Boolean includeOutOfStock);
+    List<LowStockItemData> getLowStockItems(@BindFilter SqlFilter filter);
 
     // ==========================================
     // Low Stock - Out of Stock Items (for when includeOutOfStock is true)
     // ==========================================
 
     @SqlQuery("""
-        WITH last_purchase AS (
-            SELECT DISTINCT ON (pi.variant_id)
-                pi.variant_id,
-                pi.unit_cost as last_price,
-                sup.name as supplier_name
-            FROM purchase_items pi
-            JOIN purchases p ON pi.purchase_id = p.id
-            JOIN suppliers sup ON p.supplier_id = sup.id
-            ORDER BY pi.variant_id, p.purchased_at DESC
-        ),
-        monthly_sales AS (
-            SELECT 
-                si.variant_id,
-                COALESCE(SUM(si.qty) / 
-                    GREATEST(1, EXTRACT(MONTH FROM AGE(NOW(), MIN(s.sold_at)))::numeric), 0) as avg_monthly
-            FROM sale_items si
-            JOIN sales s ON si.sale_id = s.id
-            WHERE s.status = 'COMPLETED'
-              AND s.sold_at >= NOW() - INTERVAL '6 months'
-            GROUP BY si.variant_id
-        )
         SELECT 
-            v.id as variantId,
-            p.name as productName,
-            v.sku,
-            p.category,
-            p.brand,
-            v.stock_qty as currentStock,
-            s.low_stock_threshold as threshold,
-            COALESCE(ms.avg_monthly, 0) as avgMonthlySales,
-            lp.last_price as lastPurchasePrice,
-            lp.supplier_name as lastSupplier
-        FROM variants v
-        JOIN products p ON v.product_id = p.id
-        CROSS JOIN settings s
-        LEFT JOIN last_purchase lp ON lp.variant_id = v.id
-        LEFT JOIN monthly_sales ms ON ms.variant_id = v.id
-        WHERE v.status = 'ACTIVE'
-          AND v.stock_qty = 0
-          AND (:category IS NULL OR p.category = :category)
-          AND (:brand IS NULL OR p.brand = :brand)
-        ORDER BY p.name, v.sku
+            lsv.id as variantId,
+            lsv.product_name as productName,
+            lsv.sku,
+            lsv.product_category as category,
+            lsv.product_brand as brand,
+            lsv.stock_qty as currentStock,
+            lsv.low_stock_threshold as threshold,
+            COALESCE(vs.avg_monthly_sales, 0) as avgMonthlySales,
+            vs.last_purchase_price as lastPurchasePrice,
+            sup.name as lastSupplier
+        FROM v_low_stock_variants lsv
+        LEFT JOIN variant_stats vs ON vs.variant_id = lsv.id
+        LEFT JOIN suppliers sup ON sup.id = vs.last_supplier_id
+        WHERE lsv.stock_qty = 0
+          AND <filter>
+        ORDER BY lsv.product_name, lsv.sku
         """)
     @RegisterConstructorMapper(LowStockItemData.class)
-    List<LowStockItemData> getOutOfStockItems(@Bind("category") String category,
-                                               @Bind("brand") String brand);
+    List<LowStockItemData> getOutOfStockItems(@BindFilter SqlFilter filter);
 }
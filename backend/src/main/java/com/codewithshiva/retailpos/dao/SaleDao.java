@@ -2,6 +2,8 @@ package com.codewithshiva.retailpos.dao;
 
 import com.codewithshiva.retailpos.model.SaleItemWithVariant;
 import com.codewithshiva.retailpos.model.SaleWithDetails;
+import com.codewithshiva.retailpos.sql.BindFilter;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
@@ -22,6 +24,23 @@ public interface SaleDao {
     // Sale Queries using v_sales_with_details view
     // ==========================================
 
+    /**
+     * Filter of the sale list (v_sales_with_details).
+     */
+    static SqlFilter listFilter(OffsetDateTime startDate, OffsetDateTime endDate, String paymentMode,
+                                String status, Long createdBy, String search) {
+        return SqlFilter.create()
+                .gte("sold_at", startDate)
+                .lt("sold_at", endDate)
+                .eq("payment_mode", paymentMode)
+                .eq("status", status)
+                .eq("created_by", createdBy)
+                .matches("""
+                    (LOWER(bill_no) LIKE LOWER('%' || :value || '%')
+                     OR LOWER(customer_name) LIKE LOWER('%' || :value || '%')
+                     OR customer_phone LIKE '%' || :value || '%')""", search);
+    }
+
     @SqlQuery("""
         SELECT id, bill_no as billNo, sold_at as soldAt, customer_name as customerName,
                customer_phone as customerPhone, payment_mode as paymentMode,
@@ -32,11 +51,15 @@ public interface SaleDao {
                created_by_name as createdByName, voided_by_name as voidedByName,
                item_count as itemCount
         FROM v_sales_with_details
+        WHERE <filter>
         ORDER BY sold_at DESC
         """)
     @RegisterConstructorMapper(SaleWithDetails.class)
-    List<SaleWithDetails> findAll();
+    List<SaleWithDetails> findWithFilters(@BindFilter SqlFilter filter);
 
+    /**
+     * Sale by id. Its sold_at is looked up in bill_numbers first, so only the sale's month is read.
+     */
     @SqlQuery("""
         SELECT id, bill_no as billNo, sold_at as soldAt, customer_name as customerName,
                customer_phone as customerPhone, payment_mode as paymentMode,
@@ -47,40 +70,63 @@ public interface SaleDao {
                created_by_name as createdByName, voided_by_name as voidedByName,
                item_count as itemCount
         FROM v_sales_with_details
-        WHERE (:startDate IS NULL OR sold_at >= :startDate)
-          AND (:endDate IS NULL OR sold_at < :endDate)
-          AND (:paymentMode IS NULL OR payment_mode = :paymentMode)
-          AND (:status IS NULL OR status = :status)
-          AND (:createdBy IS NULL OR created_by = :createdBy)
-          AND (:search IS NULL OR (
-               LOWER(bill_no) LIKE LOWER('%' || :search || '%')
-               OR LOWER(customer_name) LIKE LOWER('%' || :search || '%')
-               OR customer_phone LIKE '%' || :search || '%'
-          ))
-        ORDER BY sold_at DESC
+        WHERE id = :id
+          AND sold_at = (SELECT sold_at FROM bill_numbers WHERE sale_id = :id)
         """)
     @RegisterConstructorMapper(SaleWithDetails.class)
-    List<SaleWithDetails> findWithFilters(@Bind("startDate") OffsetDateTime startDate,
-                                          @Bind("endDate") OffsetDateTime endDate,
-                                          @Bind("paymentMode") String paymentMode,
-                                          @Bind("status") String status,
-                                          @Bind("createdBy") Long createdBy,
-                                          @Bind("search") String search);
+    Optional<SaleWithDetails> findByIdWithDetails(@Bind("id") Long id);
 
+    // ==========================================
+    // Sale Search (bill / customer lookup, trigram indexes from V11)
+    // ==========================================
+
+    /**
+     * Top sales matching a search term, best match first: exact bill number, then phone number
+     * ending in the term, then customer name containing it, then bill number containing it.
+     * Each tier returns at most :limit of its newest hits. The exact bill tier is an index lookup,
+     * but the other tiers are served by trigram GIN indexes, which cannot return rows in sold_at
+     * order: every matching bill is fetched and top-N sorted, so their cost grows with the number
+     * of matches (short, common terms), not with :limit. :pattern is the term with LIKE wildcards escaped.
+     * Hits carry their sold_at, so the exact bill lookup (bill_numbers) and the join to the
+     * details read only the months of the hits.
+     */
     @SqlQuery("""
-        SELECT id, bill_no as billNo, sold_at as soldAt, customer_name as customerName,
-               customer_phone as customerPhone, payment_mode as paymentMode,
-               subtotal, discount_percent as discountPercent, discount_amount as discountAmount,
-               tax_percent as taxPercent, tax_amount as taxAmount, total, profit, status,
-               voided_at as voidedAt, voided_by as voidedBy, void_reason as voidReason,
-               created_by as createdBy, created_at as createdAt, updated_at as updatedAt,
-               created_by_name as createdByName, voided_by_name as voidedByName,
-               item_count as itemCount
-        FROM v_sales_with_details
-        WHERE id = :id
+        WITH hits AS (
+            (SELECT sale_id AS id, sold_at, 0 AS rank FROM bill_numbers
+             WHERE LOWER(bill_no) = LOWER(:term))
+            UNION ALL
+            (SELECT id, sold_at, 1 FROM sales
+             WHERE customer_phone LIKE '%' || :pattern
+             ORDER BY sold_at DESC LIMIT :limit)
+            UNION ALL
+            (SELECT id, sold_at, 2 FROM sales
+             WHERE LOWER(customer_name) LIKE '%' || LOWER(:pattern) || '%'
+             ORDER BY sold_at DESC LIMIT :limit)
+            UNION ALL
+            (SELECT id, sold_at, 3 FROM sales
+             WHERE LOWER(bill_no) LIKE '%' || LOWER(:pattern) || '%'
+             ORDER BY sold_at DESC LIMIT :limit)
+        ),
+        ranked AS (
+            SELECT id, sold_at, MIN(rank) AS rank FROM hits GROUP BY id, sold_at
+        )
+        SELECT s.id, s.bill_no as billNo, s.sold_at as soldAt, s.customer_name as customerName,
+               s.customer_phone as customerPhone, s.payment_mode as paymentMode,
+               s.subtotal, s.discount_percent as discountPercent, s.discount_amount as discountAmount,
+               s.tax_percent as taxPercent, s.tax_amount as taxAmount, s.total, s.profit, s.status,
+               s.voided_at as voidedAt, s.voided_by as voidedBy, s.void_reason as voidReason,
+               s.created_by as createdBy, s.created_at as createdAt, s.updated_at as updatedAt,
+               s.created_by_name as createdByName, s.voided_by_name as voidedByName,
+               s.item_count as itemCount
+        FROM ranked r
+        JOIN v_sales_with_details s ON s.id = r.id AND s.sold_at = r.sold_at
+        ORDER BY r.rank, s.sold_at DESC, s.id DESC
+        LIMIT :limit
         """)
     @RegisterConstructorMapper(SaleWithDetails.class)
-    Optional<SaleWithDetails> findByIdWithDetails(@Bind("id") Long id);
+    List<SaleWithDetails> search(@Bind("term") String term,
+                                 @Bind("pattern") String pattern,
+                                 @Bind("limit") int limit);
 
     // ==========================================
     // Sale Items Query with Variant/Product info
@@ -97,10 +143,12 @@ public interface SaleDao {
         JOIN variants v ON si.variant_id = v.id
         JOIN products p ON v.product_id = p.id
         WHERE si.sale_id = :saleId
+          AND si.sold_at = :soldAt
         ORDER BY si.id
         """)
     @RegisterConstructorMapper(SaleItemWithVariant.class)
-    List<SaleItemWithVariant> findItemsBySaleId(@Bind("saleId") Long saleId);
+    List<SaleItemWithVariant> findItemsBySaleId(@Bind("saleId") Long saleId,
+                                                @Bind("soldAt") OffsetDateTime soldAt);
 
     // ==========================================
     // Generate Bill Number Function
@@ -121,8 +169,8 @@ public interface SaleDao {
     // Restore Stock on Void Function
     // ==========================================
 
-    @SqlUpdate("SELECT restore_stock_on_void(:saleId)")
-    void restoreStockOnVoid(@Bind("saleId") Long saleId);
+    @SqlUpdate("SELECT restore_stock_on_void(:saleId, :soldAt)")
+    void restoreStockOnVoid(@Bind("saleId") Long saleId, @Bind("soldAt") OffsetDateTime soldAt);
 
     // ==========================================
     // Get Tax Percent from Settings
@@ -163,11 +211,12 @@ public interface SaleDao {
     // ==========================================
 
     @SqlUpdate("""
-        INSERT INTO sale_items (sale_id, variant_id, qty, unit_price, unit_cost_at_sale, item_discount_percent)
-        VALUES (:saleId, :variantId, :qty, :unitPrice, :unitCostAtSale, :itemDiscountPercent)
+        INSERT INTO sale_items (sale_id, sold_at, variant_id, qty, unit_price, unit_cost_at_sale, item_discount_percent)
+        VALUES (:saleId, :soldAt, :variantId, :qty, :unitPrice, :unitCostAtSale, :itemDiscountPercent)
         """)
     @GetGeneratedKeys("id")
     Long createItem(@Bind("saleId") Long saleId,
+                    @Bind("soldAt") OffsetDateTime soldAt,
                     @Bind("variantId") Long variantId,
                     @Bind("qty") Integer qty,
                     @Bind("unitPrice") BigDecimal unitPrice,
@@ -185,8 +234,10 @@ public interface SaleDao {
             voided_by = :voidedBy,
             void_reason = :voidReason
         WHERE id = :id
+          AND sold_at = :soldAt
         """)
     void voidSale(@Bind("id") Long id,
+                  @Bind("soldAt") OffsetDateTime soldAt,
                   @Bind("voidedAt") OffsetDateTime voidedAt,
                   @Bind("voidedBy") Long voidedBy,
                   @Bind("voidReason") String voidReason);
@@ -198,6 +249,6 @@ public interface SaleDao {
     @SqlQuery("SELECT sku FROM variants WHERE id = :variantId")
     String getVariantSku(@Bind("variantId") Long variantId);
 
-    @SqlQuery("SELECT stock_qty FROM variants WHERE id = :variantId")
+    @SqlQuery("SELECT stock_qty FROM v_variant_stock WHERE variant_id = :variantId")
     Integer getVariantStockQty(@Bind("variantId") Long variantId);
 }
@@ -0,0 +1,29 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+import java.time.LocalDate;
+
+/**
+ * JDBI DAO for the monthly sales/sale_items partitions and their archive (sales_archive).
+ */
+public interface SalesPartitionDao {
+
+    /**
+     * Create the monthly partitions from the month of {@code from} to the month of {@code to}.
+     * Months already created or archived are skipped.
+     *
+     * @return number of months created
+     */
+    @SqlQuery("SELECT create_sales_partitions(:from, :to)")
+    int createPartitions(@Bind("from") LocalDate from, @Bind("to") LocalDate to);
+
+    /**
+     * Move the monthly partitions ending on or before the given date to sales_archive.
+     *
+     * @return number of months archived
+     */
+    @SqlQuery("SELECT archive_sales_partitions(:before)")
+    int archivePartitionsBefore(@Bind("before") LocalDate before);
+}
@@ -0,0 +1,137 @@
+package com.codewithshiva.retailpos.dao;
+
+import com.codewithshiva.retailpos.model.StockTake;
+import com.codewithshiva.retailpos.model.StockTakeVariance;
+import com.codewithshiva.retailpos.sql.BindFilter;
+import com.codewithshiva.retailpos.sql.SqlFilter;
+import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBI DAO for stock take sessions.
+ * Counts are passed as parallel barcode / quantity arrays and joined to the catalog
+ * with unnest, so diffing or applying a count of any size is a single round trip.
+ */
+public interface StockTakeDao {
+
+    @SqlQuery("""
+        SELECT id, status, category, brand, notes,
+               scanned_barcodes as scannedBarcodes, adjusted_variants as adjustedVariants,
+               net_delta_qty as netDeltaQty, created_by as createdBy, created_at as createdAt,
+               closed_by as closedBy, closed_at as closedAt
+        FROM stock_takes
+        WHERE id = :id
+        """)
+    @RegisterConstructorMapper(StockTake.class)
+    Optional<StockTake> findById(@Bind("id") Long id);
+
+    /**
+     * Filter of the stock take list, by status when one is given.
+     */
+    static SqlFilter listFilter(String status) {
+        return SqlFilter.create().eq("status", status);
+    }
+
+    @SqlQuery("""
+        SELECT id, status, category, brand, notes,
+               scanned_barcodes as scannedBarcodes, adjusted_variants as adjustedVariants,
+               net_delta_qty as netDeltaQty, created_by as createdBy, created_at as createdAt,
+               closed_by as closedBy, closed_at as closedAt
+        FROM stock_takes
+        WHERE <filter>
+        ORDER BY created_at DESC
+        LIMIT 100
+        """)
+    @RegisterConstructorMapper(StockTake.class)
+    List<StockTake> findAll(@BindFilter SqlFilter filter);
+
+    @SqlUpdate("""
+        INSERT INTO stock_takes (category, brand, notes, created_by)
+        VALUES (:category, :brand, :notes, :createdBy)
+        """)
+    @GetGeneratedKeys("id")
+    Long create(@Bind("category") String category,
+                @Bind("brand") String brand,
+                @Bind("notes") String notes,
+                @Bind("createdBy") Long createdBy);
+
+    /**
+     * Variants a stock take counts (variants v joined to products p): active ones in its category and brand.
+     */
+    static SqlFilter scopeFilter(String category, String brand) {
+        return SqlFilter.create()
+                .where("v.status = 'ACTIVE'")
+                .eq("p.category", category)
+                .eq("p.brand", brand);
+    }
+
+    /**
+     * Counted vs system stock for every scanned variant and every active variant in scope.
+     * Scanned barcodes that match no variant are not returned.
+     */
+    @SqlQuery("""
+        WITH counted AS (
+            SELECT barcode, counted_qty
+            FROM unnest(CAST(:barcodes AS TEXT[]), CAST(:countedQtys AS INTEGER[])) AS c(barcode, counted_qty)
+        )
+        SELECT v.id as variantId, v.sku, v.barcode, p.name as productName, v.size, v.color,
+               vs.stock_qty as systemQty, COALESCE(c.counted_qty, 0) as countedQty, vs.avg_cost as avgCost
+        FROM variants v
+        JOIN products p ON v.product_id = p.id
+        JOIN v_variant_stock vs ON vs.variant_id = v.id
+        LEFT JOIN counted c ON c.barcode = v.barcode
+        WHERE c.barcode IS NOT NULL
+           OR (<scope>)
+        ORDER BY p.name, v.sku
+        """)
+    @RegisterConstructorMapper(StockTakeVariance.class)
+    List<StockTakeVariance> findVariances(@Bind("barcodes") String[] barcodes,
+                                          @Bind("countedQtys") Integer[] countedQtys,
+                                          @BindFilter("scope") SqlFilter scope);
+
+    /**
+     * Write a CORRECTION adjustment for every variant whose count differs from its stock
+     * and move the stock by the same amount (apply_stock_take_variances). Variants are
+     * locked in variant id order, like checkouts and voids.
+     *
+     * @return number of variants adjusted
+     */
+    @SqlQuery("""
+        SELECT apply_stock_take_variances(:stockTakeId, CAST(:barcodes AS TEXT[]), CAST(:countedQtys AS INTEGER[]),
+                                          CAST(:category AS VARCHAR), CAST(:brand AS VARCHAR), :createdBy)
+        """)
+    int applyVariances(@Bind("stockTakeId") Long stockTakeId,
+                       @Bind("barcodes") String[] barcodes,
+                       @Bind("countedQtys") Integer[] countedQtys,
+                       @Bind("category") String category,
+                       @Bind("brand") String brand,
+                       @Bind("createdBy") Long createdBy);
+
+    @SqlUpdate("""
+        UPDATE stock_takes
+        SET status = 'APPLIED',
+            scanned_barcodes = :scannedBarcodes,
+            adjusted_variants = :adjustedVariants,
+            net_delta_qty = (SELECT COALESCE(SUM(delta_qty), 0) FROM stock_adjustments WHERE stock_take_id = :id),
+            closed_by = :closedBy,
+            closed_at = CURRENT_TIMESTAMP
+        WHERE id = :id AND status = 'OPEN'
+        """)
+    int markApplied(@Bind("id") Long id,
+                    @Bind("scannedBarcodes") int scannedBarcodes,
+                    @Bind("adjustedVariants") int adjustedVariants,
+                    @Bind("closedBy") Long closedBy);
+
+    @SqlUpdate("""
+        UPDATE stock_takes
+        SET status = 'CANCELLED', closed_by = :closedBy, closed_at = CURRENT_TIMESTAMP
+        WHERE id = :id AND status = 'OPEN'
+        """)
+    int cancel(@Bind("id") Long id, @Bind("closedBy") Long closedBy);
+}
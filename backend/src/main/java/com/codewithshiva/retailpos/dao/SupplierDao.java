@@ -1,8 +1,13 @@
 package com.codewithshiva.retailpos.dao;
 
 import com.codewithshiva.retailpos.model.Supplier;
+import com.codewithshiva.retailpos.paging.PageQuery;
+import com.codewithshiva.retailpos.sql.BindFilter;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.Define;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
@@ -29,29 +34,35 @@ public interface SupplierDao {
         """)
     Optional<Supplier> findById(@Bind("id") Long id);
 
-    @SqlQuery("""
-        SELECT id, name, phone, email, address, gst_number as gstNumber,
-               is_active as isActive, created_at as createdAt, 
-               updated_at as updatedAt, created_by as createdBy
-        FROM suppliers
-        WHERE is_active = true
-        ORDER BY name ASC
-        """)
-    List<Supplier> findAllActive();
+    /**
+     * Filter of the supplier list (active suppliers), shared by the page and count queries.
+     */
+    static SqlFilter listFilter(String search) {
+        return SqlFilter.create()
+                .where("is_active = true")
+                .containsAny(search, "name", "phone");
+    }
 
+    /**
+     * One page of active suppliers (paged in the database, see PageQuery).
+     */
     @SqlQuery("""
         SELECT id, name, phone, email, address, gst_number as gstNumber,
                is_active as isActive, created_at as createdAt, 
                updated_at as updatedAt, created_by as createdBy
         FROM suppliers
-        WHERE is_active = true
-          AND (
-               LOWER(name) LIKE LOWER('%' || :search || '%')
-               OR LOWER(phone) LIKE LOWER('%' || :search || '%')
-          )
-        ORDER BY name ASC
+        WHERE <filter>
+          AND <keyset>
+        ORDER BY <orderBy>
+        LIMIT :page.limit OFFSET :page.offset
         """)
-    List<Supplier> findWithSearch(@Bind("search") String search);
+    List<Supplier> findPage(@BindFilter SqlFilter filter,
+                            @Define("orderBy") String orderBy,
+                            @Define("keyset") String keyset,
+                            @BindBean("page") PageQuery<Supplier> page);
+
+    @SqlQuery("SELECT COUNT(*) FROM suppliers WHERE <filter>")
+    long count(@BindFilter SqlFilter filter);
 
     @SqlQuery("""
         SELECT id, name, phone, email, address, gst_number as gstNumber,
@@ -1,14 +1,21 @@
 package com.codewithshiva.retailpos.dao;
 
 import com.codewithshiva.retailpos.model.Variant;
+import com.codewithshiva.retailpos.model.VariantPriceSnapshot;
 import com.codewithshiva.retailpos.model.VariantWithProduct;
+import com.codewithshiva.retailpos.paging.PageQuery;
+import com.codewithshiva.retailpos.sql.BindFilter;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
 import org.jdbi.v3.sqlobject.customizer.Bind;
-import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.customizer.BindBean;
+import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.customizer.Define;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -47,64 +54,25 @@ public interface VariantDao {
     @RegisterConstructorMapper(VariantWithProduct.class)
     Optional<VariantWithProduct> findByBarcodeWithProduct(@Bind("barcode") String barcode);
 
-    @SqlQuery("""
-        SELECT id, product_id as productId, product_name as productName, 
-               product_brand as productBrand, product_category as productCategory, product_hsn as productHsn,
-               sku, barcode, size, color, selling_price as sellingPrice, 
-               avg_cost as avgCost, stock_qty as stockQty, status, 
-               created_at as createdAt, updated_at as updatedAt,
-               effective_discount_percent as effectiveDiscountPercent
-        FROM v_variants_with_products
-        WHERE (:productId IS NULL OR product_id = :productId)
-          AND (:category IS NULL OR product_category = :category)
-          AND (:brand IS NULL OR product_brand = :brand)
-          AND (:status IS NULL OR status = :status)
-          AND (:search IS NULL OR (
-               LOWER(sku) LIKE LOWER('%' || :search || '%')
-               OR LOWER(barcode) LIKE LOWER('%' || :search || '%')
-               OR LOWER(product_name) LIKE LOWER('%' || :search || '%')
-               OR LOWER(product_hsn) LIKE LOWER('%' || :search || '%')
-          ))
-        ORDER BY updated_at DESC
-        """)
-    @RegisterConstructorMapper(VariantWithProduct.class)
-    List<VariantWithProduct> findWithFilters(@Bind("productId") Long productId,
-                                             @Bind("category") String category,
-                                             @Bind("brand") String brand,
-                                             @Bind("status") String status,
-                                             @Bind("search") String search);
-
     // ==========================================
-    // Low Stock & Out of Stock Queries
+    // Variant List (paged in the database, see PageQuery)
+    // Low stock membership comes from low_stock_variants
     // ==========================================
 
-    @SqlQuery("""
-        SELECT v.id, v.product_id as productId, p.name as productName, 
-               p.brand as productBrand, p.category as productCategory, p.hsn as productHsn,
-               v.sku, v.barcode, v.size, v.color, v.selling_price as sellingPrice, 
-               v.avg_cost as avgCost, v.stock_qty as stockQty, v.status, 
-               v.created_at as createdAt, v.updated_at as updatedAt,
-               COALESCE(v.default_discount_percent, p.default_discount_percent) as effectiveDiscountPercent
-        FROM v_low_stock_variants v
-        JOIN products p ON v.product_id = p.id
-        WHERE (:productId IS NULL OR v.product_id = :productId)
-          AND (:category IS NULL OR p.category = :category)
-          AND (:brand IS NULL OR p.brand = :brand)
-          AND (:status IS NULL OR v.status = :status)
-          AND (:search IS NULL OR (
-               LOWER(v.sku) LIKE LOWER('%' || :search || '%')
-               OR LOWER(v.barcode) LIKE LOWER('%' || :search || '%')
-               OR LOWER(p.name) LIKE LOWER('%' || :search || '%')
-               OR LOWER(p.hsn) LIKE LOWER('%' || :search || '%')
-          ))
-        ORDER BY v.stock_qty ASC
-        """)
-    @RegisterConstructorMapper(VariantWithProduct.class)
-    List<VariantWithProduct> findLowStock(@Bind("productId") Long productId,
-                                          @Bind("category") String category,
-                                          @Bind("brand") String brand,
-                                          @Bind("status") String status,
-                                          @Bind("search") String search);
+    /**
+     * Filter of the variant list (v_variants_with_products), shared by the page and count queries.
+     */
+    static SqlFilter listFilter(Long productId, String category, String brand, String status,
+                                boolean lowStock, boolean outOfStock, String search) {
+        return SqlFilter.create()
+                .eq("product_id", productId)
+                .eq("product_category", category)
+                .eq("product_brand", brand)
+                .eq("status", status)
+                .when(outOfStock, "stock_qty = 0")
+                .when(lowStock, "id IN (SELECT variant_id FROM low_stock_variants)")
+                .containsAny(search, "sku", "barcode", "product_name", "product_hsn");
+    }
 
     @SqlQuery("""
         SELECT id, product_id as productId, product_name as productName, 
@@ -114,25 +82,19 @@ public interface VariantDao {
                created_at as createdAt, updated_at as updatedAt,
                effective_discount_percent as effectiveDiscountPercent
         FROM v_variants_with_products
-        WHERE stock_qty = 0
-          AND (:productId IS NULL OR product_id = :productId)
-          AND (:category IS NULL OR product_category = :category)
-          AND (:brand IS NULL OR product_brand = :brand)
-          AND (:status IS NULL OR status = :status)
-          AND (:search IS NULL OR (
-               LOWER(sku) LIKE LOWER('%' || :search || '%')
-               OR LOWER(barcode) LIKE LOWER('%' || :search || '%')
-               OR LOWER(product_name) LIKE LOWER('%' || :search || '%')
-               OR LOWER(product_hsn) LIKE LOWER('%' || :search || '%')
-          ))
-        ORDER BY updated_at DESC
+        WHERE <filter>
+          AND <keyset>
+        ORDER BY <orderBy>
+        LIMIT :page.limit OFFSET :page.offset
         """)
     @RegisterConstructorMapper(VariantWithProduct.class)
-    List<VariantWithProduct> findOutOfStock(@Bind("productId") Long productId,
-                                            @Bind("category") String category,
-                                            @Bind("brand") String brand,
-                                            @Bind("status") String status,
-                                            @Bind("search") String search);
+    List<VariantWithProduct> findPage(@BindFilter SqlFilter filter,
+                                      @Define("orderBy") String orderBy,
+                                      @Define("keyset") String keyset,
+                                      @BindBean("page") PageQuery<VariantWithProduct> page);
+
+    @SqlQuery("SELECT COUNT(*) FROM v_variants_with_products WHERE <filter>")
+    long count(@BindFilter SqlFilter filter);
 
     // ==========================================
     // Search for POS autocomplete
@@ -168,45 +130,49 @@ public interface VariantDao {
     // ==========================================
 
     @SqlQuery("""
-        SELECT id, product_id as productId, sku, barcode, size, color,
-               selling_price as sellingPrice, avg_cost as avgCost, stock_qty as stockQty,
-               status, default_discount_percent as defaultDiscountPercent,
-               created_at as createdAt, updated_at as updatedAt, created_by as createdBy
-        FROM variants
-        WHERE sku = :sku
+        SELECT v.id, v.product_id as productId, v.sku, v.barcode, v.size, v.color,
+               v.selling_price as sellingPrice, vs.avg_cost as avgCost, vs.stock_qty as stockQty,
+               v.status, v.default_discount_percent as defaultDiscountPercent,
+               v.created_at as createdAt, v.updated_at as updatedAt, v.created_by as createdBy
+        FROM variants v
+        JOIN v_variant_stock vs ON vs.variant_id = v.id
+        WHERE v.sku = :sku
         """)
     @RegisterConstructorMapper(Variant.class)
     Optional<Variant> findBySku(@Bind("sku") String sku);
 
     @SqlQuery("""
-        SELECT id, product_id as productId, sku, barcode, size, color,
-               selling_price as sellingPrice, avg_cost as avgCost, stock_qty as stockQty,
-               status, default_discount_percent as defaultDiscountPercent,
-               created_at as createdAt, updated_at as updatedAt, created_by as createdBy
-        FROM variants
-        WHERE barcode = :barcode
+        SELECT v.id, v.product_id as productId, v.sku, v.barcode, v.size, v.color,
+               v.selling_price as sellingPrice, vs.avg_cost as avgCost, vs.stock_qty as stockQty,
+               v.status, v.default_discount_percent as defaultDiscountPercent,
+               v.created_at as createdAt, v.updated_at as updatedAt, v.created_by as createdBy
+        FROM variants v
+        JOIN v_variant_stock vs ON vs.variant_id = v.id
+        WHERE v.barcode = :barcode
         """)
     @RegisterConstructorMapper(Variant.class)
     Optional<Variant> findByBarcode(@Bind("barcode") String barcode);
 
     @SqlQuery("""
-        SELECT id, product_id as productId, sku, barcode, size, color,
-               selling_price as sellingPrice, avg_cost as avgCost, stock_qty as stockQty,
-               status, default_discount_percent as defaultDiscountPercent,
-               created_at as createdAt, updated_at as updatedAt, created_by as createdBy
-        FROM variants
-        WHERE sku = :sku AND id != :excludeId
+        SELECT v.id, v.product_id as productId, v.sku, v.barcode, v.size, v.color,
+               v.selling_price as sellingPrice, vs.avg_cost as avgCost, vs.stock_qty as stockQty,
+               v.status, v.default_discount_percent as defaultDiscountPercent,
+               v.created_at as createdAt, v.updated_at as updatedAt, v.created_by as createdBy
+        FROM variants v
+        JOIN v_variant_stock vs ON vs.variant_id = v.id
+        WHERE v.sku = :sku AND v.id != :excludeId
         """)
     @RegisterConstructorMapper(Variant.class)
     Optional<Variant> findBySkuExcludingId(@Bind("sku") String sku, @Bind("excludeId") Long excludeId);
 
     @SqlQuery("""
-        SELECT id, product_id as productId, sku, barcode, size, color,
-               selling_price as sellingPrice, avg_cost as avgCost, stock_qty as stockQty,
-               status, default_discount_percent as defaultDiscountPercent,
-               created_at as createdAt, updated_at as updatedAt, created_by as createdBy
-        FROM variants
-        WHERE barcode = :barcode AND id != :excludeId
+        SELECT v.id, v.product_id as productId, v.sku, v.barcode, v.size, v.color,
+               v.selling_price as sellingPrice, vs.avg_cost as avgCost, vs.stock_qty as stockQty,
+               v.status, v.default_discount_percent as defaultDiscountPercent,
+               v.created_at as createdAt, v.updated_at as updatedAt, v.created_by as createdBy
+        FROM variants v
+        JOIN v_variant_stock vs ON vs.variant_id = v.id
+        WHERE v.barcode = :barcode AND v.id != :excludeId
         """)
     @RegisterConstructorMapper(Variant.class)
     Optional<Variant> findByBarcodeExcludingId(@Bind("barcode") String barcode, @Bind("excludeId") Long excludeId);
@@ -215,11 +181,28 @@ public interface VariantDao {
     // Variant Mutations
     // ==========================================
 
-    @SqlUpdate("""
-        INSERT INTO variants (product_id, sku, barcode, size, color, selling_price, avg_cost, default_discount_percent, created_by)
-        VALUES (:productId, :sku, :barcode, :size, :color, :sellingPrice, :avgCost, :defaultDiscountPercent, :createdBy)
+    /**
+     * Hold the catalog lock (shared) until the transaction ends. Taken before the SKU and
+     * barcode checks, so a bulk catalog import (which takes it exclusively) never lands
+     * between a check and the write it guards.
+     */
+    @SqlUpdate("SELECT pg_advisory_xact_lock_shared(hashtext('catalog'))")
+    void lockCatalogShared();
+
+    /**
+     * Create a variant together with its variant_stock row, which carries the opening avg_cost.
+     */
+    @SqlQuery("""
+        WITH new_variant AS (
+            INSERT INTO variants (product_id, sku, barcode, size, color, selling_price, default_discount_percent, created_by)
+            VALUES (:productId, :sku, :barcode, :size, :color, :sellingPrice, :defaultDiscountPercent, :createdBy)
+            RETURNING id
+        ), new_stock AS (
+            INSERT INTO variant_stock (variant_id, avg_cost)
+            SELECT id, COALESCE(:avgCost, 0) FROM new_variant
+        )
+        SELECT id FROM new_variant
         """)
-    @GetGeneratedKeys("id")
     Long create(@Bind("productId") Long productId,
                 @Bind("sku") String sku,
                 @Bind("barcode") String barcode,
@@ -231,13 +214,19 @@ public interface VariantDao {
                 @Bind("createdBy") Long createdBy);
 
     @SqlUpdate("""
+        WITH stock AS (
+            UPDATE variant_stock
+            SET avg_cost = :avgCost,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE variant_id = :id
+              AND avg_cost IS DISTINCT FROM :avgCost
+        )
         UPDATE variants
         SET sku = :sku,
             barcode = :barcode,
             size = :size,
             color = :color,
             selling_price = :sellingPrice,
-            avg_cost = :avgCost,
             default_discount_percent = :defaultDiscountPercent
         WHERE id = :id
         """)
@@ -269,13 +258,30 @@ public interface VariantDao {
     // ==========================================
 
     @SqlQuery("""
-        SELECT id, product_id as productId, sku, barcode, size, color,
-               selling_price as sellingPrice, avg_cost as avgCost, stock_qty as stockQty,
-               status, default_discount_percent as defaultDiscountPercent,
-               created_at as createdAt, updated_at as updatedAt, created_by as createdBy
-        FROM variants
-        WHERE id = :id
+        SELECT v.id, v.product_id as productId, v.sku, v.barcode, v.size, v.color,
+               v.selling_price as sellingPrice, vs.avg_cost as avgCost, vs.stock_qty as stockQty,
+               v.status, v.default_discount_percent as defaultDiscountPercent,
+               v.created_at as createdAt, v.updated_at as updatedAt, v.created_by as createdBy
+        FROM variants v
+        JOIN v_variant_stock vs ON vs.variant_id = v.id
+        WHERE v.id = :id
         """)
     @RegisterConstructorMapper(Variant.class)
     Optional<Variant> findById(@Bind("id") Long id);
+
+    @SqlQuery("SELECT id FROM variants WHERE id IN (<ids>)")
+    List<Long> findExistingIds(@BindList("ids") Collection<Long> ids);
+
+    // ==========================================
+    // Price Snapshots (for cart quotes)
+    // ==========================================
+
+    @SqlQuery("""
+        SELECT id, product_id as productId, product_name as productName, sku, barcode,
+               selling_price as sellingPrice, effective_discount_percent as effectiveDiscountPercent
+        FROM v_variants_with_products
+        WHERE id IN (<ids>)
+        """)
+    @RegisterConstructorMapper(VariantPriceSnapshot.class)
+    List<VariantPriceSnapshot> findPriceSnapshots(@BindList("ids") List<Long> ids);
 }
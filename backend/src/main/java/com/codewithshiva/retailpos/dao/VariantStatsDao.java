@@ -0,0 +1,22 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+/**
+ * JDBI DAO for the variant_stats table.
+ * Rows are maintained by triggers on sales, sale items, purchases and purchase items;
+ * this DAO only drives the periodic refresh of the rolling sales windows.
+ */
+public interface VariantStatsDao {
+
+    /**
+     * Recompute the 7/30/90/180-day quantities and average monthly sales of the next
+     * batch of variants after the given id. Locks only that batch's rows, so call it
+     * outside a surrounding transaction.
+     *
+     * @return last variant id of the batch, or null when there are no more variants
+     */
+    @SqlQuery("SELECT refresh_variant_sales_windows(:afterVariantId, :batchSize)")
+    Long refreshSalesWindows(@Bind("afterVariantId") Long afterVariantId, @Bind("batchSize") int batchSize);
+}
@@ -0,0 +1,28 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+/**
+ * JDBI DAO for striped variant stock (variant_stock_stripes).
+ * Checkouts, purchases and adjustments go through the stock functions in SaleDao,
+ * PurchaseDao and InventoryDao; this DAO switches the mode and drives the rebalance.
+ */
+public interface VariantStockDao {
+
+    /**
+     * Split a variant's stock across the given number of stripes (0 folds them back).
+     *
+     * @return the variant's total stock, or null if the variant does not exist
+     */
+    @SqlQuery("SELECT set_variant_stock_stripes(:variantId, :stripeCount)")
+    Integer setStripeCount(@Bind("variantId") Long variantId, @Bind("stripeCount") int stripeCount);
+
+    /**
+     * Move unstriped stock into the stripes and even them out, skipping rows in use.
+     *
+     * @return number of variants rebalanced
+     */
+    @SqlQuery("SELECT rebalance_variant_stock_stripes()")
+    int rebalanceStripes();
+}
@@ -0,0 +1,32 @@
+package com.codewithshiva.retailpos.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One Hikari pool per {@link Workload} against the same database.
+ * Each pool has its own size and connection timeout and publishes Hikari's metrics
+ * (hikaricp.connections.active, .pending, .usage, .timeout...) tagged with its pool name.
+ */
+public class ConnectionPools implements AutoCloseable {
+
+    private final Map<Workload, HikariDataSource> pools = new EnumMap<>(Workload.class);
+
+    public ConnectionPools(Function<Workload, HikariDataSource> poolFactory) {
+        for (Workload workload : Workload.values()) {
+            pools.put(workload, poolFactory.apply(workload));
+        }
+    }
+
+    public HikariDataSource get(Workload workload) {
+        return pools.get(workload);
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
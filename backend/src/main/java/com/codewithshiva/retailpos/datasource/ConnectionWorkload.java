@@ -0,0 +1,21 @@
+package com.codewithshiva.retailpos.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a service method, or every method of a service, on the connection pool of the given
+ * workload. The WorkloadAspect sets it for the duration of the call; a transaction keeps the
+ * pool of the connection it started with. Unannotated code runs as {@link Workload#INTERACTIVE}.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConnectionWorkload {
+
+    /**
+     * The workload whose pool serves the call.
+     */
+    Workload value();
+}
@@ -0,0 +1,78 @@
+package com.codewithshiva.retailpos.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Health of the read replica: reachable and replaying within the allowed lag.
+ * Checked periodically, and marked down as soon as a connection to it fails; while it is
+ * down, read-only transactions run on the primary. Starts down until the first check passes.
+ */
+@Slf4j
+public class ReplicaHealth {
+
+    /**
+     * Seconds since the last replayed transaction, or 0 when everything received is replayed
+     * (an idle primary sends nothing, so the replay timestamp alone would look stale).
+     * Also 0 on a server that is not a standby, e.g. a second local instance used for testing.
+     */
+    private static final String LAG_SQL = """
+            SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE COALESCE(EXTRACT(EPOCH FROM NOW() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    private final DataSource replica;
+    private final double maxLagSeconds;
+    private volatile boolean up;
+
+    public ReplicaHealth(DataSource replica, double maxLagSeconds) {
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public boolean isUp() {
+        return up;
+    }
+
+    /**
+     * Take the replica out of rotation until the next successful check.
+     */
+    public void markDown(SQLException e) {
+        update(false, e.getMessage());
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval-ms:5000}")
+    public void check() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_SQL)) {
+            rs.next();
+            double lagSeconds = rs.getDouble(1);
+            if (lagSeconds > maxLagSeconds) {
+                update(false, "replication lag " + lagSeconds + "s");
+            } else {
+                update(true, null);
+            }
+        } catch (SQLException e) {
+            update(false, e.getMessage());
+        }
+    }
+
+    private void update(boolean nowUp, String reason) {
+        if (nowUp != up) {
+            if (nowUp) {
+                log.info("Read replica is up, read-only transactions use it");
+            } else {
+                log.warn("Read replica is down ({}), read-only transactions use the primary", reason);
+            }
+        }
+        up = nowUp;
+    }
+}
@@ -0,0 +1,113 @@
+package com.codewithshiva.retailpos.datasource;
+
+import com.codewithshiva.retailpos.security.CustomUserDetails;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks the pool for each connection: the pool of the current {@link Workload}, on the read
+ * replica for read-only transactions (when a replica is configured) and on the primary otherwise.
+ * Reads stay on the primary while the replica is down, and for a user's reads for a few
+ * seconds after that user committed a write (a sale, a purchase...), so they see their own
+ * change even while the replica is still replaying it.
+ * Wrapped in a LazyConnectionDataSourceProxy, so the connection is only fetched once the
+ * transaction, and with it the read-only flag and the workload, has begun.
+ */
+public class RoutingDataSource extends AbstractDataSource {
+
+    private final ConnectionPools primary;
+    private final ConnectionPools replica;
+    private final ReplicaHealth replicaHealth;
+    private final long stickyMillis;
+    private final Map<Long, Long> primaryUntilByUser = new ConcurrentHashMap<>();
+
+    /**
+     * Routing without a replica: every connection comes from the primary pools.
+     */
+    public RoutingDataSource(ConnectionPools primary) {
+        this(primary, null, null, 0);
+    }
+
+    public RoutingDataSource(ConnectionPools primary, ConnectionPools replica, ReplicaHealth replicaHealth,
+                             long stickyMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaHealth = replicaHealth;
+        this.stickyMillis = stickyMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Workload workload = WorkloadContext.get();
+        if (replica == null) {
+            return primary.get(workload).getConnection();
+        }
+
+        Long userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            stickToPrimaryAfterCommit(userId);
+            return primary.get(workload).getConnection();
+        }
+        if (replicaHealth.isUp() && !isStuckToPrimary(userId)) {
+            try {
+                return replica.get(workload).getConnection();
+            } catch (SQLException e) {
+                // A pool timeout without a cause is a saturated replica pool, not a down replica:
+                // this read moves to the primary pool of the same workload, the others stay put
+                if (!(e instanceof SQLTransientConnectionException) || e.getCause() != null) {
+                    replicaHealth.markDown(e);
+                }
+            }
+        }
+        return primary.get(workload).getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.get(WorkloadContext.get()).getConnection(username, password);
+    }
+
+    private void stickToPrimaryAfterCommit(Long userId) {
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                primaryUntilByUser.put(userId, System.currentTimeMillis() + stickyMillis);
+            }
+        });
+    }
+
+    private boolean isStuckToPrimary(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        Long until = primaryUntilByUser.get(userId);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        primaryUntilByUser.remove(userId, until);
+        return false;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
+            return userDetails.getUserId();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.codewithshiva.retailpos.datasource;
+
+/**
+ * Workload classes, each with its own connection pool, so one class running out of
+ * connections cannot starve the others (a long profit report cannot hold up checkout).
+ */
+public enum Workload {
+
+    /** Requests from the counter and back office: checkout, lookups, lists, edits. */
+    INTERACTIVE("interactive", 10, 30_000),
+
+    /** Reports and dashboard aggregates. */
+    REPORTING("reporting", 3, 60_000),
+
+    /**
+     * Scheduled jobs: snapshots, partitions, stock rebalance, valuation folds, stats refresh,
+     * token cleanup. They run one at a time on the scheduler thread.
+     */
+    BACKGROUND("background", 2, 60_000),
+
+    /**
+     * Async audit writes. Kept apart from BACKGROUND, where a long job (a snapshot or a
+     * partition detach) would make them wait, time out, and lose the audit row.
+     */
+    AUDIT("audit", 2, 30_000);
+
+    private final String key;
+    private final int defaultPoolSize;
+    private final long defaultConnectionTimeoutMs;
+
+    Workload(String key, int defaultPoolSize, long defaultConnectionTimeoutMs) {
+        this.key = key;
+        this.defaultPoolSize = defaultPoolSize;
+        this.defaultConnectionTimeoutMs = defaultConnectionTimeoutMs;
+    }
+
+    /** Name used in pool names and {@code app.datasource.pools.<key>.*} properties. */
+    public String getKey() {
+        return key;
+    }
+
+    public int getDefaultPoolSize() {
+        return defaultPoolSize;
+    }
+
+    public long getDefaultConnectionTimeoutMs() {
+        return defaultConnectionTimeoutMs;
+    }
+}
@@ -0,0 +1,41 @@
+package com.codewithshiva.retailpos.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * AOP Aspect that sets the WorkloadContext for methods and classes annotated with
+ * {@link ConnectionWorkload}; an annotation on the method wins over one on its class.
+ * Connections are fetched lazily on the first statement, so the workload is in place
+ * whichever of this aspect and the transaction interceptor runs first.
+ */
+@Aspect
+@Component
+public class WorkloadAspect {
+
+    @Around("@annotation(com.codewithshiva.retailpos.datasource.ConnectionWorkload) "
+            + "|| @within(com.codewithshiva.retailpos.datasource.ConnectionWorkload)")
+    public Object runAsWorkload(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        ConnectionWorkload annotation = AnnotatedElementUtils.findMergedAnnotation(
+                signature.getMethod(), ConnectionWorkload.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(
+                    joinPoint.getTarget().getClass(), ConnectionWorkload.class);
+        }
+        if (annotation == null) {
+            return joinPoint.proceed();
+        }
+
+        Workload previous = WorkloadContext.set(annotation.value());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            WorkloadContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.codewithshiva.retailpos.datasource;
+
+/**
+ * ThreadLocal holder for the workload of the current call.
+ * Set by the WorkloadAspect around {@link ConnectionWorkload} methods.
+ */
+public class WorkloadContext {
+
+    private static final ThreadLocal<Workload> workload = new ThreadLocal<>();
+
+    /**
+     * Get the workload of the current call, {@link Workload#INTERACTIVE} if none is set.
+     */
+    public static Workload get() {
+        Workload current = workload.get();
+        return current != null ? current : Workload.INTERACTIVE;
+    }
+
+    /**
+     * Set the workload of the current call.
+     *
+     * @return the workload set before, to restore afterwards (null if none)
+     */
+    public static Workload set(Workload value) {
+        Workload previous = workload.get();
+        workload.set(value);
+        return previous;
+    }
+
+    /**
+     * Restore the workload returned by {@link #set(Workload)}.
+     */
+    public static void restore(Workload previous) {
+        if (previous == null) {
+            workload.remove();
+        } else {
+            workload.set(previous);
+        }
+    }
+}
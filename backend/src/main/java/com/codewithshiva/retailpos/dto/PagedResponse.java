@@ -1,5 +1,6 @@
 package com.codewithshiva.retailpos.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,19 +10,23 @@ import java.util.List;
 
 /**
  * Generic paginated response wrapper.
+ * totalElements and totalPages are left out when the count was skipped;
+ * nextCursor continues the list with keyset paging.
  */
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PagedResponse<T> {
     private List<T> content;
     private int page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+    private Long totalElements;
+    private Integer totalPages;
     private boolean first;
     private boolean last;
+    private String nextCursor;
 
     /**
      * Create a PagedResponse from a list with pagination info.
@@ -29,10 +34,10 @@ public class PagedResponse<T> {
     public static <T> PagedResponse<T> of(List<T> allItems, int page, int size) {
         int totalElements = allItems.size();
         int totalPages = (int) Math.ceil((double) totalElements / size);
-        
+
         int fromIndex = page * size;
         int toIndex = Math.min(fromIndex + size, totalElements);
-        
+
         List<T> pageContent;
         if (fromIndex >= totalElements) {
             pageContent = List.of();
@@ -44,7 +49,7 @@ public class PagedResponse<T> {
                 .content(pageContent)
                 .page(page)
                 .size(size)
-                .totalElements(totalElements)
+                .totalElements((long) totalElements)
                 .totalPages(totalPages)
                 .first(page == 0)
                 .last(page >= totalPages - 1)
@@ -0,0 +1,26 @@
+package com.codewithshiva.retailpos.dto.inventory;
+
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for starting a stock take.
+ * Category and brand narrow the count; active variants in scope that are not scanned
+ * are counted as zero. Leave both empty for a full count.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateStockTakeRequest {
+
+    @Size(max = 100, message = "Category must not exceed 100 characters")
+    private String category;
+
+    @Size(max = 100, message = "Brand must not exceed 100 characters")
+    private String brand;
+
+    @Size(max = 500, message = "Notes must not exceed 500 characters")
+    private String notes;
+}
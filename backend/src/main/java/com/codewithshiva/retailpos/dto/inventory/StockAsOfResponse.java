@@ -0,0 +1,21 @@
+package com.codewithshiva.retailpos.dto.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Response DTO for a variant's stock at a point in time.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAsOfResponse {
+    private Long variantId;
+    private OffsetDateTime asOf;
+    private Integer stockQty;
+}
@@ -23,6 +23,7 @@ public class StockMovementResponse {
     private String type;
     private OffsetDateTime date;
     private Integer qty;
+    private Integer balanceAfter;
     private Long referenceId;
     private String referenceNo;
     private String supplierName;
@@ -38,6 +39,7 @@ public class StockMovementResponse {
                 .type(movement.getMovementType())
                 .date(movement.getMovementDate())
                 .qty(movement.getDeltaQty())
+                .balanceAfter(movement.getBalanceAfter())
                 .referenceId(movement.getReferenceId())
                 .referenceNo(movement.getReferenceNo())
                 .supplierName(movement.getSupplierName())
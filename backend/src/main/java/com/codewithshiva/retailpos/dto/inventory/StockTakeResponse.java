@@ -0,0 +1,54 @@
+package com.codewithshiva.retailpos.dto.inventory;
+
+import com.codewithshiva.retailpos.model.StockTake;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Response DTO for a stock take session.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockTakeResponse {
+    private Long id;
+    private String status;
+    private String category;
+    private String brand;
+    private String notes;
+    /** Distinct barcodes scanned (so far, for an open session) */
+    private Integer scannedBarcodes;
+    private Integer adjustedVariants;
+    private Integer netDeltaQty;
+    private Long createdBy;
+    private OffsetDateTime createdAt;
+    private Long closedBy;
+    private OffsetDateTime closedAt;
+
+    /**
+     * Create StockTakeResponse from StockTake model.
+     */
+    public static StockTakeResponse fromStockTake(StockTake stockTake) {
+        return StockTakeResponse.builder()
+                .id(stockTake.getId())
+                .status(stockTake.getStatus())
+                .category(stockTake.getCategory())
+                .brand(stockTake.getBrand())
+                .notes(stockTake.getNotes())
+                .scannedBarcodes(stockTake.getScannedBarcodes())
+                .adjustedVariants(stockTake.getAdjustedVariants())
+                .netDeltaQty(stockTake.getNetDeltaQty())
+                .createdBy(stockTake.getCreatedBy())
+                .createdAt(stockTake.getCreatedAt())
+                .closedBy(stockTake.getClosedBy())
+                .closedAt(stockTake.getClosedAt())
+                .build();
+    }
+}
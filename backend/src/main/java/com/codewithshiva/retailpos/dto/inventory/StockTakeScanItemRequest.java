@@ -0,0 +1,25 @@
+package com.codewithshiva.retailpos.dto.inventory;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for one scan in a stock take batch.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTakeScanItemRequest {
+
+    @NotBlank(message = "Barcode is required")
+    @Size(max = 50, message = "Barcode must not exceed 50 characters")
+    private String barcode;
+
+    /**
+     * Units counted, 1 if omitted. Negative to take back a mis-scan.
+     */
+    private Integer qty;
+}
@@ -0,0 +1,24 @@
+package com.codewithshiva.retailpos.dto.inventory;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for a batch of scans in a stock take.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTakeScanRequest {
+
+    @NotEmpty(message = "At least one scan is required")
+    @Size(max = 5000, message = "At most 5000 scans per batch")
+    @Valid
+    private List<StockTakeScanItemRequest> scans;
+}
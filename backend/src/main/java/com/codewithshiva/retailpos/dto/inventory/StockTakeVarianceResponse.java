@@ -0,0 +1,62 @@
+package com.codewithshiva.retailpos.dto.inventory;
+
+import com.codewithshiva.retailpos.model.StockTakeVariance;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Response DTO for the preview of a stock take: counted vs system stock.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockTakeVarianceResponse {
+    private Long stockTakeId;
+    /** Variants scanned or in scope */
+    private Integer countedVariants;
+    /** Variants whose count differs from system stock */
+    private Integer varianceVariants;
+    private Integer netVarianceQty;
+    /** Net variance at average cost */
+    private BigDecimal netVarianceValue;
+    /** Only the variants with a variance */
+    private List<Line> lines;
+    /** Scanned barcodes that match no variant */
+    private List<String> unknownBarcodes;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long variantId;
+        private String sku;
+        private String barcode;
+        private String productName;
+        private String size;
+        private String color;
+        private Integer systemQty;
+        private Integer countedQty;
+        private Integer varianceQty;
+
+        public static Line fromVariance(StockTakeVariance variance) {
+            return Line.builder()
+                    .variantId(variance.getVariantId())
+                    .sku(variance.getSku())
+                    .barcode(variance.getBarcode())
+                    .productName(variance.getProductName())
+                    .size(variance.getSize())
+                    .color(variance.getColor())
+                    .systemQty(variance.getSystemQty())
+                    .countedQty(variance.getCountedQty())
+                    .varianceQty(variance.getCountedQty() - variance.getSystemQty())
+                    .build();
+        }
+    }
+}
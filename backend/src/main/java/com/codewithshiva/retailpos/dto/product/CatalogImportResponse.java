@@ -0,0 +1,30 @@
+package com.codewithshiva.retailpos.dto.product;
+
+import com.codewithshiva.retailpos.model.CatalogImportError;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a bulk catalog import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportResponse {
+    /** True if the rows were only validated */
+    private Boolean dryRun;
+    private Integer totalRows;
+    private Integer importedRows;
+    private Integer rejectedRows;
+    private Integer productsCreated;
+    private Integer productsUpdated;
+    private Integer variantsCreated;
+    private Integer variantsUpdated;
+    /** Rejected rows in row order (1 = first data row), at most the first 1000 */
+    private List<CatalogImportError> errors;
+}
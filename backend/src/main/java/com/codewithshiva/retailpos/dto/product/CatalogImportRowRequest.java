@@ -0,0 +1,30 @@
+package com.codewithshiva.retailpos.dto.product;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of a JSON catalog import: a variant and the product it belongs to.
+ * Rows are validated together after staging, so constraints are not declared here.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogImportRowRequest {
+    private String name;
+    private String brand;
+    private String category;
+    private String hsn;
+    private String description;
+    private BigDecimal productDiscountPercent;
+    private String sku;
+    private String barcode;
+    private String size;
+    private String color;
+    private BigDecimal sellingPrice;
+    private BigDecimal avgCost;
+    private BigDecimal discountPercent;
+}
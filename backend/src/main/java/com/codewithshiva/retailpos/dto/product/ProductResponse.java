@@ -1,6 +1,7 @@
 package com.codewithshiva.retailpos.dto.product;
 
 import com.codewithshiva.retailpos.model.Product;
+import com.codewithshiva.retailpos.model.ProductWithStockSummary;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,6 +27,10 @@ public class ProductResponse {
     private String hsn;
     private String description;
     private Integer variantCount;
+    private Integer activeVariantCount;
+    private Integer lowStockVariantCount;
+    private Integer outOfStockVariantCount;
+    private Long totalStock;
     private Boolean isActive;
     private BigDecimal defaultDiscountPercent;
     private OffsetDateTime createdAt;
@@ -67,4 +72,27 @@ public class ProductResponse {
                 .updatedAt(product.getUpdatedAt())
                 .build();
     }
+
+    /**
+     * Create ProductResponse from a product list row, with its stock summary.
+     */
+    public static ProductResponse fromProduct(ProductWithStockSummary product) {
+        return ProductResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .brand(product.getBrand())
+                .category(product.getCategory())
+                .hsn(product.getHsn())
+                .description(product.getDescription())
+                .variantCount(product.getVariantCount())
+                .activeVariantCount(product.getActiveVariantCount())
+                .lowStockVariantCount(product.getLowStockVariantCount())
+                .outOfStockVariantCount(product.getOutOfStockVariantCount())
+                .totalStock(product.getTotalStock())
+                .isActive(product.isActive())
+                .defaultDiscountPercent(product.getDefaultDiscountPercent())
+                .createdAt(product.getCreatedAt())
+                .updatedAt(product.getUpdatedAt())
+                .build();
+    }
 }
@@ -7,6 +7,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
 
 /**
@@ -18,6 +20,10 @@ import java.util.List;
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class InventoryValuationReport {
+    /** Set for a point-in-time report: the valuation is of stock at this instant. */
+    private OffsetDateTime asOf;
+    /** Snapshot the point-in-time report started from, if any. */
+    private LocalDate snapshotDate;
     private Summary summary;
     private List<CategoryValuation> byCategory;
     private List<BrandValuation> byBrand;
@@ -34,4 +34,13 @@ public class CreateSaleRequest {
     @NotEmpty(message = "At least one item is required")
     @Valid
     private List<CreateSaleItemRequest> items;
+
+    /**
+     * Snapshot version from a quote (/sales/quote). When present, lines are resolved like the quote
+     * (missing discounts default to the variant's effective discount) and the sale is rejected if
+     * prices, discounts or tax changed since the quote or the cart differs from the quoted one;
+     * variants are not re-read individually.
+     */
+    @Size(max = 64, message = "Snapshot version must not exceed 64 characters")
+    private String snapshotVersion;
 }
@@ -0,0 +1,29 @@
+package com.codewithshiva.retailpos.dto.sale;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Request DTO for pricing a cart without creating a sale.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteSaleRequest {
+
+    @DecimalMin(value = "0.00", message = "Discount percent must be non-negative")
+    @DecimalMax(value = "100.00", message = "Discount percent cannot exceed 100")
+    private BigDecimal discountPercent;
+
+    @NotEmpty(message = "At least one item is required")
+    @Valid
+    private List<QuoteSaleItemRequest> items;
+}
@@ -0,0 +1,28 @@
+package com.codewithshiva.retailpos.dto.sale;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Response DTO for a priced cart line.
+ * unitPrice and itemDiscountPercent are the values to send back in the create sale request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaleQuoteLineResponse {
+    private Long variantId;
+    private String variantSku;
+    private String variantBarcode;
+    private String productName;
+    private Integer qty;
+    private BigDecimal unitPrice;
+    private BigDecimal itemDiscountPercent;
+    private BigDecimal effectiveUnitPrice;
+    private BigDecimal totalPrice;
+}
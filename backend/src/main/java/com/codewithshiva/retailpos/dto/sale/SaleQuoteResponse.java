@@ -0,0 +1,29 @@
+package com.codewithshiva.retailpos.dto.sale;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Response DTO for a cart quote.
+ * Totals are exactly what a sale created from the returned lines would charge, as long as
+ * snapshotVersion is still current when the sale is created.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaleQuoteResponse {
+    private String snapshotVersion;
+    private BigDecimal subtotal;
+    private BigDecimal discountPercent;
+    private BigDecimal discountAmount;
+    private BigDecimal taxPercent;
+    private BigDecimal taxAmount;
+    private BigDecimal total;
+    private List<SaleQuoteLineResponse> items;
+}
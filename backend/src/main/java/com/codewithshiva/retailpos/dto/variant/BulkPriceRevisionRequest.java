@@ -0,0 +1,64 @@
+package com.codewithshiva.retailpos.dto.variant;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Request DTO for a bulk price and discount revision.
+ * Selects variants by category, brand and/or product, then optionally sets or changes
+ * the price by a percentage, rounds it, and sets or clears the variant discount.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkPriceRevisionRequest {
+
+    @Size(max = 100, message = "Category must not exceed 100 characters")
+    private String category;
+
+    @Size(max = 100, message = "Brand must not exceed 100 characters")
+    private String brand;
+
+    private Long productId;
+
+    /** Also revise inactive variants */
+    private Boolean includeInactive;
+
+    @Pattern(regexp = "^(NONE|SET|PERCENT)$", message = "Price mode must be NONE, SET, or PERCENT")
+    private String priceMode;
+
+    /** New price when priceMode is SET */
+    @DecimalMin(value = "0.00", message = "Price must be non-negative")
+    private BigDecimal price;
+
+    /** Percentage change when priceMode is PERCENT, e.g. -20 for a 20% markdown */
+    @DecimalMin(value = "-100.00", message = "Percent change cannot be below -100")
+    @DecimalMax(value = "1000.00", message = "Percent change cannot exceed 1000")
+    private BigDecimal percentChange;
+
+    /** Round the resulting price to a multiple of this amount (e.g. 1, 5, 10) */
+    @DecimalMin(value = "0.01", message = "Round to must be at least 0.01")
+    private BigDecimal roundTo;
+
+    @Pattern(regexp = "^(NEAREST|UP|DOWN)$", message = "Rounding must be NEAREST, UP, or DOWN")
+    private String rounding;
+
+    /** Offset within each rounding step, e.g. roundTo 10 with priceEnding 9 gives prices ending in 9 */
+    @DecimalMin(value = "0.00", message = "Price ending must be non-negative")
+    private BigDecimal priceEnding;
+
+    @Pattern(regexp = "^(NONE|SET|CLEAR)$", message = "Discount mode must be NONE, SET, or CLEAR")
+    private String discountMode;
+
+    /** Variant discount when discountMode is SET; CLEAR falls back to the product discount */
+    @DecimalMin(value = "0.00", message = "Discount must be at least 0%")
+    @DecimalMax(value = "100.00", message = "Discount must not exceed 100%")
+    private BigDecimal discountPercent;
+}
@@ -0,0 +1,27 @@
+package com.codewithshiva.retailpos.dto.variant;
+
+import com.codewithshiva.retailpos.model.PriceRevisionLine;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response DTO for a bulk price revision preview or apply.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkPriceRevisionResponse {
+    /** Variants whose price or discount changes (or changed, once applied) */
+    private Integer changedVariants;
+    /** Of those, variants whose new price is below average cost */
+    private Integer belowCostVariants;
+    /** Preview only: the changes, at most the first 1000 */
+    private List<PriceRevisionLine> lines;
+}
@@ -0,0 +1,22 @@
+package com.codewithshiva.retailpos.dto.variant;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request DTO for switching a variant's stock to striped (hot SKU) mode.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateStockStripesRequest {
+
+    @NotNull(message = "Stripe count is required")
+    @Min(value = 0, message = "Stripe count cannot be negative")
+    @Max(value = 64, message = "Stripe count cannot exceed 64")
+    private Integer stripeCount;
+}
@@ -0,0 +1,26 @@
+package com.codewithshiva.retailpos.model;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * A rejected row of a catalog import.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class CatalogImportError {
+    private Integer rowNo;
+    private String sku;
+    private String message;
+
+    @ConstructorProperties({"rowNo", "sku", "message"})
+    public CatalogImportError(Integer rowNo, String sku, String message) {
+        this.rowNo = rowNo;
+        this.sku = sku;
+        this.message = message;
+    }
+}
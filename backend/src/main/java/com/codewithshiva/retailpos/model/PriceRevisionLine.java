@@ -0,0 +1,44 @@
+package com.codewithshiva.retailpos.model;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.beans.ConstructorProperties;
+import java.math.BigDecimal;
+
+/**
+ * Current and revised price and discount of a variant in a bulk price revision.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class PriceRevisionLine {
+    private Long variantId;
+    private String sku;
+    private String productName;
+    private String size;
+    private String color;
+    private BigDecimal oldPrice;
+    private BigDecimal newPrice;
+    private BigDecimal oldDiscountPercent;
+    private BigDecimal newDiscountPercent;
+    private BigDecimal avgCost;
+
+    @ConstructorProperties({"variantId", "sku", "productName", "size", "color", "oldPrice", "newPrice",
+            "oldDiscountPercent", "newDiscountPercent", "avgCost"})
+    public PriceRevisionLine(Long variantId, String sku, String productName, String size, String color,
+                             BigDecimal oldPrice, BigDecimal newPrice, BigDecimal oldDiscountPercent,
+                             BigDecimal newDiscountPercent, BigDecimal avgCost) {
+        this.variantId = variantId;
+        this.sku = sku;
+        this.productName = productName;
+        this.size = size;
+        this.color = color;
+        this.oldPrice = oldPrice;
+        this.newPrice = newPrice;
+        this.oldDiscountPercent = oldDiscountPercent;
+        this.newDiscountPercent = newDiscountPercent;
+        this.avgCost = avgCost;
+    }
+}
@@ -0,0 +1,60 @@
+package com.codewithshiva.retailpos.model;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.beans.ConstructorProperties;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Product row of the product list, with counts and stock rolled up from its variants.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class ProductWithStockSummary {
+    private Long id;
+    private String name;
+    private String brand;
+    private String category;
+    private String hsn;
+    private String description;
+    private boolean isActive;
+    private BigDecimal defaultDiscountPercent;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime updatedAt;
+    private Long createdBy;
+    private int variantCount;
+    private int activeVariantCount;
+    private int lowStockVariantCount;
+    private int outOfStockVariantCount;
+    private long totalStock;
+
+    @ConstructorProperties({"id", "name", "brand", "category", "hsn", "description", "isActive",
+                           "defaultDiscountPercent", "createdAt", "updatedAt", "createdBy", "variantCount",
+                           "activeVariantCount", "lowStockVariantCount", "outOfStockVariantCount", "totalStock"})
+    public ProductWithStockSummary(Long id, String name, String brand, String category, String hsn,
+                                   String description, boolean isActive, BigDecimal defaultDiscountPercent,
+                                   OffsetDateTime createdAt, OffsetDateTime updatedAt, Long createdBy,
+                                   int variantCount, int activeVariantCount, int lowStockVariantCount,
+                                   int outOfStockVariantCount, long totalStock) {
+        this.id = id;
+        this.name = name;
+        this.brand = brand;
+        this.category = category;
+        this.hsn = hsn;
+        this.description = description;
+        this.isActive = isActive;
+        this.defaultDiscountPercent = defaultDiscountPercent;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.createdBy = createdBy;
+        this.variantCount = variantCount;
+        this.activeVariantCount = activeVariantCount;
+        this.lowStockVariantCount = lowStockVariantCount;
+        this.outOfStockVariantCount = outOfStockVariantCount;
+        this.totalStock = totalStock;
+    }
+}
@@ -9,7 +9,7 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 
 /**
- * Model representing stock movement from v_stock_movements view.
+ * Model representing a stock movement from the stock_ledger table.
  */
 @Data
 @Builder
@@ -20,6 +20,7 @@ public class StockMovement {
     private String movementType;
     private OffsetDateTime movementDate;
     private Integer deltaQty;
+    private Integer balanceAfter;
     private Long referenceId;
     private String referenceNo;
     private String supplierName;
@@ -28,17 +29,19 @@ public class StockMovement {
     private Long createdBy;
     private OffsetDateTime createdAt;
 
-    @ConstructorProperties({"id", "variantId", "movementType", "movementDate", "deltaQty",
+    @ConstructorProperties({"id", "variantId", "movementType", "movementDate", "deltaQty", "balanceAfter",
                            "referenceId", "referenceNo", "supplierName", "unitCost", 
                            "notes", "createdBy", "createdAt"})
     public StockMovement(Long id, Long variantId, String movementType, OffsetDateTime movementDate,
-                         Integer deltaQty, Long referenceId, String referenceNo, String supplierName,
-                         BigDecimal unitCost, String notes, Long createdBy, OffsetDateTime createdAt) {
+                         Integer deltaQty, Integer balanceAfter, Long referenceId, String referenceNo,
+                         String supplierName, BigDecimal unitCost, String notes, Long createdBy,
+                         OffsetDateTime createdAt) {
         this.id = id;
         this.variantId = variantId;
         this.movementType = movementType;
         this.movementDate = movementDate;
         this.deltaQty = deltaQty;
+        this.balanceAfter = balanceAfter;
         this.referenceId = referenceId;
         this.referenceNo = referenceNo;
         this.supplierName = supplierName;
@@ -0,0 +1,48 @@
+package com.codewithshiva.retailpos.model;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.beans.ConstructorProperties;
+import java.time.OffsetDateTime;
+
+/**
+ * StockTake entity representing the stock_takes table.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class StockTake {
+    private Long id;
+    private String status;
+    private String category;
+    private String brand;
+    private String notes;
+    private Integer scannedBarcodes;
+    private Integer adjustedVariants;
+    private Integer netDeltaQty;
+    private Long createdBy;
+    private OffsetDateTime createdAt;
+    private Long closedBy;
+    private OffsetDateTime closedAt;
+
+    @ConstructorProperties({"id", "status", "category", "brand", "notes", "scannedBarcodes",
+            "adjustedVariants", "netDeltaQty", "createdBy", "createdAt", "closedBy", "closedAt"})
+    public StockTake(Long id, String status, String category, String brand, String notes,
+                     Integer scannedBarcodes, Integer adjustedVariants, Integer netDeltaQty,
+                     Long createdBy, OffsetDateTime createdAt, Long closedBy, OffsetDateTime closedAt) {
+        this.id = id;
+        this.status = status;
+        this.category = category;
+        this.brand = brand;
+        this.notes = notes;
+        this.scannedBarcodes = scannedBarcodes;
+        this.adjustedVariants = adjustedVariants;
+        this.netDeltaQty = netDeltaQty;
+        this.createdBy = createdBy;
+        this.createdAt = createdAt;
+        this.closedBy = closedBy;
+        this.closedAt = closedAt;
+    }
+}
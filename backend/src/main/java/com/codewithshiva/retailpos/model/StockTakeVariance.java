@@ -0,0 +1,41 @@
+package com.codewithshiva.retailpos.model;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.beans.ConstructorProperties;
+import java.math.BigDecimal;
+
+/**
+ * Counted vs system stock of one variant in a stock take.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class StockTakeVariance {
+    private Long variantId;
+    private String sku;
+    private String barcode;
+    private String productName;
+    private String size;
+    private String color;
+    private Integer systemQty;
+    private Integer countedQty;
+    private BigDecimal avgCost;
+
+    @ConstructorProperties({"variantId", "sku", "barcode", "productName", "size", "color",
+            "systemQty", "countedQty", "avgCost"})
+    public StockTakeVariance(Long variantId, String sku, String barcode, String productName, String size,
+                             String color, Integer systemQty, Integer countedQty, BigDecimal avgCost) {
+        this.variantId = variantId;
+        this.sku = sku;
+        this.barcode = barcode;
+        this.productName = productName;
+        this.size = size;
+        this.color = color;
+        this.systemQty = systemQty;
+        this.countedQty = countedQty;
+        this.avgCost = avgCost;
+    }
+}
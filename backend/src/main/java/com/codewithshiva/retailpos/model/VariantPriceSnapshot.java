@@ -0,0 +1,38 @@
+package com.codewithshiva.retailpos.model;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.beans.ConstructorProperties;
+import java.math.BigDecimal;
+
+/**
+ * Pricing-relevant fields of a variant, as cached for cart quotes.
+ * Maps to the v_variants_with_products view.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class VariantPriceSnapshot {
+    private Long id;
+    private Long productId;
+    private String productName;
+    private String sku;
+    private String barcode;
+    private BigDecimal sellingPrice;
+    private BigDecimal effectiveDiscountPercent;
+
+    @ConstructorProperties({"id", "productId", "productName", "sku", "barcode",
+                           "sellingPrice", "effectiveDiscountPercent"})
+    public VariantPriceSnapshot(Long id, Long productId, String productName, String sku, String barcode,
+                                BigDecimal sellingPrice, BigDecimal effectiveDiscountPercent) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.sku = sku;
+        this.barcode = barcode;
+        this.sellingPrice = sellingPrice;
+        this.effectiveDiscountPercent = effectiveDiscountPercent;
+    }
+}
@@ -0,0 +1,34 @@
+package com.codewithshiva.retailpos.model.report;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.beans.ConstructorProperties;
+import java.math.BigDecimal;
+
+/**
+ * Model for inventory valuation of one category and brand.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+public class InventoryCategoryBrandData {
+    private String category;
+    private String brand;
+    private Integer skuCount;
+    private Long itemCount;
+    private BigDecimal costValue;
+    private BigDecimal retailValue;
+
+    @ConstructorProperties({"category", "brand", "skuCount", "itemCount", "costValue", "retailValue"})
+    public InventoryCategoryBrandData(String category, String brand, Integer skuCount, Long itemCount,
+                                      BigDecimal costValue, BigDecimal retailValue) {
+        this.category = category;
+        this.brand = brand;
+        this.skuCount = skuCount;
+        this.itemCount = itemCount;
+        this.costValue = costValue;
+        this.retailValue = retailValue;
+    }
+}
@@ -0,0 +1,156 @@
+package com.codewithshiva.retailpos.paging;
+
+import com.codewithshiva.retailpos.dto.PagedResponse;
+import com.codewithshiva.retailpos.exception.BadRequestException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a list: OFFSET paging by page number, or keyset paging after a cursor.
+ * <p>
+ * DAOs splice {@link #getOrderBy()} and {@link #getKeyset()} into the statement with
+ * {@code @Define("orderBy")} / {@code @Define("keyset")} and bind this object with
+ * {@code @BindBean("page")} for {@code :page.limit}, {@code :page.offset} and the cursor values.
+ * One row more than the page size is read, to tell whether a next page exists without counting.
+ *
+ * @param <T> row type the list is read into
+ */
+public final class PageQuery<T> {
+
+    /**
+     * Position after the last row of a page: the sort it was taken in, the row id and its sort value.
+     */
+    record Cursor(String sort, long id, String value) {
+
+        String encode() {
+            String raw = sort + "\n" + id + "\n" + value;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\n", 3);
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Malformed cursor");
+                }
+                return new Cursor(parts[0], Long.parseLong(parts[1]), parts[2]);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("INVALID_CURSOR", "Invalid cursor");
+            }
+        }
+    }
+
+    private final int page;
+    private final int size;
+    private final SortOptions.Field<T> field;
+    private final boolean descending;
+    private final String idExpression;
+    private final Function<T, Long> idOf;
+    private final Cursor cursor;
+    private final boolean includeTotal;
+
+    PageQuery(int page, int size, SortOptions.Field<T> field, boolean descending,
+              String idExpression, Function<T, Long> idOf, Cursor cursor, boolean includeTotal) {
+        this.page = page;
+        this.size = size;
+        this.field = field;
+        this.descending = descending;
+        this.idExpression = idExpression;
+        this.idOf = idOf;
+        this.cursor = cursor;
+        this.includeTotal = includeTotal;
+    }
+
+    static String sortToken(SortOptions.Field<?> field, boolean descending) {
+        return field.key() + (descending ? ",desc" : ",asc");
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /** Rows to read: one more than the page size. */
+    public int getLimit() {
+        return size + 1;
+    }
+
+    public int getOffset() {
+        return cursor != null ? 0 : page * size;
+    }
+
+    public String getCursorValue() {
+        return cursor != null ? cursor.value() : null;
+    }
+
+    public Long getCursorId() {
+        return cursor != null ? cursor.id() : null;
+    }
+
+    public boolean isIncludeTotal() {
+        return includeTotal;
+    }
+
+    /** ORDER BY list: the sort column, then the id in the same direction. */
+    public String getOrderBy() {
+        String direction = descending ? " DESC" : " ASC";
+        return field.expression() + direction + ", " + idExpression + direction;
+    }
+
+    /** Condition for rows after the cursor, or TRUE on OFFSET pages. */
+    public String getKeyset() {
+        if (cursor == null) {
+            return "TRUE";
+        }
+        return "(" + field.expression() + ", " + idExpression + ")"
+                + (descending ? " < " : " > ")
+                + "(CAST(:page.cursorValue AS " + field.sqlType() + "), :page.cursorId)";
+    }
+
+    /**
+     * Build the response from the rows read with {@link #getLimit()}.
+     *
+     * @param rows   rows of this page, plus one if a next page exists
+     * @param total  count of all matching rows, or null when not counted
+     * @param mapper row to response item
+     */
+    public <R> PagedResponse<R> toResponse(List<T> rows, Long total, Function<T, R> mapper) {
+        boolean hasMore = rows.size() > size;
+        List<T> pageRows = hasMore ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            T last = pageRows.get(pageRows.size() - 1);
+            nextCursor = new Cursor(sortToken(field, descending), idOf.apply(last),
+                    cursorValue(field.valueOf().apply(last))).encode();
+        }
+
+        return PagedResponse.<R>builder()
+                .content(pageRows.stream().map(mapper).collect(Collectors.toList()))
+                .page(page)
+                .size(size)
+                .totalElements(total)
+                .totalPages(total != null ? (int) Math.ceil((double) total / size) : null)
+                .first(cursor == null && page == 0)
+                .last(!hasMore)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static String cursorValue(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        // OffsetDateTime.toString() is ISO-8601, which PostgreSQL casts to timestamptz
+        return String.valueOf(value);
+    }
+}
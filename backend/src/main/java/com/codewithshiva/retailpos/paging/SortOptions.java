@@ -0,0 +1,124 @@
+package com.codewithshiva.retailpos.paging;
+
+import com.codewithshiva.retailpos.exception.BadRequestException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Whitelist of the columns a list can be sorted by, and the parser turning
+ * page/size/sort/cursor request parameters into a {@link PageQuery}.
+ * <p>
+ * Sort expressions and SQL types are defined here, never taken from the request,
+ * so they can be spliced into the DAO statement as {@code <orderBy>} and {@code <keyset>}.
+ * Every sort is made unique by the id column, which keeps OFFSET pages and keyset
+ * cursors stable across equal values.
+ *
+ * @param <T> row type the list is read into
+ */
+public final class SortOptions<T> {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * One sortable column: its SQL expression (NOT NULL, so row comparison works for the
+     * keyset), the SQL type the cursor value is cast to, and how to read it off a row.
+     */
+    record Field<T>(String key, String expression, String sqlType, Function<T, Object> valueOf) {
+    }
+
+    private final String idExpression;
+    private final Function<T, Long> idOf;
+    private final Map<String, Field<T>> fields = new LinkedHashMap<>();
+    private String defaultKey;
+    private boolean defaultDescending;
+
+    private SortOptions(String idExpression, Function<T, Long> idOf) {
+        this.idExpression = idExpression;
+        this.idOf = idOf;
+    }
+
+    /**
+     * Start a whitelist for rows identified by the given id column.
+     */
+    public static <T> SortOptions<T> byId(String idExpression, Function<T, Long> idOf) {
+        return new SortOptions<>(idExpression, idOf);
+    }
+
+    /**
+     * Allow sorting by a column.
+     *
+     * @param key        name used in the sort request parameter
+     * @param expression SQL expression to order by
+     * @param sqlType    SQL type of the expression (for the cursor value)
+     * @param valueOf    reads the value from a row
+     */
+    public SortOptions<T> field(String key, String expression, String sqlType, Function<T, Object> valueOf) {
+        fields.put(key, new Field<>(key, expression, sqlType, valueOf));
+        return this;
+    }
+
+    /**
+     * Sort used when the request names none.
+     */
+    public SortOptions<T> defaultSort(String key, boolean descending) {
+        if (!fields.containsKey(key)) {
+            throw new IllegalArgumentException("Unknown default sort field: " + key);
+        }
+        this.defaultKey = key;
+        this.defaultDescending = descending;
+        return this;
+    }
+
+    /**
+     * Parse paging parameters.
+     *
+     * @param page         zero-based page number (ignored when a cursor is given)
+     * @param size         page size, 1 to {@link #MAX_PAGE_SIZE}; null for the default
+     * @param sort         "field" or "field,asc|desc"; null for the default sort
+     * @param cursor       nextCursor of the previous page, for keyset paging
+     * @param includeTotal whether to count all matching rows
+     */
+    public PageQuery<T> parse(Integer page, Integer size, String sort, String cursor, boolean includeTotal) {
+        int pageNo = page != null ? page : 0;
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageNo < 0) {
+            throw new BadRequestException("INVALID_PAGE", "Page must be zero or greater");
+        }
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestException("INVALID_PAGE_SIZE", "Size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Field<T> field = fields.get(defaultKey);
+        boolean descending = defaultDescending;
+        if (sort != null && !sort.isBlank()) {
+            String[] parts = sort.trim().split(",");
+            field = fields.get(parts[0].trim());
+            if (field == null || parts.length > 2) {
+                throw new BadRequestException("INVALID_SORT",
+                        "Invalid sort: " + sort + ". Allowed fields: " + String.join(", ", fields.keySet()));
+            }
+            if (parts.length == 2) {
+                String direction = parts[1].trim().toLowerCase();
+                if (!direction.equals("asc") && !direction.equals("desc")) {
+                    throw new BadRequestException("INVALID_SORT", "Sort direction must be asc or desc");
+                }
+                descending = direction.equals("desc");
+            } else {
+                descending = false;
+            }
+        }
+
+        PageQuery.Cursor decoded = null;
+        if (cursor != null && !cursor.isBlank()) {
+            decoded = PageQuery.Cursor.decode(cursor.trim());
+            if (!decoded.sort().equals(PageQuery.sortToken(field, descending))) {
+                throw new BadRequestException("INVALID_CURSOR", "Cursor does not belong to this sort");
+            }
+        }
+
+        return new PageQuery<>(pageNo, pageSize, field, descending, idExpression, idOf, decoded, includeTotal);
+    }
+}
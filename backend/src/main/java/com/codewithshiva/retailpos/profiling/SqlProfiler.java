@@ -0,0 +1,151 @@
+package com.codewithshiva.retailpos.profiling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.jdbi.v3.core.extension.ExtensionMethod;
+import org.jdbi.v3.core.statement.ParsedParameters;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JDBI statement profiler.
+ * Records per-request statement counts and timings, logs slow statements with their
+ * bound parameters redacted, and flags DAO methods that run more than the configured
+ * number of times within one request (typically an N+1 loop in a service).
+ */
+@Slf4j
+@Component
+public class SqlProfiler implements SqlLogger {
+
+    private static final String METRIC_STATEMENTS = "retailpos.sql.statements";
+    private static final String METRIC_REPEATED = "retailpos.sql.repeated";
+    private static final String METRIC_PER_REQUEST = "retailpos.sql.statements.per.request";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long slowThresholdMs;
+    private final int repeatThreshold;
+
+    public SqlProfiler(MeterRegistry meterRegistry,
+                       @Value("${app.sql-profiler.enabled:true}") boolean enabled,
+                       @Value("${app.sql-profiler.slow-threshold-ms:200}") long slowThresholdMs,
+                       @Value("${app.sql-profiler.repeat-threshold:10}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.slowThresholdMs = slowThresholdMs;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void logAfterExecution(StatementContext context) {
+        if (!enabled) {
+            return;
+        }
+        String statement = describeStatement(context);
+        long elapsedNanos = context.getElapsedTime(ChronoUnit.NANOS);
+
+        Timer.builder(METRIC_STATEMENTS)
+                .tag("statement", statement)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (elapsedMs >= slowThresholdMs) {
+            log.warn("Slow SQL ({} ms) in {}: {} params={}",
+                    elapsedMs, statement, compactSql(context), redactedParameters(context));
+        }
+
+        SqlProfilingContext profilingContext = SqlProfilingContext.get();
+        if (profilingContext != null) {
+            int executions = profilingContext.record(statement, elapsedNanos);
+            // Flag only once, at the moment the threshold is crossed
+            if (executions == repeatThreshold + 1) {
+                Counter.builder(METRIC_REPEATED)
+                        .tag("statement", statement)
+                        .register(meterRegistry)
+                        .increment();
+                log.warn("Possible N+1: {} executed more than {} times in one request", statement, repeatThreshold);
+            }
+        }
+    }
+
+    @Override
+    public void logException(StatementContext context, SQLException ex) {
+        if (!enabled) {
+            return;
+        }
+        log.debug("SQL failed in {}: {} params={} - {}",
+                describeStatement(context), compactSql(context), redactedParameters(context), ex.getMessage());
+    }
+
+    /**
+     * Summarize the statements executed during a request and record the per-request metric.
+     */
+    public void completeRequest(String requestDescription, SqlProfilingContext profilingContext) {
+        if (!enabled || profilingContext.getStatementCount() == 0) {
+            return;
+        }
+        DistributionSummary.builder(METRIC_PER_REQUEST)
+                .register(meterRegistry)
+                .record(profilingContext.getStatementCount());
+
+        if (log.isDebugEnabled()) {
+            String breakdown = profilingContext.getStatements().entrySet().stream()
+                    .map(entry -> entry.getKey() + " x" + entry.getValue().getCount()
+                            + " (" + TimeUnit.NANOSECONDS.toMillis(entry.getValue().getTotalNanos()) + " ms)")
+                    .collect(Collectors.joining(", "));
+            log.debug("{} executed {} statements in {} ms: {}",
+                    requestDescription,
+                    profilingContext.getStatementCount(),
+                    TimeUnit.NANOSECONDS.toMillis(profilingContext.getTotalNanos()),
+                    breakdown);
+        }
+    }
+
+    /**
+     * Identify a statement by the DAO method that issued it, falling back to "raw" for ad-hoc handles.
+     */
+    private String describeStatement(StatementContext context) {
+        ExtensionMethod extensionMethod = context.getExtensionMethod();
+        if (extensionMethod == null) {
+            return "raw";
+        }
+        return extensionMethod.getType().getSimpleName() + "." + extensionMethod.getMethod().getName();
+    }
+
+    private String compactSql(StatementContext context) {
+        String sql = context.getRenderedSql();
+        return sql == null ? "" : sql.replaceAll("\\s+", " ").trim();
+    }
+
+    /**
+     * Describe the bound parameters without their values, which may contain customer data or secrets.
+     */
+    private String redactedParameters(StatementContext context) {
+        if (context.getParsedSql() == null) {
+            return "[]";
+        }
+        ParsedParameters parameters = context.getParsedSql().getParameters();
+        if (parameters.isPositional()) {
+            return "[" + parameters.getParameterCount() + " positional]";
+        }
+        return parameters.getParameterNames().stream()
+                .distinct()
+                .map(name -> name + "=***")
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
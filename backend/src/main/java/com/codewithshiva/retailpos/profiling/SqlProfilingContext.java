@@ -0,0 +1,79 @@
+package com.codewithshiva.retailpos.profiling;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ThreadLocal holder for per-request SQL statistics.
+ * This is populated by {@link SqlProfilingFilter} at the start of each request
+ * and filled in by {@link SqlProfiler} as statements complete.
+ */
+public class SqlProfilingContext {
+
+    private static final ThreadLocal<SqlProfilingContext> current = new ThreadLocal<>();
+
+    private final Map<String, StatementStats> statements = new LinkedHashMap<>();
+    private int statementCount;
+    private long totalNanos;
+
+    /**
+     * Start collecting statistics for the current request.
+     */
+    public static void start() {
+        current.set(new SqlProfilingContext());
+    }
+
+    /**
+     * Get the context for the current request, or null outside a request.
+     */
+    public static SqlProfilingContext get() {
+        return current.get();
+    }
+
+    /**
+     * Clear the context after request completion.
+     */
+    public static void clear() {
+        current.remove();
+    }
+
+    /**
+     * Record one executed statement and return how many times it has run in this request.
+     */
+    int record(String statement, long elapsedNanos) {
+        statementCount++;
+        totalNanos += elapsedNanos;
+        StatementStats stats = statements.computeIfAbsent(statement, key -> new StatementStats());
+        stats.count++;
+        stats.totalNanos += elapsedNanos;
+        return stats.count;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public Map<String, StatementStats> getStatements() {
+        return statements;
+    }
+
+    /**
+     * Execution count and cumulative time of a single statement within a request.
+     */
+    public static class StatementStats {
+        private int count;
+        private long totalNanos;
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.codewithshiva.retailpos.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filter that scopes SQL profiling statistics to a single HTTP request.
+ * Statements executed on other threads (async audit logging, scheduled jobs)
+ * are still timed by {@link SqlProfiler} but are not attributed to a request.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+public class SqlProfilingFilter extends OncePerRequestFilter {
+
+    private final SqlProfiler sqlProfiler;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        if (!sqlProfiler.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        SqlProfilingContext.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlProfilingContext profilingContext = SqlProfilingContext.get();
+            // Always clear the context to prevent leaking statistics into the next request on this thread
+            SqlProfilingContext.clear();
+            sqlProfiler.completeRequest(request.getMethod() + " " + request.getRequestURI(), profilingContext);
+        }
+    }
+}
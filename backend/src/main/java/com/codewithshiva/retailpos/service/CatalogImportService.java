@@ -0,0 +1,190 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.audit.AuditAction;
+import com.codewithshiva.retailpos.audit.Auditable;
+import com.codewithshiva.retailpos.audit.EntityType;
+import com.codewithshiva.retailpos.dao.CatalogImportDao;
+import com.codewithshiva.retailpos.dto.product.CatalogImportResponse;
+import com.codewithshiva.retailpos.dto.product.CatalogImportRowRequest;
+import com.codewithshiva.retailpos.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Service for bulk catalog import (one row per variant, products matched by name and brand).
+ * Rows are COPY'd into a staging table, validated set-wise, and upserted in the same
+ * transaction: valid rows are imported, rejected rows are reported with their first error.
+ * Caches are evicted once per import instead of once per product or variant.
+ * The catalog lock is held from the checks against the catalog to commit, so variants
+ * created or edited meanwhile cannot break the upsert on a unique SKU or barcode.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogImportService {
+
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("name", "brand", "category", "hsn", "sku", "selling_price");
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final CatalogImportDao catalogImportDao;
+    private final LookupService lookupService;
+    private final PriceSnapshotService priceSnapshotService;
+
+    /**
+     * Import CSV rows. The header names the columns (see {@link CatalogImportDao#COLUMNS}), in any order.
+     */
+    @Transactional
+    @Auditable(entity = EntityType.PRODUCT, action = AuditAction.CREATE, description = "Bulk catalog import (CSV)")
+    public CatalogImportResponse importCsv(Reader csv, boolean dryRun, Long createdBy) {
+        BufferedReader reader = new BufferedReader(csv, 64 * 1024);
+        List<String> columns;
+        try {
+            columns = parseHeader(reader.readLine());
+        } catch (IOException e) {
+            throw new BadRequestException("INVALID_CSV", "Failed to read CSV: " + e.getMessage());
+        }
+        return runImport(columns, reader, dryRun, createdBy);
+    }
+
+    @Transactional
+    @Auditable(entity = EntityType.PRODUCT, action = AuditAction.CREATE, description = "Bulk catalog import (JSON)")
+    public CatalogImportResponse importRows(List<CatalogImportRowRequest> rows, boolean dryRun, Long createdBy) {
+        StringBuilder csv = new StringBuilder(rows.size() * 128);
+        for (CatalogImportRowRequest row : rows) {
+            appendCsvRow(csv, row.getName(), row.getBrand(), row.getCategory(), row.getHsn(), row.getDescription(),
+                    plain(row.getProductDiscountPercent()), row.getSku(), row.getBarcode(), row.getSize(),
+                    row.getColor(), plain(row.getSellingPrice()), plain(row.getAvgCost()),
+                    plain(row.getDiscountPercent()));
+        }
+        return runImport(CatalogImportDao.COLUMNS, new StringReader(csv.toString()), dryRun, createdBy);
+    }
+
+    private CatalogImportResponse runImport(List<String> columns, Reader rows, boolean dryRun, Long createdBy) {
+        long start = System.currentTimeMillis();
+
+        catalogImportDao.createStagingTable();
+        int totalRows;
+        try {
+            totalRows = (int) catalogImportDao.copyRows(columns, rows);
+        } catch (SQLException | IOException e) {
+            log.warn("Catalog import rows could not be copied: {}", e.getMessage());
+            throw new BadRequestException("INVALID_CSV", "Invalid import data: " + e.getMessage());
+        }
+        if (totalRows == 0) {
+            throw new BadRequestException("EMPTY_IMPORT", "No rows to import");
+        }
+
+        // Validate: row checks first, then checks across the file and against the catalog
+        catalogImportDao.normalizeRows();
+        catalogImportDao.analyzeStagingTable();
+        catalogImportDao.validateRows();
+        catalogImportDao.clearRejectedNumbers();
+        catalogImportDao.rejectDuplicateSkus();
+        catalogImportDao.rejectDuplicateBarcodes();
+        catalogImportDao.rejectInconsistentProducts();
+        catalogImportDao.lockCatalog();
+        catalogImportDao.rejectSkusOfOtherProducts();
+        catalogImportDao.rejectBarcodesInUse();
+
+        int rejectedRows = catalogImportDao.countErrors();
+        CatalogImportResponse.CatalogImportResponseBuilder response = CatalogImportResponse.builder()
+                .dryRun(dryRun)
+                .totalRows(totalRows)
+                .importedRows(totalRows - rejectedRows)
+                .rejectedRows(rejectedRows)
+                .errors(rejectedRows > 0 ? catalogImportDao.findErrors(MAX_REPORTED_ERRORS) : List.of());
+
+        if (dryRun) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.info("Catalog import dry run: {} rows, {} rejected in {} ms",
+                    totalRows, rejectedRows, System.currentTimeMillis() - start);
+            return response.importedRows(0).build();
+        }
+
+        // Upsert: existing products/variants first, so the inserts only see new ones
+        int productsUpdated = catalogImportDao.updateProducts();
+        int productsCreated = catalogImportDao.insertProducts(createdBy);
+        int variantsUpdated = catalogImportDao.updateVariants();
+        int variantsCreated = catalogImportDao.insertVariants(createdBy);
+
+        // Once per import: categories, brands, sizes, colors and prices may have changed
+        lookupService.evictLookupCache();
+        priceSnapshotService.evictAll();
+
+        log.info("Catalog import: {} rows, {} rejected; products {} created / {} updated, " +
+                        "variants {} created / {} updated in {} ms",
+                totalRows, rejectedRows, productsCreated, productsUpdated,
+                variantsCreated, variantsUpdated, System.currentTimeMillis() - start);
+
+        return response
+                .productsCreated(productsCreated)
+                .productsUpdated(productsUpdated)
+                .variantsCreated(variantsCreated)
+                .variantsUpdated(variantsUpdated)
+                .build();
+    }
+
+    /**
+     * Staging columns named by the CSV header.
+     */
+    private List<String> parseHeader(String header) {
+        if (header == null || header.isBlank()) {
+            throw new BadRequestException("INVALID_CSV", "CSV header row is required");
+        }
+        if (header.charAt(0) == '\uFEFF') {
+            header = header.substring(1);
+        }
+
+        List<String> columns = new ArrayList<>();
+        for (String name : header.split(",", -1)) {
+            String column = name.trim().replace("\"", "").toLowerCase(Locale.ROOT);
+            if (!CatalogImportDao.COLUMNS.contains(column)) {
+                throw new BadRequestException("INVALID_CSV",
+                        "Unknown column '" + column + "'. Columns: " + String.join(", ", CatalogImportDao.COLUMNS));
+            }
+            if (columns.contains(column)) {
+                throw new BadRequestException("INVALID_CSV", "Duplicate column '" + column + "'");
+            }
+            columns.add(column);
+        }
+
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(c -> !columns.contains(c)).toList();
+        if (!missing.isEmpty()) {
+            throw new BadRequestException("INVALID_CSV", "Missing columns: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    /**
+     * Append a CSV row; null values are written unquoted (COPY reads them as NULL).
+     */
+    private static void appendCsvRow(StringBuilder csv, String... values) {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                csv.append(',');
+            }
+            if (values[i] != null) {
+                csv.append('"').append(values[i].replace("\"", "\"\"")).append('"');
+            }
+        }
+        csv.append('\n');
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : null;
+    }
+}
@@ -1,6 +1,8 @@
 package com.codewithshiva.retailpos.service;
 
 import com.codewithshiva.retailpos.dao.DashboardDao;
+import com.codewithshiva.retailpos.datasource.ConnectionWorkload;
+import com.codewithshiva.retailpos.datasource.Workload;
 import com.codewithshiva.retailpos.dto.dashboard.*;
 import com.codewithshiva.retailpos.exception.BadRequestException;
 import com.codewithshiva.retailpos.model.DailySalesSummary;
@@ -8,6 +10,7 @@ import com.codewithshiva.retailpos.model.DashboardStats;
 import com.codewithshiva.retailpos.model.LowStockItem;
 import com.codewithshiva.retailpos.model.RecentSale;
 import com.codewithshiva.retailpos.model.TopSellingProduct;
+import com.codewithshiva.retailpos.stock.LowStockTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,10 +28,12 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Service
+@ConnectionWorkload(Workload.REPORTING)
 @RequiredArgsConstructor
 public class DashboardService {
 
     private final DashboardDao dashboardDao;
+    private final LowStockTracker lowStockTracker;
 
     /**
      * Get dashboard statistics for the given period.
@@ -43,8 +48,10 @@ public class DashboardService {
         BigDecimal totalProfit = dashboardDao.getTotalProfit(dateRange.start, dateRange.end);
         Long totalTransactions = dashboardDao.getTotalTransactions(dateRange.start, dateRange.end);
         BigDecimal avgOrderValue = dashboardDao.getAvgOrderValue(dateRange.start, dateRange.end);
-        Integer lowStockCount = dashboardDao.getLowStockCount();
-        Integer outOfStockCount = dashboardDao.getOutOfStockCount();
+        Integer lowStockCount = lowStockTracker.isReady()
+                ? lowStockTracker.getLowStockCount() : dashboardDao.getLowStockCount();
+        Integer outOfStockCount = lowStockTracker.isReady()
+                ? lowStockTracker.getOutOfStockCount() : dashboardDao.getOutOfStockCount();
         Integer totalSkus = dashboardDao.getTotalSkus();
 
         DashboardStats stats = DashboardStats.builder()
@@ -62,7 +69,7 @@ public class DashboardService {
 
     /**
      * Get sales trend for the given number of days.
-     * Uses v_daily_sales_summary view.
+     * Aggregated per day from the recent sales partitions.
      */
     @Transactional(readOnly = true)
     public List<SalesTrendResponse> getSalesTrend(Integer days) {
@@ -97,14 +104,16 @@ public class DashboardService {
 
     /**
      * Get low stock items.
-     * Uses v_low_stock_variants view.
+     * Served from the in-memory low stock set, or v_low_stock_variants until it is loaded.
      */
     @Transactional(readOnly = true)
     public List<LowStockResponse> getLowStockItems(Integer limit) {
         int resultLimit = limit != null && limit > 0 ? limit : 10;
         log.debug("Getting low stock items with limit: {}", resultLimit);
 
-        List<LowStockItem> items = dashboardDao.getLowStockItems(resultLimit);
+        List<LowStockItem> items = lowStockTracker.isReady()
+                ? lowStockTracker.getLowStockItems(resultLimit)
+                : dashboardDao.getLowStockItems(resultLimit);
 
         return items.stream()
                 .map(LowStockResponse::fromLowStockItem)
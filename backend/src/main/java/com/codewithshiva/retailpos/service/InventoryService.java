@@ -45,13 +45,15 @@ public class InventoryService {
     }
 
     /**
-     * Get stock movements for a variant with optional filters.
+     * Get stock movements for a variant with optional filters, newest first.
+     * Pass the id of the last movement of a page as beforeId to get the next page.
      */
     @Transactional(readOnly = true)
     public List<StockMovementResponse> getStockMovements(Long variantId, String startDate, 
-                                                          String endDate, String type) {
-        log.debug("Getting stock movements for variant ID: {} with filters - startDate: {}, endDate: {}, type: {}", 
-                variantId, startDate, endDate, type);
+                                                          String endDate, String type,
+                                                          Long beforeId, Integer limit) {
+        log.debug("Getting stock movements for variant ID: {} with filters - startDate: {}, endDate: {}, type: {}, beforeId: {}, limit: {}", 
+                variantId, startDate, endDate, type, beforeId, limit);
 
         // Validate variant exists
         variantDao.findById(variantId)
@@ -60,22 +62,49 @@ public class InventoryService {
                         "Variant not found with ID: " + variantId
                 ));
 
+        if (limit != null && limit < 1) {
+            throw new BadRequestException("INVALID_LIMIT", "Limit must be at least 1");
+        }
+
         // Parse dates
         OffsetDateTime startDateTime = parseStartDate(startDate);
         OffsetDateTime endDateTime = parseEndDate(endDate);
 
-        List<StockMovement> movements;
-        if (startDateTime == null && endDateTime == null && type == null) {
-            movements = inventoryDao.findMovementsByVariantId(variantId);
-        } else {
-            movements = inventoryDao.findMovementsWithFilters(variantId, startDateTime, endDateTime, type);
-        }
+        List<StockMovement> movements = inventoryDao.findMovements(variantId,
+                InventoryDao.movementFilter(startDateTime, endDateTime, type, beforeId), limit);
 
         return movements.stream()
                 .map(StockMovementResponse::fromStockMovement)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Get a variant's stock at the end of the given date (YYYY-MM-DD), from the stock ledger.
+     */
+    @Transactional(readOnly = true)
+    public StockAsOfResponse getStockAsOf(Long variantId, String date) {
+        log.debug("Getting stock for variant ID: {} as of: {}", variantId, date);
+
+        // Validate variant exists
+        variantDao.findById(variantId)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "VARIANT_NOT_FOUND",
+                        "Variant not found with ID: " + variantId
+                ));
+
+        OffsetDateTime asOf = parseEndDate(date);
+        if (asOf == null) {
+            throw new BadRequestException("INVALID_DATE", "Date is required. Use YYYY-MM-DD");
+        }
+
+        int stockQty = inventoryDao.getStockAsOf(variantId, asOf);
+        return StockAsOfResponse.builder()
+                .variantId(variantId)
+                .asOf(asOf)
+                .stockQty(stockQty)
+                .build();
+    }
+
     /**
      * Get supplier summary for a variant.
      */
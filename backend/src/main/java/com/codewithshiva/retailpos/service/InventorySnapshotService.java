@@ -0,0 +1,58 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.dao.InventorySnapshotDao;
+import com.codewithshiva.retailpos.datasource.ConnectionWorkload;
+import com.codewithshiva.retailpos.datasource.Workload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Scheduled service for end-of-day inventory snapshots.
+ * Each snapshot stores stock and avg_cost per variant at midnight UTC, so a valuation
+ * as of a past date only has to replay the stock_ledger movements since the nearest one.
+ * Daily snapshots are kept for the retention period, month-end snapshots indefinitely.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventorySnapshotService {
+
+    /** Days missed while the application was down that are snapshotted on the next run. */
+    private static final int MAX_CATCH_UP_DAYS = 7;
+
+    private final InventorySnapshotDao inventorySnapshotDao;
+
+    @Value("${app.inventory-snapshot.daily-retention-days:90}")
+    private int dailyRetentionDays;
+
+    /**
+     * Snapshot the previous day (and any missed days), nightly by default.
+     */
+    @Scheduled(cron = "${app.inventory-snapshot.cron:0 15 0 * * *}", zone = "UTC")
+    @ConnectionWorkload(Workload.BACKGROUND)
+    @Transactional
+    public void takeSnapshots() {
+        LocalDate yesterday = LocalDate.now(ZoneOffset.UTC).minusDays(1);
+        LocalDate from = inventorySnapshotDao.findLatestSnapshotDate()
+                .map(latest -> latest.plusDays(1))
+                .filter(next -> !next.isBefore(yesterday.minusDays(MAX_CATCH_UP_DAYS - 1)))
+                .orElse(yesterday.minusDays(MAX_CATCH_UP_DAYS - 1));
+
+        long start = System.currentTimeMillis();
+        for (LocalDate date = from; !date.isAfter(yesterday); date = date.plusDays(1)) {
+            int variants = inventorySnapshotDao.takeSnapshot(date);
+            log.info("Took inventory snapshot for {} ({} variants)", date, variants);
+        }
+
+        int deleted = inventorySnapshotDao.deleteDailySnapshotsBefore(yesterday.minusDays(dailyRetentionDays));
+        log.info("Inventory snapshots done in {} ms, {} expired daily snapshots deleted",
+                System.currentTimeMillis() - start, deleted);
+    }
+}
@@ -0,0 +1,53 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.dao.InventoryValuationDao;
+import com.codewithshiva.retailpos.datasource.ConnectionWorkload;
+import com.codewithshiva.retailpos.datasource.Workload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Scheduled service for the running totals in inventory_valuation.
+ * Every variant change appends a delta to inventory_valuation_deltas, which is folded
+ * into the totals here; drift would only come from writes that bypass the triggers,
+ * and is corrected by the nightly repair.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryValuationService {
+
+    private final InventoryValuationDao inventoryValuationDao;
+
+    /**
+     * Fold the pending deltas into the totals, every minute by default.
+     * Reads add the pending deltas themselves, so this only keeps the queue short.
+     */
+    @Scheduled(fixedDelayString = "${app.inventory-valuation.fold-interval-ms:60000}")
+    @ConnectionWorkload(Workload.BACKGROUND)
+    @Transactional
+    public void foldDeltas() {
+        int folded = inventoryValuationDao.foldDeltas();
+        log.debug("Folded inventory valuation deltas into {} groups", folded);
+    }
+
+    /**
+     * Verify and repair the valuation totals, nightly by default.
+     */
+    @Scheduled(cron = "${app.inventory-valuation.verify-cron:0 45 2 * * *}")
+    @ConnectionWorkload(Workload.BACKGROUND)
+    @Transactional
+    public void verifyAndRepair() {
+        long start = System.currentTimeMillis();
+        int repaired = inventoryValuationDao.repairInventoryValuation();
+        if (repaired > 0) {
+            log.warn("Repaired {} drifted inventory valuation groups in {} ms",
+                    repaired, System.currentTimeMillis() - start);
+        } else {
+            log.info("Inventory valuation verified in {} ms", System.currentTimeMillis() - start);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.audit.AuditAction;
+import com.codewithshiva.retailpos.audit.AuditService;
+import com.codewithshiva.retailpos.audit.EntityType;
+import com.codewithshiva.retailpos.dao.PriceRevisionDao;
+import com.codewithshiva.retailpos.dto.variant.BulkPriceRevisionRequest;
+import com.codewithshiva.retailpos.dto.variant.BulkPriceRevisionResponse;
+import com.codewithshiva.retailpos.exception.BadRequestException;
+import com.codewithshiva.retailpos.model.PriceRevisionLine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for bulk price and discount revisions (seasonal markdowns).
+ * A revision is previewed and applied as one set-based update over the matching variants,
+ * recorded as a single audit entry, and evicts the price snapshots once.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PriceRevisionService {
+
+    private static final int MAX_PREVIEW_LINES = 1000;
+
+    private final PriceRevisionDao priceRevisionDao;
+    private final PriceSnapshotService priceSnapshotService;
+    private final AuditService auditService;
+
+    @Transactional(readOnly = true)
+    public BulkPriceRevisionResponse previewRevision(BulkPriceRevisionRequest request) {
+        validate(request);
+
+        List<PriceRevisionLine> lines = priceRevisionDao.preview(
+                PriceRevisionDao.revisionFilter(request.getCategory(), request.getBrand(), request.getProductId(),
+                        Boolean.TRUE.equals(request.getIncludeInactive())),
+                priceMode(request), priceValue(request), request.getRoundTo(), request.getRounding(),
+                request.getPriceEnding(), discountMode(request), request.getDiscountPercent());
+
+        int belowCost = (int) lines.stream()
+                .filter(line -> line.getNewPrice().compareTo(line.getAvgCost()) < 0)
+                .count();
+
+        return BulkPriceRevisionResponse.builder()
+                .changedVariants(lines.size())
+                .belowCostVariants(belowCost)
+                .lines(lines.size() > MAX_PREVIEW_LINES ? new ArrayList<>(lines.subList(0, MAX_PREVIEW_LINES)) : lines)
+                .build();
+    }
+
+    @Transactional
+    public BulkPriceRevisionResponse applyRevision(BulkPriceRevisionRequest request) {
+        validate(request);
+        log.info("Applying bulk price revision - category: {}, brand: {}, productId: {}",
+                request.getCategory(), request.getBrand(), request.getProductId());
+
+        int updated = priceRevisionDao.apply(
+                PriceRevisionDao.revisionFilter(request.getCategory(), request.getBrand(), request.getProductId(),
+                        Boolean.TRUE.equals(request.getIncludeInactive())),
+                priceMode(request), priceValue(request), request.getRoundTo(), request.getRounding(),
+                request.getPriceEnding(), discountMode(request), request.getDiscountPercent());
+
+        if (updated > 0) {
+            priceSnapshotService.evictAll();
+            auditService.log(EntityType.VARIANT, null, AuditAction.UPDATE, describe(request, updated));
+        }
+
+        log.info("Bulk price revision updated {} variants", updated);
+        return BulkPriceRevisionResponse.builder()
+                .changedVariants(updated)
+                .build();
+    }
+
+    private void validate(BulkPriceRevisionRequest request) {
+        if (blankToNull(request.getCategory()) == null && blankToNull(request.getBrand()) == null
+                && request.getProductId() == null) {
+            throw new BadRequestException("MISSING_FILTER", "Category, brand or product is required");
+        }
+
+        String priceMode = priceMode(request);
+        if ("SET".equals(priceMode) && request.getPrice() == null) {
+            throw new BadRequestException("MISSING_PRICE", "Price is required for price mode SET");
+        }
+        if ("PERCENT".equals(priceMode) && request.getPercentChange() == null) {
+            throw new BadRequestException("MISSING_PERCENT", "Percent change is required for price mode PERCENT");
+        }
+        if (request.getPriceEnding() != null
+                && (request.getRoundTo() == null || request.getPriceEnding().compareTo(request.getRoundTo()) >= 0)) {
+            throw new BadRequestException("INVALID_ROUNDING", "Price ending must be less than round to");
+        }
+        if ("SET".equals(discountMode(request)) && request.getDiscountPercent() == null) {
+            throw new BadRequestException("MISSING_DISCOUNT", "Discount percent is required for discount mode SET");
+        }
+        if ("NONE".equals(priceMode) && request.getRoundTo() == null && "NONE".equals(discountMode(request))) {
+            throw new BadRequestException("NO_CHANGES", "Specify a price change, rounding or discount change");
+        }
+    }
+
+    private static String priceMode(BulkPriceRevisionRequest request) {
+        return request.getPriceMode() != null ? request.getPriceMode() : "NONE";
+    }
+
+    private static BigDecimal priceValue(BulkPriceRevisionRequest request) {
+        return switch (priceMode(request)) {
+            case "SET" -> request.getPrice();
+            case "PERCENT" -> request.getPercentChange();
+            default -> null;
+        };
+    }
+
+    private static String discountMode(BulkPriceRevisionRequest request) {
+        return request.getDiscountMode() != null ? request.getDiscountMode() : "NONE";
+    }
+
+    private static String describe(BulkPriceRevisionRequest request, int updated) {
+        StringBuilder description = new StringBuilder("Bulk price revision of ").append(updated).append(" variants (");
+        if (request.getCategory() != null) description.append("category=").append(request.getCategory()).append(' ');
+        if (request.getBrand() != null) description.append("brand=").append(request.getBrand()).append(' ');
+        if (request.getProductId() != null) description.append("productId=").append(request.getProductId()).append(' ');
+        description.append("price=").append(priceMode(request));
+        if (priceValue(request) != null) description.append(' ').append(priceValue(request).toPlainString());
+        if (request.getRoundTo() != null) {
+            description.append(", round ").append(request.getRounding() != null ? request.getRounding() : "NEAREST")
+                    .append(" to ").append(request.getRoundTo().toPlainString());
+            if (request.getPriceEnding() != null) description.append(" ending ").append(request.getPriceEnding().toPlainString());
+        }
+        description.append(", discount=").append(discountMode(request));
+        if (request.getDiscountPercent() != null && "SET".equals(discountMode(request))) {
+            description.append(' ').append(request.getDiscountPercent().toPlainString());
+        }
+        return description.append(')').toString();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
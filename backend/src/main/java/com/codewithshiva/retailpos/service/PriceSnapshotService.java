@@ -0,0 +1,252 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.dao.SettingsDao;
+import com.codewithshiva.retailpos.dao.VariantDao;
+import com.codewithshiva.retailpos.dto.sale.CreateSaleItemRequest;
+import com.codewithshiva.retailpos.model.Settings;
+import com.codewithshiva.retailpos.model.VariantPriceSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory snapshots of variant prices, discounts and the shop tax percent used to quote carts.
+ *
+ * Snapshots are loaded in one batch for the variants a cart needs and evicted after the
+ * transaction that changes them commits. Each quote carries a version derived from the exact
+ * snapshot values it was priced with and the lines it priced (see {@link #quoteVersion}); a sale
+ * verifies it against one batch read of the current values (see {@link #loadCurrent}), so changes
+ * made on another instance or directly in the database are caught even though this cache only
+ * sees local evictions.
+ */
+@Slf4j
+@Service
+public class PriceSnapshotService {
+
+    private final VariantDao variantDao;
+    private final SettingsDao settingsDao;
+
+    private final Map<Long, VariantPriceSnapshot> variants = new ConcurrentHashMap<>();
+    private volatile BigDecimal taxPercent;
+
+    /**
+     * Incremented on every eviction. Loads that raced with an eviction are not cached.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public PriceSnapshotService(VariantDao variantDao, SettingsDao settingsDao) {
+        this.variantDao = variantDao;
+        this.settingsDao = settingsDao;
+    }
+
+    /**
+     * Get price snapshots for the given variants and the current tax percent.
+     * Variants that do not exist are absent from the result.
+     */
+    public PriceSnapshot getSnapshot(Collection<Long> variantIds) {
+        long loadGeneration = generation.get();
+
+        Map<Long, VariantPriceSnapshot> result = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long variantId : new TreeSet<>(variantIds)) {
+            VariantPriceSnapshot snapshot = variants.get(variantId);
+            if (snapshot != null) {
+                result.put(variantId, snapshot);
+            } else {
+                missing.add(variantId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            log.debug("Loading price snapshots for {} variants", missing.size());
+            for (VariantPriceSnapshot snapshot : variantDao.findPriceSnapshots(missing)) {
+                result.put(snapshot.getId(), snapshot);
+                cacheVariant(snapshot, loadGeneration);
+            }
+        }
+
+        BigDecimal tax = taxPercent;
+        if (tax == null) {
+            tax = settingsDao.get().map(Settings::getTaxPercent).orElse(BigDecimal.ZERO);
+            if (generation.get() == loadGeneration) {
+                taxPercent = tax;
+                if (generation.get() != loadGeneration) {
+                    taxPercent = null;
+                }
+            }
+        }
+
+        return new PriceSnapshot(result, tax, version(result, tax));
+    }
+
+    /**
+     * Read the current values of the given variants and the tax percent from the database,
+     * bypassing the cache, and refresh the cache with them. Used to verify a quote when the
+     * sale is committed: the cache is per instance and may miss changes made elsewhere.
+     */
+    public PriceSnapshot loadCurrent(Collection<Long> variantIds) {
+        long loadGeneration = generation.get();
+
+        Map<Long, VariantPriceSnapshot> result = new HashMap<>();
+        for (VariantPriceSnapshot snapshot : variantDao.findPriceSnapshots(new ArrayList<>(new TreeSet<>(variantIds)))) {
+            result.put(snapshot.getId(), snapshot);
+            cacheVariant(snapshot, loadGeneration);
+        }
+        BigDecimal tax = settingsDao.get().map(Settings::getTaxPercent).orElse(BigDecimal.ZERO);
+        if (generation.get() == loadGeneration) {
+            taxPercent = tax;
+        }
+
+        return new PriceSnapshot(result, tax, version(result, tax));
+    }
+
+    private void cacheVariant(VariantPriceSnapshot snapshot, long loadGeneration) {
+        if (generation.get() != loadGeneration) {
+            return;
+        }
+        variants.put(snapshot.getId(), snapshot);
+        // An eviction may have slipped in between the check and the put
+        if (generation.get() != loadGeneration) {
+            variants.remove(snapshot.getId(), snapshot);
+        }
+    }
+
+    /**
+     * Evict a variant after the current transaction commits.
+     */
+    public void evictVariant(Long variantId) {
+        afterCommit(() -> variants.remove(variantId));
+    }
+
+    /**
+     * Evict all variants of a product (its discount or name changed) after the current transaction commits.
+     */
+    public void evictProduct(Long productId) {
+        afterCommit(() -> variants.values().removeIf(snapshot -> productId.equals(snapshot.getProductId())));
+    }
+
+    /**
+     * Evict the cached tax percent after the current transaction commits.
+     */
+    public void evictTaxPercent() {
+        afterCommit(() -> taxPercent = null);
+    }
+
+    /**
+     * Evict every snapshot after the current transaction commits.
+     */
+    public void evictAll() {
+        afterCommit(() -> {
+            variants.clear();
+            taxPercent = null;
+        });
+    }
+
+    private void afterCommit(Runnable eviction) {
+        Runnable evict = () -> {
+            generation.incrementAndGet();
+            eviction.run();
+        };
+        // Evict now as well, so the old values are not served for the rest of the transaction
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Version of a quote: a digest over the snapshot version, each resolved line (variant,
+     * quantity, unit price, item discount) and the bill discount. A sale built from the same
+     * cart against unchanged prices hashes to the same version, and any other cart does not.
+     */
+    public String quoteVersion(PriceSnapshot snapshot, List<CreateSaleItemRequest> lines, BigDecimal discountPercent) {
+        StringBuilder key = new StringBuilder(32 + lines.size() * 32);
+        key.append(snapshot.getVersion()).append('|').append(plain(discountPercent));
+        for (CreateSaleItemRequest line : lines) {
+            key.append('|').append(line.getVariantId())
+                    .append(':').append(line.getQty())
+                    .append(':').append(plain(line.getUnitPrice()))
+                    .append(':').append(plain(line.getItemDiscountPercent()));
+        }
+        return digest(key.toString());
+    }
+
+    /**
+     * Version of a snapshot: a digest over the tax percent and each variant's price and discount.
+     */
+    private static String version(Map<Long, VariantPriceSnapshot> snapshots, BigDecimal taxPercent) {
+        StringBuilder key = new StringBuilder(32 + snapshots.size() * 24);
+        key.append(plain(taxPercent));
+        for (Long variantId : new TreeSet<>(snapshots.keySet())) {
+            VariantPriceSnapshot snapshot = snapshots.get(variantId);
+            key.append('|').append(variantId)
+                    .append(':').append(plain(snapshot.getSellingPrice()))
+                    .append(':').append(plain(snapshot.getEffectiveDiscountPercent()));
+        }
+        return digest(key.toString());
+    }
+
+    private static String digest(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 12);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "-" : value.stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Snapshot values for one cart, with the version they hash to.
+     */
+    public static final class PriceSnapshot {
+        private final Map<Long, VariantPriceSnapshot> variants;
+        private final BigDecimal taxPercent;
+        private final String version;
+
+        private PriceSnapshot(Map<Long, VariantPriceSnapshot> variants, BigDecimal taxPercent, String version) {
+            this.variants = variants;
+            this.taxPercent = taxPercent;
+            this.version = version;
+        }
+
+        public VariantPriceSnapshot getVariant(Long variantId) {
+            return variants.get(variantId);
+        }
+
+        public boolean containsAll(Collection<Long> variantIds) {
+            return variants.keySet().containsAll(variantIds);
+        }
+
+        public BigDecimal getTaxPercent() {
+            return taxPercent;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+    }
+}
@@ -5,11 +5,17 @@ import com.codewithshiva.retailpos.audit.AuditAction;
 import com.codewithshiva.retailpos.audit.EntityType;
 import com.codewithshiva.retailpos.dao.ProductDao;
 import com.codewithshiva.retailpos.dao.VariantDao;
+import com.codewithshiva.retailpos.dto.PagedResponse;
 import com.codewithshiva.retailpos.dto.product.*;
+import com.codewithshiva.retailpos.exception.BadRequestException;
 import com.codewithshiva.retailpos.exception.ConflictException;
 import com.codewithshiva.retailpos.exception.ResourceNotFoundException;
 import com.codewithshiva.retailpos.model.Product;
+import com.codewithshiva.retailpos.model.ProductWithStockSummary;
 import com.codewithshiva.retailpos.model.Variant;
+import com.codewithshiva.retailpos.paging.PageQuery;
+import com.codewithshiva.retailpos.paging.SortOptions;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
@@ -29,33 +35,69 @@ public class ProductService {
     private final ProductDao productDao;
     private final VariantDao variantDao;
     private final LookupService lookupService;
+    private final PriceSnapshotService priceSnapshotService;
 
-    public ProductService(ProductDao productDao, VariantDao variantDao, @Lazy LookupService lookupService) {
+    public ProductService(ProductDao productDao, VariantDao variantDao, @Lazy LookupService lookupService,
+                          PriceSnapshotService priceSnapshotService) {
         this.productDao = productDao;
         this.variantDao = variantDao;
         this.lookupService = lookupService;
+        this.priceSnapshotService = priceSnapshotService;
     }
 
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+
+    /**
+     * Sortable columns of the product list.
+     */
+    private static final SortOptions<ProductWithStockSummary> LIST_SORTS = SortOptions
+            .byId("p.id", ProductWithStockSummary::getId)
+            .field("name", "p.name", "TEXT", ProductWithStockSummary::getName)
+            .field("brand", "p.brand", "TEXT", ProductWithStockSummary::getBrand)
+            .field("category", "p.category", "TEXT", ProductWithStockSummary::getCategory)
+            .field("createdAt", "p.created_at", "TIMESTAMPTZ", ProductWithStockSummary::getCreatedAt)
+            .field("updatedAt", "p.updated_at", "TIMESTAMPTZ", ProductWithStockSummary::getUpdatedAt)
+            .defaultSort("updatedAt", true);
+
     /**
-     * List products with optional filters.
+     * List one page of products with optional filters, paged and sorted in the database.
      */
     @Transactional(readOnly = true)
-    public List<ProductResponse> listProducts(String category, String brand, String search, boolean includeInactive) {
+    public PagedResponse<ProductResponse> listProducts(String category, String brand, String search,
+                                                       boolean includeInactive, Integer page, Integer size,
+                                                       String sort, String cursor, boolean includeTotal) {
         log.debug("Listing products with filters - category: {}, brand: {}, search: {}, includeInactive: {}",
                 category, brand, search, includeInactive);
 
-        List<Product> products;
-        if (category == null && brand == null && search == null) {
-            products = productDao.findAll(includeInactive);
-        } else {
-            products = productDao.findWithFilters(category, brand, search, includeInactive);
+        PageQuery<ProductWithStockSummary> pageQuery = LIST_SORTS.parse(page, size, sort, cursor, includeTotal);
+        SqlFilter filter = ProductDao.listFilter(category, brand, search, includeInactive);
+        List<ProductWithStockSummary> rows = productDao.findPage(filter,
+                pageQuery.getOrderBy(), pageQuery.getKeyset(), pageQuery);
+        Long total = pageQuery.isIncludeTotal() ? productDao.count(filter) : null;
+
+        return pageQuery.toResponse(rows, total, ProductResponse::fromProduct);
+    }
+
+    /**
+     * Search active products by name, brand, category or HSN, best match first.
+     * Words match as prefixes; misspelt words fall back to trigram similarity.
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchProducts(String query, Integer limit) {
+        log.debug("Searching products for: {}", query);
+
+        String term = query == null ? "" : query.trim();
+        if (term.isEmpty()) {
+            throw new BadRequestException("INVALID_SEARCH", "Search term is required");
+        }
+        int resultLimit = limit != null ? limit : DEFAULT_SEARCH_LIMIT;
+        if (resultLimit < 1 || resultLimit > MAX_SEARCH_LIMIT) {
+            throw new BadRequestException("INVALID_LIMIT", "Limit must be between 1 and " + MAX_SEARCH_LIMIT);
         }
 
-        return products.stream()
-                .map(product -> {
-                    int variantCount = productDao.countAllVariantsByProductId(product.getId());
-                    return ProductResponse.fromProduct(product, variantCount);
-                })
+        return productDao.search(term, resultLimit).stream()
+                .map(ProductResponse::fromProduct)
                 .collect(Collectors.toList());
     }
 
@@ -164,6 +206,8 @@ public class ProductService {
 
         // Evict lookup cache since categories/brands may have changed
         lookupService.evictLookupCache();
+        // Variants inherit the product discount and name
+        priceSnapshotService.evictProduct(id);
 
         // Fetch and return updated product
         Product updatedProduct = productDao.findById(id)
@@ -215,6 +259,7 @@ public class ProductService {
         if (totalVariants == 0) {
             productDao.deleteById(id);
             lookupService.evictLookupCache();
+            priceSnapshotService.evictProduct(id);
             log.info("Product deleted successfully: {}", id);
             return true;
         }
@@ -222,6 +267,7 @@ public class ProductService {
         productDao.updateStatus(id, false);
         variantDao.updateStatusByProductId(id, "INACTIVE");
         lookupService.evictLookupCache();
+        priceSnapshotService.evictProduct(id);
         log.info("Product deactivated and variants disabled: {}", id);
         return false;
     }
@@ -244,6 +290,7 @@ public class ProductService {
         productDao.updateStatus(id, isActive);
         variantDao.updateStatusByProductId(id, status);
         lookupService.evictLookupCache();
+        priceSnapshotService.evictProduct(id);
 
         log.info("Product status updated successfully: {} -> {}", id, status);
     }
@@ -7,11 +7,15 @@ import com.codewithshiva.retailpos.dao.InventoryDao;
 import com.codewithshiva.retailpos.dao.PurchaseDao;
 import com.codewithshiva.retailpos.dao.SupplierDao;
 import com.codewithshiva.retailpos.dao.VariantDao;
+import com.codewithshiva.retailpos.dto.PagedResponse;
 import com.codewithshiva.retailpos.dto.purchase.*;
 import com.codewithshiva.retailpos.exception.BadRequestException;
 import com.codewithshiva.retailpos.exception.ResourceNotFoundException;
 import com.codewithshiva.retailpos.model.PurchaseItemWithVariant;
 import com.codewithshiva.retailpos.model.PurchaseWithDetails;
+import com.codewithshiva.retailpos.paging.PageQuery;
+import com.codewithshiva.retailpos.paging.SortOptions;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,10 +25,13 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 /**
@@ -41,11 +48,23 @@ public class PurchaseService {
     private final InventoryDao inventoryDao;
 
     /**
-     * List purchases with optional filters.
+     * Sortable columns of the purchase list.
+     */
+    private static final SortOptions<PurchaseWithDetails> LIST_SORTS = SortOptions
+            .byId("p.id", PurchaseWithDetails::getId)
+            .field("purchasedAt", "p.purchased_at", "TIMESTAMPTZ", PurchaseWithDetails::getPurchasedAt)
+            .field("createdAt", "p.created_at", "TIMESTAMPTZ", PurchaseWithDetails::getCreatedAt)
+            .field("totalCost", "p.total_cost", "NUMERIC", PurchaseWithDetails::getTotalCost)
+            .defaultSort("purchasedAt", true);
+
+    /**
+     * List one page of purchases with optional filters, paged and sorted in the database.
      */
     @Transactional(readOnly = true)
-    public List<PurchaseListResponse> listPurchases(Long supplierId, String startDate, 
-                                                     String endDate, String search) {
+    public PagedResponse<PurchaseListResponse> listPurchases(Long supplierId, String startDate,
+                                                             String endDate, String search,
+                                                             Integer page, Integer size, String sort,
+                                                             String cursor, boolean includeTotal) {
         log.debug("Listing purchases with filters - supplierId: {}, startDate: {}, endDate: {}, search: {}", 
                 supplierId, startDate, endDate, search);
 
@@ -54,16 +73,13 @@ public class PurchaseService {
         OffsetDateTime endDateTime = parseEndDate(endDate);
         String trimmedSearch = normalizeSearch(search);
 
-        List<PurchaseWithDetails> purchases;
-        if (supplierId == null && startDateTime == null && endDateTime == null && trimmedSearch == null) {
-            purchases = purchaseDao.findAll();
-        } else {
-            purchases = purchaseDao.findWithFilters(supplierId, startDateTime, endDateTime, trimmedSearch);
-        }
+        PageQuery<PurchaseWithDetails> pageQuery = LIST_SORTS.parse(page, size, sort, cursor, includeTotal);
+        SqlFilter filter = PurchaseDao.listFilter(supplierId, startDateTime, endDateTime, trimmedSearch);
+        List<PurchaseWithDetails> rows = purchaseDao.findPage(filter,
+                pageQuery.getOrderBy(), pageQuery.getKeyset(), pageQuery);
+        Long total = pageQuery.isIncludeTotal() ? purchaseDao.count(filter) : null;
 
-        return purchases.stream()
-                .map(PurchaseListResponse::fromPurchaseWithDetails)
-                .collect(Collectors.toList());
+        return pageQuery.toResponse(rows, total, PurchaseListResponse::fromPurchaseWithDetails);
     }
 
     /**
@@ -107,18 +123,20 @@ public class PurchaseService {
                         "Supplier not found with ID: " + request.getSupplierId()
                 ));
 
-        // 2. Validate all variant IDs exist
+        // 2. Validate all variant IDs exist (one query)
         Set<Long> variantIds = new HashSet<>();
         for (CreatePurchaseItemRequest item : request.getItems()) {
             variantIds.add(item.getVariantId());
         }
-        
+
+        Set<Long> existingIds = new HashSet<>(variantDao.findExistingIds(variantIds));
         for (Long variantId : variantIds) {
-            variantDao.findById(variantId)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "VARIANT_NOT_FOUND",
-                            "Variant not found with ID: " + variantId
-                    ));
+            if (!existingIds.contains(variantId)) {
+                throw new ResourceNotFoundException(
+                        "VARIANT_NOT_FOUND",
+                        "Variant not found with ID: " + variantId
+                );
+            }
         }
 
         // 3. Calculate total cost
@@ -140,27 +158,13 @@ public class PurchaseService {
 
         log.info("Purchase created with ID: {}", purchaseId);
 
-        // 5. Create purchase items and update stock
-        for (CreatePurchaseItemRequest item : request.getItems()) {
-            // Create purchase item
-            purchaseDao.createItem(
-                    purchaseId,
-                    item.getVariantId(),
-                    item.getQty(),
-                    item.getUnitCost()
-            );
-
-            // 6. Update variant stock using PostgreSQL function
-            // This calculates weighted average cost and updates stock atomically
-            purchaseDao.updateVariantStockOnPurchase(
-                    item.getVariantId(),
-                    item.getQty(),
-                    item.getUnitCost()
-            );
+        // 5. Create all purchase items in one statement
+        createItems(purchaseId, request.getItems());
 
-            log.debug("Stock updated for variant ID: {} (+{} units at cost {})", 
-                    item.getVariantId(), item.getQty(), item.getUnitCost());
-        }
+        // 6. Update stock and weighted average cost of all variants using PostgreSQL function
+        // (one set-based update, rows locked in variant id order)
+        int variantsUpdated = purchaseDao.receivePurchaseStock(purchaseId);
+        log.debug("Stock updated for {} variants", variantsUpdated);
 
         log.info("Purchase created successfully with {} items. Total cost: {}", 
                 request.getItems().size(), totalCost);
@@ -185,30 +189,25 @@ public class PurchaseService {
             throw new BadRequestException("PURCHASE_ALREADY_VOIDED", "Purchase is already voided");
         }
 
-        List<PurchaseItemWithVariant> items = purchaseDao.findItemsByPurchaseId(id);
-        for (PurchaseItemWithVariant item : items) {
-            Integer currentStock = inventoryDao.getVariantStockQty(item.getVariantId());
-            int newStock = currentStock - item.getQty();
-            if (newStock < 0) {
-                throw new BadRequestException(
-                        "INSUFFICIENT_STOCK",
-                        "Cannot void purchase. Variant " + item.getVariantId() + " would go negative."
-                );
-            }
+        // Check stock of all variants at once (a variant may appear on several lines)
+        Map<Long, Integer> voidedQtyByVariant = new TreeMap<>();
+        for (PurchaseItemWithVariant item : purchaseDao.findItemsByPurchaseId(id)) {
+            voidedQtyByVariant.merge(item.getVariantId(), item.getQty(), Integer::sum);
         }
 
-        for (PurchaseItemWithVariant item : items) {
-            String notes = "Void purchase #" + id + ": " + voidReason;
-            inventoryDao.createAdjustment(
-                    item.getVariantId(),
-                    -item.getQty(),
-                    "CORRECTION",
-                    notes,
-                    voidedBy
+        List<Long> shortVariants = inventoryDao.findVariantsShortOfStock(
+                voidedQtyByVariant.keySet().toArray(new Long[0]),
+                voidedQtyByVariant.values().toArray(new Integer[0]));
+        if (!shortVariants.isEmpty()) {
+            throw new BadRequestException(
+                    "INSUFFICIENT_STOCK",
+                    "Cannot void purchase. Variant " + shortVariants.get(0) + " would go negative."
             );
-            inventoryDao.updateVariantStock(item.getVariantId(), -item.getQty());
         }
 
+        String notes = "Void purchase #" + id + ": " + voidReason;
+        purchaseDao.reverseItemsStock(id, notes, voidedBy);
+
         purchaseDao.updateStatus(id, "VOIDED", OffsetDateTime.now(ZoneOffset.UTC), voidedBy, voidReason);
         log.info("Purchase voided successfully: {}", id);
     }
@@ -258,113 +257,150 @@ public class PurchaseService {
             }
         }
 
-        // Validate all variants exist
-        for (Long variantId : newVariantIds) {
-            variantDao.findById(variantId)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "VARIANT_NOT_FOUND",
-                            "Variant not found with ID: " + variantId
-                    ));
+        // Validate all variants exist (one query)
+        Set<Long> existingVariantIds = new HashSet<>(variantDao.findExistingIds(newVariantIds));
+        for (CreatePurchaseItemRequest item : items) {
+            if (!existingVariantIds.contains(item.getVariantId())) {
+                throw new ResourceNotFoundException(
+                        "VARIANT_NOT_FOUND",
+                        "Variant not found with ID: " + item.getVariantId()
+                );
+            }
         }
 
         // Map existing items by variant ID
         Map<Long, PurchaseItemWithVariant> existingByVariant = existingItems.stream()
                 .collect(Collectors.toMap(PurchaseItemWithVariant::getVariantId, item -> item));
 
-        Set<Long> variantsToValidate = new HashSet<>();
+        // Sort items into new, changed and removed ones; collect the stock delta per variant
+        List<CreatePurchaseItemRequest> newItems = new ArrayList<>();
+        List<Long> changedItemIds = new ArrayList<>();
+        List<CreatePurchaseItemRequest> changedItems = new ArrayList<>();
+        List<Long> removedItemIds = new ArrayList<>();
+        Set<Long> variantsToValidate = new TreeSet<>();
+        Map<Long, StockDelta> stockDeltas = new TreeMap<>();
+        BigDecimal totalCost = BigDecimal.ZERO;
 
-        // Detect changed or new items
         for (CreatePurchaseItemRequest item : items) {
             PurchaseItemWithVariant existing = existingByVariant.get(item.getVariantId());
             if (existing == null) {
+                newItems.add(item);
                 variantsToValidate.add(item.getVariantId());
-                continue;
-            }
-
-            if (!existing.getQty().equals(item.getQty())
+                if (item.getQty() != 0) {
+                    stockDeltas.put(item.getVariantId(), new StockDelta(item.getQty(), item.getUnitCost()));
+                }
+            } else if (!existing.getQty().equals(item.getQty())
                     || existing.getUnitCost().compareTo(item.getUnitCost()) != 0) {
+                changedItemIds.add(existing.getId());
+                changedItems.add(item);
                 variantsToValidate.add(item.getVariantId());
+
+                int deltaQty = item.getQty() - existing.getQty();
+                if (deltaQty != 0) {
+                    // Reductions leave at the cost the stock came in at
+                    BigDecimal costForDelta = deltaQty < 0 ? existing.getUnitCost() : item.getUnitCost();
+                    stockDeltas.put(item.getVariantId(), new StockDelta(deltaQty, costForDelta));
+                }
             }
+
+            BigDecimal itemTotal = item.getUnitCost().multiply(BigDecimal.valueOf(item.getQty()));
+            totalCost = totalCost.add(itemTotal);
         }
 
-        // Detect removed items
         for (PurchaseItemWithVariant existing : existingItems) {
             if (!newVariantIds.contains(existing.getVariantId())) {
+                removedItemIds.add(existing.getId());
                 variantsToValidate.add(existing.getVariantId());
+                if (existing.getQty() != 0) {
+                    stockDeltas.put(existing.getVariantId(), new StockDelta(-existing.getQty(), existing.getUnitCost()));
+                }
             }
         }
 
-        // Guard against subsequent movements
-        for (Long variantId : variantsToValidate) {
-            int movements = purchaseDao.countSubsequentMovements(variantId, purchase.getPurchasedAt(), id);
-            if (movements > 0) {
+        // Guard against subsequent movements (one query for all affected variants)
+        if (!variantsToValidate.isEmpty()) {
+            List<Long> movedVariants = purchaseDao.findVariantsWithSubsequentMovements(
+                    variantsToValidate.toArray(new Long[0]), purchase.getPurchasedAt(), id);
+            if (!movedVariants.isEmpty()) {
                 throw new BadRequestException(
                         "SUBSEQUENT_MOVEMENTS",
-                        "Cannot edit purchase items for variant " + variantId + " due to later stock movements"
+                        "Cannot edit purchase items for variant " + movedVariants.get(0) + " due to later stock movements"
                 );
             }
         }
 
-        // Apply stock deltas and update items
-        BigDecimal totalCost = BigDecimal.ZERO;
-        for (CreatePurchaseItemRequest item : items) {
-            PurchaseItemWithVariant existing = existingByVariant.get(item.getVariantId());
-            int oldQty = existing != null ? existing.getQty() : 0;
-            int newQty = item.getQty();
-            int deltaQty = newQty - oldQty;
-
-            if (deltaQty < 0) {
-                Integer currentStock = inventoryDao.getVariantStockQty(item.getVariantId());
-                int newStock = currentStock + deltaQty;
-                if (newStock < 0) {
-                    throw new BadRequestException(
-                            "INSUFFICIENT_STOCK",
-                            "Cannot reduce stock below zero for variant " + item.getVariantId()
-                    );
-                }
+        // Reductions must not take stock below zero (one query)
+        List<Long> reducedVariantIds = new ArrayList<>();
+        List<Integer> reducedQtys = new ArrayList<>();
+        stockDeltas.forEach((variantId, delta) -> {
+            if (delta.qty() < 0) {
+                reducedVariantIds.add(variantId);
+                reducedQtys.add(-delta.qty());
+            }
+        });
+        if (!reducedVariantIds.isEmpty()) {
+            List<Long> shortVariants = inventoryDao.findVariantsShortOfStock(
+                    reducedVariantIds.toArray(new Long[0]), reducedQtys.toArray(new Integer[0]));
+            if (!shortVariants.isEmpty()) {
+                throw new BadRequestException(
+                        "INSUFFICIENT_STOCK",
+                        "Cannot reduce stock below zero for variant " + shortVariants.get(0)
+                );
             }
+        }
 
-            if (deltaQty != 0) {
-                BigDecimal costForDelta = existing != null && deltaQty < 0
-                        ? existing.getUnitCost()
-                        : item.getUnitCost();
-                purchaseDao.updateVariantStockOnPurchase(item.getVariantId(), deltaQty, costForDelta);
+        // Apply stock deltas in variant id order, then the item changes
+        if (!stockDeltas.isEmpty()) {
+            int size = stockDeltas.size();
+            Long[] deltaVariantIds = stockDeltas.keySet().toArray(new Long[0]);
+            Integer[] deltaQtys = new Integer[size];
+            BigDecimal[] deltaCosts = new BigDecimal[size];
+            int i = 0;
+            for (StockDelta delta : stockDeltas.values()) {
+                deltaQtys[i] = delta.qty();
+                deltaCosts[i] = delta.unitCost();
+                i++;
             }
+            purchaseDao.applyStockDeltas(deltaVariantIds, deltaQtys, deltaCosts);
+        }
 
-            if (existing == null) {
-                purchaseDao.createItem(id, item.getVariantId(), item.getQty(), item.getUnitCost());
-            } else if (!existing.getQty().equals(item.getQty())
-                    || existing.getUnitCost().compareTo(item.getUnitCost()) != 0) {
-                purchaseDao.updateItem(existing.getId(), item.getQty(), item.getUnitCost());
+        if (!changedItemIds.isEmpty()) {
+            Integer[] qtys = new Integer[changedItems.size()];
+            BigDecimal[] unitCosts = new BigDecimal[changedItems.size()];
+            for (int i = 0; i < changedItems.size(); i++) {
+                qtys[i] = changedItems.get(i).getQty();
+                unitCosts[i] = changedItems.get(i).getUnitCost();
             }
+            purchaseDao.updateItems(changedItemIds.toArray(new Long[0]), qtys, unitCosts);
+        }
 
-            BigDecimal itemTotal = item.getUnitCost().multiply(BigDecimal.valueOf(item.getQty()));
-            totalCost = totalCost.add(itemTotal);
+        if (!newItems.isEmpty()) {
+            createItems(id, newItems);
         }
 
-        // Delete removed items
-        for (PurchaseItemWithVariant existing : existingItems) {
-            if (!newVariantIds.contains(existing.getVariantId())) {
-                int deltaQty = -existing.getQty();
-                if (deltaQty != 0) {
-                    Integer currentStock = inventoryDao.getVariantStockQty(existing.getVariantId());
-                    int newStock = currentStock + deltaQty;
-                    if (newStock < 0) {
-                        throw new BadRequestException(
-                                "INSUFFICIENT_STOCK",
-                                "Cannot remove item. Variant " + existing.getVariantId() + " would go negative."
-                        );
-                    }
-                    purchaseDao.updateVariantStockOnPurchase(existing.getVariantId(), deltaQty, existing.getUnitCost());
-                }
-                purchaseDao.deleteItem(existing.getId());
-            }
+        if (!removedItemIds.isEmpty()) {
+            purchaseDao.deleteItems(removedItemIds);
         }
 
         purchaseDao.updateTotalCost(id, totalCost);
         return getPurchaseById(id);
     }
 
+    /**
+     * Insert purchase items with one multi-row insert.
+     */
+    private void createItems(Long purchaseId, List<CreatePurchaseItemRequest> items) {
+        Long[] variantIds = new Long[items.size()];
+        Integer[] qtys = new Integer[items.size()];
+        BigDecimal[] unitCosts = new BigDecimal[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            variantIds[i] = items.get(i).getVariantId();
+            qtys[i] = items.get(i).getQty();
+            unitCosts[i] = items.get(i).getUnitCost();
+        }
+        purchaseDao.createItems(purchaseId, variantIds, qtys, unitCosts);
+    }
+
     /**
      * Parse start date string (YYYY-MM-DD) to OffsetDateTime at start of day.
      */
@@ -403,4 +439,10 @@ public class PurchaseService {
         String trimmed = search.trim();
         return trimmed.isEmpty() ? null : trimmed;
     }
+
+    /**
+     * Stock change of one variant in a purchase edit, at the cost it moves at.
+     */
+    private record StockDelta(int qty, BigDecimal unitCost) {
+    }
 }
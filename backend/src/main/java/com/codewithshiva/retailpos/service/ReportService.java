@@ -1,9 +1,12 @@
 package com.codewithshiva.retailpos.service;
 
 import com.codewithshiva.retailpos.dao.ReportDao;
+import com.codewithshiva.retailpos.datasource.ConnectionWorkload;
+import com.codewithshiva.retailpos.datasource.Workload;
 import com.codewithshiva.retailpos.dto.report.*;
 import com.codewithshiva.retailpos.exception.BadRequestException;
 import com.codewithshiva.retailpos.model.report.*;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,7 +18,10 @@ import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -23,6 +29,7 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 @Service
+@ConnectionWorkload(Workload.REPORTING)
 @RequiredArgsConstructor
 public class ReportService {
 
@@ -122,7 +129,7 @@ public class ReportService {
 
         // Get top sellers
         List<ProductSalesData> topSellersData = reportDao.getTopSellingProducts(
-                dateRange.start, dateRange.end, category, brand, effectiveSortBy, effectiveOrder, resultLimit);
+                dateRange.start, dateRange.end, ReportDao.productFilter(category, brand), effectiveSortBy, effectiveOrder, resultLimit);
 
         List<ProductPerformanceReport.TopSeller> topSellers = topSellersData.stream()
                 .map(ps -> {
@@ -295,8 +302,10 @@ public class ReportService {
                 .potentialProfit(potentialProfit)
                 .build();
 
+        SqlFilter filter = ReportDao.valuationFilter(category, brand);
+
         // Get by category
-        List<InventoryGroupData> categoryData = reportDao.getInventoryByCategory(category, brand);
+        List<InventoryGroupData> categoryData = reportDao.getInventoryByCategory(filter);
         List<InventoryValuationReport.CategoryValuation> byCategory = categoryData.stream()
                 .map(ig -> InventoryValuationReport.CategoryValuation.builder()
                         .category(ig.getGroupName())
@@ -308,7 +317,7 @@ public class ReportService {
                 .collect(Collectors.toList());
 
         // Get by brand
-        List<InventoryGroupData> brandData = reportDao.getInventoryByBrand(category, brand);
+        List<InventoryGroupData> brandData = reportDao.getInventoryByBrand(filter);
         List<InventoryValuationReport.BrandValuation> byBrand = brandData.stream()
                 .map(ig -> InventoryValuationReport.BrandValuation.builder()
                         .brand(ig.getGroupName())
@@ -326,6 +335,86 @@ public class ReportService {
                 .build();
     }
 
+    /**
+     * Inventory valuation at the end of the given day (UTC): the nearest daily snapshot
+     * taken at or before then, plus the stock_ledger movements since that snapshot.
+     */
+    @Transactional(readOnly = true)
+    public InventoryValuationReport getInventoryValuationAsOf(String dateStr, String category, String brand) {
+        log.info("Generating inventory valuation as of {} - category: {}, brand: {}", dateStr, category, brand);
+
+        if (dateStr == null || dateStr.isEmpty()) {
+            throw new BadRequestException("MISSING_DATE", "Date is required");
+        }
+        OffsetDateTime asOf;
+        try {
+            asOf = LocalDate.parse(dateStr).plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+        } catch (Exception e) {
+            throw new BadRequestException("INVALID_DATE_FORMAT", "Invalid date format. Use YYYY-MM-DD");
+        }
+        if (asOf.isAfter(OffsetDateTime.now(ZoneOffset.UTC))) {
+            throw new BadRequestException("INVALID_DATE", "Date cannot be today or in the future");
+        }
+
+        LocalDate snapshotDate = reportDao.findLatestSnapshotDate(asOf).orElse(null);
+        List<InventoryCategoryBrandData> rows = reportDao.getInventoryAsOf(snapshotDate, asOf,
+                ReportDao.productFilter(category, brand));
+
+        Map<String, InventoryValuationReport.CategoryValuation> byCategory = new LinkedHashMap<>();
+        Map<String, InventoryValuationReport.BrandValuation> byBrand = new LinkedHashMap<>();
+        int totalSkus = 0;
+        long totalItems = 0;
+        BigDecimal totalCostValue = BigDecimal.ZERO;
+        BigDecimal totalRetailValue = BigDecimal.ZERO;
+
+        for (InventoryCategoryBrandData row : rows) {
+            totalSkus += row.getSkuCount();
+            totalItems += row.getItemCount();
+            totalCostValue = totalCostValue.add(row.getCostValue());
+            totalRetailValue = totalRetailValue.add(row.getRetailValue());
+
+            InventoryValuationReport.CategoryValuation cv = byCategory.computeIfAbsent(row.getCategory(),
+                    c -> InventoryValuationReport.CategoryValuation.builder()
+                            .category(c).skuCount(0).itemCount(0L)
+                            .costValue(BigDecimal.ZERO).retailValue(BigDecimal.ZERO)
+                            .build());
+            cv.setSkuCount(cv.getSkuCount() + row.getSkuCount());
+            cv.setItemCount(cv.getItemCount() + row.getItemCount());
+            cv.setCostValue(cv.getCostValue().add(row.getCostValue()));
+            cv.setRetailValue(cv.getRetailValue().add(row.getRetailValue()));
+
+            InventoryValuationReport.BrandValuation bv = byBrand.computeIfAbsent(row.getBrand(),
+                    b -> InventoryValuationReport.BrandValuation.builder()
+                            .brand(b).skuCount(0).itemCount(0L)
+                            .costValue(BigDecimal.ZERO).retailValue(BigDecimal.ZERO)
+                            .build());
+            bv.setSkuCount(bv.getSkuCount() + row.getSkuCount());
+            bv.setItemCount(bv.getItemCount() + row.getItemCount());
+            bv.setCostValue(bv.getCostValue().add(row.getCostValue()));
+            bv.setRetailValue(bv.getRetailValue().add(row.getRetailValue()));
+        }
+
+        InventoryValuationReport.Summary summary = InventoryValuationReport.Summary.builder()
+                .totalSkus(totalSkus)
+                .totalItems(totalItems)
+                .totalCostValue(totalCostValue)
+                .totalRetailValue(totalRetailValue)
+                .potentialProfit(totalRetailValue.subtract(totalCostValue))
+                .build();
+
+        return InventoryValuationReport.builder()
+                .asOf(asOf)
+                .snapshotDate(snapshotDate)
+                .summary(summary)
+                .byCategory(byCategory.values().stream()
+                        .sorted(Comparator.comparing(InventoryValuationReport.CategoryValuation::getCostValue).reversed())
+                        .collect(Collectors.toList()))
+                .byBrand(byBrand.values().stream()
+                        .sorted(Comparator.comparing(InventoryValuationReport.BrandValuation::getCostValue).reversed())
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
     // ==========================================
     // Low Stock Report
     // ==========================================
@@ -338,15 +427,17 @@ public class ReportService {
         boolean includeOOS = includeOutOfStock != null && includeOutOfStock;
 
         // Get counts
-        Integer lowStockCount = reportDao.getLowStockCount(category, brand);
-        Integer outOfStockCount = reportDao.getOutOfStockCount(category, brand);
+        SqlFilter filter = ReportDao.lowStockFilter(category, brand);
+        Integer lowStockCount = reportDao.getLowStockCount(filter);
+        Integer outOfStockCount = reportDao.getOutOfStockCount(filter);
 
         // Get items
-        List<LowStockItemData> itemsData = reportDao.getLowStockItems(category, brand, includeOOS);
+        List<LowStockItemData> itemsData = reportDao.getLowStockItems(
+                ReportDao.lowStockItemsFilter(category, brand, includeOOS));
         
         // If includeOutOfStock, also get out of stock items
         if (includeOOS) {
-            List<LowStockItemData> outOfStockItems = reportDao.getOutOfStockItems(category, brand);
+            List<LowStockItemData> outOfStockItems = reportDao.getOutOfStockItems(filter);
             itemsData = new ArrayList<>(itemsData);
             itemsData.addAll(outOfStockItems);
         }
@@ -0,0 +1,311 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.dto.sale.CreateSaleItemRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * Pricing engine for sales.
+ * Computes effective unit prices, line amounts, tax extraction, bill discount and per-line
+ * revenue in a single pass using paise-based fixed point ({@code long}) arithmetic.
+ *
+ * Rounding is identical to the original BigDecimal formulation:
+ * - percentages are turned into fractions rounded HALF_UP to 4 decimal places
+ * - effective unit price, taxable value, discount amount and revenue are rounded HALF_UP to 2 places
+ *
+ * Inputs that do not fit the fixed-point range (or are negative) are priced with BigDecimal instead,
+ * so results never depend on which path was taken.
+ */
+@Component
+public class SalePricingCalculator {
+
+    /** Fractions are held at 4 decimal places: 1.0000 == 10_000. */
+    private static final long FRACTION_ONE = 10_000L;
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    /**
+     * Price a cart.
+     *
+     * @param items           sale lines (unit price is tax-inclusive)
+     * @param taxPercent      GST percent included in the prices
+     * @param discountPercent bill-level discount percent applied on the subtotal
+     */
+    public SalePricing price(List<CreateSaleItemRequest> items, BigDecimal taxPercent, BigDecimal discountPercent) {
+        try {
+            return priceFixedPoint(items, taxPercent, discountPercent);
+        } catch (ArithmeticException outOfRange) {
+            return priceWithBigDecimal(items, taxPercent, discountPercent);
+        }
+    }
+
+    // ==========================================
+    // Fixed-point path
+    // ==========================================
+
+    private SalePricing priceFixedPoint(List<CreateSaleItemRequest> items, BigDecimal taxPercent,
+                                        BigDecimal discountPercent) {
+        int count = items.size();
+        long[] effectiveUnitPrices = new long[count];
+        long[] lineAmounts = new long[count];
+        long[] revenues = new long[count];
+        int[] quantities = new int[count];
+
+        long taxDivisor = FRACTION_ONE + percentToFraction(taxPercent);
+        long globalDiscountFactor = FRACTION_ONE - percentToFraction(discountPercent);
+        if (globalDiscountFactor < 0) {
+            throw new ArithmeticException("Discount above 100%");
+        }
+
+        long subtotal = 0;
+        for (int i = 0; i < count; i++) {
+            CreateSaleItemRequest item = items.get(i);
+            long itemDiscountFactor = FRACTION_ONE - percentToFraction(item.getItemDiscountPercent());
+            if (itemDiscountFactor < 0) {
+                throw new ArithmeticException("Item discount above 100%");
+            }
+
+            // effectiveUnitPrice = round2(unitPrice * itemDiscountFactor)
+            long unitPriceUnscaled = nonNegativeUnscaled(item.getUnitPrice());
+            int unitPriceScale = item.getUnitPrice().scale();
+            // unitPrice = unscaled / 10^scale rupees, factor = f / 10^4, so paise = unscaled * f / 10^(scale + 2)
+            long effectiveUnitPrice = divideByPowerOfTen(
+                    Math.multiplyExact(unitPriceUnscaled, itemDiscountFactor), unitPriceScale + 2);
+
+            if (item.getQty() < 0) {
+                throw new ArithmeticException("Negative quantity");
+            }
+            long lineAmount = Math.multiplyExact(effectiveUnitPrice, (long) item.getQty());
+
+            // revenue = round2(round2(lineAmount / taxDivisor) * globalDiscountFactor)
+            long revenue = divideHalfUp(Math.multiplyExact(lineAmount, FRACTION_ONE), taxDivisor);
+            revenue = divideHalfUp(Math.multiplyExact(revenue, globalDiscountFactor), FRACTION_ONE);
+
+            effectiveUnitPrices[i] = effectiveUnitPrice;
+            lineAmounts[i] = lineAmount;
+            revenues[i] = revenue;
+            quantities[i] = item.getQty();
+            subtotal = Math.addExact(subtotal, lineAmount);
+        }
+
+        // taxableValue = round2(subtotal / taxDivisor); tax is whatever MRP includes beyond that
+        long taxableValue = divideHalfUp(Math.multiplyExact(subtotal, FRACTION_ONE), taxDivisor);
+
+        // discountAmount = round2(subtotal * discountPercent / 100), using the percent as given
+        long discountAmount = percentOfPaise(subtotal, discountPercent);
+
+        return new SalePricing(effectiveUnitPrices, lineAmounts, revenues, quantities,
+                subtotal, taxableValue, discountAmount);
+    }
+
+    /**
+     * Percent as a 4-place fraction, i.e. round4(percent / 100) * 10_000.
+     */
+    private static long percentToFraction(BigDecimal percent) {
+        if (percent == null) {
+            return 0;
+        }
+        if (percent.signum() < 0) {
+            throw new ArithmeticException("Negative percent");
+        }
+        return percent.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * round2(paise * percent / 100) in paise, honouring every decimal of the percent.
+     */
+    private static long percentOfPaise(long paise, BigDecimal percent) {
+        if (percent == null || percent.signum() == 0) {
+            return 0;
+        }
+        // percent = unscaled / 10^scale, so the result is paise * unscaled / 10^(scale + 2)
+        return divideByPowerOfTen(Math.multiplyExact(paise, nonNegativeUnscaled(percent)), percent.scale() + 2);
+    }
+
+    /**
+     * HALF_UP {@code value / 10^exponent}; a negative exponent multiplies instead.
+     */
+    private static long divideByPowerOfTen(long value, int exponent) {
+        if (exponent <= 0) {
+            return Math.multiplyExact(value, powerOfTen(-exponent));
+        }
+        return divideHalfUp(value, powerOfTen(exponent));
+    }
+
+    private static long nonNegativeUnscaled(BigDecimal value) {
+        if (value.signum() < 0) {
+            throw new ArithmeticException("Negative amount");
+        }
+        return value.unscaledValue().longValueExact();
+    }
+
+    private static long powerOfTen(int exponent) {
+        if (exponent > 18) {
+            throw new ArithmeticException("Scale out of range");
+        }
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    /**
+     * HALF_UP division for a non-negative dividend and positive divisor.
+     */
+    private static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        return remainder >= divisor - remainder ? quotient + 1 : quotient;
+    }
+
+    // ==========================================
+    // BigDecimal path (out-of-range inputs)
+    // ==========================================
+
+    private SalePricing priceWithBigDecimal(List<CreateSaleItemRequest> items, BigDecimal taxPercent,
+                                            BigDecimal discountPercent) {
+        int count = items.size();
+        long[] effectiveUnitPrices = new long[count];
+        long[] lineAmounts = new long[count];
+        long[] revenues = new long[count];
+        int[] quantities = new int[count];
+
+        BigDecimal effectiveTaxPercent = taxPercent != null ? taxPercent : BigDecimal.ZERO;
+        BigDecimal effectiveDiscountPercent = discountPercent != null ? discountPercent : BigDecimal.ZERO;
+        BigDecimal taxDivisor = BigDecimal.ONE.add(effectiveTaxPercent.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+        BigDecimal globalDiscountFactor = BigDecimal.ONE.subtract(
+                effectiveDiscountPercent.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < count; i++) {
+            CreateSaleItemRequest item = items.get(i);
+            BigDecimal itemDiscountPct = item.getItemDiscountPercent() != null ? item.getItemDiscountPercent() : BigDecimal.ZERO;
+            BigDecimal itemDiscountFactor = BigDecimal.ONE.subtract(itemDiscountPct.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+            BigDecimal effectiveUnitPrice = item.getUnitPrice().multiply(itemDiscountFactor).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal lineAmount = effectiveUnitPrice.multiply(BigDecimal.valueOf(item.getQty()));
+            BigDecimal revenue = lineAmount.divide(taxDivisor, 2, RoundingMode.HALF_UP)
+                    .multiply(globalDiscountFactor)
+                    .setScale(2, RoundingMode.HALF_UP);
+
+            effectiveUnitPrices[i] = toPaise(effectiveUnitPrice);
+            lineAmounts[i] = toPaise(lineAmount);
+            revenues[i] = toPaise(revenue);
+            quantities[i] = item.getQty();
+            subtotal = subtotal.add(lineAmount);
+        }
+
+        BigDecimal taxableValue = subtotal.divide(taxDivisor, 2, RoundingMode.HALF_UP);
+        BigDecimal discountAmount = subtotal.multiply(effectiveDiscountPercent).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+
+        return new SalePricing(effectiveUnitPrices, lineAmounts, revenues, quantities,
+                toPaise(subtotal), toPaise(taxableValue), toPaise(discountAmount));
+    }
+
+    private static long toPaise(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+    }
+
+    // ==========================================
+    // Result
+    // ==========================================
+
+    /**
+     * Priced cart. All amounts are held in paise and exposed as 2-decimal BigDecimals.
+     */
+    public static final class SalePricing {
+        private final long[] effectiveUnitPrices;
+        private final long[] lineAmounts;
+        private final long[] revenues;
+        private final int[] quantities;
+        private final long subtotal;
+        private final long taxableValue;
+        private final long discountAmount;
+
+        private SalePricing(long[] effectiveUnitPrices, long[] lineAmounts, long[] revenues, int[] quantities,
+                            long subtotal, long taxableValue, long discountAmount) {
+            this.effectiveUnitPrices = effectiveUnitPrices;
+            this.lineAmounts = lineAmounts;
+            this.revenues = revenues;
+            this.quantities = quantities;
+            this.subtotal = subtotal;
+            this.taxableValue = taxableValue;
+            this.discountAmount = discountAmount;
+        }
+
+        public int getLineCount() {
+            return lineAmounts.length;
+        }
+
+        /** Unit price after the item discount (tax-inclusive). */
+        public BigDecimal getEffectiveUnitPrice(int line) {
+            return BigDecimal.valueOf(effectiveUnitPrices[line], 2);
+        }
+
+        /** Effective unit price x qty (tax-inclusive). */
+        public BigDecimal getLineAmount(int line) {
+            return BigDecimal.valueOf(lineAmounts[line], 2);
+        }
+
+        /** Tax-exclusive line revenue after the bill discount. */
+        public BigDecimal getRevenue(int line) {
+            return BigDecimal.valueOf(revenues[line], 2);
+        }
+
+        /** Sum of line amounts (tax-inclusive, after item discounts). */
+        public BigDecimal getSubtotal() {
+            return BigDecimal.valueOf(subtotal, 2);
+        }
+
+        public BigDecimal getTaxableValue() {
+            return BigDecimal.valueOf(taxableValue, 2);
+        }
+
+        /** GST extracted from the tax-inclusive subtotal. */
+        public BigDecimal getTaxAmount() {
+            return BigDecimal.valueOf(subtotal - taxableValue, 2);
+        }
+
+        public BigDecimal getDiscountAmount() {
+            return BigDecimal.valueOf(discountAmount, 2);
+        }
+
+        /** Final amount payable. */
+        public BigDecimal getTotal() {
+            return BigDecimal.valueOf(subtotal - discountAmount, 2);
+        }
+
+        /**
+         * Total profit given the average cost captured for each line (in line order):
+         * sum of (revenue - unitCost x qty).
+         */
+        public BigDecimal getProfit(List<BigDecimal> unitCosts) {
+            long profit = 0;
+            for (int i = 0; i < revenues.length; i++) {
+                BigDecimal unitCost = unitCosts.get(i);
+                if (unitCost.scale() > 2 || unitCost.signum() < 0) {
+                    return getProfitWithBigDecimal(unitCosts);
+                }
+                try {
+                    long costPaise = unitCost.movePointRight(2).setScale(0, RoundingMode.UNNECESSARY).longValueExact();
+                    profit = Math.addExact(profit, revenues[i] - Math.multiplyExact(costPaise, (long) quantities[i]));
+                } catch (ArithmeticException outOfRange) {
+                    return getProfitWithBigDecimal(unitCosts);
+                }
+            }
+            return BigDecimal.valueOf(profit, 2);
+        }
+
+        private BigDecimal getProfitWithBigDecimal(List<BigDecimal> unitCosts) {
+            BigDecimal profit = BigDecimal.ZERO;
+            for (int i = 0; i < revenues.length; i++) {
+                BigDecimal cost = unitCosts.get(i).multiply(BigDecimal.valueOf(quantities[i]));
+                profit = profit.add(getRevenue(i).subtract(cost));
+            }
+            return profit;
+        }
+    }
+}
@@ -7,9 +7,11 @@ import com.codewithshiva.retailpos.dao.SaleDao;
 import com.codewithshiva.retailpos.dao.VariantDao;
 import com.codewithshiva.retailpos.dto.sale.*;
 import com.codewithshiva.retailpos.exception.BadRequestException;
+import com.codewithshiva.retailpos.exception.ConflictException;
 import com.codewithshiva.retailpos.exception.ResourceNotFoundException;
 import com.codewithshiva.retailpos.model.SaleItemWithVariant;
 import com.codewithshiva.retailpos.model.SaleWithDetails;
+import com.codewithshiva.retailpos.model.VariantPriceSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,9 +22,11 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -35,6 +39,12 @@ public class SaleService {
 
     private final SaleDao saleDao;
     private final VariantDao variantDao;
+    private final SalePricingCalculator salePricingCalculator;
+    private final PriceSnapshotService priceSnapshotService;
+
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
 
     /**
      * List sales with optional filters.
@@ -48,19 +58,36 @@ public class SaleService {
         OffsetDateTime startDateTime = parseStartDate(startDate);
         OffsetDateTime endDateTime = parseEndDate(endDate);
 
-        List<SaleWithDetails> sales;
-        if (startDateTime == null && endDateTime == null && paymentMode == null && 
-            status == null && createdBy == null && search == null) {
-            sales = saleDao.findAll();
-        } else {
-            sales = saleDao.findWithFilters(startDateTime, endDateTime, paymentMode, status, createdBy, search);
-        }
+        List<SaleWithDetails> sales = saleDao.findWithFilters(
+                SaleDao.listFilter(startDateTime, endDateTime, paymentMode, status, createdBy, search));
 
         return sales.stream()
                 .map(SaleListResponse::fromSaleWithDetails)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Find sales by bill number, customer phone or customer name, best match first.
+     */
+    @Transactional(readOnly = true)
+    public List<SaleListResponse> searchSales(String query, Integer limit) {
+        log.debug("Searching sales for: {}", query);
+
+        String term = query == null ? "" : query.trim();
+        if (term.length() < MIN_SEARCH_LENGTH) {
+            throw new BadRequestException("INVALID_SEARCH",
+                    "Search term must be at least " + MIN_SEARCH_LENGTH + " characters");
+        }
+        int resultLimit = limit != null ? limit : DEFAULT_SEARCH_LIMIT;
+        if (resultLimit < 1 || resultLimit > MAX_SEARCH_LIMIT) {
+            throw new BadRequestException("INVALID_LIMIT", "Limit must be between 1 and " + MAX_SEARCH_LIMIT);
+        }
+
+        return saleDao.search(term, escapeLike(term), resultLimit).stream()
+                .map(SaleListResponse::fromSaleWithDetails)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Get sale by ID with all items.
      */
@@ -74,20 +101,78 @@ public class SaleService {
                         "Sale not found with ID: " + id
                 ));
 
-        List<SaleItemWithVariant> items = saleDao.findItemsBySaleId(id);
+        List<SaleItemWithVariant> items = saleDao.findItemsBySaleId(id, sale.getSoldAt());
 
         return SaleDetailResponse.fromSaleWithDetails(sale, items);
     }
 
+    /**
+     * Price a cart without creating a sale.
+     * Uses cached price snapshots (no row locks, no per-variant reads on a warm cache) and the same
+     * pricing engine as {@link #createSale}, so the totals match what the sale will charge.
+     */
+    public SaleQuoteResponse quoteSale(QuoteSaleRequest request) {
+        log.debug("Quoting cart with {} items", request.getItems().size());
+
+        List<Long> variantIds = request.getItems().stream()
+                .map(QuoteSaleItemRequest::getVariantId)
+                .collect(Collectors.toList());
+        PriceSnapshotService.PriceSnapshot snapshot = priceSnapshotService.getSnapshot(variantIds);
+
+        // Resolve each line to the values a sale would be created with
+        List<CreateSaleItemRequest> pricedItems = new ArrayList<>(request.getItems().size());
+        for (QuoteSaleItemRequest item : request.getItems()) {
+            VariantPriceSnapshot variant = snapshot.getVariant(item.getVariantId());
+            if (variant == null) {
+                throw new ResourceNotFoundException(
+                        "VARIANT_NOT_FOUND",
+                        "Variant not found with ID: " + item.getVariantId()
+                );
+            }
+            pricedItems.add(resolveLine(variant, item.getQty(), item.getUnitPrice(), item.getItemDiscountPercent()));
+        }
+
+        BigDecimal discountPercent = request.getDiscountPercent() != null ? request.getDiscountPercent() : BigDecimal.ZERO;
+        SalePricingCalculator.SalePricing pricing = salePricingCalculator.price(pricedItems, snapshot.getTaxPercent(), discountPercent);
+
+        List<SaleQuoteLineResponse> lines = new ArrayList<>(pricedItems.size());
+        for (int i = 0; i < pricedItems.size(); i++) {
+            CreateSaleItemRequest item = pricedItems.get(i);
+            VariantPriceSnapshot variant = snapshot.getVariant(item.getVariantId());
+            lines.add(SaleQuoteLineResponse.builder()
+                    .variantId(item.getVariantId())
+                    .variantSku(variant.getSku())
+                    .variantBarcode(variant.getBarcode())
+                    .productName(variant.getProductName())
+                    .qty(item.getQty())
+                    .unitPrice(item.getUnitPrice())
+                    .itemDiscountPercent(item.getItemDiscountPercent())
+                    .effectiveUnitPrice(pricing.getEffectiveUnitPrice(i))
+                    .totalPrice(pricing.getLineAmount(i))
+                    .build());
+        }
+
+        return SaleQuoteResponse.builder()
+                .snapshotVersion(priceSnapshotService.quoteVersion(snapshot, pricedItems, discountPercent))
+                .subtotal(pricing.getSubtotal())
+                .discountPercent(discountPercent)
+                .discountAmount(pricing.getDiscountAmount())
+                .taxPercent(snapshot.getTaxPercent())
+                .taxAmount(pricing.getTaxAmount())
+                .total(pricing.getTotal())
+                .items(lines)
+                .build();
+    }
+
     /**
      * Create a new sale.
      * This method:
-     * 1. Validates all variants exist
+     * 1. Validates all variants exist (or that the quote's price snapshot is still current)
      * 2. Pre-validates stock availability for all items
-     * 3. Generates bill number
-     * 4. Gets tax percent from settings
-     * 5. Decreases stock and captures avg_cost for each item
-     * 6. Calculates subtotal, discount, tax, total, and profit
+     * 3. Gets tax percent from settings
+     * 4. Prices the cart (subtotal, discount, tax, total) via {@link SalePricingCalculator}
+     * 5. Decreases stock and captures avg_cost for each item to calculate profit
+     * 6. Generates bill number (last, so the settings row lock is held as briefly as possible)
      * 7. Creates sale and sale items records
      */
     @Transactional
@@ -95,22 +180,53 @@ public class SaleService {
     public SaleDetailResponse createSale(CreateSaleRequest request, Long createdBy) {
         log.info("Creating sale with {} items, payment mode: {}", request.getItems().size(), request.getPaymentMode());
 
-        // 1. Validate all variants exist and pre-validate stock
-        Map<Long, Integer> requiredStock = new HashMap<>();
+        // 1. Validate all variants exist and pre-validate stock (per variant, in variant id order)
+        Map<Long, Integer> requiredStock = new TreeMap<>();
         for (CreateSaleItemRequest item : request.getItems()) {
             requiredStock.merge(item.getVariantId(), item.getQty(), Integer::sum);
         }
 
+        // A quoted cart is resolved like quoteSale resolves it, against the current prices and
+        // tax (read in one batch, not from the cache). Its version must match the quote's, so the
+        // sale charges exactly the quoted lines, bill discount and tax; it also proves every
+        // variant exists and fixes the tax percent
+        BigDecimal discountPercent = request.getDiscountPercent() != null ? request.getDiscountPercent() : BigDecimal.ZERO;
+        boolean quoted = request.getSnapshotVersion() != null;
+        List<CreateSaleItemRequest> items = request.getItems();
+        BigDecimal snapshotTaxPercent = null;
+        if (quoted) {
+            PriceSnapshotService.PriceSnapshot snapshot = priceSnapshotService.loadCurrent(requiredStock.keySet());
+            String currentVersion = null;
+            if (snapshot.containsAll(requiredStock.keySet())) {
+                items = new ArrayList<>(request.getItems().size());
+                for (CreateSaleItemRequest item : request.getItems()) {
+                    items.add(resolveLine(snapshot.getVariant(item.getVariantId()), item.getQty(),
+                            item.getUnitPrice(), item.getItemDiscountPercent()));
+                }
+                currentVersion = priceSnapshotService.quoteVersion(snapshot, items, discountPercent);
+            }
+            if (!request.getSnapshotVersion().equals(currentVersion)) {
+                log.warn("Stale price snapshot: quoted {}, current {}", request.getSnapshotVersion(), currentVersion);
+                throw new ConflictException(
+                        "PRICE_SNAPSHOT_STALE",
+                        "Prices or tax have changed since the cart was quoted. Please review the cart and try again."
+                );
+            }
+            snapshotTaxPercent = snapshot.getTaxPercent();
+        }
+
         for (Map.Entry<Long, Integer> entry : requiredStock.entrySet()) {
             Long variantId = entry.getKey();
             Integer requiredQty = entry.getValue();
 
             // Check variant exists
-            variantDao.findById(variantId)
-                    .orElseThrow(() -> new ResourceNotFoundException(
-                            "VARIANT_NOT_FOUND",
-                            "Variant not found with ID: " + variantId
-                    ));
+            if (!quoted) {
+                variantDao.findById(variantId)
+                        .orElseThrow(() -> new ResourceNotFoundException(
+                                "VARIANT_NOT_FOUND",
+                                "Variant not found with ID: " + variantId
+                        ));
+            }
 
             // Pre-validate stock
             Integer availableStock = saleDao.getVariantStockQty(variantId);
@@ -124,68 +240,45 @@ public class SaleService {
             }
         }
 
-        // 2. Generate bill number
-        String billNo = saleDao.generateBillNumber();
-        log.debug("Generated bill number: {}", billNo);
-
-        // 3. Get tax percent from settings
-        BigDecimal taxPercent = saleDao.getTaxPercent();
+        // 2. Get tax percent from settings (already read with the snapshot when quoted)
+        BigDecimal taxPercent = quoted ? snapshotTaxPercent : saleDao.getTaxPercent();
         if (taxPercent == null) {
             taxPercent = BigDecimal.ZERO;
         }
 
-        // 4. Calculate subtotal (sum of line amounts, tax-inclusive, after item discounts)
-        BigDecimal taxDivisor = BigDecimal.ONE.add(taxPercent.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP));
-        BigDecimal subtotal = BigDecimal.ZERO;
-        for (CreateSaleItemRequest item : request.getItems()) {
-            BigDecimal itemDiscountPct = item.getItemDiscountPercent() != null ? item.getItemDiscountPercent() : BigDecimal.ZERO;
-            BigDecimal itemDiscountFactor = BigDecimal.ONE.subtract(itemDiscountPct.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP));
-            BigDecimal effectiveUnitPrice = item.getUnitPrice().multiply(itemDiscountFactor).setScale(2, RoundingMode.HALF_UP);
-            BigDecimal lineAmount = effectiveUnitPrice.multiply(BigDecimal.valueOf(item.getQty()));
-            subtotal = subtotal.add(lineAmount);
-        }
-
-        // 5. Extract GST from subtotal (since MRP is tax-inclusive)
-        BigDecimal taxableValue = subtotal.divide(taxDivisor, 2, RoundingMode.HALF_UP);
-        BigDecimal taxAmount = subtotal.subtract(taxableValue);
-
-        // 6. Calculate global (additional) discount on subtotal
-        BigDecimal discountPercent = request.getDiscountPercent() != null ? request.getDiscountPercent() : BigDecimal.ZERO;
-        BigDecimal discountAmount = subtotal.multiply(discountPercent).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
-
-        // 7. Calculate total (final amount payable)
-        BigDecimal total = subtotal.subtract(discountAmount);
+        // 3. Price the cart in one pass: subtotal (tax-inclusive, after item discounts),
+        //    extracted GST, global discount, total and per-line revenue for profit
+        SalePricingCalculator.SalePricing pricing = salePricingCalculator.price(items, taxPercent, discountPercent);
 
-        // 8. Decrease stock for each item and calculate profit
-        // Store avg_cost for each item to use when creating sale items
-        Map<CreateSaleItemRequest, BigDecimal> itemCosts = new HashMap<>();
-        BigDecimal totalProfit = BigDecimal.ZERO;
-
-        for (CreateSaleItemRequest item : request.getItems()) {
+        // 4. Decrease stock once per variant, in variant id order, and capture avg_cost for profit
+        //    and sale items. Every checkout then locks stock rows and stripes in the same order,
+        //    including a striped variant that falls back to locking its whole stock
+        Map<Long, BigDecimal> avgCostByVariant = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : requiredStock.entrySet()) {
             // Call function which decreases stock and returns avg_cost
-            BigDecimal avgCost = saleDao.decreaseVariantStockOnSale(item.getVariantId(), item.getQty());
-            itemCosts.put(item, avgCost);
+            BigDecimal avgCost = saleDao.decreaseVariantStockOnSale(entry.getKey(), entry.getValue());
+            avgCostByVariant.put(entry.getKey(), avgCost);
 
-            // Calculate profit for this item (revenue = tax-exclusive base price after item discount)
-            BigDecimal itemDiscountPct = item.getItemDiscountPercent() != null ? item.getItemDiscountPercent() : BigDecimal.ZERO;
-            BigDecimal itemDiscountFactor = BigDecimal.ONE.subtract(itemDiscountPct.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP));
-            BigDecimal effectiveUnitPrice = item.getUnitPrice().multiply(itemDiscountFactor).setScale(2, RoundingMode.HALF_UP);
-            BigDecimal lineAmount = effectiveUnitPrice.multiply(BigDecimal.valueOf(item.getQty()));
-            BigDecimal revenue = lineAmount.divide(taxDivisor, 2, RoundingMode.HALF_UP);
-
-            // Apply global discount to revenue (not profit) — discount reduces what we earned, not what we paid
-            BigDecimal globalDiscountFactor = BigDecimal.ONE.subtract(discountPercent.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP));
-            revenue = revenue.multiply(globalDiscountFactor).setScale(2, RoundingMode.HALF_UP);
+            log.debug("Stock decreased for variant {}: qty={}, avgCost={}", entry.getKey(), entry.getValue(), avgCost);
+        }
+        List<BigDecimal> unitCosts = new ArrayList<>(items.size());
+        for (CreateSaleItemRequest item : items) {
+            unitCosts.add(avgCostByVariant.get(item.getVariantId()));
+        }
 
-            BigDecimal cost = avgCost.multiply(BigDecimal.valueOf(item.getQty()));
-            BigDecimal itemProfit = revenue.subtract(cost);
-            totalProfit = totalProfit.add(itemProfit);
+        // 5. Profit = revenue (tax-exclusive, after all discounts) - cost
+        BigDecimal subtotal = pricing.getSubtotal();
+        BigDecimal taxAmount = pricing.getTaxAmount();
+        BigDecimal discountAmount = pricing.getDiscountAmount();
+        BigDecimal total = pricing.getTotal();
+        BigDecimal totalProfit = pricing.getProfit(unitCosts);
 
-            log.debug("Stock decreased for variant {}: qty={}, avgCost={}, itemProfit={}", 
-                    item.getVariantId(), item.getQty(), avgCost, itemProfit);
-        }
+        // 6. Generate bill number. Every sale increments the same settings row, so take
+        //    its lock after the stock updates rather than holding it through them
+        String billNo = saleDao.generateBillNumber();
+        log.debug("Generated bill number: {}", billNo);
 
-        // 9. Create sale record
+        // 7. Create sale record
         OffsetDateTime soldAt = OffsetDateTime.now();
         Long saleId = saleDao.create(
                 billNo,
@@ -205,12 +298,14 @@ public class SaleService {
 
         log.info("Sale created with ID: {}, Bill No: {}", saleId, billNo);
 
-        // 10. Create sale items
-        for (CreateSaleItemRequest item : request.getItems()) {
-            BigDecimal unitCostAtSale = itemCosts.get(item);
+        // 8. Create sale items
+        for (int i = 0; i < items.size(); i++) {
+            CreateSaleItemRequest item = items.get(i);
+            BigDecimal unitCostAtSale = unitCosts.get(i);
             BigDecimal itemDiscountPct = item.getItemDiscountPercent() != null ? item.getItemDiscountPercent() : BigDecimal.ZERO;
             saleDao.createItem(
                     saleId,
+                    soldAt,
                     item.getVariantId(),
                     item.getQty(),
                     item.getUnitPrice(),
@@ -259,12 +354,12 @@ public class SaleService {
         }
 
         // 3. Restore stock for all items using PostgreSQL function
-        saleDao.restoreStockOnVoid(id);
+        saleDao.restoreStockOnVoid(id, sale.getSoldAt());
         log.debug("Stock restored for sale ID: {}", id);
 
         // 4. Mark sale as voided
         OffsetDateTime voidedAt = OffsetDateTime.now();
-        saleDao.voidSale(id, voidedAt, voidedBy, request.getReason());
+        saleDao.voidSale(id, sale.getSoldAt(), voidedAt, voidedBy, request.getReason());
 
         log.info("Sale voided successfully. Bill No: {}", sale.getBillNo());
 
@@ -272,6 +367,26 @@ public class SaleService {
         return getSaleById(id);
     }
 
+    /**
+     * A cart line with the values a sale is created with: the unit price and item discount as
+     * given, defaulting to the variant's selling price and effective discount.
+     */
+    private static CreateSaleItemRequest resolveLine(VariantPriceSnapshot variant, Integer qty,
+                                                     BigDecimal unitPrice, BigDecimal itemDiscountPercent) {
+        BigDecimal resolvedUnitPrice = unitPrice != null ? unitPrice : variant.getSellingPrice();
+        BigDecimal resolvedDiscountPercent = itemDiscountPercent != null
+                ? itemDiscountPercent
+                : (variant.getEffectiveDiscountPercent() != null ? variant.getEffectiveDiscountPercent() : BigDecimal.ZERO);
+        return new CreateSaleItemRequest(variant.getId(), qty, resolvedUnitPrice, resolvedDiscountPercent);
+    }
+
+    /**
+     * Escape LIKE wildcards so the term matches literally.
+     */
+    private String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     /**
      * Parse start date string (YYYY-MM-DD) to OffsetDateTime at start of day.
      */
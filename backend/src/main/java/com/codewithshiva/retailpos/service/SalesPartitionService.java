@@ -0,0 +1,55 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.dao.SalesPartitionDao;
+import com.codewithshiva.retailpos.datasource.ConnectionWorkload;
+import com.codewithshiva.retailpos.datasource.Workload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Scheduled maintenance of the monthly sales partitions.
+ * Keeps the coming months created, so new sales never land in the default partition,
+ * and moves months older than the archive age to sales_archive, where reports still
+ * read them (v_all_sales, v_all_sale_items) but sale lists and voids no longer do.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SalesPartitionService {
+
+    private final SalesPartitionDao salesPartitionDao;
+
+    @Value("${app.sales-partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${app.sales-partitions.archive-after-months:24}")
+    private int archiveAfterMonths;
+
+    /**
+     * Create the coming months and archive old ones, nightly by default.
+     */
+    @Scheduled(cron = "${app.sales-partitions.cron:0 0 1 * * *}", zone = "UTC")
+    @ConnectionWorkload(Workload.BACKGROUND)
+    @Transactional
+    public void maintainPartitions() {
+        LocalDate thisMonth = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+
+        long start = System.currentTimeMillis();
+        int created = salesPartitionDao.createPartitions(thisMonth, thisMonth.plusMonths(monthsAhead));
+
+        int archived = 0;
+        if (archiveAfterMonths > 0) {
+            archived = salesPartitionDao.archivePartitionsBefore(thisMonth.minusMonths(archiveAfterMonths));
+        }
+
+        log.info("Sales partitions done in {} ms, {} months created, {} months archived",
+                System.currentTimeMillis() - start, created, archived);
+    }
+}
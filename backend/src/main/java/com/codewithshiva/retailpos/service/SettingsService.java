@@ -21,6 +21,7 @@ import org.springframework.stereotype.Service;
 public class SettingsService {
 
     private final SettingsDao settingsDao;
+    private final PriceSnapshotService priceSnapshotService;
 
     /**
      * Get shop settings.
@@ -66,6 +67,9 @@ public class SettingsService {
 
         log.info("Shop settings updated successfully");
 
+        // Quotes depend on the tax percent
+        priceSnapshotService.evictTaxPercent();
+
         // Fetch and return updated settings
         return getSettings();
     }
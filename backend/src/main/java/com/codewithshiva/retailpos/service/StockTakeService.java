@@ -0,0 +1,247 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.audit.AuditAction;
+import com.codewithshiva.retailpos.audit.Auditable;
+import com.codewithshiva.retailpos.audit.EntityType;
+import com.codewithshiva.retailpos.dao.StockTakeDao;
+import com.codewithshiva.retailpos.dto.inventory.*;
+import com.codewithshiva.retailpos.exception.BadRequestException;
+import com.codewithshiva.retailpos.exception.ResourceNotFoundException;
+import com.codewithshiva.retailpos.model.StockTake;
+import com.codewithshiva.retailpos.model.StockTakeVariance;
+import com.codewithshiva.retailpos.stock.StockTakeTally;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service for physical stock take sessions.
+ * Scans are tallied in memory per session ({@link StockTakeTally}); previewing diffs the
+ * tally against system stock in one query, and applying writes all differences as
+ * CORRECTION adjustments in one statement with a single audit event for the session.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockTakeService {
+
+    private final StockTakeDao stockTakeDao;
+    private final StockTakeTally stockTakeTally;
+
+    @Transactional(readOnly = true)
+    public List<StockTakeResponse> getStockTakes(String status) {
+        log.debug("Getting stock takes with status: {}", status);
+        return stockTakeDao.findAll(StockTakeDao.listFilter(status)).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public StockTakeResponse getStockTake(Long id) {
+        return toResponse(findStockTake(id));
+    }
+
+    @Transactional
+    @Auditable(entity = EntityType.STOCK_TAKE, action = AuditAction.CREATE)
+    public StockTakeResponse startStockTake(CreateStockTakeRequest request, Long createdBy) {
+        log.info("Starting stock take - category: {}, brand: {}", request.getCategory(), request.getBrand());
+
+        Long id = stockTakeDao.create(blankToNull(request.getCategory()), blankToNull(request.getBrand()),
+                request.getNotes(), createdBy);
+        afterCommit(() -> stockTakeTally.open(id));
+
+        log.info("Stock take started with ID: {}", id);
+        StockTakeResponse response = StockTakeResponse.fromStockTake(findStockTake(id));
+        response.setScannedBarcodes(0);
+        return response;
+    }
+
+    /**
+     * Add a batch of scans to an open stock take. Only touches the in-memory tally.
+     */
+    public StockTakeResponse recordScans(Long id, StockTakeScanRequest request) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (StockTakeScanItemRequest scan : request.getScans()) {
+            int qty = scan.getQty() != null ? scan.getQty() : 1;
+            counts.merge(scan.getBarcode().trim(), qty, Integer::sum);
+        }
+
+        if (!stockTakeTally.add(id, counts)) {
+            throw notOpen(id);
+        }
+        return StockTakeResponse.builder()
+                .id(id)
+                .status("OPEN")
+                .scannedBarcodes(stockTakeTally.size(id))
+                .build();
+    }
+
+    /**
+     * Counted vs system stock for the scanned and in-scope variants.
+     */
+    @Transactional(readOnly = true)
+    public StockTakeVarianceResponse getVariances(Long id) {
+        StockTake stockTake = findStockTake(id);
+        Map<String, Integer> counts = openCounts(stockTake);
+
+        ScanCounts scanCounts = ScanCounts.of(counts);
+        List<StockTakeVariance> variances = stockTakeDao.findVariances(scanCounts.barcodes(),
+                scanCounts.countedQtys(), StockTakeDao.scopeFilter(stockTake.getCategory(), stockTake.getBrand()));
+
+        Set<String> matched = new HashSet<>();
+        int netVarianceQty = 0;
+        BigDecimal netVarianceValue = BigDecimal.ZERO;
+        List<StockTakeVarianceResponse.Line> lines = new ArrayList<>();
+        for (StockTakeVariance variance : variances) {
+            if (variance.getBarcode() != null) {
+                matched.add(variance.getBarcode());
+            }
+            int varianceQty = variance.getCountedQty() - variance.getSystemQty();
+            if (varianceQty != 0) {
+                netVarianceQty += varianceQty;
+                netVarianceValue = netVarianceValue.add(variance.getAvgCost().multiply(BigDecimal.valueOf(varianceQty)));
+                lines.add(StockTakeVarianceResponse.Line.fromVariance(variance));
+            }
+        }
+
+        List<String> unknownBarcodes = counts.keySet().stream()
+                .filter(barcode -> !matched.contains(barcode))
+                .sorted()
+                .collect(Collectors.toList());
+
+        return StockTakeVarianceResponse.builder()
+                .stockTakeId(id)
+                .countedVariants(variances.size())
+                .varianceVariants(lines.size())
+                .netVarianceQty(netVarianceQty)
+                .netVarianceValue(netVarianceValue)
+                .lines(lines)
+                .unknownBarcodes(unknownBarcodes)
+                .build();
+    }
+
+    /**
+     * Apply the count: adjust every variant whose count differs from its stock to the count.
+     */
+    @Transactional
+    @Auditable(entity = EntityType.STOCK_TAKE, action = AuditAction.ADJUSTMENT)
+    public StockTakeResponse applyStockTake(Long id, Long appliedBy) {
+        log.info("Applying stock take ID: {}", id);
+
+        StockTake stockTake = findStockTake(id);
+        Map<String, Integer> counts = openCounts(stockTake);
+        if (counts.isEmpty()) {
+            // Unscanned variants in scope count as zero: an empty count would clear the stock
+            throw new BadRequestException("STOCK_TAKE_EMPTY", "Stock take " + id + " has no scans");
+        }
+        ScanCounts scanCounts = ScanCounts.of(counts);
+
+        int adjusted = stockTakeDao.applyVariances(id, scanCounts.barcodes(), scanCounts.countedQtys(),
+                stockTake.getCategory(), stockTake.getBrand(), appliedBy);
+        if (stockTakeDao.markApplied(id, counts.size(), adjusted, appliedBy) == 0) {
+            throw notOpen(id);
+        }
+        // Keep the tally until commit so a failed apply can be retried
+        afterCommit(() -> stockTakeTally.close(id));
+
+        log.info("Stock take {} applied: {} barcodes counted, {} variants adjusted", id, counts.size(), adjusted);
+        return StockTakeResponse.fromStockTake(findStockTake(id));
+    }
+
+    @Transactional
+    @Auditable(entity = EntityType.STOCK_TAKE, action = AuditAction.STATUS_CHANGE)
+    public StockTakeResponse cancelStockTake(Long id, Long cancelledBy) {
+        log.info("Cancelling stock take ID: {}", id);
+
+        findStockTake(id);
+        if (stockTakeDao.cancel(id, cancelledBy) == 0) {
+            throw notOpen(id);
+        }
+        afterCommit(() -> stockTakeTally.close(id));
+
+        return StockTakeResponse.fromStockTake(findStockTake(id));
+    }
+
+    private StockTake findStockTake(Long id) {
+        return stockTakeDao.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException(
+                        "STOCK_TAKE_NOT_FOUND",
+                        "Stock take not found with ID: " + id
+                ));
+    }
+
+    /**
+     * Counts of an open stock take. An open session without a tally lost its scans in a restart.
+     */
+    private Map<String, Integer> openCounts(StockTake stockTake) {
+        if (!"OPEN".equals(stockTake.getStatus())) {
+            throw notOpen(stockTake.getId());
+        }
+        return stockTakeTally.counts(stockTake.getId())
+                .orElseThrow(() -> new BadRequestException(
+                        "STOCK_TAKE_COUNTS_LOST",
+                        "Scans of stock take " + stockTake.getId() + " were lost in a restart. Cancel it and count again"
+                ));
+    }
+
+    private BadRequestException notOpen(Long id) {
+        return new BadRequestException("STOCK_TAKE_NOT_OPEN", "Stock take " + id + " is not open");
+    }
+
+    private StockTakeResponse toResponse(StockTake stockTake) {
+        StockTakeResponse response = StockTakeResponse.fromStockTake(stockTake);
+        if ("OPEN".equals(stockTake.getStatus())) {
+            if (stockTakeTally.isOpen(stockTake.getId())) {
+                response.setScannedBarcodes(stockTakeTally.size(stockTake.getId()));
+            }
+        }
+        return response;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Tally as the parallel arrays the stock take queries unnest.
+     */
+    private record ScanCounts(String[] barcodes, Integer[] countedQtys) {
+
+        static ScanCounts of(Map<String, Integer> counts) {
+            String[] barcodes = new String[counts.size()];
+            Integer[] countedQtys = new Integer[counts.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+                barcodes[i] = entry.getKey();
+                countedQtys[i] = entry.getValue();
+                i++;
+            }
+            return new ScanCounts(barcodes, countedQtys);
+        }
+    }
+}
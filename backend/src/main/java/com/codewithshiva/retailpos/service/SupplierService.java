@@ -4,12 +4,16 @@ import com.codewithshiva.retailpos.audit.Auditable;
 import com.codewithshiva.retailpos.audit.AuditAction;
 import com.codewithshiva.retailpos.audit.EntityType;
 import com.codewithshiva.retailpos.dao.SupplierDao;
+import com.codewithshiva.retailpos.dto.PagedResponse;
 import com.codewithshiva.retailpos.dto.supplier.CreateSupplierRequest;
 import com.codewithshiva.retailpos.dto.supplier.SupplierResponse;
 import com.codewithshiva.retailpos.dto.supplier.UpdateSupplierRequest;
 import com.codewithshiva.retailpos.exception.ConflictException;
 import com.codewithshiva.retailpos.exception.ResourceNotFoundException;
 import com.codewithshiva.retailpos.model.Supplier;
+import com.codewithshiva.retailpos.paging.PageQuery;
+import com.codewithshiva.retailpos.paging.SortOptions;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -17,7 +21,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 /**
  * Service for supplier management operations.
@@ -30,22 +33,29 @@ public class SupplierService {
     private final SupplierDao supplierDao;
 
     /**
-     * List suppliers with optional search filter.
+     * Sortable columns of the supplier list.
+     */
+    private static final SortOptions<Supplier> LIST_SORTS = SortOptions
+            .byId("id", Supplier::getId)
+            .field("name", "name", "TEXT", Supplier::getName)
+            .field("createdAt", "created_at", "TIMESTAMPTZ", Supplier::getCreatedAt)
+            .defaultSort("name", false);
+
+    /**
+     * List one page of active suppliers with optional search filter, paged and sorted in the database.
      */
     @Transactional(readOnly = true)
-    public List<SupplierResponse> listSuppliers(String search) {
+    public PagedResponse<SupplierResponse> listSuppliers(String search, Integer page, Integer size,
+                                                         String sort, String cursor, boolean includeTotal) {
         log.debug("Listing suppliers with search: {}", search);
 
-        List<Supplier> suppliers;
-        if (search == null || search.trim().isEmpty()) {
-            suppliers = supplierDao.findAllActive();
-        } else {
-            suppliers = supplierDao.findWithSearch(search.trim());
-        }
+        String trimmedSearch = search == null || search.trim().isEmpty() ? null : search.trim();
+        PageQuery<Supplier> pageQuery = LIST_SORTS.parse(page, size, sort, cursor, includeTotal);
+        SqlFilter filter = SupplierDao.listFilter(trimmedSearch);
+        List<Supplier> rows = supplierDao.findPage(filter, pageQuery.getOrderBy(), pageQuery.getKeyset(), pageQuery);
+        Long total = pageQuery.isIncludeTotal() ? supplierDao.count(filter) : null;
 
-        return suppliers.stream()
-                .map(SupplierResponse::fromSupplier)
-                .collect(Collectors.toList());
+        return pageQuery.toResponse(rows, total, SupplierResponse::fromSupplier);
     }
 
     /**
@@ -1,6 +1,8 @@
 package com.codewithshiva.retailpos.service;
 
 import com.codewithshiva.retailpos.dao.RefreshTokenDao;
+import com.codewithshiva.retailpos.datasource.ConnectionWorkload;
+import com.codewithshiva.retailpos.datasource.Workload;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -20,6 +22,7 @@ public class TokenCleanupService {
      * Clean up expired and revoked tokens every hour.
      */
     @Scheduled(fixedRate = 3600000) // Run every hour (3600000 ms)
+    @ConnectionWorkload(Workload.BACKGROUND)
     public void cleanupExpiredTokens() {
         log.info("Starting cleanup of expired and revoked tokens");
         int deletedCount = refreshTokenDao.deleteExpiredAndRevokedTokens();
@@ -5,11 +5,16 @@ import com.codewithshiva.retailpos.audit.AuditAction;
 import com.codewithshiva.retailpos.audit.EntityType;
 import com.codewithshiva.retailpos.dao.ProductDao;
 import com.codewithshiva.retailpos.dao.VariantDao;
+import com.codewithshiva.retailpos.dao.VariantStockDao;
+import com.codewithshiva.retailpos.dto.PagedResponse;
 import com.codewithshiva.retailpos.dto.variant.*;
 import com.codewithshiva.retailpos.exception.ConflictException;
 import com.codewithshiva.retailpos.exception.ResourceNotFoundException;
 import com.codewithshiva.retailpos.model.Variant;
 import com.codewithshiva.retailpos.model.VariantWithProduct;
+import com.codewithshiva.retailpos.paging.PageQuery;
+import com.codewithshiva.retailpos.paging.SortOptions;
+import com.codewithshiva.retailpos.sql.SqlFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
@@ -28,39 +33,60 @@ import java.util.stream.Collectors;
 public class VariantService {
 
     private final VariantDao variantDao;
+    private final VariantStockDao variantStockDao;
     private final ProductDao productDao;
     private final LookupService lookupService;
+    private final PriceSnapshotService priceSnapshotService;
 
-    public VariantService(VariantDao variantDao, ProductDao productDao, @Lazy LookupService lookupService) {
+    public VariantService(VariantDao variantDao, VariantStockDao variantStockDao, ProductDao productDao,
+                          @Lazy LookupService lookupService, PriceSnapshotService priceSnapshotService) {
         this.variantDao = variantDao;
+        this.variantStockDao = variantStockDao;
         this.productDao = productDao;
         this.lookupService = lookupService;
+        this.priceSnapshotService = priceSnapshotService;
     }
 
     /**
-     * List variants with optional filters.
+     * Sortable columns of the variant list.
+     */
+    private static final SortOptions<VariantWithProduct> LIST_SORTS = SortOptions
+            .byId("id", VariantWithProduct::getId)
+            .field("sku", "sku", "TEXT", VariantWithProduct::getSku)
+            .field("productName", "product_name", "TEXT", VariantWithProduct::getProductName)
+            .field("sellingPrice", "selling_price", "NUMERIC", VariantWithProduct::getSellingPrice)
+            .field("stockQty", "stock_qty", "INTEGER", VariantWithProduct::getStockQty)
+            .field("createdAt", "created_at", "TIMESTAMPTZ", VariantWithProduct::getCreatedAt)
+            .field("updatedAt", "updated_at", "TIMESTAMPTZ", VariantWithProduct::getUpdatedAt)
+            .defaultSort("updatedAt", true);
+
+    /**
+     * List one page of variants with optional filters, paged and sorted in the database.
+     * The low stock list defaults to lowest stock first.
      */
     @Transactional(readOnly = true)
-    public List<VariantListResponse> listVariants(Long productId, String category, String brand,
-                                                   String status, Boolean lowStock, Boolean outOfStock,
-                                                   String search) {
+    public PagedResponse<VariantListResponse> listVariants(Long productId, String category, String brand,
+                                                           String status, Boolean lowStock, Boolean outOfStock,
+                                                           String search, Integer page, Integer size,
+                                                           String sort, String cursor, boolean includeTotal) {
         log.debug("Listing variants with filters - productId: {}, category: {}, brand: {}, status: {}, lowStock: {}, outOfStock: {}, search: {}",
                 productId, category, brand, status, lowStock, outOfStock, search);
 
-        List<VariantWithProduct> variants;
-
-        // Handle special filters
-        if (Boolean.TRUE.equals(outOfStock)) {
-            variants = variantDao.findOutOfStock(productId, category, brand, status, search);
-        } else if (Boolean.TRUE.equals(lowStock)) {
-            variants = variantDao.findLowStock(productId, category, brand, status, search);
-        } else {
-            variants = variantDao.findWithFilters(productId, category, brand, status, search);
+        // Out of stock takes precedence over low stock
+        boolean onlyOutOfStock = Boolean.TRUE.equals(outOfStock);
+        boolean onlyLowStock = !onlyOutOfStock && Boolean.TRUE.equals(lowStock);
+        if (onlyLowStock && (sort == null || sort.isBlank())) {
+            sort = "stockQty,asc";
         }
 
-        return variants.stream()
-                .map(VariantListResponse::fromVariantWithProduct)
-                .collect(Collectors.toList());
+        PageQuery<VariantWithProduct> pageQuery = LIST_SORTS.parse(page, size, sort, cursor, includeTotal);
+        SqlFilter filter = VariantDao.listFilter(productId, category, brand, status,
+                onlyLowStock, onlyOutOfStock, search);
+        List<VariantWithProduct> rows = variantDao.findPage(filter,
+                pageQuery.getOrderBy(), pageQuery.getKeyset(), pageQuery);
+        Long total = pageQuery.isIncludeTotal() ? variantDao.count(filter) : null;
+
+        return pageQuery.toResponse(rows, total, VariantListResponse::fromVariantWithProduct);
     }
 
     /**
@@ -131,6 +157,9 @@ public class VariantService {
                         "Product not found with ID: " + request.getProductId()
                 ));
 
+        // Keep catalog imports out until commit, so the checks below still hold at insert
+        variantDao.lockCatalogShared();
+
         // Check for duplicate SKU
         if (variantDao.findBySku(request.getSku()).isPresent()) {
             log.warn("Duplicate SKU: {}", request.getSku());
@@ -185,6 +214,9 @@ public class VariantService {
                         "Variant not found with ID: " + id
                 ));
 
+        // Keep catalog imports out until commit, so the checks below still hold at update
+        variantDao.lockCatalogShared();
+
         // Check for duplicate SKU (excluding self)
         if (!existingVariant.getSku().equals(request.getSku())) {
             Optional<Variant> duplicateSku = variantDao.findBySkuExcludingId(request.getSku(), id);
@@ -225,6 +257,7 @@ public class VariantService {
 
         // Evict lookup cache since sizes/colors may have changed
         lookupService.evictLookupCache();
+        priceSnapshotService.evictVariant(id);
 
         // Fetch and return updated variant with product info
         return getVariantById(id);
@@ -247,7 +280,29 @@ public class VariantService {
 
         // Update status
         variantDao.updateStatus(id, status);
+        priceSnapshotService.evictVariant(id);
 
         log.info("Variant status updated successfully: {} -> {}", id, status);
     }
+
+    /**
+     * Switch a variant's stock to striped (hot SKU) mode, or back with a stripe count of 0.
+     * Concurrent checkouts of a striped variant take stock from different stripes instead
+     * of queueing on one stock row; the total stock is unchanged.
+     */
+    @Transactional
+    @Auditable(entity = EntityType.VARIANT, action = AuditAction.UPDATE)
+    public void updateStockStripes(Long id, int stripeCount) {
+        log.info("Updating stock stripes for variant ID: {} to: {}", id, stripeCount);
+
+        Integer stockQty = variantStockDao.setStripeCount(id, stripeCount);
+        if (stockQty == null) {
+            throw new ResourceNotFoundException(
+                    "VARIANT_NOT_FOUND",
+                    "Variant not found with ID: " + id
+            );
+        }
+
+        log.info("Variant {} stock split across {} stripes, total stock {}", id, stripeCount, stockQty);
+    }
 }
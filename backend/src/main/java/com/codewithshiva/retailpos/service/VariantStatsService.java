@@ -0,0 +1,44 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.dao.VariantStatsDao;
+import com.codewithshiva.retailpos.datasource.ConnectionWorkload;
+import com.codewithshiva.retailpos.datasource.Workload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Scheduled service for decaying the rolling sales windows in variant_stats.
+ * Sales and voids update the windows incrementally; sales that age out of a window
+ * are only removed by this refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VariantStatsService {
+
+    private final VariantStatsDao variantStatsDao;
+
+    @Value("${app.variant-stats.refresh-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Refresh the sales windows, nightly by default.
+     * Not transactional: each batch commits on its own so its row locks are released
+     * before the next batch, and checkouts never wait on the whole run.
+     */
+    @Scheduled(cron = "${app.variant-stats.refresh-cron:0 30 2 * * *}")
+    @ConnectionWorkload(Workload.BACKGROUND)
+    public void refreshSalesWindows() {
+        log.info("Refreshing variant sales windows");
+        long start = System.currentTimeMillis();
+        int batches = 0;
+        Long lastVariantId = null;
+        while ((lastVariantId = variantStatsDao.refreshSalesWindows(lastVariantId, batchSize)) != null) {
+            batches++;
+        }
+        log.info("Refreshed sales windows in {} batches in {} ms", batches, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,38 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.dao.VariantStockDao;
+import com.codewithshiva.retailpos.datasource.ConnectionWorkload;
+import com.codewithshiva.retailpos.datasource.Workload;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Scheduled service for rebalancing striped (hot SKU) variant stock.
+ * Checkouts take stock from a single stripe; purchases, voids and adjustments land in
+ * variant_stock. The rebalance spreads that stock back over the stripes and catches up
+ * the low stock and sales stats that checkouts of striped variants skip.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class VariantStockService {
+
+    private final VariantStockDao variantStockDao;
+
+    /**
+     * Rebalance the stripes, every 30 seconds by default.
+     */
+    @Scheduled(fixedDelayString = "${app.variant-stock.rebalance-interval-ms:30000}")
+    @ConnectionWorkload(Workload.BACKGROUND)
+    @Transactional
+    public void rebalanceStripes() {
+        long start = System.currentTimeMillis();
+        int rebalanced = variantStockDao.rebalanceStripes();
+        if (rebalanced > 0) {
+            log.debug("Rebalanced stock stripes of {} variants in {} ms", rebalanced, System.currentTimeMillis() - start);
+        }
+    }
+}
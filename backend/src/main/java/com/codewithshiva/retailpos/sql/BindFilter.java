@@ -0,0 +1,45 @@
+package com.codewithshiva.retailpos.sql;
+
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizerFactory;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementCustomizingAnnotation;
+import org.jdbi.v3.sqlobject.customizer.SqlStatementParameterCustomizer;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+
+/**
+ * Splices a {@link SqlFilter} parameter into the statement as {@code <name>} and binds its values.
+ * <pre>
+ * WHERE &lt;filter&gt; AND ...
+ * List&lt;Row&gt; find(@BindFilter("filter") SqlFilter filter);
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+@SqlStatementCustomizingAnnotation(BindFilter.Factory.class)
+public @interface BindFilter {
+
+    /** Template attribute the condition is defined as, also the prefix of its bind names. */
+    String value() default "filter";
+
+    class Factory implements SqlStatementCustomizerFactory {
+
+        @Override
+        public SqlStatementParameterCustomizer createForParameter(Annotation annotation, Class<?> sqlObjectType,
+                                                                  Method method, Parameter param, int index,
+                                                                  Type type) {
+            String name = ((BindFilter) annotation).value();
+            return (stmt, arg) -> {
+                SqlFilter filter = (SqlFilter) arg;
+                stmt.define(name, filter.toSql(name));
+                filter.values(name).forEach(stmt::bind);
+            };
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.codewithshiva.retailpos.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * WHERE condition built from the filters a request actually supplies.
+ * <p>
+ * A filter whose value is null (or a blank string) adds no predicate at all, instead of
+ * the catch-all {@code (:x IS NULL OR col = :x)} form. The planner then only sees the
+ * predicates that apply, and each combination of supplied filters is one statement shape.
+ * <p>
+ * Predicates are written in the DAO with {@code :value} for their bound value; DAOs splice
+ * the result in with {@link BindFilter}, which also binds the values under generated names.
+ * Column expressions are SQL and must never come from the request.
+ */
+public final class SqlFilter {
+
+    /** Placeholder for the bound value in a predicate. */
+    public static final String VALUE = ":value";
+
+    private record Predicate(String sql, Object value) {
+    }
+
+    private final List<Predicate> predicates = new ArrayList<>();
+
+    private SqlFilter() {
+    }
+
+    public static SqlFilter create() {
+        return new SqlFilter();
+    }
+
+    /** {@code column = value}, when a value is supplied. */
+    public SqlFilter eq(String column, Object value) {
+        return matches(column + " = " + VALUE, value);
+    }
+
+    /** {@code column >= value}, when a value is supplied. */
+    public SqlFilter gte(String column, Object value) {
+        return matches(column + " >= " + VALUE, value);
+    }
+
+    /** {@code column < value}, when a value is supplied. */
+    public SqlFilter lt(String column, Object value) {
+        return matches(column + " < " + VALUE, value);
+    }
+
+    /**
+     * Case-insensitive substring match on any of the columns, when a search term is supplied.
+     */
+    public SqlFilter containsAny(String search, String... columns) {
+        String predicate = Arrays.stream(columns)
+                .map(column -> "LOWER(" + column + ") LIKE LOWER('%' || " + VALUE + " || '%')")
+                .collect(Collectors.joining(" OR ", "(", ")"));
+        return matches(predicate, search);
+    }
+
+    /**
+     * Predicate without a value, always added.
+     */
+    public SqlFilter where(String predicate) {
+        return when(true, predicate);
+    }
+
+    /**
+     * Predicate without a value, added when the condition holds.
+     */
+    public SqlFilter when(boolean condition, String predicate) {
+        if (condition) {
+            predicates.add(new Predicate(predicate, null));
+        }
+        return this;
+    }
+
+    /**
+     * Predicate using {@link #VALUE} (any number of times) for the value, when a value is supplied.
+     */
+    public SqlFilter matches(String predicate, Object value) {
+        if (isSupplied(value)) {
+            predicates.add(new Predicate(predicate, value));
+        }
+        return this;
+    }
+
+    /**
+     * The condition, with values referenced as {@code :<name>_<n>}; TRUE when nothing was supplied.
+     */
+    String toSql(String name) {
+        if (predicates.isEmpty()) {
+            return "TRUE";
+        }
+        List<String> parts = new ArrayList<>(predicates.size());
+        for (int i = 0; i < predicates.size(); i++) {
+            Predicate predicate = predicates.get(i);
+            parts.add(predicate.value() != null
+                    ? predicate.sql().replace(VALUE, ":" + parameterName(name, i))
+                    : predicate.sql());
+        }
+        return String.join(" AND ", parts);
+    }
+
+    /**
+     * Values to bind, by the names used in {@link #toSql(String)}.
+     */
+    Map<String, Object> values(String name) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (int i = 0; i < predicates.size(); i++) {
+            Object value = predicates.get(i).value();
+            if (value != null) {
+                values.put(parameterName(name, i), value);
+            }
+        }
+        return values;
+    }
+
+    private static String parameterName(String name, int index) {
+        return name + "_" + index;
+    }
+
+    private static boolean isSupplied(Object value) {
+        if (value instanceof String text) {
+            return !text.isBlank();
+        }
+        return value != null;
+    }
+}
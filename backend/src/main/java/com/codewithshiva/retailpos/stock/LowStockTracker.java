@@ -0,0 +1,296 @@
+package com.codewithshiva.retailpos.stock;
+
+import com.codewithshiva.retailpos.dao.DashboardDao;
+import com.codewithshiva.retailpos.model.LowStockItem;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory view of the low stock set, kept sorted by stock quantity.
+ * The low_stock_variants table is maintained by database triggers, which notify on the
+ * 'stock_level_changed' channel once per statement; this tracker listens on a dedicated
+ * connection, applies each change, and publishes a {@link StockLevelChangedEvent} when a
+ * variant's level changes. The connection is opened with the driver directly rather than
+ * taken from a pool, since it is held for the life of the process.
+ * While the listener is disconnected the tracker reports not ready and callers fall back to SQL.
+ */
+@Slf4j
+@Component
+public class LowStockTracker {
+
+    static final String CHANNEL = "stock_level_changed";
+
+    private static final Comparator<LowStockItem> BY_STOCK_QTY =
+            Comparator.comparing(LowStockItem::getStockQty).thenComparing(LowStockItem::getVariantId);
+    private static final long INITIAL_BACKOFF_MS = 1_000;
+    private static final long MAX_BACKOFF_MS = 60_000;
+
+    private final DataSourceProperties dataSourceProperties;
+    private final DashboardDao dashboardDao;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int pollTimeoutMs;
+
+    // Replaced wholesale on reload, mutated only by the listener thread in between
+    private volatile ConcurrentSkipListSet<LowStockItem> sortedItems = new ConcurrentSkipListSet<>(BY_STOCK_QTY);
+    private volatile Map<Long, LowStockItem> itemsByVariant = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public LowStockTracker(DataSourceProperties dataSourceProperties,
+                           DashboardDao dashboardDao,
+                           ApplicationEventPublisher eventPublisher,
+                           ObjectMapper objectMapper,
+                           @Value("${app.low-stock-tracker.enabled:true}") boolean enabled,
+                           @Value("${app.low-stock-tracker.poll-timeout-ms:5000}") int pollTimeoutMs) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.dashboardDao = dashboardDao;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.pollTimeoutMs = pollTimeoutMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            log.info("Low stock tracker disabled, low stock queries will use the database");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "low-stock-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        ready = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    /**
+     * True once the set has been loaded and the listener is connected.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getLowStockCount() {
+        return itemsByVariant.size();
+    }
+
+    public int getOutOfStockCount() {
+        // Zero-stock items sort first, so this only walks the out of stock prefix
+        return sortedItems.headSet(new LowStockItem(Long.MIN_VALUE, null, null, null, null, 1, null)).size();
+    }
+
+    /**
+     * Get the lowest-stock items, lowest first.
+     */
+    public List<LowStockItem> getLowStockItems(int limit) {
+        List<LowStockItem> items = new ArrayList<>(Math.min(limit, itemsByVariant.size()));
+        for (LowStockItem item : sortedItems) {
+            if (items.size() >= limit) {
+                break;
+            }
+            items.add(item);
+        }
+        return items;
+    }
+
+    private void listen() {
+        long backoffMs = INITIAL_BACKOFF_MS;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Load after subscribing so no change between the two is lost
+                reload(false);
+                ready = true;
+                backoffMs = INITIAL_BACKOFF_MS;
+                log.info("Low stock tracker listening, {} variants low on stock", itemsByVariant.size());
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                ready = false;
+                if (!running) {
+                    break;
+                }
+                log.warn("Low stock listener disconnected, retrying in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    Thread.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+            }
+        }
+        log.info("Low stock tracker stopped");
+    }
+
+    private void handle(String payload) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(payload);
+        } catch (Exception e) {
+            log.warn("Ignoring malformed stock level notification: {}", payload);
+            return;
+        }
+
+        if (node.path("rebuild").asBoolean(false)) {
+            log.info("Low stock set rebuilt (threshold {}), reloading", node.path("threshold").asInt());
+            reload(true);
+            return;
+        }
+
+        for (JsonNode change : node.path("changes")) {
+            apply(change);
+        }
+    }
+
+    private void apply(JsonNode node) {
+        Long variantId = node.path("variantId").asLong();
+        StockLevel previousLevel = StockLevel.valueOf(node.path("previousLevel").asText());
+        StockLevel level = StockLevel.valueOf(node.path("level").asText());
+        int stockQty = node.path("stockQty").asInt();
+
+        LowStockItem existing = itemsByVariant.get(variantId);
+        LowStockItem updated = null;
+        if (level != StockLevel.OK) {
+            if (existing != null) {
+                updated = LowStockItem.builder()
+                        .variantId(existing.getVariantId())
+                        .productName(existing.getProductName())
+                        .sku(existing.getSku())
+                        .size(existing.getSize())
+                        .color(existing.getColor())
+                        .stockQty(stockQty)
+                        .threshold(existing.getThreshold())
+                        .build();
+            } else {
+                Optional<LowStockItem> loaded = dashboardDao.findLowStockItem(variantId);
+                if (loaded.isEmpty()) {
+                    // Already back above threshold, a later notification follows
+                    return;
+                }
+                updated = loaded.get();
+            }
+        }
+        replace(existing, updated);
+
+        if (previousLevel != level) {
+            publish(existing != null ? existing : updated, variantId, previousLevel, level, stockQty);
+        }
+    }
+
+    private void replace(LowStockItem existing, LowStockItem updated) {
+        if (existing != null) {
+            sortedItems.remove(existing);
+            itemsByVariant.remove(existing.getVariantId());
+        }
+        if (updated != null) {
+            sortedItems.add(updated);
+            itemsByVariant.put(updated.getVariantId(), updated);
+        }
+    }
+
+    /**
+     * Reload the whole set, optionally publishing events for variants whose level changed.
+     */
+    private void reload(boolean publishChanges) {
+        List<LowStockItem> items = dashboardDao.getAllLowStockItems();
+        ConcurrentSkipListSet<LowStockItem> sorted = new ConcurrentSkipListSet<>(BY_STOCK_QTY);
+        Map<Long, LowStockItem> byVariant = new ConcurrentHashMap<>();
+        for (LowStockItem item : items) {
+            sorted.add(item);
+            byVariant.put(item.getVariantId(), item);
+        }
+
+        Map<Long, LowStockItem> previous = new HashMap<>(itemsByVariant);
+        sortedItems = sorted;
+        itemsByVariant = byVariant;
+
+        if (!publishChanges) {
+            return;
+        }
+        Set<Long> variantIds = new HashSet<>(previous.keySet());
+        variantIds.addAll(byVariant.keySet());
+        for (Long variantId : variantIds) {
+            LowStockItem before = previous.get(variantId);
+            LowStockItem after = byVariant.get(variantId);
+            StockLevel previousLevel = levelOf(before);
+            StockLevel level = levelOf(after);
+            if (previousLevel != level) {
+                LowStockItem item = after != null ? after : before;
+                publish(item, variantId, previousLevel, level, item.getStockQty());
+            }
+        }
+    }
+
+    private StockLevel levelOf(LowStockItem item) {
+        if (item == null) {
+            return StockLevel.OK;
+        }
+        return StockLevel.of(item.getStockQty(), item.getThreshold());
+    }
+
+    private void publish(LowStockItem item, Long variantId, StockLevel previousLevel, StockLevel level, int stockQty) {
+        StockLevelChangedEvent event = new StockLevelChangedEvent(
+                variantId,
+                item != null ? item.getSku() : null,
+                item != null ? item.getProductName() : null,
+                previousLevel,
+                level,
+                stockQty);
+        log.info("Stock level changed: variant {} ({}) {} -> {}, stock {}",
+                variantId, event.getSku(), previousLevel, level, stockQty);
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (RuntimeException e) {
+            log.error("Stock level listener failed for variant {}", variantId, e);
+        }
+    }
+}
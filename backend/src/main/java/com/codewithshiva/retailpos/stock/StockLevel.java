@@ -0,0 +1,21 @@
+package com.codewithshiva.retailpos.stock;
+
+/**
+ * Stock level of an active variant relative to the low stock threshold.
+ * Mirrors the stock_level() SQL function.
+ */
+public enum StockLevel {
+    /** Above the low stock threshold (or not tracked) */
+    OK,
+    /** At or below the low stock threshold */
+    LOW,
+    /** No stock left */
+    OUT;
+
+    public static StockLevel of(int stockQty, int threshold) {
+        if (stockQty <= 0) {
+            return OUT;
+        }
+        return stockQty <= threshold ? LOW : OK;
+    }
+}
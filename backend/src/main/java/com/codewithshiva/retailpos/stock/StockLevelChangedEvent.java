@@ -0,0 +1,21 @@
+package com.codewithshiva.retailpos.stock;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published by {@link LowStockTracker} when a variant crosses into or out of low or zero stock.
+ * Listen with {@code @EventListener} to push alerts.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class StockLevelChangedEvent {
+    private final Long variantId;
+    private final String sku;
+    private final String productName;
+    private final StockLevel previousLevel;
+    private final StockLevel level;
+    private final Integer stockQty;
+}
@@ -0,0 +1,67 @@
+package com.codewithshiva.retailpos.stock;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory barcode counts of open stock take sessions.
+ * Scanners stream counts into a session's tally without touching the database; the
+ * tally is read once when the count is previewed or applied. Counts are not persisted,
+ * so a session whose tally was lost (application restart) has to be counted again.
+ */
+@Component
+public class StockTakeTally {
+
+    private final Map<Long, ConcurrentHashMap<String, Integer>> tallies = new ConcurrentHashMap<>();
+
+    public void open(Long stockTakeId) {
+        tallies.putIfAbsent(stockTakeId, new ConcurrentHashMap<>());
+    }
+
+    public boolean isOpen(Long stockTakeId) {
+        return tallies.containsKey(stockTakeId);
+    }
+
+    /**
+     * Add scanned quantities per barcode to a session's tally.
+     *
+     * @return false if the session has no tally
+     */
+    public boolean add(Long stockTakeId, Map<String, Integer> counts) {
+        ConcurrentHashMap<String, Integer> tally = tallies.get(stockTakeId);
+        if (tally == null) {
+            return false;
+        }
+        counts.forEach((barcode, qty) -> tally.merge(barcode, qty, Integer::sum));
+        return true;
+    }
+
+    /**
+     * Number of distinct barcodes scanned in a session, 0 if it has no tally.
+     */
+    public int size(Long stockTakeId) {
+        ConcurrentHashMap<String, Integer> tally = tallies.get(stockTakeId);
+        return tally != null ? tally.size() : 0;
+    }
+
+    /**
+     * Copy of a session's counts per barcode; quantities corrected below zero count as zero.
+     */
+    public Optional<Map<String, Integer>> counts(Long stockTakeId) {
+        ConcurrentHashMap<String, Integer> tally = tallies.get(stockTakeId);
+        if (tally == null) {
+            return Optional.empty();
+        }
+        Map<String, Integer> counts = new HashMap<>(tally.size());
+        tally.forEach((barcode, qty) -> counts.put(barcode, Math.max(qty, 0)));
+        return Optional.of(counts);
+    }
+
+    public void close(Long stockTakeId) {
+        tallies.remove(stockTakeId);
+    }
+}
@@ -74,6 +74,24 @@ BEGIN
 END;
 $$ LANGUAGE plpgsql;
 
+-- Register the bill numbers of new sales (see V15__bill_numbers); a bill
+-- number already used in any month fails the insert
+CREATE OR REPLACE FUNCTION register_bill_numbers()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO bill_numbers (bill_no, sale_id, sold_at)
+    SELECT n.bill_no, n.id, n.sold_at FROM new_sales n;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS register_bill_numbers ON sales;
+
+CREATE TRIGGER register_bill_numbers
+    AFTER INSERT ON sales
+    REFERENCING NEW TABLE AS new_sales
+    FOR EACH STATEMENT EXECUTE FUNCTION register_bill_numbers();
+
 -- ===========================================
 -- 3. Update Variant Stock on Purchase Function
 -- ===========================================
@@ -88,9 +106,12 @@ DECLARE
     v_current_avg_cost DECIMAL(12, 2);
     v_new_avg_cost DECIMAL(12, 2);
 BEGIN
-    -- Get current values
-    SELECT stock_qty, avg_cost INTO v_current_stock, v_current_avg_cost
-    FROM variants WHERE id = p_variant_id FOR UPDATE;
+    -- Get current values (total stock, including stripes of a striped variant)
+    SELECT vs.stock_qty + COALESCE((SELECT SUM(s.stock_qty) FROM variant_stock_stripes s
+                                    WHERE s.variant_id = vs.variant_id), 0),
+           vs.avg_cost
+    INTO v_current_stock, v_current_avg_cost
+    FROM variant_stock vs WHERE vs.variant_id = p_variant_id FOR UPDATE OF vs;
     
     -- Calculate new weighted average cost
     IF v_current_stock + p_qty > 0 THEN
@@ -100,13 +121,89 @@ BEGIN
         v_new_avg_cost := p_unit_cost;
     END IF;
     
-    -- Update variant
-    UPDATE variants 
+    -- Reductions (edited or removed purchase items) may have to come out of stripes
+    IF p_qty < 0 THEN
+        PERFORM take_variant_stock(p_variant_id, -p_qty);
+        p_qty := 0;
+    END IF;
+
+    -- Update stock
+    UPDATE variant_stock 
     SET 
         stock_qty = stock_qty + p_qty,
         avg_cost = ROUND(v_new_avg_cost, 2),
         updated_at = CURRENT_TIMESTAMP
-    WHERE id = p_variant_id;
+    WHERE variant_id = p_variant_id;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Receive all items of a new purchase in one pass: stock and weighted average
+-- cost per variant (lines of the same variant combined), with the stock rows
+-- locked in variant id order so concurrent receipts cannot deadlock.
+-- Returns the number of variants updated.
+CREATE OR REPLACE FUNCTION receive_purchase_stock(p_purchase_id BIGINT)
+RETURNS INTEGER AS $$
+DECLARE
+    v_variant_count INTEGER;
+BEGIN
+    PERFORM 1
+    FROM variant_stock
+    WHERE variant_id IN (SELECT variant_id FROM purchase_items WHERE purchase_id = p_purchase_id)
+    ORDER BY variant_id
+    FOR UPDATE;
+
+    WITH received AS (
+        SELECT variant_id, SUM(qty) AS qty, SUM(qty * unit_cost) AS cost
+        FROM purchase_items
+        WHERE purchase_id = p_purchase_id
+        GROUP BY variant_id
+    ),
+    current_stock AS (
+        -- Total stock, including stripes of a striped variant
+        SELECT r.variant_id, r.qty, r.cost,
+               vs.stock_qty + COALESCE((SELECT SUM(s.stock_qty) FROM variant_stock_stripes s
+                                        WHERE s.variant_id = r.variant_id), 0) AS stock_qty
+        FROM received r
+        JOIN variant_stock vs ON vs.variant_id = r.variant_id
+    )
+    UPDATE variant_stock vs
+    SET stock_qty = vs.stock_qty + c.qty,
+        avg_cost = ROUND(CASE
+            WHEN c.stock_qty + c.qty > 0 THEN (c.stock_qty * vs.avg_cost + c.cost) / (c.stock_qty + c.qty)
+            ELSE c.cost / c.qty
+        END, 2),
+        updated_at = CURRENT_TIMESTAMP
+    FROM current_stock c
+    WHERE vs.variant_id = c.variant_id;
+
+    GET DIAGNOSTICS v_variant_count = ROW_COUNT;
+    RETURN v_variant_count;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Apply the stock deltas of a purchase edit (one entry per variant) in variant
+-- id order, the same lock order as receive_purchase_stock.
+-- Returns the number of variants changed.
+CREATE OR REPLACE FUNCTION apply_purchase_stock_deltas(
+    p_variant_ids BIGINT[],
+    p_qtys INTEGER[],
+    p_unit_costs DECIMAL[]
+)
+RETURNS INTEGER AS $$
+DECLARE
+    v_delta RECORD;
+    v_variant_count INTEGER := 0;
+BEGIN
+    FOR v_delta IN
+        SELECT d.variant_id, d.qty, d.unit_cost
+        FROM unnest(p_variant_ids, p_qtys, p_unit_costs) AS d(variant_id, qty, unit_cost)
+        WHERE d.qty <> 0
+        ORDER BY d.variant_id
+    LOOP
+        PERFORM update_variant_stock_on_purchase(v_delta.variant_id, v_delta.qty, v_delta.unit_cost);
+        v_variant_count := v_variant_count + 1;
+    END LOOP;
+    RETURN v_variant_count;
 END;
 $$ LANGUAGE plpgsql;
 
@@ -118,45 +215,163 @@ CREATE OR REPLACE FUNCTION decrease_variant_stock_on_sale(
     p_qty INTEGER
 )
 RETURNS DECIMAL(12, 2) AS $$
+DECLARE
+    v_stripe_count SMALLINT;
+    v_avg_cost DECIMAL(12, 2);
+    v_stripe_no SMALLINT;
+BEGIN
+    SELECT stripe_count, avg_cost INTO v_stripe_count, v_avg_cost
+    FROM variant_stock WHERE variant_id = p_variant_id;
+
+    -- Striped variant: take the whole quantity from a single stripe without locking
+    -- the stock row. Stripes held by other checkouts are skipped, and each backend
+    -- starts at a different stripe so concurrent checkouts spread out.
+    IF v_stripe_count > 0 THEN
+        UPDATE variant_stock_stripes s
+        SET stock_qty = s.stock_qty - p_qty
+        WHERE s.variant_id = p_variant_id
+          AND s.stripe_no = (
+              SELECT c.stripe_no
+              FROM variant_stock_stripes c
+              WHERE c.variant_id = p_variant_id
+                AND c.stock_qty >= p_qty
+              ORDER BY (c.stripe_no + pg_backend_pid()) % v_stripe_count
+              LIMIT 1
+              FOR UPDATE SKIP LOCKED
+          )
+        RETURNING s.stripe_no INTO v_stripe_no;
+
+        IF v_stripe_no IS NOT NULL THEN
+            -- Return avg_cost for profit calculation
+            RETURN v_avg_cost;
+        END IF;
+    END IF;
+
+    -- Regular stock row, or no free stripe holds enough on its own. This call
+    -- holds no stripe of the variant here (a stripe it locks is also the one it
+    -- takes from), and callers take each variant once, in variant id order, so
+    -- the fallback locks in the same order as every other take_variant_stock.
+    RETURN take_variant_stock(p_variant_id, p_qty);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Take stock with the stock row and all of its stripes locked: the unstriped
+-- stock first, then the fullest stripes. Returns avg_cost, or NULL for an
+-- unknown variant.
+CREATE OR REPLACE FUNCTION take_variant_stock(
+    p_variant_id BIGINT,
+    p_qty INTEGER
+)
+RETURNS DECIMAL(12, 2) AS $$
 DECLARE
     v_current_stock INTEGER;
+    v_striped_stock INTEGER;
     v_avg_cost DECIMAL(12, 2);
+    v_remaining INTEGER;
+    v_take INTEGER;
+    v_stripe RECORD;
 BEGIN
     -- Get current values with lock
     SELECT stock_qty, avg_cost INTO v_current_stock, v_avg_cost
-    FROM variants WHERE id = p_variant_id FOR UPDATE;
+    FROM variant_stock WHERE variant_id = p_variant_id FOR UPDATE;
+    IF NOT FOUND THEN
+        RETURN NULL;
+    END IF;
+
+    SELECT COALESCE(SUM(s.stock_qty), 0) INTO v_striped_stock
+    FROM (
+        SELECT stock_qty FROM variant_stock_stripes
+        WHERE variant_id = p_variant_id
+        ORDER BY stripe_no
+        FOR UPDATE
+    ) s;
     
     -- Validate stock
-    IF v_current_stock < p_qty THEN
-        RAISE EXCEPTION 'Insufficient stock. Available: %, Requested: %', v_current_stock, p_qty;
+    IF v_current_stock + v_striped_stock < p_qty THEN
+        RAISE EXCEPTION 'Insufficient stock. Available: %, Requested: %',
+            v_current_stock + v_striped_stock, p_qty;
     END IF;
     
     -- Update stock
-    UPDATE variants 
-    SET 
-        stock_qty = stock_qty - p_qty,
-        updated_at = CURRENT_TIMESTAMP
-    WHERE id = p_variant_id;
+    v_take := LEAST(v_current_stock, p_qty);
+    IF v_take > 0 THEN
+        UPDATE variant_stock 
+        SET 
+            stock_qty = stock_qty - v_take,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE variant_id = p_variant_id;
+    END IF;
+
+    v_remaining := p_qty - v_take;
+    FOR v_stripe IN
+        SELECT stripe_no, stock_qty FROM variant_stock_stripes
+        WHERE variant_id = p_variant_id AND stock_qty > 0
+        ORDER BY stock_qty DESC, stripe_no
+    LOOP
+        EXIT WHEN v_remaining = 0;
+        v_take := LEAST(v_stripe.stock_qty, v_remaining);
+        UPDATE variant_stock_stripes
+        SET stock_qty = stock_qty - v_take
+        WHERE variant_id = p_variant_id AND stripe_no = v_stripe.stripe_no;
+        v_remaining := v_remaining - v_take;
+    END LOOP;
     
-    -- Return avg_cost for profit calculation
     RETURN v_avg_cost;
 END;
 $$ LANGUAGE plpgsql;
 
+-- Stock adjustment by delta: additions go to the unstriped stock, removals
+-- may have to come out of stripes
+CREATE OR REPLACE FUNCTION adjust_variant_stock(
+    p_variant_id BIGINT,
+    p_delta_qty INTEGER
+)
+RETURNS VOID AS $$
+BEGIN
+    IF p_delta_qty < 0 THEN
+        PERFORM take_variant_stock(p_variant_id, -p_delta_qty);
+    ELSIF p_delta_qty > 0 THEN
+        UPDATE variant_stock
+        SET stock_qty = stock_qty + p_delta_qty,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE variant_id = p_variant_id;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
 -- ===========================================
 -- 5. Restore Stock on Void Function
 -- ===========================================
-CREATE OR REPLACE FUNCTION restore_stock_on_void(p_sale_id BIGINT)
+-- p_sold_at is the sale's partition key, so only the sale's month is read
+DROP FUNCTION IF EXISTS restore_stock_on_void(BIGINT);
+
+CREATE OR REPLACE FUNCTION restore_stock_on_void(
+    p_sale_id BIGINT,
+    p_sold_at TIMESTAMP WITH TIME ZONE
+)
 RETURNS VOID AS $$
 BEGIN
-    -- Restore stock for each sale item
-    UPDATE variants v
+    -- Lock the stock rows in variant id order, like checkouts
+    PERFORM 1
+    FROM variant_stock
+    WHERE variant_id IN (SELECT variant_id FROM sale_items WHERE sale_id = p_sale_id AND sold_at = p_sold_at)
+    ORDER BY variant_id
+    FOR UPDATE;
+
+    -- Restore the sale's quantity per variant. Lines are summed first: an
+    -- UPDATE ... FROM with several lines of one variant applies only one of them
+    UPDATE variant_stock vs
     SET 
-        stock_qty = v.stock_qty + si.qty,
+        stock_qty = vs.stock_qty + si.qty,
         updated_at = CURRENT_TIMESTAMP
-    FROM sale_items si
-    WHERE si.sale_id = p_sale_id 
-      AND si.variant_id = v.id;
+    FROM (
+        SELECT variant_id, SUM(qty)::INTEGER AS qty
+        FROM sale_items
+        WHERE sale_id = p_sale_id
+          AND sold_at = p_sold_at
+        GROUP BY variant_id
+    ) si
+    WHERE si.variant_id = vs.variant_id;
 END;
 $$ LANGUAGE plpgsql;
 
@@ -175,14 +390,1559 @@ RETURNS TABLE (
 BEGIN
     RETURN QUERY
     SELECT 
-        COUNT(*)::BIGINT AS total_skus,
-        COALESCE(SUM(v.stock_qty), 0)::BIGINT AS total_items,
-        COALESCE(SUM(v.stock_qty * v.avg_cost), 0)::DECIMAL(14, 2) AS total_cost_value,
-        COALESCE(SUM(v.stock_qty * v.selling_price), 0)::DECIMAL(14, 2) AS total_retail_value,
-        COUNT(CASE WHEN v.stock_qty <= s.low_stock_threshold THEN 1 END)::BIGINT AS low_stock_count,
-        COUNT(CASE WHEN v.stock_qty = 0 THEN 1 END)::BIGINT AS out_of_stock_count
+        COALESCE(SUM(iv.sku_count), 0)::BIGINT AS total_skus,
+        COALESCE(SUM(iv.item_count), 0)::BIGINT AS total_items,
+        COALESCE(SUM(iv.cost_value), 0)::DECIMAL(14, 2) AS total_cost_value,
+        COALESCE(SUM(iv.retail_value), 0)::DECIMAL(14, 2) AS total_retail_value,
+        (SELECT COUNT(*) FROM low_stock_variants)::BIGINT AS low_stock_count,
+        (SELECT COUNT(*) FROM low_stock_variants WHERE stock_qty = 0)::BIGINT AS out_of_stock_count
+    FROM v_inventory_valuation iv;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ===========================================
+-- 7. Variant Stats (sales velocity, last purchase)
+-- ===========================================
+
+-- Average monthly sales over the 180-day window, counting months since the first sale in it
+CREATE OR REPLACE FUNCTION variant_stats_avg_monthly(
+    p_qty_180d INTEGER,
+    p_first_sold_at TIMESTAMP WITH TIME ZONE
+)
+RETURNS DECIMAL(14, 4) AS $$
+BEGIN
+    IF p_first_sold_at IS NULL OR p_qty_180d = 0 THEN
+        RETURN 0;
+    END IF;
+    RETURN p_qty_180d::numeric / GREATEST(1, EXTRACT(MONTH FROM AGE(NOW(), p_first_sold_at))::numeric);
+END;
+$$ LANGUAGE plpgsql STABLE;
+
+-- Add newly sold quantities to the rolling windows (statement-level, handles bulk inserts)
+CREATE OR REPLACE FUNCTION variant_stats_on_sale_items_insert()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO variant_stats AS vs (variant_id, last_sold_at, first_sold_at,
+                                     qty_7d, qty_30d, qty_90d, qty_180d, avg_monthly_sales)
+    SELECT
+        n.variant_id,
+        n.last_sold_at,
+        n.first_sold_at,
+        n.qty_7d, n.qty_30d, n.qty_90d, n.qty_180d,
+        variant_stats_avg_monthly(n.qty_180d, n.first_sold_at)
+    FROM (
+        SELECT
+            ni.variant_id,
+            MAX(s.sold_at) AS last_sold_at,
+            MIN(s.sold_at) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '180 days') AS first_sold_at,
+            COALESCE(SUM(ni.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '7 days'), 0)::INTEGER AS qty_7d,
+            COALESCE(SUM(ni.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '30 days'), 0)::INTEGER AS qty_30d,
+            COALESCE(SUM(ni.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '90 days'), 0)::INTEGER AS qty_90d,
+            COALESCE(SUM(ni.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '180 days'), 0)::INTEGER AS qty_180d
+        FROM new_sale_items ni
+        JOIN sales s ON s.id = ni.sale_id AND s.sold_at = ni.sold_at
+        WHERE s.status = 'COMPLETED'
+          -- Striped (hot) variants are refreshed by the stripe rebalancer instead,
+          -- so their checkouts don't queue on one variant_stats row
+          AND NOT EXISTS (
+              SELECT 1 FROM variant_stock st
+              WHERE st.variant_id = ni.variant_id AND st.stripe_count > 0
+          )
+        GROUP BY ni.variant_id
+    ) n
+    ON CONFLICT (variant_id) DO UPDATE SET
+        last_sold_at = GREATEST(vs.last_sold_at, EXCLUDED.last_sold_at),
+        first_sold_at = LEAST(vs.first_sold_at, EXCLUDED.first_sold_at),
+        qty_7d = vs.qty_7d + EXCLUDED.qty_7d,
+        qty_30d = vs.qty_30d + EXCLUDED.qty_30d,
+        qty_90d = vs.qty_90d + EXCLUDED.qty_90d,
+        qty_180d = vs.qty_180d + EXCLUDED.qty_180d,
+        avg_monthly_sales = variant_stats_avg_monthly(
+            vs.qty_180d + EXCLUDED.qty_180d,
+            LEAST(vs.first_sold_at, EXCLUDED.first_sold_at)),
+        updated_at = CURRENT_TIMESTAMP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Take a voided sale's quantities back out of the windows
+CREATE OR REPLACE FUNCTION variant_stats_on_sale_void()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE variant_stats vs
+    SET
+        qty_7d = GREATEST(0, vs.qty_7d - CASE WHEN OLD.sold_at >= NOW() - INTERVAL '7 days' THEN x.qty ELSE 0 END),
+        qty_30d = GREATEST(0, vs.qty_30d - CASE WHEN OLD.sold_at >= NOW() - INTERVAL '30 days' THEN x.qty ELSE 0 END),
+        qty_90d = GREATEST(0, vs.qty_90d - CASE WHEN OLD.sold_at >= NOW() - INTERVAL '90 days' THEN x.qty ELSE 0 END),
+        qty_180d = GREATEST(0, vs.qty_180d - CASE WHEN OLD.sold_at >= NOW() - INTERVAL '180 days' THEN x.qty ELSE 0 END),
+        updated_at = CURRENT_TIMESTAMP
+    FROM (
+        SELECT variant_id, SUM(qty)::INTEGER AS qty
+        FROM sale_items
+        WHERE sale_id = OLD.id AND sold_at = OLD.sold_at
+        GROUP BY variant_id
+    ) x
+    WHERE vs.variant_id = x.variant_id;
+
+    -- The voided sale may have been the first or last one recorded for a variant
+    UPDATE variant_stats vs
+    SET
+        last_sold_at = (
+            SELECT MAX(s.sold_at)
+            FROM sale_items si
+            JOIN sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
+            WHERE si.variant_id = vs.variant_id AND s.status = 'COMPLETED'
+        ),
+        first_sold_at = (
+            SELECT MIN(s.sold_at)
+            FROM sale_items si
+            JOIN sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
+            WHERE si.variant_id = vs.variant_id AND s.status = 'COMPLETED'
+              AND s.sold_at >= NOW() - INTERVAL '180 days'
+              AND si.sold_at >= NOW() - INTERVAL '180 days'
+        )
+    WHERE vs.variant_id IN (SELECT variant_id FROM sale_items WHERE sale_id = OLD.id AND sold_at = OLD.sold_at)
+      AND (vs.last_sold_at = OLD.sold_at OR vs.first_sold_at = OLD.sold_at);
+
+    UPDATE variant_stats vs
+    SET avg_monthly_sales = variant_stats_avg_monthly(vs.qty_180d, vs.first_sold_at)
+    WHERE vs.variant_id IN (SELECT variant_id FROM sale_items WHERE sale_id = OLD.id AND sold_at = OLD.sold_at);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Recompute the last active purchase (price, supplier, date) of the given variants
+CREATE OR REPLACE FUNCTION refresh_variant_last_purchase(p_variant_ids BIGINT[])
+RETURNS VOID AS $$
+BEGIN
+    INSERT INTO variant_stats AS vs (variant_id, last_purchase_price, last_supplier_id, last_purchased_at)
+    SELECT ids.variant_id, lp.unit_cost, lp.supplier_id, lp.purchased_at
+    FROM (SELECT DISTINCT unnest(p_variant_ids) AS variant_id) ids
+    LEFT JOIN LATERAL (
+        SELECT pi.unit_cost, p.supplier_id, p.purchased_at
+        FROM purchase_items pi
+        JOIN purchases p ON pi.purchase_id = p.id
+        WHERE pi.variant_id = ids.variant_id
+          AND p.status = 'ACTIVE'
+        ORDER BY p.purchased_at DESC, pi.id DESC
+        LIMIT 1
+    ) lp ON TRUE
+    WHERE EXISTS (SELECT 1 FROM variants v WHERE v.id = ids.variant_id)
+    ON CONFLICT (variant_id) DO UPDATE SET
+        last_purchase_price = EXCLUDED.last_purchase_price,
+        last_supplier_id = EXCLUDED.last_supplier_id,
+        last_purchased_at = EXCLUDED.last_purchased_at,
+        updated_at = CURRENT_TIMESTAMP;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION variant_stats_on_purchase_items_insert()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM refresh_variant_last_purchase(ARRAY(SELECT DISTINCT variant_id FROM new_purchase_items));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION variant_stats_on_purchase_items_update()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM refresh_variant_last_purchase(ARRAY(
+        SELECT variant_id FROM new_purchase_items
+        UNION
+        SELECT variant_id FROM old_purchase_items));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION variant_stats_on_purchase_items_delete()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM refresh_variant_last_purchase(ARRAY(SELECT DISTINCT variant_id FROM old_purchase_items));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A purchase was voided, re-dated or moved to another supplier
+CREATE OR REPLACE FUNCTION variant_stats_on_purchase_update()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM refresh_variant_last_purchase(ARRAY(
+        SELECT DISTINCT variant_id FROM purchase_items WHERE purchase_id = NEW.id));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Nightly decay: recompute the rolling windows of the next batch of variants (by id)
+-- from the last 180 days of sales. Only the batch's variant_stats rows are locked, and
+-- they are locked before the recompute reads sales, so a checkout that already holds
+-- one has committed by then and its increment is counted rather than overwritten.
+-- Run each batch in its own transaction; returns the last variant id of the batch,
+-- or NULL once every variant has been processed.
+DROP FUNCTION IF EXISTS refresh_variant_sales_windows();
+
+CREATE OR REPLACE FUNCTION refresh_variant_sales_windows(
+    p_after_variant_id BIGINT,
+    p_batch_size INTEGER
+)
+RETURNS BIGINT AS $$
+DECLARE
+    v_ids BIGINT[];
+BEGIN
+    SELECT ARRAY(
+        SELECT id FROM variants
+        WHERE id > COALESCE(p_after_variant_id, 0)
+        ORDER BY id
+        LIMIT p_batch_size
+    ) INTO v_ids;
+
+    IF cardinality(v_ids) = 0 THEN
+        RETURN NULL;
+    END IF;
+
+    -- Rows for recently sold variants the triggers have not created yet, so the lock
+    -- below also covers them (waits for an in-flight first sale to commit)
+    INSERT INTO variant_stats (variant_id)
+    SELECT ids.variant_id
+    FROM unnest(v_ids) AS ids(variant_id)
+    WHERE EXISTS (
+        SELECT 1
+        FROM sale_items si
+        JOIN sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
+        WHERE si.variant_id = ids.variant_id
+          AND s.status = 'COMPLETED'
+          AND s.sold_at >= NOW() - INTERVAL '180 days'
+          AND si.sold_at >= NOW() - INTERVAL '180 days'
+    )
+    ON CONFLICT (variant_id) DO NOTHING;
+
+    PERFORM 1 FROM variant_stats
+    WHERE variant_id = ANY(v_ids)
+    ORDER BY variant_id
+    FOR UPDATE;
+
+    UPDATE variant_stats vs
+    SET
+        last_sold_at = GREATEST(vs.last_sold_at, r.last_sold_at),
+        first_sold_at = r.first_sold_at,
+        qty_7d = COALESCE(r.qty_7d, 0),
+        qty_30d = COALESCE(r.qty_30d, 0),
+        qty_90d = COALESCE(r.qty_90d, 0),
+        qty_180d = COALESCE(r.qty_180d, 0),
+        avg_monthly_sales = variant_stats_avg_monthly(COALESCE(r.qty_180d, 0), r.first_sold_at),
+        windows_refreshed_at = CURRENT_TIMESTAMP,
+        updated_at = CURRENT_TIMESTAMP
+    FROM unnest(v_ids) AS ids(variant_id)
+    LEFT JOIN LATERAL (
+        SELECT
+            MIN(s.sold_at) AS first_sold_at,
+            COALESCE(SUM(si.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '7 days'), 0)::INTEGER AS qty_7d,
+            COALESCE(SUM(si.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '30 days'), 0)::INTEGER AS qty_30d,
+            COALESCE(SUM(si.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '90 days'), 0)::INTEGER AS qty_90d,
+            SUM(si.qty)::INTEGER AS qty_180d,
+            MAX(s.sold_at) AS last_sold_at
+        FROM sale_items si
+        JOIN sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
+        WHERE si.variant_id = ids.variant_id
+          AND s.status = 'COMPLETED'
+          AND s.sold_at >= NOW() - INTERVAL '180 days'
+          AND si.sold_at >= NOW() - INTERVAL '180 days'
+    ) r ON TRUE
+    WHERE vs.variant_id = ids.variant_id
+      -- Skip rows that were empty and still are
+      AND (r.qty_180d IS NOT NULL OR vs.qty_180d > 0 OR vs.first_sold_at IS NOT NULL);
+
+    RETURN v_ids[cardinality(v_ids)];
+END;
+$$ LANGUAGE plpgsql;
+
+-- Recompute the rolling windows of the given variants from the last 180 days of sales
+CREATE OR REPLACE FUNCTION refresh_variant_sales(p_variant_ids BIGINT[])
+RETURNS VOID AS $$
+BEGIN
+    INSERT INTO variant_stats AS vs (variant_id, last_sold_at, first_sold_at,
+                                     qty_7d, qty_30d, qty_90d, qty_180d, avg_monthly_sales)
+    SELECT ids.variant_id, r.last_sold_at, r.first_sold_at,
+           COALESCE(r.qty_7d, 0), COALESCE(r.qty_30d, 0), COALESCE(r.qty_90d, 0), COALESCE(r.qty_180d, 0),
+           variant_stats_avg_monthly(COALESCE(r.qty_180d, 0), r.first_sold_at)
+    FROM (SELECT DISTINCT unnest(p_variant_ids) AS variant_id) ids
+    LEFT JOIN LATERAL (
+        SELECT
+            MIN(s.sold_at) AS first_sold_at,
+            COALESCE(SUM(si.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '7 days'), 0)::INTEGER AS qty_7d,
+            COALESCE(SUM(si.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '30 days'), 0)::INTEGER AS qty_30d,
+            COALESCE(SUM(si.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '90 days'), 0)::INTEGER AS qty_90d,
+            SUM(si.qty)::INTEGER AS qty_180d,
+            MAX(s.sold_at) AS last_sold_at
+        FROM sale_items si
+        JOIN sales s ON si.sale_id = s.id AND si.sold_at = s.sold_at
+        WHERE si.variant_id = ids.variant_id
+          AND s.status = 'COMPLETED'
+          AND s.sold_at >= NOW() - INTERVAL '180 days'
+          AND si.sold_at >= NOW() - INTERVAL '180 days'
+    ) r ON TRUE
+    WHERE EXISTS (SELECT 1 FROM variants v WHERE v.id = ids.variant_id)
+    ON CONFLICT (variant_id) DO UPDATE SET
+        last_sold_at = GREATEST(vs.last_sold_at, EXCLUDED.last_sold_at),
+        first_sold_at = EXCLUDED.first_sold_at,
+        qty_7d = EXCLUDED.qty_7d,
+        qty_30d = EXCLUDED.qty_30d,
+        qty_90d = EXCLUDED.qty_90d,
+        qty_180d = EXCLUDED.qty_180d,
+        avg_monthly_sales = EXCLUDED.avg_monthly_sales,
+        updated_at = CURRENT_TIMESTAMP;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS variant_stats_sale_items_insert ON sale_items;
+DROP TRIGGER IF EXISTS variant_stats_sale_void ON sales;
+DROP TRIGGER IF EXISTS variant_stats_purchase_items_insert ON purchase_items;
+DROP TRIGGER IF EXISTS variant_stats_purchase_items_update ON purchase_items;
+DROP TRIGGER IF EXISTS variant_stats_purchase_items_delete ON purchase_items;
+DROP TRIGGER IF EXISTS variant_stats_purchase_update ON purchases;
+
+CREATE TRIGGER variant_stats_sale_items_insert
+    AFTER INSERT ON sale_items
+    REFERENCING NEW TABLE AS new_sale_items
+    FOR EACH STATEMENT EXECUTE FUNCTION variant_stats_on_sale_items_insert();
+
+CREATE TRIGGER variant_stats_sale_void
+    AFTER UPDATE OF status ON sales
+    FOR EACH ROW
+    WHEN (OLD.status = 'COMPLETED' AND NEW.status = 'VOIDED')
+    EXECUTE FUNCTION variant_stats_on_sale_void();
+
+CREATE TRIGGER variant_stats_purchase_items_insert
+    AFTER INSERT ON purchase_items
+    REFERENCING NEW TABLE AS new_purchase_items
+    FOR EACH STATEMENT EXECUTE FUNCTION variant_stats_on_purchase_items_insert();
+
+CREATE TRIGGER variant_stats_purchase_items_update
+    AFTER UPDATE ON purchase_items
+    REFERENCING OLD TABLE AS old_purchase_items NEW TABLE AS new_purchase_items
+    FOR EACH STATEMENT EXECUTE FUNCTION variant_stats_on_purchase_items_update();
+
+CREATE TRIGGER variant_stats_purchase_items_delete
+    AFTER DELETE ON purchase_items
+    REFERENCING OLD TABLE AS old_purchase_items
+    FOR EACH STATEMENT EXECUTE FUNCTION variant_stats_on_purchase_items_delete();
+
+CREATE TRIGGER variant_stats_purchase_update
+    AFTER UPDATE OF status, purchased_at, supplier_id ON purchases
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status
+          OR OLD.purchased_at IS DISTINCT FROM NEW.purchased_at
+          OR OLD.supplier_id IS DISTINCT FROM NEW.supplier_id)
+    EXECUTE FUNCTION variant_stats_on_purchase_update();
+
+-- ===========================================
+-- 8. Low Stock Variants (membership and level-change notifications)
+-- ===========================================
+
+-- Stock level of a variant: OUT (zero stock), LOW (at or below threshold) or OK.
+-- Inactive variants are never tracked, so they count as OK.
+CREATE OR REPLACE FUNCTION stock_level(
+    p_stock_qty INTEGER,
+    p_status VARCHAR,
+    p_threshold INTEGER
+)
+RETURNS VARCHAR(3) AS $$
+BEGIN
+    IF p_status IS DISTINCT FROM 'ACTIVE' THEN
+        RETURN 'OK';
+    ELSIF p_stock_qty <= 0 THEN
+        RETURN 'OUT';
+    ELSIF p_stock_qty <= p_threshold THEN
+        RETURN 'LOW';
+    END IF;
+    RETURN 'OK';
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+-- Keep low_stock_variants in step with the stock and status of a set of variants,
+-- and notify listeners on 'stock_level_changed' once for the whole set with the
+-- tracked variants that changed (level crossings carry different previousLevel
+-- and level). A set too large for one payload sends a 'rebuild' notification
+-- instead, and listeners reload. Old status is NULL for a variant that was not
+-- tracked before (new stock row).
+CREATE OR REPLACE FUNCTION apply_low_stock_changes(
+    p_variant_ids BIGINT[],
+    p_old_stock_qtys INTEGER[],
+    p_old_statuses VARCHAR[],
+    p_new_stock_qtys INTEGER[],
+    p_new_statuses VARCHAR[]
+)
+RETURNS VOID AS $$
+DECLARE
+    v_threshold INTEGER;
+    v_count INTEGER;
+    v_changes JSON;
+BEGIN
+    IF p_variant_ids IS NULL THEN
+        RETURN;
+    END IF;
+
+    SELECT low_stock_threshold INTO v_threshold FROM settings WHERE id = 1;
+    IF v_threshold IS NULL THEN
+        RETURN;
+    END IF;
+
+    WITH tracked AS (
+        SELECT c.variant_id, c.new_stock_qty, c.previous_level, c.level
+        FROM (
+            SELECT d.variant_id, d.new_stock_qty,
+                   stock_level(d.old_stock_qty, d.old_status, v_threshold) AS previous_level,
+                   stock_level(d.new_stock_qty, d.new_status, v_threshold) AS level
+            FROM unnest(p_variant_ids, p_old_stock_qtys, p_old_statuses, p_new_stock_qtys, p_new_statuses)
+                 AS d(variant_id, old_stock_qty, old_status, new_stock_qty, new_status)
+        ) c
+        WHERE c.previous_level <> 'OK' OR c.level <> 'OK'
+    ), removed AS (
+        DELETE FROM low_stock_variants lsv
+        USING tracked t
+        WHERE lsv.variant_id = t.variant_id AND t.level = 'OK'
+    ), upserted AS (
+        INSERT INTO low_stock_variants (variant_id, stock_qty, updated_at)
+        SELECT t.variant_id, t.new_stock_qty, CURRENT_TIMESTAMP
+        FROM tracked t
+        WHERE t.level <> 'OK'
+        ORDER BY t.variant_id
+        ON CONFLICT (variant_id) DO UPDATE
+        SET stock_qty = EXCLUDED.stock_qty,
+            updated_at = EXCLUDED.updated_at
+    )
+    SELECT COUNT(*), json_agg(json_build_object(
+        'variantId', t.variant_id,
+        'previousLevel', t.previous_level,
+        'level', t.level,
+        'stockQty', t.new_stock_qty
+    ) ORDER BY t.variant_id)
+    INTO v_count, v_changes
+    FROM tracked t;
+
+    IF v_count = 0 THEN
+        RETURN;
+    ELSIF v_count > 50 THEN
+        -- NOTIFY payloads are limited to 8000 bytes
+        PERFORM pg_notify('stock_level_changed', json_build_object(
+            'rebuild', TRUE,
+            'threshold', v_threshold
+        )::TEXT);
+    ELSE
+        PERFORM pg_notify('stock_level_changed', json_build_object('changes', v_changes)::TEXT);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Single-variant form of apply_low_stock_changes
+CREATE OR REPLACE FUNCTION track_low_stock_variant(
+    p_variant_id BIGINT,
+    p_old_stock_qty INTEGER,
+    p_old_status VARCHAR,
+    p_new_stock_qty INTEGER,
+    p_new_status VARCHAR
+)
+RETURNS VOID AS $$
+BEGIN
+    PERFORM apply_low_stock_changes(ARRAY[p_variant_id], ARRAY[p_old_stock_qty], ARRAY[p_old_status],
+                                    ARRAY[p_new_stock_qty], ARRAY[p_new_status]);
+END;
+$$ LANGUAGE plpgsql;
+
+-- Stock changed: sales, voids, purchases and adjustments all update variant_stock
+-- (or, for striped variants, variant_stock_stripes). Levels use total stock.
+-- Statement-level, so a bulk purchase or void sends one notification.
+CREATE OR REPLACE FUNCTION low_stock_on_variant_stock_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_variant_ids BIGINT[];
+    v_old_stock_qtys INTEGER[];
+    v_old_statuses VARCHAR[];
+    v_new_stock_qtys INTEGER[];
+    v_new_statuses VARCHAR[];
+BEGIN
+    -- Stripe maintenance moves stock without changing the total and resyncs afterwards
+    IF current_setting('app.variant_stock_rebalancing', TRUE) = 'on' THEN
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(n.variant_id), array_agg(NULL::INTEGER), array_agg(NULL::VARCHAR),
+               array_agg(n.stock_qty + st.striped_qty), array_agg(v.status)
+        INTO v_variant_ids, v_old_stock_qtys, v_old_statuses, v_new_stock_qtys, v_new_statuses
+        FROM new_variant_stock n
+        JOIN variants v ON v.id = n.variant_id
+        CROSS JOIN LATERAL (
+            SELECT COALESCE(SUM(s.stock_qty), 0)::INTEGER AS striped_qty
+            FROM variant_stock_stripes s
+            WHERE n.stripe_count > 0 AND s.variant_id = n.variant_id
+        ) st;
+    ELSE
+        SELECT array_agg(n.variant_id), array_agg(o.stock_qty + st.striped_qty), array_agg(v.status),
+               array_agg(n.stock_qty + st.striped_qty), array_agg(v.status)
+        INTO v_variant_ids, v_old_stock_qtys, v_old_statuses, v_new_stock_qtys, v_new_statuses
+        FROM old_variant_stock o
+        JOIN new_variant_stock n ON n.variant_id = o.variant_id
+        JOIN variants v ON v.id = n.variant_id
+        CROSS JOIN LATERAL (
+            SELECT COALESCE(SUM(s.stock_qty), 0)::INTEGER AS striped_qty
+            FROM variant_stock_stripes s
+            WHERE n.stripe_count > 0 AND s.variant_id = n.variant_id
+        ) st
+        WHERE o.stock_qty IS DISTINCT FROM n.stock_qty;
+    END IF;
+
+    PERFORM apply_low_stock_changes(
+        v_variant_ids, v_old_stock_qtys, v_old_statuses, v_new_stock_qtys, v_new_statuses);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A checkout took stock from one stripe of a striped variant
+CREATE OR REPLACE FUNCTION low_stock_on_variant_stock_stripe_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_status VARCHAR(20);
+    v_stock_qty INTEGER;
+BEGIN
+    IF current_setting('app.variant_stock_rebalancing', TRUE) = 'on' THEN
+        RETURN NULL;
+    END IF;
+
+    SELECT v.status, vs.stock_qty INTO v_status, v_stock_qty
+    FROM v_variant_stock vs
+    JOIN variants v ON v.id = vs.variant_id
+    WHERE vs.variant_id = NEW.variant_id;
+
+    PERFORM track_low_stock_variant(NEW.variant_id, v_stock_qty - (NEW.stock_qty - OLD.stock_qty), v_status,
+                                    v_stock_qty, v_status);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Bring one variant's low_stock_variants entry in line with its total stock
+-- (after stripe maintenance, or to correct entries written from concurrent stripe updates)
+CREATE OR REPLACE FUNCTION resync_low_stock_variant(p_variant_id BIGINT)
+RETURNS VOID AS $$
+DECLARE
+    v_status VARCHAR(20);
+    v_stock_qty INTEGER;
+    v_tracked_qty INTEGER;
+BEGIN
+    SELECT v.status, vs.stock_qty INTO v_status, v_stock_qty
+    FROM v_variant_stock vs
+    JOIN variants v ON v.id = vs.variant_id
+    WHERE vs.variant_id = p_variant_id;
+    IF NOT FOUND THEN
+        RETURN;
+    END IF;
+
+    SELECT stock_qty INTO v_tracked_qty FROM low_stock_variants WHERE variant_id = p_variant_id;
+    IF NOT FOUND THEN
+        PERFORM track_low_stock_variant(p_variant_id, NULL, NULL, v_stock_qty, v_status);
+    ELSIF v_tracked_qty IS DISTINCT FROM v_stock_qty THEN
+        PERFORM track_low_stock_variant(p_variant_id, v_tracked_qty, v_status, v_stock_qty, v_status);
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Variants activated or deactivated (statement-level, e.g. a whole product)
+CREATE OR REPLACE FUNCTION low_stock_on_variant_status_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_variant_ids BIGINT[];
+    v_stock_qtys INTEGER[];
+    v_old_statuses VARCHAR[];
+    v_new_statuses VARCHAR[];
+BEGIN
+    SELECT array_agg(n.id), array_agg(vs.stock_qty), array_agg(o.status), array_agg(n.status)
+    INTO v_variant_ids, v_stock_qtys, v_old_statuses, v_new_statuses
+    FROM old_variants o
+    JOIN new_variants n ON n.id = o.id
+    JOIN v_variant_stock vs ON vs.variant_id = n.id
+    WHERE o.status IS DISTINCT FROM n.status;
+
+    PERFORM apply_low_stock_changes(
+        v_variant_ids, v_stock_qtys, v_old_statuses, v_stock_qtys, v_new_statuses);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Rebuild the set when the threshold changes (or the settings row is first created).
+-- Listeners receive a single 'rebuild' notification and reload.
+CREATE OR REPLACE FUNCTION rebuild_low_stock_variants()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND OLD.low_stock_threshold = NEW.low_stock_threshold THEN
+        RETURN NULL;
+    END IF;
+
+    DELETE FROM low_stock_variants lsv
+    USING variants v, v_variant_stock vs
+    WHERE v.id = lsv.variant_id
+      AND vs.variant_id = lsv.variant_id
+      AND (v.status <> 'ACTIVE' OR vs.stock_qty > NEW.low_stock_threshold);
+
+    INSERT INTO low_stock_variants (variant_id, stock_qty, updated_at)
+    SELECT vs.variant_id, vs.stock_qty, CURRENT_TIMESTAMP
+    FROM v_variant_stock vs
+    JOIN variants v ON v.id = vs.variant_id
+    WHERE v.status = 'ACTIVE'
+      AND vs.stock_qty <= NEW.low_stock_threshold
+    ON CONFLICT (variant_id) DO UPDATE
+    SET stock_qty = EXCLUDED.stock_qty;
+
+    PERFORM pg_notify('stock_level_changed', json_build_object(
+        'rebuild', TRUE,
+        'threshold', NEW.low_stock_threshold
+    )::TEXT);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP FUNCTION IF EXISTS track_low_stock_variant();
+DROP TRIGGER IF EXISTS low_stock_variant_stock_insert ON variant_stock;
+DROP TRIGGER IF EXISTS low_stock_variant_stock_update ON variant_stock;
+DROP TRIGGER IF EXISTS low_stock_variant_stock_stripe_update ON variant_stock_stripes;
+DROP TRIGGER IF EXISTS low_stock_variant_status_update ON variants;
+DROP TRIGGER IF EXISTS low_stock_threshold_change ON settings;
+
+CREATE TRIGGER low_stock_variant_stock_insert
+    AFTER INSERT ON variant_stock
+    REFERENCING NEW TABLE AS new_variant_stock
+    FOR EACH STATEMENT EXECUTE FUNCTION low_stock_on_variant_stock_change();
+
+CREATE TRIGGER low_stock_variant_stock_update
+    AFTER UPDATE ON variant_stock
+    REFERENCING OLD TABLE AS old_variant_stock NEW TABLE AS new_variant_stock
+    FOR EACH STATEMENT EXECUTE FUNCTION low_stock_on_variant_stock_change();
+
+CREATE TRIGGER low_stock_variant_stock_stripe_update
+    AFTER UPDATE OF stock_qty ON variant_stock_stripes
+    FOR EACH ROW
+    WHEN (OLD.stock_qty IS DISTINCT FROM NEW.stock_qty)
+    EXECUTE FUNCTION low_stock_on_variant_stock_stripe_change();
+
+CREATE TRIGGER low_stock_variant_status_update
+    AFTER UPDATE ON variants
+    REFERENCING OLD TABLE AS old_variants NEW TABLE AS new_variants
+    FOR EACH STATEMENT EXECUTE FUNCTION low_stock_on_variant_status_change();
+
+CREATE TRIGGER low_stock_threshold_change
+    AFTER INSERT OR UPDATE OF low_stock_threshold ON settings
+    FOR EACH ROW EXECUTE FUNCTION rebuild_low_stock_variants();
+
+-- ===========================================
+-- 9. Inventory Valuation (running totals per category and brand)
+-- Totals cover variant_stock only; stock held in stripes is added at read
+-- time by v_inventory_valuation. Triggers only append to
+-- inventory_valuation_deltas, so checkouts never update or lock the totals;
+-- fold_inventory_valuation_deltas() moves the deltas into the totals.
+-- ===========================================
+
+-- Append per-variant deltas, summed per (category, brand) of their products
+CREATE OR REPLACE FUNCTION apply_inventory_valuation_deltas(
+    p_product_ids BIGINT[],
+    p_sku_counts INTEGER[],
+    p_item_counts BIGINT[],
+    p_cost_values NUMERIC[],
+    p_retail_values NUMERIC[]
+)
+RETURNS VOID AS $$
+BEGIN
+    IF p_product_ids IS NULL THEN
+        RETURN;
+    END IF;
+
+    INSERT INTO inventory_valuation_deltas (category, brand, sku_count, item_count, cost_value, retail_value)
+    SELECT p.category, p.brand, SUM(d.sku_count), SUM(d.item_count), SUM(d.cost_value), SUM(d.retail_value)
+    FROM unnest(p_product_ids, p_sku_counts, p_item_counts, p_cost_values, p_retail_values)
+         AS d(product_id, sku_count, item_count, cost_value, retail_value)
+    JOIN products p ON p.id = d.product_id
+    GROUP BY p.category, p.brand
+    HAVING SUM(d.sku_count) <> 0 OR SUM(d.item_count) <> 0
+        OR SUM(d.cost_value) <> 0 OR SUM(d.retail_value) <> 0;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Catalog side: a variant's price, status or product changed (statement-level).
+-- Stock and cost come from variant_stock. New variants are counted when their
+-- variant_stock row is inserted; deleted variants are left to the repair job,
+-- since their variant_stock rows are already gone when this would run.
+CREATE OR REPLACE FUNCTION inventory_valuation_on_variants_update()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_product_ids BIGINT[];
+    v_sku_counts INTEGER[];
+    v_item_counts BIGINT[];
+    v_cost_values NUMERIC[];
+    v_retail_values NUMERIC[];
+BEGIN
+    SELECT array_agg(d.product_id), array_agg(d.sku_count), array_agg(d.item_count),
+           array_agg(d.cost_value), array_agg(d.retail_value)
+    INTO v_product_ids, v_sku_counts, v_item_counts, v_cost_values, v_retail_values
+    FROM (
+        SELECT o.product_id, -1 AS sku_count, -vs.stock_qty::BIGINT AS item_count,
+               -(vs.stock_qty * vs.avg_cost) AS cost_value, -(vs.stock_qty * o.selling_price) AS retail_value
+        FROM old_variants o
+        JOIN new_variants n ON n.id = o.id
+        JOIN variant_stock vs ON vs.variant_id = o.id
+        WHERE o.status = 'ACTIVE'
+          AND (o.selling_price, o.status, o.product_id)
+              IS DISTINCT FROM (n.selling_price, n.status, n.product_id)
+        UNION ALL
+        SELECT n.product_id, 1, vs.stock_qty::BIGINT,
+               vs.stock_qty * vs.avg_cost, vs.stock_qty * n.selling_price
+        FROM new_variants n
+        JOIN old_variants o ON o.id = n.id
+        JOIN variant_stock vs ON vs.variant_id = n.id
+        WHERE n.status = 'ACTIVE'
+          AND (o.selling_price, o.status, o.product_id)
+              IS DISTINCT FROM (n.selling_price, n.status, n.product_id)
+    ) d;
+
+    PERFORM apply_inventory_valuation_deltas(
+        v_product_ids, v_sku_counts, v_item_counts, v_cost_values, v_retail_values);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Stock side: stock or avg_cost changed, or a new variant's stock row was created (statement-level)
+CREATE OR REPLACE FUNCTION inventory_valuation_on_variant_stock_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_product_ids BIGINT[];
+    v_sku_counts INTEGER[];
+    v_item_counts BIGINT[];
+    v_cost_values NUMERIC[];
+    v_retail_values NUMERIC[];
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        SELECT array_agg(v.product_id), array_agg(1), array_agg(n.stock_qty::BIGINT),
+               array_agg(n.stock_qty * n.avg_cost), array_agg(n.stock_qty * v.selling_price)
+        INTO v_product_ids, v_sku_counts, v_item_counts, v_cost_values, v_retail_values
+        FROM new_variant_stock n
+        JOIN variants v ON v.id = n.variant_id
+        WHERE v.status = 'ACTIVE';
+    ELSE
+        SELECT array_agg(v.product_id), array_agg(0), array_agg((n.stock_qty - o.stock_qty)::BIGINT),
+               array_agg(n.stock_qty * n.avg_cost - o.stock_qty * o.avg_cost),
+               array_agg((n.stock_qty - o.stock_qty) * v.selling_price)
+        INTO v_product_ids, v_sku_counts, v_item_counts, v_cost_values, v_retail_values
+        FROM old_variant_stock o
+        JOIN new_variant_stock n ON n.variant_id = o.variant_id
+        JOIN variants v ON v.id = n.variant_id
+        WHERE v.status = 'ACTIVE'
+          AND (o.stock_qty, o.avg_cost) IS DISTINCT FROM (n.stock_qty, n.avg_cost);
+    END IF;
+
+    PERFORM apply_inventory_valuation_deltas(
+        v_product_ids, v_sku_counts, v_item_counts, v_cost_values, v_retail_values);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A product moved to another category or brand: move its active variants' totals
+CREATE OR REPLACE FUNCTION inventory_valuation_on_product_regroup()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_sku_count INTEGER;
+    v_item_count BIGINT;
+    v_cost_value NUMERIC;
+    v_retail_value NUMERIC;
+BEGIN
+    SELECT COUNT(*), COALESCE(SUM(vs.stock_qty), 0),
+           COALESCE(SUM(vs.stock_qty * vs.avg_cost), 0), COALESCE(SUM(vs.stock_qty * v.selling_price), 0)
+    INTO v_sku_count, v_item_count, v_cost_value, v_retail_value
     FROM variants v
-    CROSS JOIN settings s
-    WHERE v.status = 'ACTIVE';
+    JOIN variant_stock vs ON vs.variant_id = v.id
+    WHERE v.product_id = NEW.id AND v.status = 'ACTIVE';
+
+    IF v_sku_count = 0 THEN
+        RETURN NULL;
+    END IF;
+
+    INSERT INTO inventory_valuation_deltas (category, brand, sku_count, item_count, cost_value, retail_value)
+    VALUES (OLD.category, OLD.brand, -v_sku_count, -v_item_count, -v_cost_value, -v_retail_value),
+           (NEW.category, NEW.brand, v_sku_count, v_item_count, v_cost_value, v_retail_value);
+
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Move the pending deltas into the totals. Deltas committed while this runs
+-- are not visible to its DELETE and are left for the next fold.
+CREATE OR REPLACE FUNCTION fold_inventory_valuation_deltas()
+RETURNS INTEGER AS $$
+DECLARE
+    v_folded INTEGER;
+BEGIN
+    WITH folded AS (
+        DELETE FROM inventory_valuation_deltas
+        RETURNING category, brand, sku_count, item_count, cost_value, retail_value
+    )
+    INSERT INTO inventory_valuation AS iv (category, brand, sku_count, item_count, cost_value, retail_value)
+    SELECT category, brand, SUM(sku_count), SUM(item_count), SUM(cost_value), SUM(retail_value)
+    FROM folded
+    GROUP BY category, brand
+    ORDER BY category, brand
+    ON CONFLICT (category, brand) DO UPDATE SET
+        sku_count = iv.sku_count + EXCLUDED.sku_count,
+        item_count = iv.item_count + EXCLUDED.item_count,
+        cost_value = iv.cost_value + EXCLUDED.cost_value,
+        retail_value = iv.retail_value + EXCLUDED.retail_value,
+        updated_at = CURRENT_TIMESTAMP;
+    GET DIAGNOSTICS v_folded = ROW_COUNT;
+
+    DELETE FROM inventory_valuation
+    WHERE sku_count = 0 AND item_count = 0 AND cost_value = 0 AND retail_value = 0;
+
+    RETURN v_folded;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Verify the totals plus pending deltas against variants and correct any drift.
+-- One statement, so the deltas it folds and the variants it recomputes come from
+-- the same snapshot; deltas of transactions it cannot see stay queued and are
+-- folded on top later. Takes no table lock, so checkouts are never blocked.
+-- Returns the number of groups that had drifted.
+CREATE OR REPLACE FUNCTION repair_inventory_valuation()
+RETURNS INTEGER AS $$
+DECLARE
+    v_drifted INTEGER;
+BEGIN
+    WITH folded AS (
+        DELETE FROM inventory_valuation_deltas
+        RETURNING category, brand, sku_count, item_count, cost_value, retail_value
+    ), expected AS (
+        SELECT category, brand, SUM(sku_count) AS sku_count, SUM(item_count) AS item_count,
+               SUM(cost_value) AS cost_value, SUM(retail_value) AS retail_value
+        FROM (
+            SELECT category, brand, sku_count, item_count, cost_value, retail_value
+            FROM inventory_valuation
+            UNION ALL
+            SELECT category, brand, sku_count, item_count, cost_value, retail_value
+            FROM folded
+        ) t
+        GROUP BY category, brand
+        HAVING SUM(sku_count) <> 0 OR SUM(item_count) <> 0
+            OR SUM(cost_value) <> 0 OR SUM(retail_value) <> 0
+    ), actual AS (
+        SELECT
+            p.category,
+            p.brand,
+            COUNT(*)::INTEGER AS sku_count,
+            COALESCE(SUM(vs.stock_qty), 0)::BIGINT AS item_count,
+            COALESCE(SUM(vs.stock_qty * vs.avg_cost), 0) AS cost_value,
+            COALESCE(SUM(vs.stock_qty * v.selling_price), 0) AS retail_value
+        FROM variants v
+        JOIN variant_stock vs ON vs.variant_id = v.id
+        JOIN products p ON v.product_id = p.id
+        WHERE v.status = 'ACTIVE'
+        GROUP BY p.category, p.brand
+    ), written AS (
+        INSERT INTO inventory_valuation AS iv (category, brand, sku_count, item_count, cost_value, retail_value)
+        SELECT a.category, a.brand, a.sku_count, a.item_count, a.cost_value, a.retail_value
+        FROM actual a
+        LEFT JOIN inventory_valuation cur ON cur.category = a.category AND cur.brand = a.brand
+        WHERE (cur.sku_count, cur.item_count, cur.cost_value, cur.retail_value)
+              IS DISTINCT FROM (a.sku_count, a.item_count, a.cost_value, a.retail_value)
+        ORDER BY a.category, a.brand
+        ON CONFLICT (category, brand) DO UPDATE SET
+            sku_count = EXCLUDED.sku_count,
+            item_count = EXCLUDED.item_count,
+            cost_value = EXCLUDED.cost_value,
+            retail_value = EXCLUDED.retail_value,
+            updated_at = CURRENT_TIMESTAMP
+    ), removed AS (
+        -- Groups with no active variants left
+        DELETE FROM inventory_valuation iv
+        WHERE NOT EXISTS (
+            SELECT 1 FROM actual a WHERE a.category = iv.category AND a.brand = iv.brand
+        )
+    )
+    SELECT COUNT(*) INTO v_drifted
+    FROM actual a
+    FULL JOIN expected e ON e.category = a.category AND e.brand = a.brand
+    WHERE (a.sku_count, a.item_count, a.cost_value, a.retail_value)
+          IS DISTINCT FROM (e.sku_count, e.item_count, e.cost_value, e.retail_value);
+
+    RETURN v_drifted;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP FUNCTION IF EXISTS inventory_valuation_on_variants_change();
+DROP TRIGGER IF EXISTS inventory_valuation_variants_update ON variants;
+DROP TRIGGER IF EXISTS inventory_valuation_variant_stock_insert ON variant_stock;
+DROP TRIGGER IF EXISTS inventory_valuation_variant_stock_update ON variant_stock;
+DROP TRIGGER IF EXISTS inventory_valuation_product_regroup ON products;
+
+CREATE TRIGGER inventory_valuation_variants_update
+    AFTER UPDATE ON variants
+    REFERENCING OLD TABLE AS old_variants NEW TABLE AS new_variants
+    FOR EACH STATEMENT EXECUTE FUNCTION inventory_valuation_on_variants_update();
+
+CREATE TRIGGER inventory_valuation_variant_stock_insert
+    AFTER INSERT ON variant_stock
+    REFERENCING NEW TABLE AS new_variant_stock
+    FOR EACH STATEMENT EXECUTE FUNCTION inventory_valuation_on_variant_stock_change();
+
+CREATE TRIGGER inventory_valuation_variant_stock_update
+    AFTER UPDATE ON variant_stock
+    REFERENCING OLD TABLE AS old_variant_stock NEW TABLE AS new_variant_stock
+    FOR EACH STATEMENT EXECUTE FUNCTION inventory_valuation_on_variant_stock_change();
+
+CREATE TRIGGER inventory_valuation_product_regroup
+    AFTER UPDATE OF category, brand ON products
+    FOR EACH ROW
+    WHEN (OLD.category IS DISTINCT FROM NEW.category OR OLD.brand IS DISTINCT FROM NEW.brand)
+    EXECUTE FUNCTION inventory_valuation_on_product_regroup();
+
+-- ===========================================
+-- 10. Variant Stock (stock row for every variant)
+-- ===========================================
+
+-- Create the stock row of a new variant; inserts that already created it
+-- (VariantDao.create sets the opening avg_cost) are left untouched
+CREATE OR REPLACE FUNCTION create_variant_stock_row()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO variant_stock (variant_id)
+    SELECT n.id FROM new_variants n
+    ON CONFLICT (variant_id) DO NOTHING;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS create_variant_stock_row ON variants;
+
+CREATE TRIGGER create_variant_stock_row
+    AFTER INSERT ON variants
+    REFERENCING NEW TABLE AS new_variants
+    FOR EACH STATEMENT EXECUTE FUNCTION create_variant_stock_row();
+
+-- ===========================================
+-- 11. Variant Stock Stripes (hot SKU stock mode)
+-- ===========================================
+
+-- Split a variant's stock evenly across p_stripe_count stripes, or fold the
+-- stripes back into variant_stock when p_stripe_count is 0.
+-- Returns the variant's total stock, or NULL for an unknown variant.
+CREATE OR REPLACE FUNCTION set_variant_stock_stripes(
+    p_variant_id BIGINT,
+    p_stripe_count INTEGER
+)
+RETURNS INTEGER AS $$
+DECLARE
+    v_current_stock INTEGER;
+    v_striped_stock INTEGER;
+    v_total INTEGER;
+BEGIN
+    SELECT stock_qty INTO v_current_stock
+    FROM variant_stock WHERE variant_id = p_variant_id FOR UPDATE;
+    IF NOT FOUND THEN
+        RETURN NULL;
+    END IF;
+
+    SELECT COALESCE(SUM(s.stock_qty), 0) INTO v_striped_stock
+    FROM (
+        SELECT stock_qty FROM variant_stock_stripes
+        WHERE variant_id = p_variant_id
+        ORDER BY stripe_no
+        FOR UPDATE
+    ) s;
+    v_total := v_current_stock + v_striped_stock;
+
+    PERFORM set_config('app.variant_stock_rebalancing', 'on', TRUE);
+
+    DELETE FROM variant_stock_stripes WHERE variant_id = p_variant_id;
+
+    INSERT INTO variant_stock_stripes (variant_id, stripe_no, stock_qty)
+    SELECT p_variant_id, g,
+           v_total / p_stripe_count + CASE WHEN g < v_total % p_stripe_count THEN 1 ELSE 0 END
+    FROM generate_series(0, p_stripe_count - 1) g;
+
+    UPDATE variant_stock
+    SET stock_qty = CASE WHEN p_stripe_count > 0 THEN 0 ELSE v_total END,
+        stripe_count = p_stripe_count,
+        updated_at = CURRENT_TIMESTAMP
+    WHERE variant_id = p_variant_id;
+
+    PERFORM set_config('app.variant_stock_rebalancing', 'off', TRUE);
+
+    PERFORM resync_low_stock_variant(p_variant_id);
+    PERFORM refresh_variant_sales(ARRAY[p_variant_id]);
+
+    RETURN v_total;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Background rebalance: move unstriped stock (purchases, voids, adjustments)
+-- into the stripes and even them out, so any stripe can serve a checkout.
+-- Never waits: stock rows and stripes locked by checkouts are skipped this round.
+-- Also catches up the shared rows that checkouts of striped variants skip
+-- (variant_stats, and low_stock_variants entries written from concurrent stripes).
+-- Returns the number of variants rebalanced.
+CREATE OR REPLACE FUNCTION rebalance_variant_stock_stripes()
+RETURNS INTEGER AS $$
+DECLARE
+    v_stock RECORD;
+    v_variant_ids BIGINT[] := '{}';
+    v_stripe_nos SMALLINT[];
+    v_striped_stock INTEGER;
+    v_min_qty INTEGER;
+    v_max_qty INTEGER;
+    v_stripes INTEGER;
+    v_total INTEGER;
+    v_rebalanced INTEGER := 0;
+BEGIN
+    PERFORM set_config('app.variant_stock_rebalancing', 'on', TRUE);
+
+    FOR v_stock IN
+        SELECT variant_id, stock_qty FROM variant_stock
+        WHERE stripe_count > 0
+        ORDER BY variant_id
+        FOR UPDATE SKIP LOCKED
+    LOOP
+        v_variant_ids := v_variant_ids || v_stock.variant_id;
+
+        SELECT array_agg(s.stripe_no ORDER BY s.stripe_no), COALESCE(SUM(s.stock_qty), 0),
+               MIN(s.stock_qty), MAX(s.stock_qty)
+        INTO v_stripe_nos, v_striped_stock, v_min_qty, v_max_qty
+        FROM (
+            SELECT stripe_no, stock_qty FROM variant_stock_stripes
+            WHERE variant_id = v_stock.variant_id
+            ORDER BY stripe_no
+            FOR UPDATE SKIP LOCKED
+        ) s;
+
+        IF v_stripe_nos IS NULL OR (v_stock.stock_qty = 0 AND v_max_qty - v_min_qty <= 1) THEN
+            CONTINUE;
+        END IF;
+
+        v_stripes := array_length(v_stripe_nos, 1);
+        v_total := v_stock.stock_qty + v_striped_stock;
+
+        UPDATE variant_stock_stripes s
+        SET stock_qty = v_total / v_stripes + CASE WHEN t.ord <= v_total % v_stripes THEN 1 ELSE 0 END
+        FROM unnest(v_stripe_nos) WITH ORDINALITY AS t(stripe_no, ord)
+        WHERE s.variant_id = v_stock.variant_id
+          AND s.stripe_no = t.stripe_no;
+
+        IF v_stock.stock_qty > 0 THEN
+            UPDATE variant_stock
+            SET stock_qty = 0,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE variant_id = v_stock.variant_id;
+        END IF;
+
+        v_rebalanced := v_rebalanced + 1;
+    END LOOP;
+
+    PERFORM set_config('app.variant_stock_rebalancing', 'off', TRUE);
+
+    PERFORM resync_low_stock_variant(id) FROM unnest(v_variant_ids) AS id;
+    PERFORM refresh_variant_sales(v_variant_ids);
+
+    RETURN v_rebalanced;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ===========================================
+-- 12. Stock Ledger (append-only movement history)
+-- ===========================================
+
+-- Append one movement. For a regular variant the stock row is locked until commit,
+-- which orders all writers of the variant, so balance_after is the previous entry's
+-- balance plus the delta. Striped variants' checkouts do not take that lock, so
+-- their entries carry no balance; the first entry after striping ends re-sums.
+-- A movement dated before the end of an already snapshotted day (a backdated
+-- purchase) is also added to those snapshots. Appends hold the snapshot lock in
+-- shared mode, so a snapshot being taken either sees the movement or is
+-- committed before the movement looks for snapshots to correct.
+CREATE OR REPLACE FUNCTION append_stock_ledger(
+    p_variant_id BIGINT,
+    p_movement_type VARCHAR,
+    p_movement_date TIMESTAMP WITH TIME ZONE,
+    p_delta_qty INTEGER,
+    p_reference_id BIGINT,
+    p_reference_no VARCHAR,
+    p_supplier_id BIGINT,
+    p_unit_cost DECIMAL(12, 2),
+    p_notes TEXT,
+    p_created_by BIGINT
+)
+RETURNS VOID AS $$
+DECLARE
+    v_stripe_count SMALLINT;
+    v_balance INTEGER;
+BEGIN
+    SELECT stripe_count INTO v_stripe_count FROM variant_stock WHERE variant_id = p_variant_id;
+
+    IF v_stripe_count = 0 THEN
+        PERFORM 1 FROM variant_stock WHERE variant_id = p_variant_id FOR UPDATE;
+
+        SELECT balance_after INTO v_balance
+        FROM stock_ledger
+        WHERE variant_id = p_variant_id
+        ORDER BY id DESC
+        LIMIT 1;
+
+        IF FOUND AND v_balance IS NULL THEN
+            SELECT SUM(delta_qty) INTO v_balance FROM stock_ledger WHERE variant_id = p_variant_id;
+        END IF;
+        v_balance := COALESCE(v_balance, 0) + p_delta_qty;
+    END IF;
+
+    INSERT INTO stock_ledger (variant_id, movement_type, movement_date, delta_qty, balance_after,
+                              reference_id, reference_no, supplier_id, unit_cost, notes, created_by)
+    VALUES (p_variant_id, p_movement_type, p_movement_date, p_delta_qty, v_balance,
+            p_reference_id, p_reference_no, p_supplier_id, p_unit_cost, p_notes, p_created_by);
+
+    PERFORM pg_advisory_xact_lock_shared(hashtext('inventory_snapshots'));
+    IF p_movement_date < (SELECT MAX(as_of) FROM inventory_snapshots) THEN
+        INSERT INTO inventory_snapshot_items AS si (snapshot_date, variant_id, stock_qty, avg_cost)
+        SELECT s.snapshot_date, p_variant_id, p_delta_qty, vs.avg_cost
+        FROM inventory_snapshots s
+        JOIN variant_stock vs ON vs.variant_id = p_variant_id
+        WHERE s.as_of > p_movement_date
+        ORDER BY s.snapshot_date
+        ON CONFLICT (snapshot_date, variant_id) DO UPDATE
+        SET stock_qty = si.stock_qty + EXCLUDED.stock_qty;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Sale items (statement-level, handles bulk inserts)
+CREATE OR REPLACE FUNCTION stock_ledger_on_sale_items_insert()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_item RECORD;
+BEGIN
+    FOR v_item IN
+        SELECT ni.variant_id, ni.qty, ni.unit_cost_at_sale, s.id AS sale_id, s.bill_no, s.sold_at, s.created_by
+        FROM new_sale_items ni
+        JOIN sales s ON s.id = ni.sale_id AND s.sold_at = ni.sold_at
+        ORDER BY ni.variant_id, ni.id
+    LOOP
+        PERFORM append_stock_ledger(v_item.variant_id, 'SALE', v_item.sold_at, -v_item.qty,
+                                    v_item.sale_id, v_item.bill_no, NULL, v_item.unit_cost_at_sale,
+                                    NULL, v_item.created_by);
+    END LOOP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A sale was voided: its stock came back
+CREATE OR REPLACE FUNCTION stock_ledger_on_sale_void()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_item RECORD;
+BEGIN
+    FOR v_item IN
+        SELECT variant_id, qty, unit_cost_at_sale
+        FROM sale_items
+        WHERE sale_id = NEW.id AND sold_at = NEW.sold_at
+        ORDER BY variant_id, id
+    LOOP
+        PERFORM append_stock_ledger(v_item.variant_id, 'VOID_RESTORE', COALESCE(NEW.voided_at, CURRENT_TIMESTAMP),
+                                    v_item.qty, NEW.id, NEW.bill_no, NULL, v_item.unit_cost_at_sale,
+                                    NEW.void_reason, COALESCE(NEW.voided_by, NEW.created_by));
+    END LOOP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Purchase items (statement-level, handles bulk inserts)
+CREATE OR REPLACE FUNCTION stock_ledger_on_purchase_items_insert()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_item RECORD;
+BEGIN
+    FOR v_item IN
+        SELECT ni.variant_id, ni.qty, ni.unit_cost, p.id AS purchase_id, p.invoice_no, p.supplier_id,
+               p.purchased_at, p.created_by
+        FROM new_purchase_items ni
+        JOIN purchases p ON p.id = ni.purchase_id
+        ORDER BY ni.variant_id, ni.id
+    LOOP
+        PERFORM append_stock_ledger(v_item.variant_id, 'PURCHASE', v_item.purchased_at, v_item.qty,
+                                    v_item.purchase_id, v_item.invoice_no, v_item.supplier_id, v_item.unit_cost,
+                                    NULL, v_item.created_by);
+    END LOOP;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A purchase item's qty was edited, or the item was removed from the purchase
+CREATE OR REPLACE FUNCTION stock_ledger_on_purchase_item_change()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_purchase RECORD;
+    v_delta_qty INTEGER;
+BEGIN
+    SELECT id, invoice_no, supplier_id INTO v_purchase FROM purchases WHERE id = OLD.purchase_id;
+    IF NOT FOUND THEN
+        -- Purchase itself is being deleted
+        RETURN NULL;
+    END IF;
+
+    IF TG_OP = 'DELETE' THEN
+        v_delta_qty := -OLD.qty;
+    ELSE
+        v_delta_qty := NEW.qty - OLD.qty;
+    END IF;
+
+    PERFORM append_stock_ledger(OLD.variant_id, 'PURCHASE_EDIT', CURRENT_TIMESTAMP, v_delta_qty,
+                                v_purchase.id, v_purchase.invoice_no, v_purchase.supplier_id, OLD.unit_cost,
+                                CASE WHEN TG_OP = 'DELETE' THEN 'Item removed from purchase' END, NULL);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Stock adjustments, including the corrections recorded when a purchase is voided
+CREATE OR REPLACE FUNCTION stock_ledger_on_stock_adjustment()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM append_stock_ledger(NEW.variant_id, 'ADJUSTMENT', NEW.created_at, NEW.delta_qty,
+                                NEW.id, NULL, NULL, NULL,
+                                NEW.reason || COALESCE(': ' || NEW.notes, ''), NEW.created_by);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Entries are never changed; deletes are only allowed as a cascade from variants
+CREATE OR REPLACE FUNCTION stock_ledger_append_only()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' AND pg_trigger_depth() > 1 THEN
+        RETURN OLD;
+    END IF;
+    RAISE EXCEPTION 'stock_ledger is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS stock_ledger_sale_items_insert ON sale_items;
+DROP TRIGGER IF EXISTS stock_ledger_sale_void ON sales;
+DROP TRIGGER IF EXISTS stock_ledger_purchase_items_insert ON purchase_items;
+DROP TRIGGER IF EXISTS stock_ledger_purchase_item_update ON purchase_items;
+DROP TRIGGER IF EXISTS stock_ledger_purchase_item_delete ON purchase_items;
+DROP TRIGGER IF EXISTS stock_ledger_stock_adjustment ON stock_adjustments;
+DROP TRIGGER IF EXISTS stock_ledger_append_only ON stock_ledger;
+
+CREATE TRIGGER stock_ledger_sale_items_insert
+    AFTER INSERT ON sale_items
+    REFERENCING NEW TABLE AS new_sale_items
+    FOR EACH STATEMENT EXECUTE FUNCTION stock_ledger_on_sale_items_insert();
+
+CREATE TRIGGER stock_ledger_sale_void
+    AFTER UPDATE OF status ON sales
+    FOR EACH ROW
+    WHEN (OLD.status = 'COMPLETED' AND NEW.status = 'VOIDED')
+    EXECUTE FUNCTION stock_ledger_on_sale_void();
+
+CREATE TRIGGER stock_ledger_purchase_items_insert
+    AFTER INSERT ON purchase_items
+    REFERENCING NEW TABLE AS new_purchase_items
+    FOR EACH STATEMENT EXECUTE FUNCTION stock_ledger_on_purchase_items_insert();
+
+CREATE TRIGGER stock_ledger_purchase_item_update
+    AFTER UPDATE OF qty ON purchase_items
+    FOR EACH ROW
+    WHEN (OLD.qty IS DISTINCT FROM NEW.qty)
+    EXECUTE FUNCTION stock_ledger_on_purchase_item_change();
+
+CREATE TRIGGER stock_ledger_purchase_item_delete
+    AFTER DELETE ON purchase_items
+    FOR EACH ROW EXECUTE FUNCTION stock_ledger_on_purchase_item_change();
+
+CREATE TRIGGER stock_ledger_stock_adjustment
+    AFTER INSERT ON stock_adjustments
+    FOR EACH ROW EXECUTE FUNCTION stock_ledger_on_stock_adjustment();
+
+CREATE TRIGGER stock_ledger_append_only
+    BEFORE UPDATE OR DELETE ON stock_ledger
+    FOR EACH ROW EXECUTE FUNCTION stock_ledger_append_only();
+
+-- ===========================================
+-- 13. Inventory Snapshots (stock as of end of day)
+-- ===========================================
+
+-- Snapshot stock at the end of p_snapshot_date (UTC): current stock minus the
+-- movements dated after it. avg_cost is the cost when the snapshot is taken.
+-- Movements recorded later but dated before the end of the day are added by
+-- append_stock_ledger; the exclusive snapshot lock waits for appends in flight
+-- so none is missed by both.
+-- Returns the number of variants stored (0 if the snapshot already exists).
+CREATE OR REPLACE FUNCTION take_inventory_snapshot(p_snapshot_date DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    v_as_of TIMESTAMP WITH TIME ZONE := (p_snapshot_date + 1)::TIMESTAMP AT TIME ZONE 'UTC';
+    v_variant_count INTEGER;
+BEGIN
+    IF v_as_of > CURRENT_TIMESTAMP THEN
+        RAISE EXCEPTION 'Cannot snapshot %: the day has not ended', p_snapshot_date;
+    END IF;
+
+    PERFORM pg_advisory_xact_lock(hashtext('inventory_snapshots'));
+
+    INSERT INTO inventory_snapshots (snapshot_date, as_of)
+    VALUES (p_snapshot_date, v_as_of)
+    ON CONFLICT (snapshot_date) DO NOTHING;
+    IF NOT FOUND THEN
+        RETURN 0;
+    END IF;
+
+    INSERT INTO inventory_snapshot_items (snapshot_date, variant_id, stock_qty, avg_cost)
+    SELECT p_snapshot_date, vs.variant_id, vs.stock_qty - COALESCE(l.delta_qty, 0), vs.avg_cost
+    FROM v_variant_stock vs
+    LEFT JOIN (
+        SELECT variant_id, SUM(delta_qty) AS delta_qty
+        FROM stock_ledger
+        WHERE movement_date >= v_as_of
+        GROUP BY variant_id
+    ) l ON l.variant_id = vs.variant_id
+    WHERE vs.stock_qty - COALESCE(l.delta_qty, 0) <> 0;
+    GET DIAGNOSTICS v_variant_count = ROW_COUNT;
+
+    UPDATE inventory_snapshots
+    SET variant_count = v_variant_count
+    WHERE snapshot_date = p_snapshot_date;
+
+    RETURN v_variant_count;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ===========================================
+-- 14. Bulk Price Revision
+-- ===========================================
+
+-- Selling price after a bulk revision. p_mode 'SET' makes p_value the price,
+-- 'PERCENT' changes the price by p_value percent, 'NONE' keeps it. With
+-- p_round_to the result is then rounded ('NEAREST', 'UP', 'DOWN') to a price
+-- of the form k * p_round_to + p_ending (round to 10 ending 9: 487 -> 489).
+CREATE OR REPLACE FUNCTION bulk_revised_price(
+    p_price NUMERIC,
+    p_mode VARCHAR,
+    p_value NUMERIC,
+    p_round_to NUMERIC,
+    p_rounding VARCHAR,
+    p_ending NUMERIC
+)
+RETURNS NUMERIC(12, 2) AS $$
+DECLARE
+    v_price NUMERIC;
+    v_steps NUMERIC;
+BEGIN
+    v_price := CASE p_mode
+        WHEN 'SET' THEN p_value
+        WHEN 'PERCENT' THEN p_price * (100 + p_value) / 100
+        ELSE p_price
+    END;
+
+    IF p_round_to > 0 THEN
+        v_steps := (v_price - COALESCE(p_ending, 0)) / p_round_to;
+        v_steps := CASE p_rounding
+            WHEN 'UP' THEN CEIL(v_steps)
+            WHEN 'DOWN' THEN FLOOR(v_steps)
+            ELSE ROUND(v_steps)
+        END;
+        v_price := v_steps * p_round_to + COALESCE(p_ending, 0);
+    END IF;
+
+    RETURN ROUND(GREATEST(v_price, 0), 2);
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+-- ===========================================
+-- 15. Product Search Query
+-- Prefix query for products.search_vector: every word of the term, tokenized
+-- like the vector ('simple'), must start a word of the product. NULL when the
+-- term has no words.
+-- ===========================================
+CREATE OR REPLACE FUNCTION product_search_query(p_term TEXT)
+RETURNS TSQUERY AS $$
+    SELECT to_tsquery('simple', string_agg(quote_literal(word) || ':*', ' & '))
+    FROM unnest(tsvector_to_array(to_tsvector('simple', COALESCE(p_term, '')))) AS word;
+$$ LANGUAGE sql IMMUTABLE;
+
+-- ===========================================
+-- 16. Sales Partitions (monthly, see V13__sales_partitioning)
+-- ===========================================
+
+-- Create the monthly sales/sale_items partitions from p_from to p_to (inclusive months).
+-- Months already created or archived are skipped. Fails if the default partition
+-- holds sales of a month being created, so months are created ahead of time.
+CREATE OR REPLACE FUNCTION create_sales_partitions(p_from DATE, p_to DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    v_month DATE := DATE_TRUNC('month', p_from)::DATE;
+    v_suffix TEXT;
+    v_from TIMESTAMP WITH TIME ZONE;
+    v_to TIMESTAMP WITH TIME ZONE;
+    v_created INTEGER := 0;
+BEGIN
+    WHILE v_month <= p_to LOOP
+        v_suffix := to_char(v_month, 'YYYYMM');
+        IF to_regclass('public.sales_p' || v_suffix) IS NULL
+           AND to_regclass('sales_archive.sales_p' || v_suffix) IS NULL THEN
+            v_from := v_month::TIMESTAMP AT TIME ZONE 'UTC';
+            v_to := (v_month + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC';
+            EXECUTE format('CREATE TABLE public.%I PARTITION OF sales FOR VALUES FROM (%L) TO (%L)',
+                           'sales_p' || v_suffix, v_from, v_to);
+            EXECUTE format('CREATE TABLE public.%I PARTITION OF sale_items FOR VALUES FROM (%L) TO (%L)',
+                           'sale_items_p' || v_suffix, v_from, v_to);
+            v_created := v_created + 1;
+        END IF;
+        v_month := (v_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Drop the indexes of an archived partition that no archive index uses
+-- (search and lookup indexes of the hot tables)
+CREATE OR REPLACE FUNCTION drop_unused_archive_indexes(p_table REGCLASS)
+RETURNS VOID AS $$
+DECLARE
+    v_index REGCLASS;
+BEGIN
+    FOR v_index IN
+        SELECT i.indexrelid::REGCLASS
+        FROM pg_index i
+        WHERE i.indrelid = p_table
+          AND NOT EXISTS (SELECT 1 FROM pg_inherits h WHERE h.inhrelid = i.indexrelid)
+          AND NOT EXISTS (SELECT 1 FROM pg_constraint c WHERE c.conindid = i.indexrelid)
+    LOOP
+        EXECUTE format('DROP INDEX %s', v_index);
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Move the monthly partitions ending on or before p_before to the sales_archive schema.
+-- Archived months leave sales/sale_items (and every query on them); reports read them
+-- through v_all_sales / v_all_sale_items. Detaching locks sales briefly, so this runs
+-- off-hours. Returns the number of months archived.
+CREATE OR REPLACE FUNCTION archive_sales_partitions(p_before DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    v_month DATE;
+    v_sales TEXT;
+    v_items TEXT;
+    v_from TIMESTAMP WITH TIME ZONE;
+    v_to TIMESTAMP WITH TIME ZONE;
+    v_constraint TEXT;
+    v_archived INTEGER := 0;
+BEGIN
+    FOR v_month IN
+        SELECT to_date(substring(c.relname FROM 8), 'YYYYMM') AS month
+        FROM pg_inherits h
+        JOIN pg_class c ON c.oid = h.inhrelid
+        WHERE h.inhparent = 'public.sales'::REGCLASS
+          AND c.relname ~ '^sales_p[0-9]{6}$'
+        ORDER BY month
+    LOOP
+        EXIT WHEN v_month + INTERVAL '1 month' > p_before;
+
+        v_sales := 'sales_p' || to_char(v_month, 'YYYYMM');
+        v_items := 'sale_items_p' || to_char(v_month, 'YYYYMM');
+        v_from := v_month::TIMESTAMP AT TIME ZONE 'UTC';
+        v_to := (v_month + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC';
+
+        -- Items first: the archive keeps no foreign key to the hot sales
+        EXECUTE format('ALTER TABLE sale_items DETACH PARTITION public.%I', v_items);
+        FOR v_constraint IN
+            SELECT conname FROM pg_constraint
+            WHERE conrelid = format('public.%I', v_items)::REGCLASS
+              AND contype = 'f'
+              AND confrelid = 'public.sales'::REGCLASS
+        LOOP
+            EXECUTE format('ALTER TABLE public.%I DROP CONSTRAINT %I', v_items, v_constraint);
+        END LOOP;
+        EXECUTE format('ALTER TABLE sales DETACH PARTITION public.%I', v_sales);
+
+        EXECUTE format('ALTER TABLE public.%I SET SCHEMA sales_archive', v_sales);
+        EXECUTE format('ALTER TABLE public.%I SET SCHEMA sales_archive', v_items);
+        EXECUTE format('ALTER TABLE sales_archive.sales ATTACH PARTITION sales_archive.%I FOR VALUES FROM (%L) TO (%L)',
+                       v_sales, v_from, v_to);
+        EXECUTE format('ALTER TABLE sales_archive.sale_items ATTACH PARTITION sales_archive.%I FOR VALUES FROM (%L) TO (%L)',
+                       v_items, v_from, v_to);
+
+        PERFORM drop_unused_archive_indexes(format('sales_archive.%I', v_sales)::REGCLASS);
+        PERFORM drop_unused_archive_indexes(format('sales_archive.%I', v_items)::REGCLASS);
+
+        v_archived := v_archived + 1;
+    END LOOP;
+    RETURN v_archived;
+END;
+$$ LANGUAGE plpgsql;
+
+-- ===========================================
+-- 17. Stock Takes (apply a count)
+-- ===========================================
+
+-- Write a CORRECTION adjustment for every scanned variant and every active variant
+-- in scope whose count differs from its stock, and move the stock by the same amount.
+-- Variants are locked one at a time in variant id order, like checkouts and voids,
+-- and the stock is read after the lock so the delta is against the locked value.
+-- Returns the number of variants adjusted.
+CREATE OR REPLACE FUNCTION apply_stock_take_variances(
+    p_stock_take_id BIGINT,
+    p_barcodes TEXT[],
+    p_counted_qtys INTEGER[],
+    p_category VARCHAR,
+    p_brand VARCHAR,
+    p_created_by BIGINT
+)
+RETURNS INTEGER AS $$
+DECLARE
+    v_count RECORD;
+    v_current_stock INTEGER;
+    v_striped_stock INTEGER;
+    v_delta INTEGER;
+    v_adjusted INTEGER := 0;
+BEGIN
+    FOR v_count IN
+        SELECT v.id AS variant_id, COALESCE(c.counted_qty, 0) AS counted_qty
+        FROM variants v
+        JOIN products p ON v.product_id = p.id
+        LEFT JOIN unnest(p_barcodes, p_counted_qtys) AS c(barcode, counted_qty)
+            ON c.barcode = v.barcode
+        WHERE c.barcode IS NOT NULL
+           OR (v.status = 'ACTIVE'
+               AND (p_category IS NULL OR p.category = p_category)
+               AND (p_brand IS NULL OR p.brand = p_brand))
+        ORDER BY v.id
+    LOOP
+        SELECT stock_qty INTO v_current_stock
+        FROM variant_stock WHERE variant_id = v_count.variant_id FOR UPDATE;
+        IF NOT FOUND THEN
+            CONTINUE;
+        END IF;
+
+        SELECT COALESCE(SUM(s.stock_qty), 0) INTO v_striped_stock
+        FROM (
+            SELECT stock_qty FROM variant_stock_stripes
+            WHERE variant_id = v_count.variant_id
+            ORDER BY stripe_no
+            FOR UPDATE
+        ) s;
+
+        v_delta := v_count.counted_qty - (v_current_stock + v_striped_stock);
+        IF v_delta = 0 THEN
+            CONTINUE;
+        END IF;
+
+        INSERT INTO stock_adjustments (variant_id, delta_qty, reason, notes, created_by, stock_take_id)
+        VALUES (v_count.variant_id, v_delta, 'CORRECTION', 'Stock take #' || p_stock_take_id,
+                p_created_by, p_stock_take_id);
+
+        PERFORM adjust_variant_stock(v_count.variant_id, v_delta);
+
+        v_adjusted := v_adjusted + 1;
+    END LOOP;
+    RETURN v_adjusted;
 END;
 $$ LANGUAGE plpgsql;
@@ -2,9 +2,68 @@
 -- Repeatable Migration: Views
 -- ===========================================
 
+-- ===========================================
+-- v_variant_stock
+-- Total stock per variant: variant_stock plus the stripes of striped variants
+-- ===========================================
+CREATE OR REPLACE VIEW v_variant_stock AS
+SELECT
+    vs.variant_id,
+    vs.stock_qty + COALESCE(st.stock_qty, 0) AS stock_qty,
+    vs.avg_cost,
+    vs.stripe_count,
+    vs.updated_at
+FROM variant_stock vs
+LEFT JOIN (
+    SELECT variant_id, SUM(stock_qty)::INTEGER AS stock_qty
+    FROM variant_stock_stripes
+    GROUP BY variant_id
+) st ON st.variant_id = vs.variant_id;
+
+-- ===========================================
+-- v_inventory_valuation
+-- inventory_valuation running totals plus deltas not folded yet and stock
+-- held in stripes
+-- ===========================================
+CREATE OR REPLACE VIEW v_inventory_valuation AS
+SELECT
+    t.category,
+    t.brand,
+    SUM(t.sku_count)::INTEGER AS sku_count,
+    SUM(t.item_count)::BIGINT AS item_count,
+    SUM(t.cost_value) AS cost_value,
+    SUM(t.retail_value) AS retail_value,
+    MAX(t.updated_at) AS updated_at
+FROM (
+    SELECT category, brand, sku_count, item_count, cost_value, retail_value, updated_at
+    FROM inventory_valuation
+    UNION ALL
+    SELECT category, brand, sku_count, item_count, cost_value, retail_value, created_at
+    FROM inventory_valuation_deltas
+    UNION ALL
+    SELECT
+        p.category,
+        p.brand,
+        0,
+        SUM(s.stock_qty)::BIGINT,
+        SUM(s.stock_qty * vs.avg_cost),
+        SUM(s.stock_qty * v.selling_price),
+        NULL
+    FROM variant_stock_stripes s
+    JOIN variant_stock vs ON vs.variant_id = s.variant_id
+    JOIN variants v ON v.id = s.variant_id
+    JOIN products p ON v.product_id = p.id
+    WHERE v.status = 'ACTIVE'
+    GROUP BY p.category, p.brand
+) t
+GROUP BY t.category, t.brand
+HAVING SUM(t.sku_count) <> 0 OR SUM(t.item_count) <> 0
+    OR SUM(t.cost_value) <> 0 OR SUM(t.retail_value) <> 0;
+
 -- ===========================================
 -- v_variants_with_products
 -- Variant details with product information
+-- (stock and avg_cost from v_variant_stock)
 -- ===========================================
 CREATE OR REPLACE VIEW v_variants_with_products AS
 SELECT 
@@ -18,25 +77,26 @@ SELECT
     v.size,
     v.color,
     v.selling_price,
-    v.avg_cost,
-    v.stock_qty,
+    vs.avg_cost,
+    vs.stock_qty,
     v.status,
     v.created_at,
     v.updated_at,
-    (v.stock_qty * v.avg_cost) AS stock_value,
+    (vs.stock_qty * vs.avg_cost) AS stock_value,
     CASE 
         WHEN v.selling_price > 0 THEN 
-            ROUND(((v.selling_price - v.avg_cost) / v.selling_price * 100)::numeric, 2)
+            ROUND(((v.selling_price - vs.avg_cost) / v.selling_price * 100)::numeric, 2)
         ELSE 0 
     END AS margin_percent,
     CASE 
-        WHEN v.avg_cost > 0 THEN 
-            ROUND(((v.selling_price - v.avg_cost) / v.avg_cost * 100)::numeric, 2)
+        WHEN vs.avg_cost > 0 THEN 
+            ROUND(((v.selling_price - vs.avg_cost) / vs.avg_cost * 100)::numeric, 2)
         ELSE 0 
     END AS markup_percent,
     p.hsn AS product_hsn,
     COALESCE(v.default_discount_percent, p.default_discount_percent) AS effective_discount_percent
 FROM variants v
+JOIN v_variant_stock vs ON vs.variant_id = v.id
 JOIN products p ON v.product_id = p.id;
 
 -- ===========================================
@@ -48,11 +108,26 @@ SELECT
     s.*,
     u.full_name AS created_by_name,
     vu.full_name AS voided_by_name,
-    (SELECT COUNT(*) FROM sale_items si WHERE si.sale_id = s.id) AS item_count
+    (SELECT COUNT(*) FROM sale_items si WHERE si.sale_id = s.id AND si.sold_at = s.sold_at) AS item_count
 FROM sales s
 LEFT JOIN users u ON s.created_by = u.id
 LEFT JOIN users vu ON s.voided_by = vu.id;
 
+-- ===========================================
+-- v_all_sales / v_all_sale_items
+-- Hot and archived sales together, for reports over any period
+-- (sales_archive months are moved there by archive_sales_partitions)
+-- ===========================================
+CREATE OR REPLACE VIEW v_all_sales AS
+SELECT * FROM sales
+UNION ALL
+SELECT * FROM sales_archive.sales;
+
+CREATE OR REPLACE VIEW v_all_sale_items AS
+SELECT * FROM sale_items
+UNION ALL
+SELECT * FROM sales_archive.sale_items;
+
 -- ===========================================
 -- v_purchases_with_details
 -- Purchases with supplier and user details
@@ -85,21 +160,24 @@ LEFT JOIN users vu ON p.voided_by = vu.id;
 -- ===========================================
 -- v_low_stock_variants
 -- Variants below low stock threshold
+-- (membership maintained in low_stock_variants by triggers)
 -- ===========================================
 DROP VIEW IF EXISTS v_low_stock_variants;
 CREATE VIEW v_low_stock_variants AS
 SELECT 
     v.*,
+    vs.stock_qty,
+    vs.avg_cost,
     p.name AS product_name,
     p.brand AS product_brand,
     p.category AS product_category,
     s.low_stock_threshold,
     p.hsn AS product_hsn
-FROM variants v
+FROM low_stock_variants lsv
+JOIN variants v ON lsv.variant_id = v.id
+JOIN v_variant_stock vs ON vs.variant_id = v.id
 JOIN products p ON v.product_id = p.id
-CROSS JOIN settings s
-WHERE v.status = 'ACTIVE' 
-  AND v.stock_qty <= s.low_stock_threshold;
+CROSS JOIN settings s;
 
 -- ===========================================
 -- v_daily_sales_summary
@@ -121,60 +199,6 @@ GROUP BY DATE(sold_at);
 
 -- ===========================================
 -- v_stock_movements
--- Unified view of all stock movements
+-- Replaced by the stock_ledger table (V7)
 -- ===========================================
-CREATE OR REPLACE VIEW v_stock_movements AS
--- Purchases (stock in)
-SELECT 
-    pi.id,
-    pi.variant_id,
-    'PURCHASE' AS movement_type,
-    p.purchased_at AS movement_date,
-    pi.qty AS delta_qty,
-    p.id AS reference_id,
-    p.invoice_no AS reference_no,
-    sup.name AS supplier_name,
-    pi.unit_cost,
-    NULL AS notes,
-    p.created_by,
-    pi.created_at
-FROM purchase_items pi
-JOIN purchases p ON pi.purchase_id = p.id
-JOIN suppliers sup ON p.supplier_id = sup.id
-
-UNION ALL
-
--- Sales (stock out)
-SELECT 
-    si.id,
-    si.variant_id,
-    CASE WHEN s.status = 'VOIDED' THEN 'VOID_RESTORE' ELSE 'SALE' END AS movement_type,
-    s.sold_at AS movement_date,
-    CASE WHEN s.status = 'VOIDED' THEN si.qty ELSE -si.qty END AS delta_qty,
-    s.id AS reference_id,
-    s.bill_no AS reference_no,
-    NULL AS supplier_name,
-    si.unit_cost_at_sale AS unit_cost,
-    NULL AS notes,
-    s.created_by,
-    si.created_at
-FROM sale_items si
-JOIN sales s ON si.sale_id = s.id
-
-UNION ALL
-
--- Stock Adjustments
-SELECT 
-    sa.id,
-    sa.variant_id,
-    'ADJUSTMENT' AS movement_type,
-    sa.created_at AS movement_date,
-    sa.delta_qty,
-    sa.id AS reference_id,
-    NULL AS reference_no,
-    NULL AS supplier_name,
-    NULL AS unit_cost,
-    sa.reason || COALESCE(': ' || sa.notes, '') AS notes,
-    sa.created_by,
-    sa.created_at
-FROM stock_adjustments sa;
+DROP VIEW IF EXISTS v_stock_movements;
@@ -0,0 +1,13 @@
+-- ===========================================
+-- V10: List Indexes
+-- The product, variant and purchase lists are paged in the database, ordered
+-- by their default sort with the id as tie-breaker. These indexes serve both
+-- OFFSET pages and keyset cursors in that order (scanned backwards for DESC)
+-- without sorting the whole table.
+-- ===========================================
+CREATE INDEX idx_products_updated_at_id ON products(updated_at, id);
+CREATE INDEX idx_variants_updated_at_id ON variants(updated_at, id);
+
+-- Replaces the single-column index, which it covers
+CREATE INDEX idx_purchases_purchased_at_id ON purchases(purchased_at, id);
+DROP INDEX IF EXISTS idx_purchases_purchased_at;
@@ -0,0 +1,21 @@
+-- ===========================================
+-- V11: Search Indexes
+-- Sale and purchase search matches substrings ("LIKE '%q%'"), which a btree
+-- cannot serve. Trigram (pg_trgm) GIN indexes answer those LIKEs, including
+-- phone suffix matches, for terms of three characters or more.
+-- pg_trgm is a trusted extension, so the database owner can create it.
+-- ===========================================
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Sales: bill number, customer name and phone, as the sale list and sale search query them
+CREATE INDEX idx_sales_bill_no_trgm ON sales USING gin (LOWER(bill_no) gin_trgm_ops);
+CREATE INDEX idx_sales_customer_name_trgm ON sales USING gin (LOWER(customer_name) gin_trgm_ops);
+CREATE INDEX idx_sales_customer_phone_trgm ON sales USING gin (customer_phone gin_trgm_ops);
+
+-- Exact bill number lookup, case-insensitive; replaces the plain index, which
+-- duplicated sales_bill_no_unique
+CREATE INDEX idx_sales_bill_no_lower ON sales(LOWER(bill_no));
+DROP INDEX IF EXISTS idx_sales_bill_no;
+
+-- Purchases: invoice number, as the purchase list searches it
+CREATE INDEX idx_purchases_invoice_no_trgm ON purchases USING gin (LOWER(invoice_no) gin_trgm_ops);
@@ -0,0 +1,22 @@
+-- ===========================================
+-- V12: Product Search
+-- Weighted search vector stored on products (name > brand > category > hsn),
+-- so search reads it from the row instead of rebuilding it per product.
+-- The 'simple' configuration keeps words unstemmed, which is what prefix
+-- matching of partial brand and product names needs.
+-- Trigram index for the typo fallback, on the text searched by word similarity.
+-- ===========================================
+ALTER TABLE products
+    ADD COLUMN search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', COALESCE(name, '')), 'A') ||
+        setweight(to_tsvector('simple', COALESCE(brand, '')), 'B') ||
+        setweight(to_tsvector('simple', COALESCE(category, '')), 'C') ||
+        setweight(to_tsvector('simple', COALESCE(hsn, '')), 'D')
+    ) STORED;
+
+CREATE INDEX idx_products_search_vector ON products USING gin (search_vector);
+CREATE INDEX idx_products_search_trgm ON products
+    USING gin (LOWER(name || ' ' || brand || ' ' || category) gin_trgm_ops);
+
+-- Replaced by idx_products_search_vector
+DROP INDEX IF EXISTS idx_products_search;
@@ -0,0 +1,185 @@
+-- ===========================================
+-- V13: Sales Partitioning
+-- sales and sale_items are range-partitioned by sold_at into monthly
+-- partitions (sales_pYYYYMM / sale_items_pYYYYMM, bounds in UTC), so queries
+-- bounded by date only touch the months they cover. sale_items carries the
+-- sold_at of its sale as partition key and references sales by (id, sold_at).
+-- A default partition catches sales outside the created months;
+-- create_sales_partitions() (R__functions) keeps months ahead created.
+--
+-- Old months move to the sales_archive schema (archive_sales_partitions()):
+-- they leave the hot tables, and reports read them through v_all_sales and
+-- v_all_sale_items (R__views).
+--
+-- Unique constraints of a partitioned table must include the partition key,
+-- so bill numbers are unique per (bill_no, sold_at); generate_bill_number()
+-- still hands out every number once.
+-- ===========================================
+
+-- Recreated by R__views
+DROP VIEW IF EXISTS v_sales_with_details;
+DROP VIEW IF EXISTS v_daily_sales_summary;
+
+-- Move the old tables (with their indexes, constraints, triggers and identity
+-- sequences) out of the way, so the partitioned tables keep the same names
+CREATE SCHEMA sales_migration;
+ALTER TABLE sales SET SCHEMA sales_migration;
+ALTER TABLE sale_items SET SCHEMA sales_migration;
+
+-- ===========================================
+-- Sales table (partitioned)
+-- Identity columns are not supported on partitioned tables before
+-- PostgreSQL 17, so ids come from sequences.
+-- ===========================================
+CREATE SEQUENCE sales_id_seq;
+
+CREATE TABLE sales (
+    id                  BIGINT NOT NULL DEFAULT nextval('sales_id_seq'),
+    bill_no             VARCHAR(20) NOT NULL,
+    sold_at             TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    customer_name       VARCHAR(100),
+    customer_phone      VARCHAR(20),
+    payment_mode        VARCHAR(20) NOT NULL DEFAULT 'CASH',
+    subtotal            DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    discount_percent    DECIMAL(5, 2) NOT NULL DEFAULT 0,
+    discount_amount     DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    tax_percent         DECIMAL(5, 2) NOT NULL DEFAULT 0,
+    tax_amount          DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    total               DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    profit              DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    status              VARCHAR(20) NOT NULL DEFAULT 'COMPLETED',
+    voided_at           TIMESTAMP WITH TIME ZONE,
+    voided_by           BIGINT REFERENCES users(id),
+    void_reason         TEXT,
+    created_by          BIGINT NOT NULL REFERENCES users(id),
+    created_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (id, sold_at),
+    CONSTRAINT sales_bill_no_unique UNIQUE (bill_no, sold_at),
+    CONSTRAINT sales_payment_mode_check CHECK (payment_mode IN ('CASH', 'CARD', 'UPI', 'CREDIT')),
+    CONSTRAINT sales_status_check CHECK (status IN ('COMPLETED', 'VOIDED')),
+    CONSTRAINT sales_subtotal_positive CHECK (subtotal >= 0),
+    CONSTRAINT sales_discount_percent_range CHECK (discount_percent >= 0 AND discount_percent <= 100),
+    CONSTRAINT sales_discount_amount_positive CHECK (discount_amount >= 0),
+    CONSTRAINT sales_tax_percent_range CHECK (tax_percent >= 0 AND tax_percent <= 100),
+    CONSTRAINT sales_tax_amount_positive CHECK (tax_amount >= 0),
+    CONSTRAINT sales_total_positive CHECK (total >= 0)
+) PARTITION BY RANGE (sold_at);
+
+ALTER SEQUENCE sales_id_seq OWNED BY sales.id;
+
+-- ===========================================
+-- Sale Items table (partitioned like its sales)
+-- ===========================================
+CREATE SEQUENCE sale_items_id_seq;
+
+CREATE TABLE sale_items (
+    id                  BIGINT NOT NULL DEFAULT nextval('sale_items_id_seq'),
+    sale_id             BIGINT NOT NULL,
+    sold_at             TIMESTAMP WITH TIME ZONE NOT NULL,
+    variant_id          BIGINT NOT NULL REFERENCES variants(id) ON DELETE RESTRICT,
+    qty                 INTEGER NOT NULL,
+    unit_price          DECIMAL(12, 2) NOT NULL,
+    unit_cost_at_sale   DECIMAL(12, 2) NOT NULL,
+    item_discount_percent DECIMAL(5, 2) NOT NULL DEFAULT 0,
+    created_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (id, sold_at),
+    CONSTRAINT sale_items_sale_fkey FOREIGN KEY (sale_id, sold_at)
+        REFERENCES sales(id, sold_at) ON DELETE CASCADE,
+    CONSTRAINT sale_items_qty_positive CHECK (qty > 0),
+    CONSTRAINT sale_items_unit_price_positive CHECK (unit_price >= 0),
+    CONSTRAINT sale_items_unit_cost_positive CHECK (unit_cost_at_sale >= 0),
+    CONSTRAINT sale_items_discount_range CHECK (item_discount_percent >= 0 AND item_discount_percent <= 100)
+) PARTITION BY RANGE (sold_at);
+
+ALTER SEQUENCE sale_items_id_seq OWNED BY sale_items.id;
+
+-- ===========================================
+-- Monthly partitions covering the existing sales and the next three months
+-- (later months are created by create_sales_partitions)
+-- ===========================================
+DO $$
+DECLARE
+    v_month DATE;
+    v_last DATE := (DATE_TRUNC('month', CURRENT_DATE) + INTERVAL '3 months')::DATE;
+    v_from TIMESTAMP WITH TIME ZONE;
+    v_to TIMESTAMP WITH TIME ZONE;
+BEGIN
+    v_month := COALESCE(
+        (SELECT DATE_TRUNC('month', MIN(sold_at) AT TIME ZONE 'UTC')::DATE FROM sales_migration.sales),
+        DATE_TRUNC('month', CURRENT_DATE)::DATE);
+
+    WHILE v_month <= v_last LOOP
+        v_from := v_month::TIMESTAMP AT TIME ZONE 'UTC';
+        v_to := (v_month + INTERVAL '1 month')::TIMESTAMP AT TIME ZONE 'UTC';
+        EXECUTE format('CREATE TABLE %I PARTITION OF sales FOR VALUES FROM (%L) TO (%L)',
+                       'sales_p' || to_char(v_month, 'YYYYMM'), v_from, v_to);
+        EXECUTE format('CREATE TABLE %I PARTITION OF sale_items FOR VALUES FROM (%L) TO (%L)',
+                       'sale_items_p' || to_char(v_month, 'YYYYMM'), v_from, v_to);
+        v_month := (v_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+CREATE TABLE sales_default PARTITION OF sales DEFAULT;
+CREATE TABLE sale_items_default PARTITION OF sale_items DEFAULT;
+
+-- ===========================================
+-- Copy the data (no triggers exist on the new tables yet, so stock, ledger
+-- and stats are not applied twice)
+-- ===========================================
+INSERT INTO sales (id, bill_no, sold_at, customer_name, customer_phone, payment_mode,
+                   subtotal, discount_percent, discount_amount, tax_percent, tax_amount,
+                   total, profit, status, voided_at, voided_by, void_reason,
+                   created_by, created_at, updated_at)
+SELECT id, bill_no, sold_at, customer_name, customer_phone, payment_mode,
+       subtotal, discount_percent, discount_amount, tax_percent, tax_amount,
+       total, profit, status, voided_at, voided_by, void_reason,
+       created_by, created_at, updated_at
+FROM sales_migration.sales;
+
+INSERT INTO sale_items (id, sale_id, sold_at, variant_id, qty, unit_price, unit_cost_at_sale,
+                        item_discount_percent, created_at)
+SELECT si.id, si.sale_id, s.sold_at, si.variant_id, si.qty, si.unit_price, si.unit_cost_at_sale,
+       si.item_discount_percent, si.created_at
+FROM sales_migration.sale_items si
+JOIN sales_migration.sales s ON s.id = si.sale_id;
+
+SELECT setval('sales_id_seq', COALESCE((SELECT MAX(id) FROM sales), 0) + 1, false);
+SELECT setval('sale_items_id_seq', COALESCE((SELECT MAX(id) FROM sale_items), 0) + 1, false);
+
+DROP SCHEMA sales_migration CASCADE;
+
+-- ===========================================
+-- Indexes (created on every partition)
+-- ===========================================
+CREATE INDEX idx_sales_sold_at ON sales(sold_at);
+CREATE INDEX idx_sales_customer_phone ON sales(customer_phone);
+CREATE INDEX idx_sales_payment_mode ON sales(payment_mode);
+CREATE INDEX idx_sales_status ON sales(status);
+CREATE INDEX idx_sales_created_by ON sales(created_by);
+CREATE INDEX idx_sales_created_at ON sales(created_at);
+CREATE INDEX idx_sales_sold_at_status ON sales(sold_at, status);
+CREATE INDEX idx_sales_bill_no_lower ON sales(LOWER(bill_no));
+CREATE INDEX idx_sales_bill_no_trgm ON sales USING gin (LOWER(bill_no) gin_trgm_ops);
+CREATE INDEX idx_sales_customer_name_trgm ON sales USING gin (LOWER(customer_name) gin_trgm_ops);
+CREATE INDEX idx_sales_customer_phone_trgm ON sales USING gin (customer_phone gin_trgm_ops);
+
+CREATE INDEX idx_sale_items_sale_id ON sale_items(sale_id);
+CREATE INDEX idx_sale_items_variant_id ON sale_items(variant_id);
+
+-- ===========================================
+-- Archive: months moved out of the hot tables. Same columns; only the
+-- indexes reports need, and no foreign key to the hot sales.
+-- ===========================================
+CREATE SCHEMA sales_archive;
+
+CREATE TABLE sales_archive.sales (LIKE sales INCLUDING CONSTRAINTS) PARTITION BY RANGE (sold_at);
+ALTER TABLE sales_archive.sales ADD PRIMARY KEY (id, sold_at);
+CREATE INDEX idx_archived_sales_sold_at ON sales_archive.sales(sold_at);
+
+CREATE TABLE sales_archive.sale_items (LIKE sale_items INCLUDING CONSTRAINTS) PARTITION BY RANGE (sold_at);
+ALTER TABLE sales_archive.sale_items ADD PRIMARY KEY (id, sold_at);
+CREATE INDEX idx_archived_sale_items_sale_id ON sales_archive.sale_items(sale_id);
+CREATE INDEX idx_archived_sale_items_variant_id ON sales_archive.sale_items(variant_id);
@@ -0,0 +1,22 @@
+-- ===========================================
+-- V14: Inventory Valuation Deltas
+-- Stock and catalog triggers append their per-(category, brand) deltas here
+-- instead of updating the shared inventory_valuation rows, so concurrent
+-- checkouts in one group no longer queue (or deadlock) on its totals row.
+-- fold_inventory_valuation_deltas() (R__functions.sql) moves them into
+-- inventory_valuation periodically; v_inventory_valuation adds the pending
+-- ones at read time.
+-- ===========================================
+CREATE TABLE inventory_valuation_deltas (
+    id              BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    category        VARCHAR(100) NOT NULL,
+    brand           VARCHAR(100) NOT NULL,
+    sku_count       INTEGER NOT NULL,
+    item_count      BIGINT NOT NULL,
+    cost_value      DECIMAL(16, 2) NOT NULL,
+    retail_value    DECIMAL(16, 2) NOT NULL,
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+) WITH (
+    -- Append and delete only: vacuum early so folded rows' space is reused
+    autovacuum_vacuum_scale_factor = 0.05
+);
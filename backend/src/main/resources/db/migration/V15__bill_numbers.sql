@@ -0,0 +1,23 @@
+-- ===========================================
+-- V15: Bill Number Registry
+-- The partitioned sales table can only enforce UNIQUE (bill_no, sold_at)
+-- (V13). bill_numbers keeps one small row per sale, hot or archived, and
+-- restores global bill number uniqueness. It also maps a sale id or bill
+-- number to the sale's sold_at, so lookups read only that sale's month.
+-- Rows are written by a trigger on sales (R__functions).
+-- ===========================================
+CREATE TABLE bill_numbers (
+    bill_no             VARCHAR(20) PRIMARY KEY,
+    sale_id             BIGINT NOT NULL,
+    sold_at             TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    CONSTRAINT bill_numbers_sale_id_unique UNIQUE (sale_id)
+);
+
+-- Exact bill number search, case-insensitive
+CREATE INDEX idx_bill_numbers_bill_no_lower ON bill_numbers(LOWER(bill_no));
+
+INSERT INTO bill_numbers (bill_no, sale_id, sold_at)
+SELECT bill_no, id, sold_at FROM sales
+UNION ALL
+SELECT bill_no, id, sold_at FROM sales_archive.sales;
@@ -0,0 +1,77 @@
+-- ===========================================
+-- V2: Variant Stats
+-- Per-variant sales velocity and last purchase, maintained by triggers
+-- (see R__functions.sql) and a nightly refresh of the rolling windows.
+-- ===========================================
+CREATE TABLE variant_stats (
+    variant_id          BIGINT PRIMARY KEY REFERENCES variants(id) ON DELETE CASCADE,
+    last_sold_at        TIMESTAMP WITH TIME ZONE,
+    first_sold_at       TIMESTAMP WITH TIME ZONE,
+    qty_7d              INTEGER NOT NULL DEFAULT 0,
+    qty_30d             INTEGER NOT NULL DEFAULT 0,
+    qty_90d             INTEGER NOT NULL DEFAULT 0,
+    qty_180d            INTEGER NOT NULL DEFAULT 0,
+    avg_monthly_sales   DECIMAL(14, 4) NOT NULL DEFAULT 0,
+    last_purchase_price DECIMAL(12, 2),
+    last_supplier_id    BIGINT REFERENCES suppliers(id) ON DELETE SET NULL,
+    last_purchased_at   TIMESTAMP WITH TIME ZONE,
+    windows_refreshed_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON COLUMN variant_stats.first_sold_at IS 'Earliest completed sale within the 180-day window, used for avg_monthly_sales';
+
+CREATE INDEX idx_variant_stats_last_sold_at ON variant_stats(last_sold_at);
+CREATE INDEX idx_variant_stats_last_supplier_id ON variant_stats(last_supplier_id);
+
+-- ===========================================
+-- Backfill from existing sales and purchases
+-- ===========================================
+INSERT INTO variant_stats (variant_id, last_sold_at, first_sold_at, qty_7d, qty_30d, qty_90d, qty_180d,
+                           last_purchase_price, last_supplier_id, last_purchased_at)
+SELECT
+    v.id,
+    sold.last_sold_at,
+    recent.first_sold_at,
+    COALESCE(recent.qty_7d, 0),
+    COALESCE(recent.qty_30d, 0),
+    COALESCE(recent.qty_90d, 0),
+    COALESCE(recent.qty_180d, 0),
+    lp.unit_cost,
+    lp.supplier_id,
+    lp.purchased_at
+FROM variants v
+LEFT JOIN (
+    SELECT si.variant_id, MAX(s.sold_at) AS last_sold_at
+    FROM sale_items si
+    JOIN sales s ON si.sale_id = s.id
+    WHERE s.status = 'COMPLETED'
+    GROUP BY si.variant_id
+) sold ON sold.variant_id = v.id
+LEFT JOIN (
+    SELECT
+        si.variant_id,
+        MIN(s.sold_at) AS first_sold_at,
+        SUM(si.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '7 days') AS qty_7d,
+        SUM(si.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '30 days') AS qty_30d,
+        SUM(si.qty) FILTER (WHERE s.sold_at >= NOW() - INTERVAL '90 days') AS qty_90d,
+        SUM(si.qty) AS qty_180d
+    FROM sale_items si
+    JOIN sales s ON si.sale_id = s.id
+    WHERE s.status = 'COMPLETED'
+      AND s.sold_at >= NOW() - INTERVAL '180 days'
+    GROUP BY si.variant_id
+) recent ON recent.variant_id = v.id
+LEFT JOIN (
+    SELECT DISTINCT ON (pi.variant_id)
+        pi.variant_id, pi.unit_cost, p.supplier_id, p.purchased_at
+    FROM purchase_items pi
+    JOIN purchases p ON pi.purchase_id = p.id
+    WHERE p.status = 'ACTIVE'
+    ORDER BY pi.variant_id, p.purchased_at DESC, pi.id DESC
+) lp ON lp.variant_id = v.id;
+
+UPDATE variant_stats
+SET avg_monthly_sales = qty_180d::numeric
+    / GREATEST(1, EXTRACT(MONTH FROM AGE(NOW(), first_sold_at))::numeric)
+WHERE first_sold_at IS NOT NULL;
@@ -0,0 +1,24 @@
+-- ===========================================
+-- V3: Low Stock Variants
+-- Membership of active variants at or below the low stock threshold,
+-- maintained by triggers on variants and settings (see R__functions.sql)
+-- instead of comparing every variant against the threshold at query time.
+-- ===========================================
+CREATE TABLE low_stock_variants (
+    variant_id  BIGINT PRIMARY KEY REFERENCES variants(id) ON DELETE CASCADE,
+    stock_qty   INTEGER NOT NULL,
+    updated_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_low_stock_variants_stock_qty ON low_stock_variants(stock_qty, variant_id);
+
+-- ===========================================
+-- Backfill from current stock (empty until the settings row exists;
+-- the settings trigger rebuilds the set when it is first inserted)
+-- ===========================================
+INSERT INTO low_stock_variants (variant_id, stock_qty)
+SELECT v.id, v.stock_qty
+FROM variants v
+CROSS JOIN settings s
+WHERE v.status = 'ACTIVE'
+  AND v.stock_qty <= s.low_stock_threshold;
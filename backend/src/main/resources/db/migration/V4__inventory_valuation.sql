@@ -0,0 +1,35 @@
+-- ===========================================
+-- V4: Inventory Valuation
+-- Running totals of active variants per (category, brand), updated by delta
+-- from triggers on variants and products (see R__functions.sql) and checked
+-- by a scheduled verify-and-repair job.
+-- ===========================================
+CREATE TABLE inventory_valuation (
+    category        VARCHAR(100) NOT NULL,
+    brand           VARCHAR(100) NOT NULL,
+    sku_count       INTEGER NOT NULL DEFAULT 0,
+    item_count      BIGINT NOT NULL DEFAULT 0,
+    cost_value      DECIMAL(16, 2) NOT NULL DEFAULT 0,
+    retail_value    DECIMAL(16, 2) NOT NULL DEFAULT 0,
+    updated_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (category, brand)
+);
+
+CREATE INDEX idx_inventory_valuation_brand ON inventory_valuation(brand);
+
+-- ===========================================
+-- Backfill from current variants
+-- ===========================================
+INSERT INTO inventory_valuation (category, brand, sku_count, item_count, cost_value, retail_value)
+SELECT
+    p.category,
+    p.brand,
+    COUNT(*),
+    COALESCE(SUM(v.stock_qty), 0),
+    COALESCE(SUM(v.stock_qty * v.avg_cost), 0),
+    COALESCE(SUM(v.stock_qty * v.selling_price), 0)
+FROM variants v
+JOIN products p ON v.product_id = p.id
+WHERE v.status = 'ACTIVE'
+GROUP BY p.category, p.brand;
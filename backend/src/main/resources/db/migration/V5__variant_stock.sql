@@ -0,0 +1,44 @@
+-- ===========================================
+-- V5: Variant Stock
+-- Moves the per-sale counters (stock_qty, avg_cost) out of the variants catalog
+-- row into a narrow table with only its primary key indexed, so stock updates
+-- can be HOT and no longer rewrite every variants index or fire its
+-- updated_at trigger.
+-- ===========================================
+CREATE TABLE variant_stock (
+    variant_id  BIGINT PRIMARY KEY REFERENCES variants(id) ON DELETE CASCADE,
+    stock_qty   INTEGER NOT NULL DEFAULT 0,
+    avg_cost    DECIMAL(12, 2) NOT NULL DEFAULT 0,
+    updated_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT variant_stock_qty_non_negative CHECK (stock_qty >= 0),
+    CONSTRAINT variant_stock_avg_cost_positive CHECK (avg_cost >= 0)
+) WITH (
+    -- Leave room on each page for the new row version of a HOT update
+    fillfactor = 70,
+    -- Small, update-heavy table: vacuum early so pruned space is reused
+    autovacuum_vacuum_scale_factor = 0.05,
+    autovacuum_analyze_scale_factor = 0.05
+);
+
+INSERT INTO variant_stock (variant_id, stock_qty, avg_cost, updated_at)
+SELECT id, stock_qty, avg_cost, updated_at
+FROM variants;
+
+-- ===========================================
+-- Drop objects that depend on the moved columns; R__views.sql and
+-- R__functions.sql recreate them against variant_stock
+-- ===========================================
+DROP VIEW IF EXISTS v_low_stock_variants;
+DROP VIEW IF EXISTS v_variants_with_products;
+
+DROP TRIGGER IF EXISTS low_stock_variant_insert ON variants;
+DROP TRIGGER IF EXISTS low_stock_variant_update ON variants;
+DROP TRIGGER IF EXISTS inventory_valuation_variants_insert ON variants;
+DROP TRIGGER IF EXISTS inventory_valuation_variants_update ON variants;
+DROP TRIGGER IF EXISTS inventory_valuation_variants_delete ON variants;
+
+-- Also drops idx_variants_stock_qty, idx_variants_low_stock and the stock/cost checks
+ALTER TABLE variants
+    DROP COLUMN stock_qty,
+    DROP COLUMN avg_cost;
@@ -0,0 +1,27 @@
+-- ===========================================
+-- V6: Variant Stock Stripes
+-- Opt-in "hot SKU" stock mode. A striped variant's stock is split across
+-- stripe_count rows so concurrent checkouts decrement different rows instead
+-- of queueing on one lock. variant_stock.stock_qty then holds only the
+-- unstriped remainder (purchases, voids and positive adjustments land there);
+-- total stock is variant_stock.stock_qty plus the stripes (v_variant_stock).
+-- ===========================================
+ALTER TABLE variant_stock
+    ADD COLUMN stripe_count SMALLINT NOT NULL DEFAULT 0,
+    ADD CONSTRAINT variant_stock_stripe_count_range CHECK (stripe_count >= 0 AND stripe_count <= 64);
+
+COMMENT ON COLUMN variant_stock.stock_qty IS 'Unstriped stock; striped variants also hold stock in variant_stock_stripes';
+COMMENT ON COLUMN variant_stock.stripe_count IS '0 = regular stock row, N > 0 = stock split across N stripes';
+
+CREATE TABLE variant_stock_stripes (
+    variant_id  BIGINT NOT NULL REFERENCES variant_stock(variant_id) ON DELETE CASCADE,
+    stripe_no   SMALLINT NOT NULL,
+    stock_qty   INTEGER NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (variant_id, stripe_no),
+    CONSTRAINT variant_stock_stripes_qty_non_negative CHECK (stock_qty >= 0)
+) WITH (
+    -- Every checkout of a hot SKU updates one of these rows; keep HOT space free
+    fillfactor = 50,
+    autovacuum_vacuum_scale_factor = 0.01
+);
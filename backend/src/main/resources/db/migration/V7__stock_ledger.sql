@@ -0,0 +1,103 @@
+-- ===========================================
+-- V7: Stock Ledger
+-- Append-only record of every stock movement, written by triggers in the
+-- same transaction as the stock change (see R__functions.sql). Replaces the
+-- v_stock_movements UNION view: history and point-in-time stock for a variant
+-- are range scans of idx_stock_ledger_variant_date.
+-- ===========================================
+CREATE TABLE stock_ledger (
+    id              BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    variant_id      BIGINT NOT NULL REFERENCES variants(id) ON DELETE CASCADE,
+    movement_type   VARCHAR(20) NOT NULL,
+    movement_date   TIMESTAMP WITH TIME ZONE NOT NULL,
+    delta_qty       INTEGER NOT NULL,
+    -- Variant stock after this entry, in entry order; NULL for entries recorded
+    -- while the variant was striped (checkouts there are not serialized)
+    balance_after   INTEGER,
+    reference_id    BIGINT,
+    reference_no    VARCHAR(50),
+    supplier_id     BIGINT REFERENCES suppliers(id),
+    unit_cost       DECIMAL(12, 2),
+    notes           TEXT,
+    created_by      BIGINT REFERENCES users(id),
+    created_at      TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT stock_ledger_movement_type_check CHECK (movement_type IN
+        ('OPENING', 'PURCHASE', 'PURCHASE_EDIT', 'SALE', 'VOID_RESTORE', 'ADJUSTMENT'))
+);
+
+-- Movement history (keyset on movement_date, id) and stock as of a date (index-only sum)
+CREATE INDEX idx_stock_ledger_variant_date ON stock_ledger(variant_id, movement_date, id) INCLUDE (delta_qty);
+-- Latest entry of a variant, for the running balance
+CREATE INDEX idx_stock_ledger_variant_id ON stock_ledger(variant_id, id);
+
+-- ===========================================
+-- Backfill from purchase, sale and adjustment history.
+-- Purchase edits were not recorded, so items count at their current qty; any
+-- difference to current stock becomes an OPENING entry before the first movement.
+-- ===========================================
+WITH history AS (
+    SELECT pi.variant_id, 'PURCHASE' AS movement_type, p.purchased_at AS movement_date, pi.qty AS delta_qty,
+           p.id AS reference_id, p.invoice_no AS reference_no, p.supplier_id, pi.unit_cost,
+           NULL::TEXT AS notes, p.created_by, pi.created_at
+    FROM purchase_items pi
+    JOIN purchases p ON pi.purchase_id = p.id
+
+    UNION ALL
+
+    SELECT si.variant_id, 'SALE', s.sold_at, -si.qty,
+           s.id, s.bill_no, NULL, si.unit_cost_at_sale,
+           NULL, s.created_by, si.created_at
+    FROM sale_items si
+    JOIN sales s ON si.sale_id = s.id
+
+    UNION ALL
+
+    SELECT si.variant_id, 'VOID_RESTORE', COALESCE(s.voided_at, s.updated_at), si.qty,
+           s.id, s.bill_no, NULL, si.unit_cost_at_sale,
+           s.void_reason, COALESCE(s.voided_by, s.created_by), COALESCE(s.voided_at, s.updated_at)
+    FROM sale_items si
+    JOIN sales s ON si.sale_id = s.id
+    WHERE s.status = 'VOIDED'
+
+    UNION ALL
+
+    SELECT sa.variant_id, 'ADJUSTMENT', sa.created_at, sa.delta_qty,
+           sa.id, NULL, NULL, NULL,
+           sa.reason || COALESCE(': ' || sa.notes, ''), sa.created_by, sa.created_at
+    FROM stock_adjustments sa
+),
+opening AS (
+    SELECT vs.variant_id, 'OPENING' AS movement_type,
+           LEAST(v.created_at, MIN(h.movement_date)) AS movement_date,
+           vs.stock_qty + COALESCE((SELECT SUM(s.stock_qty) FROM variant_stock_stripes s
+                                    WHERE s.variant_id = vs.variant_id), 0)
+               - COALESCE(SUM(h.delta_qty), 0) AS delta_qty
+    FROM variant_stock vs
+    JOIN variants v ON v.id = vs.variant_id
+    LEFT JOIN history h ON h.variant_id = vs.variant_id
+    GROUP BY vs.variant_id, vs.stock_qty, v.created_at
+),
+entries AS (
+    SELECT variant_id, movement_type, movement_date, delta_qty,
+           NULL::BIGINT AS reference_id, NULL::VARCHAR AS reference_no, NULL::BIGINT AS supplier_id,
+           NULL::DECIMAL(12, 2) AS unit_cost, 'Balance before ledger' AS notes, NULL::BIGINT AS created_by,
+           movement_date AS created_at, 0 AS seq
+    FROM opening
+    WHERE delta_qty <> 0
+
+    UNION ALL
+
+    SELECT variant_id, movement_type, movement_date, delta_qty,
+           reference_id, reference_no, supplier_id, unit_cost, notes, created_by, created_at, 1
+    FROM history
+)
+INSERT INTO stock_ledger (variant_id, movement_type, movement_date, delta_qty, balance_after,
+                          reference_id, reference_no, supplier_id, unit_cost, notes, created_by, created_at)
+SELECT variant_id, movement_type, movement_date, delta_qty,
+       SUM(delta_qty) OVER (PARTITION BY variant_id
+                            ORDER BY movement_date, seq, created_at, reference_id
+                            ROWS UNBOUNDED PRECEDING),
+       reference_id, reference_no, supplier_id, unit_cost, notes, created_by, created_at
+FROM entries
+ORDER BY variant_id, movement_date, seq, created_at, reference_id;
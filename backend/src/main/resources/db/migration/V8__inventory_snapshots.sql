@@ -0,0 +1,29 @@
+-- ===========================================
+-- V8: Inventory Snapshots
+-- Stock and avg_cost per variant at the end of a day (UTC), taken by a
+-- scheduled job. Only variants with stock are stored; values are derived.
+-- Valuation as of any date starts from the nearest earlier snapshot and
+-- applies the stock_ledger movements since then.
+-- ===========================================
+CREATE TABLE inventory_snapshots (
+    snapshot_date   DATE PRIMARY KEY,
+    as_of           TIMESTAMP WITH TIME ZONE NOT NULL,
+    variant_count   INTEGER NOT NULL DEFAULT 0,
+    taken_at        TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT inventory_snapshots_as_of_unique UNIQUE (as_of)
+);
+
+CREATE TABLE inventory_snapshot_items (
+    snapshot_date   DATE NOT NULL REFERENCES inventory_snapshots(snapshot_date) ON DELETE CASCADE,
+    variant_id      BIGINT NOT NULL REFERENCES variants(id) ON DELETE CASCADE,
+    stock_qty       INTEGER NOT NULL,
+    avg_cost        DECIMAL(12, 2) NOT NULL,
+
+    PRIMARY KEY (snapshot_date, variant_id)
+);
+
+CREATE INDEX idx_inventory_snapshot_items_variant_id ON inventory_snapshot_items(variant_id);
+
+-- Movements of all variants in a date range (snapshot to as-of date)
+CREATE INDEX idx_stock_ledger_movement_date ON stock_ledger(movement_date) INCLUDE (variant_id, delta_qty);
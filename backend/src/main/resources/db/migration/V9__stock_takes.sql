@@ -0,0 +1,30 @@
+-- ===========================================
+-- V9: Stock Takes
+-- A physical count session. Scans are tallied in memory by the application;
+-- on apply the counts are diffed against system stock in one statement and
+-- the differences are written as CORRECTION adjustments linked to the session.
+-- ===========================================
+CREATE TABLE stock_takes (
+    id                  BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+    status              VARCHAR(20) NOT NULL DEFAULT 'OPEN',
+    -- Scope of the count: variants in scope that were not scanned are counted as zero
+    category            VARCHAR(100),
+    brand               VARCHAR(100),
+    notes               TEXT,
+    scanned_barcodes    INTEGER,
+    adjusted_variants   INTEGER,
+    net_delta_qty       INTEGER,
+    created_by          BIGINT NOT NULL REFERENCES users(id),
+    created_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    closed_by           BIGINT REFERENCES users(id),
+    closed_at           TIMESTAMP WITH TIME ZONE,
+
+    CONSTRAINT stock_takes_status_check CHECK (status IN ('OPEN', 'APPLIED', 'CANCELLED'))
+);
+
+CREATE INDEX idx_stock_takes_created_at ON stock_takes(created_at DESC);
+
+ALTER TABLE stock_adjustments
+    ADD COLUMN stock_take_id BIGINT REFERENCES stock_takes(id);
+
+CREATE INDEX idx_stock_adjustments_stock_take_id ON stock_adjustments(stock_take_id) WHERE stock_take_id IS NOT NULL;
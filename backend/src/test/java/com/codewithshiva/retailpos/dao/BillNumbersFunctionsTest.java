@@ -0,0 +1,55 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.jdbi.v3.core.statement.UnableToExecuteStatementException;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the bill_numbers registry (V15__bill_numbers) filled by register_bill_numbers().
+ */
+class BillNumbersFunctionsTest extends DatabaseTestSupport {
+
+    @Test
+    void newSaleIsRegisteredWithItsSoldAt() {
+        OffsetDateTime soldAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        long saleId = createSale(soldAt);
+
+        OffsetDateTime registered = jdbi.withHandle(h -> h.createQuery(
+                        "SELECT sold_at FROM bill_numbers WHERE sale_id = :id")
+                .bind("id", saleId)
+                .mapTo(OffsetDateTime.class).one());
+
+        assertEquals(soldAt.toInstant(), registered.toInstant());
+    }
+
+    @Test
+    void billNumberIsUniqueAcrossMonths() {
+        String billNo = "DUP" + next();
+        OffsetDateTime now = OffsetDateTime.now();
+        insertSale(billNo, now);
+
+        // (bill_no, sold_at) differs, so only the registry catches the reuse
+        assertThrows(UnableToExecuteStatementException.class, () -> insertSale(billNo, now.minusMonths(2)));
+
+        int sales = jdbi.withHandle(h -> h.createQuery("SELECT COUNT(*) FROM sales WHERE bill_no = :billNo")
+                .bind("billNo", billNo)
+                .mapTo(Integer.class).one());
+        assertEquals(1, sales);
+    }
+
+    private static void insertSale(String billNo, OffsetDateTime soldAt) {
+        jdbi.useHandle(h -> h.createUpdate("""
+                        INSERT INTO sales (bill_no, sold_at, created_by)
+                        VALUES (:billNo, :soldAt, :userId)
+                        """)
+                .bind("billNo", billNo)
+                .bind("soldAt", soldAt)
+                .bind("userId", userId)
+                .execute());
+    }
+}
@@ -0,0 +1,227 @@
+package com.codewithshiva.retailpos.dao;
+
+import com.codewithshiva.retailpos.dto.product.CatalogImportResponse;
+import com.codewithshiva.retailpos.model.CatalogImportError;
+import com.codewithshiva.retailpos.service.CatalogImportService;
+import com.codewithshiva.retailpos.service.LookupService;
+import com.codewithshiva.retailpos.service.PriceSnapshotService;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.postgres.PostgresPlugin;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.TransactionAwareDataSourceProxy;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests for the catalog import statements, run through CatalogImportService in a Spring
+ * transaction like the application (the temp staging table lives until commit).
+ */
+class CatalogImportTest extends DatabaseTestSupport {
+
+    private static final String HEADER = "name,brand,category,hsn,sku,barcode,selling_price,avg_cost\n";
+
+    private CatalogImportService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        Jdbi appJdbi = Jdbi.create(new TransactionAwareDataSourceProxy(dataSource));
+        appJdbi.installPlugin(new SqlObjectPlugin());
+        appJdbi.installPlugin(new PostgresPlugin());
+
+        ProxyFactory proxyFactory = new ProxyFactory(new CatalogImportService(appJdbi.onDemand(CatalogImportDao.class),
+                mock(LookupService.class), mock(PriceSnapshotService.class)));
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(new DataSourceTransactionManager(dataSource),
+                new AnnotationTransactionAttributeSource()));
+        service = (CatalogImportService) proxyFactory.getProxy();
+    }
+
+    @Test
+    void invalidRowsAreReportedAndValidRowsImported() {
+        int n = next();
+        long existing = createVariant(100);
+        String existingBarcode = "BC-" + existing;
+        jdbi.useHandle(h -> h.execute("UPDATE variants SET barcode = ? WHERE id = ?", existingBarcode, existing));
+
+        CatalogImportResponse response = importCsv(false,
+                row("Shirt " + n, "SKU-A" + n, null, "100.00", null),
+                row(null, "SKU-B" + n, null, "100.00", null),
+                row("Shirt " + n, "SKU-C" + n, null, "1O0", null),
+                row("Shirt " + n, "SKU-A" + n, null, "120.00", null),
+                row("Shirt " + n, "SKU-D" + n, existingBarcode, "100.00", null));
+
+        assertEquals(5, response.getTotalRows());
+        assertEquals(1, response.getImportedRows());
+        assertEquals(4, response.getRejectedRows());
+        assertEquals(List.of(
+                        "2: Product name is required",
+                        "3: Selling price must be a non-negative amount",
+                        "4: Duplicate SKU in file (first on row 1)",
+                        "5: Barcode already exists: " + existingBarcode),
+                response.getErrors().stream().map(CatalogImportTest::describe).toList());
+        assertEquals(1, response.getVariantsCreated());
+        assertEquals(1, countVariants("SKU-A" + n));
+        assertEquals(0, countVariants("SKU-D" + n));
+    }
+
+    @Test
+    void existingProductsAndSkusAreUpdated() {
+        int n = next();
+        importCsv(false, row("Shirt " + n, "SKU-A" + n, null, "100.00", "60.00"));
+
+        CatalogImportResponse response = importCsv(false,
+                row("Shirt " + n, "SKU-A" + n, "BC-A" + n, "110.00", "70.00", "Tops"),
+                row("Shirt " + n, "SKU-B" + n, null, "90.00", null, "Tops"));
+
+        assertEquals(0, response.getRejectedRows());
+        assertEquals(0, response.getProductsCreated());
+        assertEquals(1, response.getProductsUpdated());
+        assertEquals(1, response.getVariantsCreated());
+        assertEquals(1, response.getVariantsUpdated());
+        assertEquals("Tops", jdbi.withHandle(h -> h.createQuery(
+                        "SELECT category FROM products WHERE name = :name AND brand = 'Brand'")
+                .bind("name", "Shirt " + n)
+                .mapTo(String.class).one()));
+        assertEquals(new BigDecimal("110.00"), sellingPrice("SKU-A" + n));
+        // avg_cost of an existing variant is left to purchases
+        assertEquals(new BigDecimal("60.00"), avgCost("SKU-A" + n));
+    }
+
+    @Test
+    void newVariantsGetTheirAverageCost() {
+        int n = next();
+
+        importCsv(false,
+                row("Shirt " + n, "SKU-A" + n, null, "100.00", "64.50"),
+                row("Shirt " + n, "SKU-B" + n, null, "100.00", null));
+
+        assertEquals(new BigDecimal("64.50"), avgCost("SKU-A" + n));
+        assertEquals(new BigDecimal("0.00"), avgCost("SKU-B" + n));
+    }
+
+    @Test
+    void dryRunValidatesWithoutWriting() {
+        int n = next();
+
+        CatalogImportResponse response = importCsv(true,
+                row("Shirt " + n, "SKU-A" + n, null, "100.00", null),
+                row(null, "SKU-B" + n, null, "100.00", null));
+
+        assertEquals(2, response.getTotalRows());
+        assertEquals(0, response.getImportedRows());
+        assertEquals(1, response.getRejectedRows());
+        assertEquals(0, countVariants("SKU-A" + n));
+        assertEquals(0, jdbi.withHandle(h -> h.createQuery("SELECT COUNT(*) FROM products WHERE name = :name")
+                .bind("name", "Shirt " + n)
+                .mapTo(Integer.class).one()));
+    }
+
+    @Test
+    void importWaitsForAVariantBeingCreated() throws Exception {
+        int n = next();
+        long productId = jdbi.withHandle(h -> h.createQuery("""
+                        INSERT INTO products (name, brand, category, hsn)
+                        VALUES (:name, 'Brand', 'Shirts', '6109')
+                        RETURNING id
+                        """)
+                .bind("name", "Shirt " + n)
+                .mapTo(Long.class).one());
+
+        CatalogImportResponse response;
+        try (Handle creating = jdbi.open()) {
+            // createVariant: shared catalog lock, then the insert, not yet committed
+            creating.begin();
+            creating.execute("SELECT pg_advisory_xact_lock_shared(hashtext('catalog'))");
+            creating.execute("""
+                    INSERT INTO variants (product_id, sku, barcode, selling_price)
+                    VALUES (?, ?, ?, 100)
+                    """, productId, "SKU-A" + n, "BC-A" + n);
+
+            CompletableFuture<CatalogImportResponse> importing = CompletableFuture.supplyAsync(() -> importCsv(false,
+                    row("Shirt " + n, "SKU-A" + n, null, "120.00", null),
+                    row("Shirt " + n, "SKU-B" + n, "BC-A" + n, "120.00", null)));
+            awaitLockWaiter();
+            assertFalse(importing.isDone());
+
+            creating.commit();
+            response = importing.get(30, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, response.getVariantsUpdated());
+        assertEquals(0, response.getVariantsCreated());
+        assertEquals(1, response.getRejectedRows());
+        assertEquals("2: Barcode already exists: BC-A" + n, describe(response.getErrors().get(0)));
+        assertEquals(new BigDecimal("120.00"), sellingPrice("SKU-A" + n));
+    }
+
+    private CatalogImportResponse importCsv(boolean dryRun, String... rows) {
+        return service.importCsv(new StringReader(HEADER + String.join("", rows)), dryRun, userId);
+    }
+
+    private static String row(String name, String sku, String barcode, String sellingPrice, String avgCost) {
+        return row(name, sku, barcode, sellingPrice, avgCost, "Shirts");
+    }
+
+    private static String row(String name, String sku, String barcode, String sellingPrice, String avgCost,
+                              String category) {
+        return String.join(",", name != null ? name : "", "Brand", category, "6109", sku,
+                barcode != null ? barcode : "", sellingPrice, avgCost != null ? avgCost : "") + "\n";
+    }
+
+    private static String describe(CatalogImportError error) {
+        return error.getRowNo() + ": " + error.getMessage();
+    }
+
+    private static void awaitLockWaiter() throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            boolean waiting = jdbi.withHandle(h -> h.createQuery(
+                            "SELECT EXISTS (SELECT 1 FROM pg_locks WHERE locktype = 'advisory' AND NOT granted)")
+                    .mapTo(Boolean.class).one());
+            if (waiting) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Import never waited for the catalog lock");
+    }
+
+    private static int countVariants(String sku) {
+        return jdbi.withHandle(h -> h.createQuery("SELECT COUNT(*) FROM variants WHERE sku = :sku")
+                .bind("sku", sku)
+                .mapTo(Integer.class).one());
+    }
+
+    private static BigDecimal sellingPrice(String sku) {
+        return jdbi.withHandle(h -> h.createQuery("SELECT selling_price FROM variants WHERE sku = :sku")
+                .bind("sku", sku)
+                .mapTo(BigDecimal.class).one());
+    }
+
+    private static BigDecimal avgCost(String sku) {
+        return jdbi.withHandle(h -> h.createQuery("""
+                        SELECT vs.avg_cost FROM variant_stock vs
+                        JOIN variants v ON v.id = vs.variant_id
+                        WHERE v.sku = :sku
+                        """)
+                .bind("sku", sku)
+                .mapTo(BigDecimal.class).one());
+    }
+}
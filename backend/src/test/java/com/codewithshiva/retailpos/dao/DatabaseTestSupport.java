@@ -0,0 +1,138 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.flywaydb.core.Flyway;
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.postgres.PostgresPlugin;
+import org.junit.jupiter.api.BeforeAll;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Base for tests of the SQL functions and triggers in R__functions.sql.
+ * Each test class gets its own PostgreSQL container with every Flyway migration applied;
+ * fixtures use unique names, so tests in a class share the database without cleanup.
+ * Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+abstract class DatabaseTestSupport {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    static Jdbi jdbi;
+    static long userId;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        jdbi = Jdbi.create(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbi.installPlugin(new PostgresPlugin());
+        userId = jdbi.withHandle(h -> h.createQuery("""
+                INSERT INTO users (username, password_hash, full_name, role)
+                VALUES ('tester', 'x', 'Tester', 'ADMIN')
+                RETURNING id
+                """).mapTo(Long.class).one());
+    }
+
+    static int next() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    /**
+     * Create a product with one variant holding the given stock at the given cost.
+     */
+    static long createVariant(String category, String brand, String sellingPrice, String avgCost, int stock) {
+        int n = next();
+        return jdbi.inTransaction(h -> {
+            long productId = h.createQuery("""
+                    INSERT INTO products (name, brand, category, hsn)
+                    VALUES (:name, :brand, :category, '6109')
+                    RETURNING id
+                    """)
+                    .bind("name", "Product " + n)
+                    .bind("brand", brand)
+                    .bind("category", category)
+                    .mapTo(Long.class).one();
+            long variantId = h.createQuery("""
+                    INSERT INTO variants (product_id, sku, selling_price)
+                    VALUES (:productId, :sku, :price)
+                    RETURNING id
+                    """)
+                    .bind("productId", productId)
+                    .bind("sku", "SKU-" + n)
+                    .bind("price", new BigDecimal(sellingPrice))
+                    .mapTo(Long.class).one();
+            h.createUpdate("UPDATE variant_stock SET stock_qty = :stock, avg_cost = :cost WHERE variant_id = :id")
+                    .bind("stock", stock)
+                    .bind("cost", new BigDecimal(avgCost))
+                    .bind("id", variantId)
+                    .execute();
+            return variantId;
+        });
+    }
+
+    static long createVariant(int stock) {
+        return createVariant("Shirts", "Brand", "100.00", "60.00", stock);
+    }
+
+    /**
+     * Record a completed sale with one line per {variantId, qty} pair, taking the stock
+     * like SaleService does. Returns the sale id.
+     */
+    static long createSale(OffsetDateTime soldAt, long... variantQtyPairs) {
+        return jdbi.inTransaction(h -> createSale(h, soldAt, variantQtyPairs));
+    }
+
+    static long createSale(Handle h, OffsetDateTime soldAt, long... variantQtyPairs) {
+        long saleId = h.createQuery("""
+                INSERT INTO sales (bill_no, sold_at, created_by)
+                VALUES (:billNo, :soldAt, :userId)
+                RETURNING id
+                """)
+                .bind("billNo", "T" + next())
+                .bind("soldAt", soldAt)
+                .bind("userId", userId)
+                .mapTo(Long.class).one();
+        for (int i = 0; i < variantQtyPairs.length; i += 2) {
+            long variantId = variantQtyPairs[i];
+            int qty = (int) variantQtyPairs[i + 1];
+            h.createQuery("SELECT decrease_variant_stock_on_sale(:variantId, :qty)")
+                    .bind("variantId", variantId)
+                    .bind("qty", qty)
+                    .mapTo(BigDecimal.class).one();
+            h.createUpdate("""
+                    INSERT INTO sale_items (sale_id, sold_at, variant_id, qty, unit_price, unit_cost_at_sale)
+                    VALUES (:saleId, :soldAt, :variantId, :qty, 100, 60)
+                    """)
+                    .bind("saleId", saleId)
+                    .bind("soldAt", soldAt)
+                    .bind("variantId", variantId)
+                    .bind("qty", qty)
+                    .execute();
+        }
+        return saleId;
+    }
+
+    static int stockOf(long variantId) {
+        return jdbi.withHandle(h -> h.createQuery("""
+                SELECT vs.stock_qty + COALESCE((SELECT SUM(s.stock_qty) FROM variant_stock_stripes s
+                                                WHERE s.variant_id = vs.variant_id), 0)
+                FROM variant_stock vs
+                WHERE vs.variant_id = :id
+                """)
+                .bind("id", variantId)
+                .mapTo(Integer.class).one());
+    }
+}
@@ -0,0 +1,100 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.jdbi.v3.core.Handle;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for take_inventory_snapshot() and movements recorded after a snapshot but dated before it.
+ */
+class InventorySnapshotFunctionsTest extends DatabaseTestSupport {
+
+    @Test
+    void backdatedPurchaseIsAddedToExistingSnapshots() {
+        long variantId = createVariant(10);
+        LocalDate day = LocalDate.now(ZoneOffset.UTC).minusDays(3);
+        takeSnapshot(day);
+        assertEquals(10, snapshotQty(day, variantId));
+
+        // Entered now, dated the day before the snapshot's end
+        receivePurchase(variantId, 5, day.atTime(12, 0).atOffset(ZoneOffset.UTC));
+
+        assertEquals(15, stockOf(variantId));
+        assertEquals(15, snapshotQty(day, variantId));
+        // A snapshot of an earlier day taken now agrees with the corrected one
+        takeSnapshot(day.minusDays(1));
+        assertEquals(10, snapshotQty(day.minusDays(1), variantId));
+    }
+
+    @Test
+    void movementsAfterTheSnapshotDayLeaveItAlone() {
+        long variantId = createVariant(10);
+        LocalDate day = LocalDate.now(ZoneOffset.UTC).minusDays(5);
+        takeSnapshot(day);
+
+        receivePurchase(variantId, 5, day.plusDays(1).atTime(9, 0).atOffset(ZoneOffset.UTC));
+
+        assertEquals(10, snapshotQty(day, variantId));
+    }
+
+    @Test
+    void snapshotWaitsForMovementsInFlight() {
+        long variantId = createVariant(10);
+        LocalDate day = LocalDate.now(ZoneOffset.UTC).minusDays(7);
+
+        try (Handle writer = jdbi.open(); Handle snapshotter = jdbi.open()) {
+            writer.begin();
+            writer.execute("INSERT INTO stock_adjustments (variant_id, delta_qty, reason, created_by) "
+                    + "VALUES (?, 2, 'CORRECTION', ?)", variantId, userId);
+
+            snapshotter.execute("SET lock_timeout = '1s'");
+            assertThrows(Exception.class, () -> snapshotter.createQuery("SELECT take_inventory_snapshot(:day)")
+                    .bind("day", day)
+                    .mapTo(Integer.class).one());
+            writer.rollback();
+        }
+    }
+
+    private static void takeSnapshot(LocalDate day) {
+        jdbi.useHandle(h -> h.createQuery("SELECT take_inventory_snapshot(:day)")
+                .bind("day", day)
+                .mapTo(Integer.class).one());
+    }
+
+    private static int snapshotQty(LocalDate day, long variantId) {
+        return jdbi.withHandle(h -> h.createQuery("""
+                        SELECT COALESCE(SUM(stock_qty), 0) FROM inventory_snapshot_items
+                        WHERE snapshot_date = :day AND variant_id = :id
+                        """)
+                .bind("day", day)
+                .bind("id", variantId)
+                .mapTo(Integer.class).one());
+    }
+
+    private static void receivePurchase(long variantId, int qty, OffsetDateTime purchasedAt) {
+        jdbi.useTransaction(h -> {
+            long supplierId = h.createQuery("INSERT INTO suppliers (name) VALUES (:name) RETURNING id")
+                    .bind("name", "Supplier " + next())
+                    .mapTo(Long.class).one();
+            long purchaseId = h.createQuery("""
+                            INSERT INTO purchases (supplier_id, purchased_at, total_cost, created_by)
+                            VALUES (:supplierId, :purchasedAt, :total, :userId)
+                            RETURNING id
+                            """)
+                    .bind("supplierId", supplierId)
+                    .bind("purchasedAt", purchasedAt)
+                    .bind("total", qty * 50)
+                    .bind("userId", userId)
+                    .mapTo(Long.class).one();
+            h.execute("INSERT INTO purchase_items (purchase_id, variant_id, qty, unit_cost) VALUES (?, ?, ?, 50)",
+                    purchaseId, variantId, qty);
+            h.createQuery("SELECT receive_purchase_stock(:id)").bind("id", purchaseId).mapTo(Integer.class).one();
+        });
+    }
+}
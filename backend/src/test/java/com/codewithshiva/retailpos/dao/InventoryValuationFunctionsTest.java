@@ -0,0 +1,96 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.jdbi.v3.core.Handle;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the inventory valuation delta queue, its fold and the repair pass.
+ */
+class InventoryValuationFunctionsTest extends DatabaseTestSupport {
+
+    @Test
+    void stockChangesQueueDeltasThatReadsIncludeBeforeTheFold() {
+        String category = "Valuation " + next();
+        long variantId = createVariant(category, "Brand", "100.00", "60.00", 10);
+
+        jdbi.useHandle(h -> h.execute("UPDATE variant_stock SET stock_qty = 7 WHERE variant_id = ?", variantId));
+
+        assertTrue(pendingDeltas(category) > 0);
+        assertValuation(category, 1, 7, "420.00", "700.00");
+
+        fold();
+
+        assertEquals(0, pendingDeltas(category));
+        assertValuation(category, 1, 7, "420.00", "700.00");
+    }
+
+    @Test
+    void checkoutsInOneGroupDoNotWaitForEachOther() {
+        String category = "Concurrent " + next();
+        long first = createVariant(category, "Brand", "100.00", "60.00", 10);
+        long second = createVariant(category, "Brand", "100.00", "60.00", 10);
+        fold();
+
+        try (Handle a = jdbi.open(); Handle b = jdbi.open()) {
+            a.begin();
+            a.execute("UPDATE variant_stock SET stock_qty = stock_qty - 1 WHERE variant_id = ?", first);
+
+            b.execute("SET lock_timeout = '1s'");
+            b.begin();
+            b.execute("UPDATE variant_stock SET stock_qty = stock_qty - 1 WHERE variant_id = ?", second);
+            b.commit();
+            a.commit();
+        }
+
+        assertValuation(category, 2, 18, "1080.00", "1800.00");
+    }
+
+    @Test
+    void repairCorrectsDriftAndFoldsPendingDeltas() {
+        String category = "Repair " + next();
+        long variantId = createVariant(category, "Brand", "100.00", "60.00", 10);
+        fold();
+        jdbi.useHandle(h -> {
+            h.execute("UPDATE inventory_valuation SET cost_value = cost_value + 99 WHERE category = ?", category);
+            h.execute("UPDATE variant_stock SET stock_qty = 4 WHERE variant_id = ?", variantId);
+        });
+
+        int drifted = jdbi.withHandle(h -> h.createQuery("SELECT repair_inventory_valuation()")
+                .mapTo(Integer.class).one());
+
+        assertEquals(1, drifted);
+        assertEquals(0, pendingDeltas(category));
+        assertValuation(category, 1, 4, "240.00", "400.00");
+
+        int again = jdbi.withHandle(h -> h.createQuery("SELECT repair_inventory_valuation()")
+                .mapTo(Integer.class).one());
+        assertEquals(0, again);
+    }
+
+    private static void fold() {
+        jdbi.useHandle(h -> h.createQuery("SELECT fold_inventory_valuation_deltas()").mapTo(Integer.class).one());
+    }
+
+    private static int pendingDeltas(String category) {
+        return jdbi.withHandle(h -> h.createQuery("SELECT COUNT(*) FROM inventory_valuation_deltas WHERE category = :category")
+                .bind("category", category)
+                .mapTo(Integer.class).one());
+    }
+
+    private static void assertValuation(String category, int skuCount, long itemCount, String costValue, String retailValue) {
+        Map<String, Object> row = jdbi.withHandle(h -> h.createQuery(
+                        "SELECT * FROM v_inventory_valuation WHERE category = :category AND brand = 'Brand'")
+                .bind("category", category)
+                .mapToMap().one());
+        assertEquals(skuCount, ((Number) row.get("sku_count")).intValue());
+        assertEquals(itemCount, ((Number) row.get("item_count")).longValue());
+        assertEquals(0, new BigDecimal(costValue).compareTo((BigDecimal) row.get("cost_value")));
+        assertEquals(0, new BigDecimal(retailValue).compareTo((BigDecimal) row.get("retail_value")));
+    }
+}
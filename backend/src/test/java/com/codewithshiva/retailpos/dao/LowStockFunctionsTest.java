@@ -0,0 +1,97 @@
+package com.codewithshiva.retailpos.dao;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.jdbi.v3.core.Handle;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the low_stock_variants triggers and their 'stock_level_changed' notifications.
+ */
+class LowStockFunctionsTest extends DatabaseTestSupport {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void createSettings() {
+        jdbi.useHandle(h -> h.execute(
+                "INSERT INTO settings (id, low_stock_threshold) VALUES (1, 10) ON CONFLICT (id) DO NOTHING"));
+    }
+
+    @Test
+    void bulkStockUpdateNotifiesOncePerStatement() throws Exception {
+        long first = createVariant(20);
+        long second = createVariant(20);
+        long third = createVariant(20);
+
+        try (Handle listener = jdbi.open()) {
+            listener.execute("LISTEN stock_level_changed");
+            PGConnection pgConnection = listener.getConnection().unwrap(PGConnection.class);
+
+            jdbi.useHandle(h -> h.execute(
+                    "UPDATE variant_stock SET stock_qty = CASE WHEN variant_id = ? THEN 0 ELSE 5 END "
+                            + "WHERE variant_id IN (?, ?, ?)", third, first, second, third));
+
+            PGNotification[] notifications = pgConnection.getNotifications(2_000);
+            assertNotNull(notifications);
+            assertEquals(1, notifications.length);
+            JsonNode changes = objectMapper.readTree(notifications[0].getParameter()).path("changes");
+            assertEquals(3, changes.size());
+            assertEquals(first, changes.get(0).path("variantId").asLong());
+            assertEquals("OK", changes.get(0).path("previousLevel").asText());
+            assertEquals("LOW", changes.get(0).path("level").asText());
+            assertEquals("OUT", changes.get(2).path("level").asText());
+        }
+
+        assertEquals(3, jdbi.withHandle(h -> h.createQuery(
+                        "SELECT COUNT(*) FROM low_stock_variants WHERE variant_id IN (<ids>)")
+                .bindList("ids", first, second, third)
+                .mapTo(Integer.class).one()));
+    }
+
+    @Test
+    void changesAboveThresholdDoNotNotify() throws Exception {
+        long variantId = createVariant(50);
+
+        try (Handle listener = jdbi.open()) {
+            listener.execute("LISTEN stock_level_changed");
+            PGConnection pgConnection = listener.getConnection().unwrap(PGConnection.class);
+
+            jdbi.useHandle(h -> h.execute("UPDATE variant_stock SET stock_qty = 40 WHERE variant_id = ?", variantId));
+
+            PGNotification[] notifications = pgConnection.getNotifications(500);
+            assertTrue(notifications == null || notifications.length == 0);
+        }
+    }
+
+    @Test
+    void largeBatchAsksListenersToReload() throws Exception {
+        long[] variantIds = new long[60];
+        for (int i = 0; i < variantIds.length; i++) {
+            variantIds[i] = createVariant(20);
+        }
+
+        try (Handle listener = jdbi.open()) {
+            listener.execute("LISTEN stock_level_changed");
+            PGConnection pgConnection = listener.getConnection().unwrap(PGConnection.class);
+
+            jdbi.useHandle(h -> h.createUpdate("UPDATE variant_stock SET stock_qty = 1 WHERE variant_id IN (<ids>)")
+                    .bindList("ids", Arrays.stream(variantIds).boxed().toList())
+                    .execute());
+
+            PGNotification[] notifications = pgConnection.getNotifications(2_000);
+            assertNotNull(notifications);
+            assertEquals(1, notifications.length);
+            assertTrue(objectMapper.readTree(notifications[0].getParameter()).path("rebuild").asBoolean());
+        }
+    }
+}
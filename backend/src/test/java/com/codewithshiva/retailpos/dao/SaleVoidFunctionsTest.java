@@ -0,0 +1,55 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for restore_stock_on_void() and the ledger entries of a void.
+ */
+class SaleVoidFunctionsTest extends DatabaseTestSupport {
+
+    @Test
+    void voidRestoresEveryLineOfADuplicatedVariant() {
+        long duplicated = createVariant(20);
+        long single = createVariant(20);
+        OffsetDateTime soldAt = OffsetDateTime.now();
+        long saleId = createSale(soldAt, duplicated, 2, single, 1, duplicated, 3);
+        assertEquals(15, stockOf(duplicated));
+
+        voidSale(saleId, soldAt);
+
+        assertEquals(20, stockOf(duplicated));
+        assertEquals(20, stockOf(single));
+        // The ledger has one entry per line and agrees with the stock
+        assertEquals(2, ledgerCount(duplicated, "VOID_RESTORE"));
+        assertEquals(5, ledgerSum(duplicated, "VOID_RESTORE"));
+        assertEquals(-5, ledgerSum(duplicated, "SALE"));
+    }
+
+    static void voidSale(long saleId, OffsetDateTime soldAt) {
+        jdbi.useTransaction(h -> {
+            h.execute("SELECT restore_stock_on_void(?, ?)", saleId, soldAt);
+            h.execute("UPDATE sales SET status = 'VOIDED', voided_at = NOW(), voided_by = ?, void_reason = 'test' "
+                    + "WHERE id = ? AND sold_at = ?", userId, saleId, soldAt);
+        });
+    }
+
+    private static int ledgerCount(long variantId, String movementType) {
+        return jdbi.withHandle(h -> h.createQuery(
+                        "SELECT COUNT(*) FROM stock_ledger WHERE variant_id = :id AND movement_type = :type")
+                .bind("id", variantId)
+                .bind("type", movementType)
+                .mapTo(Integer.class).one());
+    }
+
+    private static int ledgerSum(long variantId, String movementType) {
+        return jdbi.withHandle(h -> h.createQuery(
+                        "SELECT COALESCE(SUM(delta_qty), 0) FROM stock_ledger WHERE variant_id = :id AND movement_type = :type")
+                .bind("id", variantId)
+                .bind("type", movementType)
+                .mapTo(Integer.class).one());
+    }
+}
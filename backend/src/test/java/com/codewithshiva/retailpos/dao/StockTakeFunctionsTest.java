@@ -0,0 +1,67 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for apply_stock_take_variances().
+ */
+class StockTakeFunctionsTest extends DatabaseTestSupport {
+
+    @Test
+    void applyAdjustsScannedAndUnscannedVariantsInScope() {
+        String category = "Take " + next();
+        long scanned = createVariant(category, "Brand", "100.00", "60.00", 10);
+        long unscanned = createVariant(category, "Brand", "100.00", "60.00", 4);
+        long matching = createVariant(category, "Brand", "100.00", "60.00", 6);
+        long outOfScope = createVariant(5);
+        String scannedBarcode = setBarcode(scanned);
+        String matchingBarcode = setBarcode(matching);
+        long stockTakeId = createStockTake(category);
+
+        int adjusted = jdbi.withHandle(h -> h.createQuery("""
+                        SELECT apply_stock_take_variances(:id, CAST(:barcodes AS TEXT[]), CAST(:qtys AS INTEGER[]),
+                                                          CAST(:category AS VARCHAR), CAST(NULL AS VARCHAR), :userId)
+                        """)
+                .bind("id", stockTakeId)
+                .bind("barcodes", new String[] {scannedBarcode, matchingBarcode, "UNKNOWN"})
+                .bind("qtys", new Integer[] {7, 6, 3})
+                .bind("category", category)
+                .bind("userId", userId)
+                .mapTo(Integer.class).one());
+
+        assertEquals(2, adjusted);
+        assertEquals(7, stockOf(scanned));
+        assertEquals(0, stockOf(unscanned));
+        assertEquals(6, stockOf(matching));
+        assertEquals(5, stockOf(outOfScope));
+        assertEquals(-3, adjustmentSum(stockTakeId, scanned));
+        assertEquals(-4, adjustmentSum(stockTakeId, unscanned));
+        assertEquals(0, adjustmentSum(stockTakeId, matching));
+    }
+
+    private static String setBarcode(long variantId) {
+        String barcode = "BC-" + variantId;
+        jdbi.useHandle(h -> h.execute("UPDATE variants SET barcode = ? WHERE id = ?", barcode, variantId));
+        return barcode;
+    }
+
+    private static long createStockTake(String category) {
+        return jdbi.withHandle(h -> h.createQuery(
+                        "INSERT INTO stock_takes (category, created_by) VALUES (:category, :userId) RETURNING id")
+                .bind("category", category)
+                .bind("userId", userId)
+                .mapTo(Long.class).one());
+    }
+
+    private static int adjustmentSum(long stockTakeId, long variantId) {
+        return jdbi.withHandle(h -> h.createQuery("""
+                        SELECT COALESCE(SUM(delta_qty), 0) FROM stock_adjustments
+                        WHERE stock_take_id = :stockTakeId AND variant_id = :variantId AND reason = 'CORRECTION'
+                        """)
+                .bind("stockTakeId", stockTakeId)
+                .bind("variantId", variantId)
+                .mapTo(Integer.class).one());
+    }
+}
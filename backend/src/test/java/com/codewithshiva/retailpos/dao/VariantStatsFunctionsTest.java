@@ -0,0 +1,86 @@
+package com.codewithshiva.retailpos.dao;
+
+import org.jdbi.v3.core.Handle;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for the batched refresh_variant_sales_windows().
+ */
+class VariantStatsFunctionsTest extends DatabaseTestSupport {
+
+    @Test
+    void refreshRecomputesWindowsBatchByBatch() {
+        OffsetDateTime now = OffsetDateTime.now();
+        long sold = createVariant(100);
+        long stale = createVariant(100);
+        createSale(now.minusDays(100), sold, 3);
+        createSale(now.minusDays(5), sold, 2);
+        jdbi.useHandle(h -> {
+            h.execute("UPDATE variant_stats SET qty_7d = 99 WHERE variant_id = ?", sold);
+            h.execute("INSERT INTO variant_stats (variant_id, qty_180d, first_sold_at) VALUES (?, 7, ?)",
+                    stale, now.minusDays(200));
+        });
+
+        Long last = null;
+        int batches = 0;
+        while ((last = refresh(last, 1)) != null) {
+            batches++;
+        }
+
+        assertEquals(count("SELECT COUNT(*) FROM variants"), batches);
+        Map<String, Object> soldStats = stats(sold);
+        assertEquals(2, soldStats.get("qty_7d"));
+        assertEquals(2, soldStats.get("qty_90d"));
+        assertEquals(5, soldStats.get("qty_180d"));
+        Map<String, Object> staleStats = stats(stale);
+        assertEquals(0, staleStats.get("qty_180d"));
+        assertNull(staleStats.get("first_sold_at"));
+    }
+
+    @Test
+    void batchLocksOnlyItsOwnRows() {
+        long inBatch = createVariant(100);
+        long other = createVariant(100);
+        createSale(OffsetDateTime.now(), inBatch, 1, other, 1);
+
+        try (Handle refresher = jdbi.open(); Handle checkout = jdbi.open()) {
+            refresher.begin();
+            Long last = refresher.createQuery("SELECT refresh_variant_sales_windows(:after, 1)")
+                    .bind("after", inBatch - 1)
+                    .mapTo(Long.class).one();
+            assertEquals(inBatch, last);
+
+            checkout.execute("SET lock_timeout = '1s'");
+            // Another variant's checkout is not blocked by the refresh
+            assertEquals(1, checkout.execute("UPDATE variant_stats SET qty_7d = qty_7d + 1 WHERE variant_id = ?", other));
+            // The batch's own rows are held until the batch commits
+            assertThrows(Exception.class,
+                    () -> checkout.execute("UPDATE variant_stats SET qty_7d = qty_7d + 1 WHERE variant_id = ?", inBatch));
+            refresher.rollback();
+        }
+    }
+
+    private static Long refresh(Long afterVariantId, int batchSize) {
+        return jdbi.withHandle(h -> h.createQuery("SELECT refresh_variant_sales_windows(:after, :size)")
+                .bind("after", afterVariantId)
+                .bind("size", batchSize)
+                .mapTo(Long.class).one());
+    }
+
+    private static Map<String, Object> stats(long variantId) {
+        return jdbi.withHandle(h -> h.createQuery("SELECT * FROM variant_stats WHERE variant_id = :id")
+                .bind("id", variantId)
+                .mapToMap().one());
+    }
+
+    private static int count(String sql) {
+        return jdbi.withHandle(h -> h.createQuery(sql).mapTo(Integer.class).one());
+    }
+}
@@ -0,0 +1,199 @@
+package com.codewithshiva.retailpos.datasource;
+
+import com.codewithshiva.retailpos.security.CustomUserDetails;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the pool {@link RoutingDataSource} picks, run through the same
+ * LazyConnectionDataSourceProxy and transaction manager setup as the application.
+ */
+class RoutingDataSourceTest {
+
+    private final Map<Workload, Connection> primaryConnections = new EnumMap<>(Workload.class);
+    private final Map<Workload, Connection> replicaConnections = new EnumMap<>(Workload.class);
+    private final ConnectionPools primary = pools(primaryConnections);
+    private final ConnectionPools replica = pools(replicaConnections);
+    private final ReplicaHealth replicaHealth = mock(ReplicaHealth.class);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+        WorkloadContext.restore(null);
+    }
+
+    @Test
+    void readOnlyTransactionUsesTheReplica() {
+        when(replicaHealth.isUp()).thenReturn(true);
+        DataSource dataSource = dataSource(10_000);
+
+        assertSame(replicaConnections.get(Workload.INTERACTIVE), connectionIn(dataSource, true));
+        assertSame(primaryConnections.get(Workload.INTERACTIVE), connectionIn(dataSource, false));
+    }
+
+    @Test
+    void readOnlyTransactionUsesThePoolOfItsWorkload() {
+        when(replicaHealth.isUp()).thenReturn(true);
+        DataSource dataSource = dataSource(10_000);
+        WorkloadContext.set(Workload.REPORTING);
+
+        assertSame(replicaConnections.get(Workload.REPORTING), connectionIn(dataSource, true));
+    }
+
+    @Test
+    void replicaDownUsesThePrimary() {
+        when(replicaHealth.isUp()).thenReturn(false);
+        DataSource dataSource = dataSource(10_000);
+
+        assertSame(primaryConnections.get(Workload.INTERACTIVE), connectionIn(dataSource, true));
+    }
+
+    @Test
+    void saturatedReplicaPoolFallsBackToThePrimaryAndStaysInRotation() throws SQLException {
+        when(replicaHealth.isUp()).thenReturn(true);
+        when(replica.get(Workload.INTERACTIVE).getConnection())
+                .thenThrow(new SQLTransientConnectionException("replica-interactive - Connection is not available"));
+        DataSource dataSource = dataSource(10_000);
+
+        assertSame(primaryConnections.get(Workload.INTERACTIVE), connectionIn(dataSource, true));
+        verify(replicaHealth, never()).markDown(any());
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimaryAndIsMarkedDown() throws SQLException {
+        when(replicaHealth.isUp()).thenReturn(true);
+        SQLTransientConnectionException unreachable = new SQLTransientConnectionException(
+                "replica-interactive - Connection is not available", new SQLException("Connection refused"));
+        when(replica.get(Workload.INTERACTIVE).getConnection()).thenThrow(unreachable);
+        DataSource dataSource = dataSource(10_000);
+
+        assertSame(primaryConnections.get(Workload.INTERACTIVE), connectionIn(dataSource, true));
+        verify(replicaHealth).markDown(unreachable);
+    }
+
+    @Test
+    void transactionStaysOnThePoolItStartedWith() throws SQLException {
+        when(replicaHealth.isUp()).thenReturn(true);
+        DataSource dataSource = dataSource(10_000);
+        WorkloadContext.set(Workload.REPORTING);
+
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            Connection first = targetConnection(dataSource);
+            WorkloadContext.set(Workload.BACKGROUND);
+            Connection second = targetConnection(dataSource);
+
+            assertSame(primaryConnections.get(Workload.REPORTING), first);
+            assertSame(first, second);
+        });
+        verify(primary.get(Workload.BACKGROUND), never()).getConnection();
+        verify(replica.get(Workload.REPORTING), never()).getConnection();
+    }
+
+    @Test
+    void readsGoToThePrimaryRightAfterTheUserCommitsAWrite() {
+        when(replicaHealth.isUp()).thenReturn(true);
+        DataSource dataSource = dataSource(10_000);
+
+        signIn(1L);
+        connectionIn(dataSource, false);
+        assertSame(primaryConnections.get(Workload.INTERACTIVE), connectionIn(dataSource, true));
+
+        // Other users keep reading from the replica
+        signIn(2L);
+        assertSame(replicaConnections.get(Workload.INTERACTIVE), connectionIn(dataSource, true));
+    }
+
+    @Test
+    void readsReturnToTheReplicaWhenTheStickyWindowIsOver() {
+        when(replicaHealth.isUp()).thenReturn(true);
+        DataSource dataSource = dataSource(0);
+
+        signIn(1L);
+        connectionIn(dataSource, false);
+
+        assertSame(replicaConnections.get(Workload.INTERACTIVE), connectionIn(dataSource, true));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotStickToThePrimary() {
+        when(replicaHealth.isUp()).thenReturn(true);
+        DataSource dataSource = dataSource(10_000);
+
+        signIn(1L);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(status -> {
+            targetConnection(dataSource);
+            status.setRollbackOnly();
+        });
+
+        assertSame(replicaConnections.get(Workload.INTERACTIVE), connectionIn(dataSource, true));
+    }
+
+    private DataSource dataSource(long stickyMillis) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(
+                new RoutingDataSource(primary, replica, replicaHealth, stickyMillis));
+        // Known defaults, so the proxy does not fetch a connection to read them
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return dataSource;
+    }
+
+    /**
+     * The pooled connection a transaction with the given read-only flag runs on.
+     */
+    private static Connection connectionIn(DataSource dataSource, boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        template.setReadOnly(readOnly);
+        return template.execute(status -> targetConnection(dataSource));
+    }
+
+    /**
+     * Fetch the pooled connection behind the transaction's lazy connection, as its first statement would.
+     */
+    private static Connection targetConnection(DataSource dataSource) {
+        return ((ConnectionProxy) DataSourceUtils.getConnection(dataSource)).getTargetConnection();
+    }
+
+    private static ConnectionPools pools(Map<Workload, Connection> connections) {
+        return new ConnectionPools(workload -> {
+            Connection connection = mock(Connection.class);
+            connections.put(workload, connection);
+            HikariDataSource pool = mock(HikariDataSource.class);
+            try {
+                when(pool.getConnection()).thenReturn(connection);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+            return pool;
+        });
+    }
+
+    private static void signIn(Long userId) {
+        CustomUserDetails principal = mock(CustomUserDetails.class);
+        when(principal.getUserId()).thenReturn(userId);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+}
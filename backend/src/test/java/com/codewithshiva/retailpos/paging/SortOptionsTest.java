@@ -0,0 +1,146 @@
+package com.codewithshiva.retailpos.paging;
+
+import com.codewithshiva.retailpos.dto.PagedResponse;
+import com.codewithshiva.retailpos.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link SortOptions} parsing and the {@link PageQuery} it builds.
+ */
+class SortOptionsTest {
+
+    record Row(long id, String name, BigDecimal price) {
+    }
+
+    private final SortOptions<Row> sortOptions = SortOptions.byId("r.id", Row::id)
+            .field("name", "r.name", "TEXT", Row::name)
+            .field("price", "r.price", "NUMERIC", Row::price)
+            .defaultSort("name", false);
+
+    @Test
+    void defaultsToTheDefaultSortAndFirstPage() {
+        PageQuery<Row> query = sortOptions.parse(null, null, null, null, true);
+
+        assertEquals("r.name ASC, r.id ASC", query.getOrderBy());
+        assertEquals("TRUE", query.getKeyset());
+        assertEquals(0, query.getOffset());
+        assertEquals(SortOptions.DEFAULT_PAGE_SIZE + 1, query.getLimit());
+        assertTrue(query.isIncludeTotal());
+    }
+
+    @Test
+    void parsesFieldAndDirection() {
+        PageQuery<Row> query = sortOptions.parse(2, 10, " price , DESC ", null, false);
+
+        assertEquals("r.price DESC, r.id DESC", query.getOrderBy());
+        assertEquals(20, query.getOffset());
+        assertEquals(11, query.getLimit());
+        assertFalse(query.isIncludeTotal());
+    }
+
+    @Test
+    void fieldWithoutDirectionSortsAscending() {
+        SortOptions<Row> byPriceDesc = SortOptions.byId("r.id", Row::id)
+                .field("price", "r.price", "NUMERIC", Row::price)
+                .defaultSort("price", true);
+
+        assertEquals("r.price ASC, r.id ASC", byPriceDesc.parse(0, 10, "price", null, true).getOrderBy());
+    }
+
+    @Test
+    void rejectsFieldsOutsideTheWhitelist() {
+        assertInvalid("INVALID_SORT", () -> sortOptions.parse(0, 10, "password", null, true));
+        assertInvalid("INVALID_SORT", () -> sortOptions.parse(0, 10, "r.name", null, true));
+        assertInvalid("INVALID_SORT", () -> sortOptions.parse(0, 10, "name; DROP TABLE users", null, true));
+        assertInvalid("INVALID_SORT", () -> sortOptions.parse(0, 10, "name,asc,desc", null, true));
+    }
+
+    @Test
+    void rejectsUnknownDirection() {
+        assertInvalid("INVALID_SORT", () -> sortOptions.parse(0, 10, "name,sideways", null, true));
+    }
+
+    @Test
+    void rejectsPageAndSizeOutOfRange() {
+        assertInvalid("INVALID_PAGE", () -> sortOptions.parse(-1, 10, null, null, true));
+        assertInvalid("INVALID_PAGE_SIZE", () -> sortOptions.parse(0, 0, null, null, true));
+        assertInvalid("INVALID_PAGE_SIZE",
+                () -> sortOptions.parse(0, SortOptions.MAX_PAGE_SIZE + 1, null, null, true));
+    }
+
+    @Test
+    void rejectsUnknownDefaultSort() {
+        SortOptions<Row> options = SortOptions.byId("r.id", Row::id);
+
+        assertThrows(IllegalArgumentException.class, () -> options.defaultSort("name", false));
+    }
+
+    @Test
+    void nextCursorContinuesAfterTheLastRowOfThePage() {
+        PageQuery<Row> first = sortOptions.parse(0, 2, "price,desc", null, false);
+        List<Row> rows = List.of(
+                new Row(7, "A", new BigDecimal("30.00")),
+                new Row(3, "B", new BigDecimal("20.50")),
+                new Row(9, "C", new BigDecimal("10.00")));
+
+        PagedResponse<String> response = first.toResponse(rows, null, Row::name);
+
+        assertEquals(List.of("A", "B"), response.getContent());
+        assertFalse(response.isLast());
+        assertNull(response.getTotalElements());
+        assertNull(response.getTotalPages());
+        assertNotNull(response.getNextCursor());
+
+        PageQuery<Row> next = sortOptions.parse(5, 2, "price,desc", response.getNextCursor(), false);
+
+        assertEquals(0, next.getOffset());
+        assertEquals(3L, next.getCursorId());
+        assertEquals("20.50", next.getCursorValue());
+        assertEquals("(r.price, r.id) < (CAST(:page.cursorValue AS NUMERIC), :page.cursorId)", next.getKeyset());
+        assertFalse(next.toResponse(List.of(), null, Row::name).isFirst());
+    }
+
+    @Test
+    void lastPageHasNoCursorAndCountsPages() {
+        PageQuery<Row> query = sortOptions.parse(1, 2, null, null, true);
+
+        PagedResponse<Row> response = query.toResponse(List.of(new Row(1, "A", BigDecimal.ONE)), 3L, row -> row);
+
+        assertTrue(response.isLast());
+        assertFalse(response.isFirst());
+        assertNull(response.getNextCursor());
+        assertEquals(3L, response.getTotalElements());
+        assertEquals(2, response.getTotalPages());
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSort() {
+        String cursor = sortOptions.parse(0, 1, "price,desc", null, false)
+                .toResponse(List.of(new Row(1, "A", BigDecimal.ONE), new Row(2, "B", BigDecimal.TEN)), null, row -> row)
+                .getNextCursor();
+
+        assertInvalid("INVALID_CURSOR", () -> sortOptions.parse(0, 1, "price,asc", cursor, false));
+        assertInvalid("INVALID_CURSOR", () -> sortOptions.parse(0, 1, "name", cursor, false));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertInvalid("INVALID_CURSOR", () -> sortOptions.parse(0, 10, null, "not a cursor!", false));
+        assertInvalid("INVALID_CURSOR", () -> sortOptions.parse(0, 10, null, "bmFtZSxhc2M", false));
+    }
+
+    private static void assertInvalid(String code, Runnable parse) {
+        BadRequestException e = assertThrows(BadRequestException.class, parse::run);
+        assertEquals(code, e.getCode());
+    }
+}
@@ -0,0 +1,154 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.dto.sale.CreateSaleItemRequest;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Property tests checking that {@link SalePricingCalculator} produces exactly the amounts
+ * (value and scale) of the BigDecimal math previously inlined in {@link SaleService#createSale}.
+ */
+class SalePricingCalculatorTest {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final SalePricingCalculator calculator = new SalePricingCalculator();
+
+    @Test
+    void matchesReferenceMathForRandomCarts() {
+        Random random = new Random(20240601L);
+        for (int run = 0; run < 20_000; run++) {
+            List<CreateSaleItemRequest> items = randomItems(random);
+            List<BigDecimal> unitCosts = randomCosts(random, items.size());
+            BigDecimal taxPercent = randomPercent(random, 28);
+            BigDecimal discountPercent = random.nextInt(4) == 0 ? null : randomPercent(random, 100);
+
+            assertMatchesReference(items, unitCosts, taxPercent, discountPercent, "run " + run);
+        }
+    }
+
+    @Test
+    void matchesReferenceMathForEdgeCases() {
+        List<BigDecimal> oneCost = List.of(new BigDecimal("0.01"));
+
+        // Exact half paise at every rounding step
+        assertMatchesReference(List.of(item(1, "0.05", "50.00")), oneCost, new BigDecimal("5.00"), new BigDecimal("50"), "half");
+        // Full item and bill discount
+        assertMatchesReference(List.of(item(3, "999.99", "100.00")), oneCost, new BigDecimal("18"), new BigDecimal("100.00"), "full");
+        // Percent with more than 2 decimals rounds to 4-place fractions
+        assertMatchesReference(List.of(item(7, "123.45", "12.345")), oneCost, new BigDecimal("12.005"), new BigDecimal("3.3333"), "fine");
+        // Unit price with more than 2 decimals
+        assertMatchesReference(List.of(item(2, "10.125", null)), oneCost, BigDecimal.ZERO, BigDecimal.ZERO, "scale3");
+        // Zero price and zero tax
+        assertMatchesReference(List.of(item(5, "0.00", null)), oneCost, BigDecimal.ZERO, null, "zero");
+        // Cost with more than 2 decimals takes the BigDecimal profit path
+        assertMatchesReference(List.of(item(4, "250.00", "5")), List.of(new BigDecimal("101.3333")),
+                new BigDecimal("5"), new BigDecimal("2.5"), "cost-scale4");
+        // Amounts beyond the fixed-point range fall back to BigDecimal
+        assertMatchesReference(List.of(item(1, "10000000000000.00", null)), oneCost,
+                new BigDecimal("5"), BigDecimal.ZERO, "overflow");
+        // Discount above 100% (not accepted by validation, but still priced like before)
+        assertMatchesReference(List.of(item(1, "100.00", "150")), oneCost, new BigDecimal("5"), new BigDecimal("120"), "over100");
+    }
+
+    @Test
+    void sameVariantOnSeveralLinesKeepsItsOwnCost() {
+        List<CreateSaleItemRequest> items = List.of(item(1, "100.00", null), item(1, "100.00", null));
+        SalePricingCalculator.SalePricing pricing = calculator.price(items, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        assertEquals(new BigDecimal("110.00"), pricing.getProfit(List.of(new BigDecimal("40.00"), new BigDecimal("50.00"))));
+    }
+
+    // ==========================================
+    // Reference implementation (original createSale math)
+    // ==========================================
+
+    private void assertMatchesReference(List<CreateSaleItemRequest> items, List<BigDecimal> unitCosts,
+                                        BigDecimal taxPercent, BigDecimal discountPercent, String label) {
+        BigDecimal effectiveDiscountPercent = discountPercent != null ? discountPercent : BigDecimal.ZERO;
+
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (CreateSaleItemRequest item : items) {
+            BigDecimal itemDiscountPct = item.getItemDiscountPercent() != null ? item.getItemDiscountPercent() : BigDecimal.ZERO;
+            BigDecimal itemDiscountFactor = BigDecimal.ONE.subtract(itemDiscountPct.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+            BigDecimal effectiveUnitPrice = item.getUnitPrice().multiply(itemDiscountFactor).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal lineAmount = effectiveUnitPrice.multiply(BigDecimal.valueOf(item.getQty()));
+            subtotal = subtotal.add(lineAmount);
+        }
+
+        BigDecimal taxDivisor = BigDecimal.ONE.add(taxPercent.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+        BigDecimal taxableValue = subtotal.divide(taxDivisor, 2, RoundingMode.HALF_UP);
+        BigDecimal taxAmount = subtotal.subtract(taxableValue);
+
+        BigDecimal discountAmount = subtotal.multiply(effectiveDiscountPercent).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+        BigDecimal total = subtotal.subtract(discountAmount);
+
+        BigDecimal globalDiscountFactor = BigDecimal.ONE.subtract(
+                effectiveDiscountPercent.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+        BigDecimal totalProfit = BigDecimal.ZERO;
+        for (int i = 0; i < items.size(); i++) {
+            CreateSaleItemRequest item = items.get(i);
+            BigDecimal itemDiscountPct = item.getItemDiscountPercent() != null ? item.getItemDiscountPercent() : BigDecimal.ZERO;
+            BigDecimal itemDiscountFactor = BigDecimal.ONE.subtract(itemDiscountPct.divide(HUNDRED, 4, RoundingMode.HALF_UP));
+            BigDecimal effectiveUnitPrice = item.getUnitPrice().multiply(itemDiscountFactor).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal lineAmount = effectiveUnitPrice.multiply(BigDecimal.valueOf(item.getQty()));
+            BigDecimal revenue = lineAmount.divide(taxDivisor, 2, RoundingMode.HALF_UP)
+                    .multiply(globalDiscountFactor)
+                    .setScale(2, RoundingMode.HALF_UP);
+            BigDecimal cost = unitCosts.get(i).multiply(BigDecimal.valueOf(item.getQty()));
+            totalProfit = totalProfit.add(revenue.subtract(cost));
+        }
+
+        SalePricingCalculator.SalePricing pricing = calculator.price(items, taxPercent, discountPercent);
+
+        assertEquals(subtotal, pricing.getSubtotal(), label + " subtotal");
+        assertEquals(taxAmount, pricing.getTaxAmount(), label + " tax");
+        assertEquals(discountAmount, pricing.getDiscountAmount(), label + " discount");
+        assertEquals(total, pricing.getTotal(), label + " total");
+        assertEquals(totalProfit, pricing.getProfit(unitCosts), label + " profit");
+    }
+
+    // ==========================================
+    // Generators
+    // ==========================================
+
+    private static List<CreateSaleItemRequest> randomItems(Random random) {
+        int lines = 1 + random.nextInt(12);
+        List<CreateSaleItemRequest> items = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            BigDecimal unitPrice = BigDecimal.valueOf(random.nextInt(5_000_000), 2);
+            BigDecimal itemDiscount = random.nextInt(3) == 0 ? null : randomPercent(random, 100);
+            items.add(new CreateSaleItemRequest((long) i, 1 + random.nextInt(50), unitPrice, itemDiscount));
+        }
+        return items;
+    }
+
+    private static List<BigDecimal> randomCosts(Random random, int count) {
+        List<BigDecimal> costs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            costs.add(BigDecimal.valueOf(random.nextInt(3_000_000), 2));
+        }
+        return costs;
+    }
+
+    /**
+     * A percent between 0 and max with 0 to 3 decimals, so both exact and rounded fractions are covered.
+     */
+    private static BigDecimal randomPercent(Random random, int max) {
+        int scale = random.nextInt(4);
+        long bound = (long) max * (long) Math.pow(10, scale) + 1;
+        return BigDecimal.valueOf((long) (random.nextDouble() * bound), scale);
+    }
+
+    private static CreateSaleItemRequest item(int qty, String unitPrice, String itemDiscountPercent) {
+        return new CreateSaleItemRequest(1L, qty, new BigDecimal(unitPrice),
+                itemDiscountPercent != null ? new BigDecimal(itemDiscountPercent) : null);
+    }
+}
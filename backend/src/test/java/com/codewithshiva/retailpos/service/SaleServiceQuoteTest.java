@@ -0,0 +1,127 @@
+package com.codewithshiva.retailpos.service;
+
+import com.codewithshiva.retailpos.dao.SaleDao;
+import com.codewithshiva.retailpos.dao.SettingsDao;
+import com.codewithshiva.retailpos.dao.VariantDao;
+import com.codewithshiva.retailpos.dto.sale.CreateSaleItemRequest;
+import com.codewithshiva.retailpos.dto.sale.CreateSaleRequest;
+import com.codewithshiva.retailpos.dto.sale.QuoteSaleItemRequest;
+import com.codewithshiva.retailpos.dto.sale.QuoteSaleRequest;
+import com.codewithshiva.retailpos.dto.sale.SaleQuoteLineResponse;
+import com.codewithshiva.retailpos.dto.sale.SaleQuoteResponse;
+import com.codewithshiva.retailpos.exception.ConflictException;
+import com.codewithshiva.retailpos.model.SaleWithDetails;
+import com.codewithshiva.retailpos.model.Settings;
+import com.codewithshiva.retailpos.model.VariantPriceSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests that a sale created from a quote charges exactly what the quote priced.
+ */
+class SaleServiceQuoteTest {
+
+    private final SaleDao saleDao = mock(SaleDao.class);
+    private final VariantDao variantDao = mock(VariantDao.class);
+    private final SettingsDao settingsDao = mock(SettingsDao.class);
+    private final SaleService saleService = new SaleService(saleDao, variantDao, new SalePricingCalculator(),
+            new PriceSnapshotService(variantDao, settingsDao));
+
+    @BeforeEach
+    void setUp() {
+        when(variantDao.findPriceSnapshots(anyList())).thenReturn(List.of(
+                new VariantPriceSnapshot(1L, 10L, "Shirt", "SH-1", "111", new BigDecimal("999.00"), new BigDecimal("12.50")),
+                new VariantPriceSnapshot(2L, 20L, "Jeans", "JE-1", "222", new BigDecimal("1499.00"), null)));
+        when(settingsDao.get()).thenReturn(Optional.of(Settings.builder().taxPercent(new BigDecimal("5.00")).build()));
+        when(saleDao.getVariantStockQty(anyLong())).thenReturn(100);
+        when(saleDao.decreaseVariantStockOnSale(anyLong(), anyInt())).thenReturn(new BigDecimal("400.00"));
+        when(saleDao.generateBillNumber()).thenReturn("INV000001");
+        when(saleDao.create(any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(1L);
+        when(saleDao.findByIdWithDetails(1L)).thenReturn(Optional.of(SaleWithDetails.builder().id(1L).build()));
+        when(saleDao.findItemsBySaleId(eq(1L), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void saleFromAQuotedCartChargesTheQuotedTotals() {
+        // Variant 1 falls back to its product discount, variant 2 has none
+        QuoteSaleRequest quoteRequest = new QuoteSaleRequest(new BigDecimal("5.00"), List.of(
+                new QuoteSaleItemRequest(1L, 2, null, null),
+                new QuoteSaleItemRequest(2L, 1, null, null)));
+        SaleQuoteResponse quote = saleService.quoteSale(quoteRequest);
+
+        // The cart sent back as the client received it, with the item discounts left out
+        List<CreateSaleItemRequest> items = new ArrayList<>();
+        for (SaleQuoteLineResponse line : quote.getItems()) {
+            items.add(new CreateSaleItemRequest(line.getVariantId(), line.getQty(), line.getUnitPrice(), null));
+        }
+        saleService.createSale(saleRequest(quote.getDiscountPercent(), items, quote.getSnapshotVersion()), 7L);
+
+        ArgumentCaptor<BigDecimal> subtotal = ArgumentCaptor.forClass(BigDecimal.class);
+        ArgumentCaptor<BigDecimal> discountAmount = ArgumentCaptor.forClass(BigDecimal.class);
+        ArgumentCaptor<BigDecimal> taxAmount = ArgumentCaptor.forClass(BigDecimal.class);
+        ArgumentCaptor<BigDecimal> total = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(saleDao).create(anyString(), any(), any(), any(), any(), subtotal.capture(), any(),
+                discountAmount.capture(), any(), taxAmount.capture(), total.capture(), any(), eq(7L));
+        assertEquals(quote.getSubtotal(), subtotal.getValue());
+        assertEquals(quote.getDiscountAmount(), discountAmount.getValue());
+        assertEquals(quote.getTaxAmount(), taxAmount.getValue());
+        assertEquals(quote.getTotal(), total.getValue());
+
+        // Lines are stored with the discounts they were quoted with
+        verify(saleDao).createItem(eq(1L), any(), eq(1L), eq(2), eq(new BigDecimal("999.00")), any(),
+                eq(new BigDecimal("12.50")));
+        verify(saleDao).createItem(eq(1L), any(), eq(2L), eq(1), eq(new BigDecimal("1499.00")), any(),
+                eq(BigDecimal.ZERO));
+    }
+
+    @Test
+    void saleWithADifferentUnitPriceIsRejected() {
+        SaleQuoteResponse quote = saleService.quoteSale(new QuoteSaleRequest(null, List.of(
+                new QuoteSaleItemRequest(1L, 1, null, null))));
+
+        CreateSaleRequest request = saleRequest(null, List.of(
+                new CreateSaleItemRequest(1L, 1, new BigDecimal("1.00"), null)), quote.getSnapshotVersion());
+
+        ConflictException e = assertThrows(ConflictException.class, () -> saleService.createSale(request, 7L));
+        assertEquals("PRICE_SNAPSHOT_STALE", e.getCode());
+    }
+
+    @Test
+    void saleWithADifferentDiscountIsRejected() {
+        SaleQuoteResponse quote = saleService.quoteSale(new QuoteSaleRequest(null, List.of(
+                new QuoteSaleItemRequest(1L, 1, null, null))));
+
+        CreateSaleRequest itemDiscount = saleRequest(null, List.of(
+                new CreateSaleItemRequest(1L, 1, new BigDecimal("999.00"), new BigDecimal("50.00"))),
+                quote.getSnapshotVersion());
+        CreateSaleRequest billDiscount = saleRequest(new BigDecimal("10.00"), List.of(
+                new CreateSaleItemRequest(1L, 1, new BigDecimal("999.00"), null)), quote.getSnapshotVersion());
+
+        assertThrows(ConflictException.class, () -> saleService.createSale(itemDiscount, 7L));
+        assertThrows(ConflictException.class, () -> saleService.createSale(billDiscount, 7L));
+    }
+
+    private static CreateSaleRequest saleRequest(BigDecimal discountPercent, List<CreateSaleItemRequest> items,
+                                                 String snapshotVersion) {
+        return new CreateSaleRequest(null, null, "CASH", discountPercent, items, snapshotVersion);
+    }
+}
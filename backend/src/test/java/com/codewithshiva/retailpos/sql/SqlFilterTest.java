@@ -0,0 +1,89 @@
+package com.codewithshiva.retailpos.sql;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the SQL and bound values produced by {@link SqlFilter}.
+ */
+class SqlFilterTest {
+
+    @Test
+    void emptyFilterIsTrue() {
+        SqlFilter filter = SqlFilter.create();
+
+        assertEquals("TRUE", filter.toSql("filter"));
+        assertTrue(filter.values("filter").isEmpty());
+    }
+
+    @Test
+    void valuesNotSuppliedAddNoPredicate() {
+        SqlFilter filter = SqlFilter.create()
+                .eq("status", null)
+                .eq("category", "")
+                .gte("created_at", null)
+                .lt("created_at", null)
+                .containsAny("   ", "name", "phone")
+                .when(false, "is_active = true");
+
+        assertEquals("TRUE", filter.toSql("filter"));
+        assertTrue(filter.values("filter").isEmpty());
+    }
+
+    @Test
+    void suppliedValuesAreJoinedWithAndAndBoundByName() {
+        SqlFilter filter = SqlFilter.create()
+                .eq("status", "OPEN")
+                .gte("amount", 10)
+                .lt("amount", 20);
+
+        assertEquals("status = :f_0 AND amount >= :f_1 AND amount < :f_2", filter.toSql("f"));
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("f_0", "OPEN");
+        expected.put("f_1", 10);
+        expected.put("f_2", 20);
+        assertEquals(expected, filter.values("f"));
+    }
+
+    @Test
+    void predicatesWithoutValueTakeNoParameter() {
+        SqlFilter filter = SqlFilter.create()
+                .where("is_active = true")
+                .eq("brand", "Acme")
+                .when(true, "stock_qty > 0");
+
+        assertEquals("is_active = true AND brand = :f_1 AND stock_qty > 0", filter.toSql("f"));
+        assertEquals(Map.of("f_1", "Acme"), filter.values("f"));
+    }
+
+    @Test
+    void containsAnyMatchesEveryColumnWithOneValue() {
+        SqlFilter filter = SqlFilter.create().containsAny("shirt", "p.name", "v.sku");
+
+        assertEquals("(LOWER(p.name) LIKE LOWER('%' || :f_0 || '%')"
+                + " OR LOWER(v.sku) LIKE LOWER('%' || :f_0 || '%'))", filter.toSql("f"));
+        assertEquals(Map.of("f_0", "shirt"), filter.values("f"));
+    }
+
+    @Test
+    void matchesReplacesEveryValuePlaceholder() {
+        SqlFilter filter = SqlFilter.create()
+                .matches("(barcode = " + SqlFilter.VALUE + " OR sku = " + SqlFilter.VALUE + ")", "ABC");
+
+        assertEquals("(barcode = :f_0 OR sku = :f_0)", filter.toSql("f"));
+    }
+
+    @Test
+    void valuesAreNeverSplicedIntoTheSql() {
+        String hostile = "x' OR '1'='1";
+        SqlFilter filter = SqlFilter.create().eq("name", hostile);
+
+        assertEquals("name = :f_0", filter.toSql("f"));
+        assertEquals(Map.of("f_0", hostile), filter.values("f"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.codewithshiva.retailpos.stock;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for {@link StockTakeTally}.
+ */
+class StockTakeTallyTest {
+
+    private final StockTakeTally tally = new StockTakeTally();
+
+    @Test
+    void addMergesCountsPerBarcode() {
+        tally.open(1L);
+
+        assertTrue(tally.add(1L, Map.of("A", 2, "B", 1)));
+        assertTrue(tally.add(1L, Map.of("A", 3)));
+
+        assertEquals(2, tally.size(1L));
+        assertEquals(Optional.of(Map.of("A", 5, "B", 1)), tally.counts(1L));
+    }
+
+    @Test
+    void addToASessionWithoutTallyIsRejected() {
+        assertFalse(tally.add(2L, Map.of("A", 1)));
+        assertFalse(tally.isOpen(2L));
+        assertEquals(0, tally.size(2L));
+        assertEquals(Optional.empty(), tally.counts(2L));
+    }
+
+    @Test
+    void openKeepsAnExistingTally() {
+        tally.open(3L);
+        tally.add(3L, Map.of("A", 4));
+
+        tally.open(3L);
+
+        assertEquals(Optional.of(Map.of("A", 4)), tally.counts(3L));
+    }
+
+    @Test
+    void countsCorrectedBelowZeroCountAsZero() {
+        tally.open(4L);
+        tally.add(4L, Map.of("A", 1, "B", 2));
+        tally.add(4L, Map.of("A", -3, "B", -1));
+
+        assertEquals(Optional.of(Map.of("A", 0, "B", 1)), tally.counts(4L));
+    }
+
+    @Test
+    void countsIsACopy() {
+        tally.open(5L);
+        tally.add(5L, Map.of("A", 1));
+
+        Map<String, Integer> counts = tally.counts(5L).orElseThrow();
+        tally.add(5L, Map.of("A", 1, "B", 1));
+
+        assertEquals(Map.of("A", 1), counts);
+    }
+
+    @Test
+    void closeDropsTheTally() {
+        tally.open(6L);
+        tally.add(6L, Map.of("A", 1));
+
+        tally.close(6L);
+
+        assertFalse(tally.isOpen(6L));
+        assertFalse(tally.add(6L, Map.of("A", 1)));
+        assertEquals(Optional.empty(), tally.counts(6L));
+    }
+}
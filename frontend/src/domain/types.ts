@@ -69,6 +69,10 @@ export interface Product {
   description?: string;
   defaultDiscountPercent?: number;
   variantCount?: number;
+  activeVariantCount?: number;
+  lowStockVariantCount?: number;
+  outOfStockVariantCount?: number;
+  totalStock?: number;
   isActive?: boolean;
   createdAt: string;
   updatedAt: string;
@@ -160,10 +164,12 @@ export interface PagedResponse<T> {
   content: T[];
   page: number;
   size: number;
-  totalElements: number;
-  totalPages: number;
+  // null (or left out) when the list was read with count=false
+  totalElements?: number | null;
+  totalPages?: number | null;
   first: boolean;
   last: boolean;
+  nextCursor?: string;
 }
 
 // Suppliers
@@ -406,6 +412,7 @@ export interface StockMovement {
   type: string;
   date: string;
   qty: number;
+  balanceAfter?: number;
   referenceId?: number;
   referenceNo?: string;
   supplierName?: string;
@@ -442,6 +449,42 @@ export interface CreateSaleRequest {
   paymentMode: PaymentMode;
   discountPercent: number;
   items: CreateSaleItemRequest[];
+  snapshotVersion?: string;
+}
+
+export interface QuoteSaleItemRequest {
+  variantId: number;
+  qty: number;
+  unitPrice?: number;
+  itemDiscountPercent?: number;
+}
+
+export interface QuoteSaleRequest {
+  discountPercent?: number;
+  items: QuoteSaleItemRequest[];
+}
+
+export interface SaleQuoteLine {
+  variantId: number;
+  variantSku: string;
+  variantBarcode?: string;
+  productName: string;
+  qty: number;
+  unitPrice: number;
+  itemDiscountPercent: number;
+  effectiveUnitPrice: number;
+  totalPrice: number;
+}
+
+export interface SaleQuote {
+  snapshotVersion: string;
+  subtotal: number;
+  discountPercent: number;
+  discountAmount: number;
+  taxPercent: number;
+  taxAmount: number;
+  total: number;
+  items: SaleQuoteLine[];
 }
 
 // Settings
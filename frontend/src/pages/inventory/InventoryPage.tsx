@@ -175,7 +175,7 @@ export default function InventoryPage() {
 
       const data: PagedResponse<Variant> = await productService.getVariants(params);
       setVariants(data.content);
-      setTotalElements(data.totalElements);
+      setTotalElements(data.totalElements ?? 0);
     } catch (error) {
       showError(formatApiError(error, 'Failed to load inventory'));
     } finally {
@@ -775,7 +775,7 @@ export default function InventoryPage() {
                         </Typography>
                       </TableCell>
                       <TableCell>
-                        {movement.type === 'PURCHASE' ? (
+                        {movement.type === 'PURCHASE' || movement.type === 'PURCHASE_EDIT' ? (
                           <Box>
                             <Link
                               component={RouterLink}
@@ -162,7 +162,7 @@ export default function ProductsPage() {
         size: paginationModel.pageSize,
       });
       setVariants(data.content);
-      setTotalElements(data.totalElements);
+      setTotalElements(data.totalElements ?? 0);
     } catch (error: unknown) {
       showError(formatApiError(error, 'Failed to fetch variants'));
       console.error(error);
@@ -183,7 +183,7 @@ export default function ProductsPage() {
         size: productPaginationModel.pageSize,
       });
       setProductRows(data.content);
-      setProductTotalElements(data.totalElements);
+      setProductTotalElements(data.totalElements ?? 0);
     } catch (error: unknown) {
       showError(formatApiError(error, 'Failed to fetch products'));
       console.error(error);
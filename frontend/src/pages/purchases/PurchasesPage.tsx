@@ -1,4 +1,5 @@
 import { useState, useMemo, useEffect, useCallback } from 'react';
+import type { UIEvent } from 'react';
 import { useSearchParams } from 'react-router-dom';
 import {
   Box,
@@ -10,10 +11,6 @@ import {
   DialogTitle,
   DialogContent,
   DialogActions,
-  FormControl,
-  InputLabel,
-  Select,
-  MenuItem,
   Chip,
   IconButton,
   Tooltip,
@@ -32,7 +29,7 @@ import {
   CircularProgress,
 } from '@mui/material';
 import { DataGrid } from '@mui/x-data-grid';
-import type { GridColDef, GridRenderCellParams } from '@mui/x-data-grid';
+import type { GridColDef, GridRenderCellParams, GridPaginationModel } from '@mui/x-data-grid';
 import AddIcon from '@mui/icons-material/Add';
 import DeleteOutlineIcon from '@mui/icons-material/DeleteOutline';
 import VisibilityIcon from '@mui/icons-material/Visibility';
@@ -88,6 +85,9 @@ const editPurchaseSchema = z.object({
 
 type EditPurchaseFormData = z.infer<typeof editPurchaseSchema>;
 
+// Suppliers are searched on the server and loaded a page at a time as the list is scrolled
+const SUPPLIER_PAGE_SIZE = 20;
+
 export default function PurchasesPage() {
   const { success: showSuccess, error: showError } = useNotification();
   const [searchParams, setSearchParams] = useSearchParams();
@@ -109,7 +109,16 @@ export default function PurchasesPage() {
   const [variantResults, setVariantResults] = useState<VariantSearchResponse[]>([]);
   const [variantCache, setVariantCache] = useState<Record<number, VariantSearchResponse>>({});
   const [purchases, setPurchases] = useState<PurchaseList[]>([]);
+  const [totalElements, setTotalElements] = useState(0);
+  const [paginationModel, setPaginationModel] = useState<GridPaginationModel>({
+    page: 0,
+    pageSize: 25,
+  });
   const [suppliers, setSuppliers] = useState<Supplier[]>([]);
+  const [supplierSearch, setSupplierSearch] = useState('');
+  const [supplierCursor, setSupplierCursor] = useState<string | undefined>();
+  const [supplierLoading, setSupplierLoading] = useState(false);
+  const [selectedSupplier, setSelectedSupplier] = useState<Supplier | null>(null);
   const [isLoading, setIsLoading] = useState(false);
   const [isSaving, setIsSaving] = useState(false);
 
@@ -153,15 +162,39 @@ export default function PurchasesPage() {
     name: 'items',
   });
 
-  const fetchSuppliers = useCallback(async () => {
+  const fetchSuppliers = useCallback(async (search: string, cursor?: string) => {
+    setSupplierLoading(true);
     try {
-      const data = await supplierService.getSuppliers();
-      setSuppliers(data);
+      const data = await supplierService.getSuppliers({
+        search: search || undefined,
+        size: SUPPLIER_PAGE_SIZE,
+        cursor,
+        count: false,
+      });
+      setSuppliers((prev) => (cursor ? [...prev, ...data.content] : data.content));
+      setSupplierCursor(data.nextCursor);
     } catch (error) {
       showError(formatApiError(error, 'Failed to load suppliers'));
+    } finally {
+      setSupplierLoading(false);
     }
   }, [showError]);
 
+  const handleSupplierListScroll = (event: UIEvent<HTMLElement>) => {
+    const list = event.currentTarget;
+    if (supplierCursor && !supplierLoading && list.scrollTop + list.clientHeight >= list.scrollHeight - 16) {
+      fetchSuppliers(supplierSearch, supplierCursor);
+    }
+  };
+
+  // Keep the selected supplier selectable when the current search no longer returns it
+  const supplierOptions = useMemo(() => {
+    if (!selectedSupplier || suppliers.some((supplier) => supplier.id === selectedSupplier.id)) {
+      return suppliers;
+    }
+    return [selectedSupplier, ...suppliers];
+  }, [suppliers, selectedSupplier]);
+
   const fetchPurchases = useCallback(async () => {
     setIsLoading(true);
     try {
@@ -169,14 +202,17 @@ export default function PurchasesPage() {
         startDate: dateRange.startDate,
         endDate: dateRange.endDate,
         search: searchQuery || undefined,
+        page: paginationModel.page,
+        size: paginationModel.pageSize,
       });
-      setPurchases(data);
+      setPurchases(data.content);
+      setTotalElements(data.totalElements ?? 0);
     } catch (error) {
       showError(formatApiError(error, 'Failed to load purchases'));
     } finally {
       setIsLoading(false);
     }
-  }, [dateRange, searchQuery, showError]);
+  }, [dateRange, searchQuery, paginationModel, showError]);
 
   const mapVariantToSearch = (variant: Variant): VariantSearchResponse => ({
     id: variant.id,
@@ -213,8 +249,8 @@ export default function PurchasesPage() {
   }, [showError, variantResults.length, variantSearch.length]);
 
   useEffect(() => {
-    fetchSuppliers();
-  }, [fetchSuppliers]);
+    fetchSuppliers(supplierSearch);
+  }, [fetchSuppliers, supplierSearch]);
 
   useEffect(() => {
     fetchPurchases();
@@ -313,6 +349,7 @@ export default function PurchasesPage() {
         notes: '',
         items: [{ variantId: 0, qty: 1, unitCost: 0 }],
       });
+      setSelectedSupplier(null);
       fetchPurchases();
     } catch (error: unknown) {
       showError(formatApiError(error, 'Failed to save purchase'));
@@ -329,6 +366,7 @@ export default function PurchasesPage() {
       notes: '',
       items: [{ variantId: 0, qty: 1, unitCost: 0 }],
     });
+    setSelectedSupplier(null);
     setVariantSearch('');
     setVariantResults([]);
   };
@@ -343,7 +381,8 @@ export default function PurchasesPage() {
         address: newSupplierAddress || undefined,
         gstNumber: newSupplierGstNumber || undefined,
       });
-      await fetchSuppliers();
+      setSuppliers((prev) => [supplier, ...prev.filter((s) => s.id !== supplier.id)]);
+      setSelectedSupplier(supplier);
       form.setValue('supplierId', supplier.id, { shouldValidate: true });
       setSupplierDialogOpen(false);
       setNewSupplierName('');
@@ -567,18 +606,16 @@ export default function PurchasesPage() {
     },
   ];
 
-  const filteredPurchases = useMemo(() => {
-    return purchases
-      .filter((purchase) => {
-        const purchaseDate = dayjs(purchase.purchasedAt).format('YYYY-MM-DD');
-        const inDateRange = purchaseDate >= dateRange.startDate && purchaseDate <= dateRange.endDate;
-        const matchesSearch = !searchQuery ||
-          purchase.supplierName.toLowerCase().includes(searchQuery.toLowerCase()) ||
-          purchase.invoiceNo?.toLowerCase().includes(searchQuery.toLowerCase());
-        return inDateRange && matchesSearch;
-      })
-      .sort((a, b) => new Date(b.purchasedAt).getTime() - new Date(a.purchasedAt).getTime());
-  }, [purchases, dateRange, searchQuery]);
+  // Filters change the result set, so they start again from the first page
+  const handleSearchChange = (value: string) => {
+    setSearchQuery(value);
+    setPaginationModel((prev) => ({ ...prev, page: 0 }));
+  };
+
+  const handleDateRangeChange = (value: DateRange) => {
+    setDateRange(value);
+    setPaginationModel((prev) => ({ ...prev, page: 0 }));
+  };
 
   return (
     <Box>
@@ -608,7 +645,7 @@ export default function PurchasesPage() {
                 fullWidth
                 placeholder="Search by supplier, invoice..."
                 value={searchQuery}
-                onChange={(e) => setSearchQuery(e.target.value)}
+                onChange={(e) => handleSearchChange(e.target.value)}
                 InputProps={{
                   startAdornment: (
                     <InputAdornment position="start">
@@ -620,7 +657,7 @@ export default function PurchasesPage() {
               />
             </Grid>
             <Grid size={{ xs: 12, md: 4 }}>
-              <DateRangePicker value={dateRange} onChange={setDateRange} />
+              <DateRangePicker value={dateRange} onChange={handleDateRangeChange} />
             </Grid>
           </Grid>
         </CardContent>
@@ -628,12 +665,13 @@ export default function PurchasesPage() {
 
       <Card>
         <DataGrid
-          rows={filteredPurchases}
+          rows={purchases}
           columns={columns}
+          rowCount={totalElements}
           pageSizeOptions={[10, 25, 50]}
-          initialState={{
-            pagination: { paginationModel: { pageSize: 25 } },
-          }}
+          paginationModel={paginationModel}
+          paginationMode="server"
+          onPaginationModelChange={setPaginationModel}
           disableRowSelectionOnClick
           loading={isLoading}
           sx={{ border: 0, minHeight: 500 }}
@@ -655,21 +693,33 @@ export default function PurchasesPage() {
                   name="supplierId"
                   control={form.control}
                   render={({ field, fieldState }) => (
-                    <FormControl fullWidth error={!!fieldState.error}>
-                      <InputLabel>Supplier</InputLabel>
-                      <Select
-                        {...field}
-                        label="Supplier"
-                        value={field.value || ''}
-                        onChange={(event) => field.onChange(Number(event.target.value))}
-                      >
-                        {suppliers.map((supplier) => (
-                          <MenuItem key={supplier.id} value={supplier.id}>
-                            {supplier.name}
-                          </MenuItem>
-                        ))}
-                      </Select>
-                    </FormControl>
+                    <Autocomplete
+                      options={supplierOptions}
+                      getOptionLabel={(option) => option.name}
+                      isOptionEqualToValue={(option, value) => option.id === value.id}
+                      filterOptions={(options) => options}
+                      value={field.value ? selectedSupplier : null}
+                      loading={supplierLoading}
+                      onChange={(_, value) => {
+                        setSelectedSupplier(value);
+                        field.onChange(value ? value.id : 0);
+                      }}
+                      onInputChange={(_, value, reason) => {
+                        if (reason === 'input' || reason === 'clear') {
+                          setSupplierSearch(value);
+                        }
+                      }}
+                      onBlur={field.onBlur}
+                      slotProps={{ listbox: { onScroll: handleSupplierListScroll } }}
+                      renderInput={(params) => (
+                        <TextField {...params} label="Supplier" error={!!fieldState.error} />
+                      )}
+                      renderOption={(props, option) => (
+                        <Box component="li" {...props} key={option.id}>
+                          {option.name}
+                        </Box>
+                      )}
+                    />
                   )}
                 />
                 <Button
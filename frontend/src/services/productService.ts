@@ -27,6 +27,11 @@ export const productService = {
     return unwrapApiResponse(response);
   },
 
+  async searchProducts(q: string, limit?: number): Promise<Product[]> {
+    const response = await api.get<ApiResponse<Product[]>>('/products/search', { params: { q, limit } });
+    return unwrapApiResponse(response);
+  },
+
   async getProductById(id: number): Promise<Product> {
     const response = await api.get<ApiResponse<Product>>(`/products/${id}`);
     return unwrapApiResponse(response);
@@ -1,6 +1,7 @@
 import api, { unwrapApiResponse } from './api';
 import type {
   ApiResponse,
+  PagedResponse,
   PurchaseDetail,
   PurchaseList,
   CreatePurchaseRequest,
@@ -15,8 +16,13 @@ export const purchaseService = {
     startDate?: string;
     endDate?: string;
     search?: string;
-  }): Promise<PurchaseList[]> {
-    const response = await api.get<ApiResponse<PurchaseList[]>>('/purchases', { params });
+    page?: number;
+    size?: number;
+    sort?: string;
+    cursor?: string;
+    count?: boolean;
+  }): Promise<PagedResponse<PurchaseList>> {
+    const response = await api.get<ApiResponse<PagedResponse<PurchaseList>>>('/purchases', { params });
     return unwrapApiResponse(response);
   },
 
@@ -1,7 +1,12 @@
 import api, { unwrapApiResponse } from './api';
-import type { ApiResponse, CreateSaleRequest, SaleDetail, SaleList, PagedResponse } from '../domain/types';
+import type { ApiResponse, CreateSaleRequest, QuoteSaleRequest, SaleQuote, SaleDetail, SaleList, PagedResponse } from '../domain/types';
 
 export const saleService = {
+  async quoteSale(data: QuoteSaleRequest): Promise<SaleQuote> {
+    const response = await api.post<ApiResponse<SaleQuote>>('/sales/quote', data);
+    return unwrapApiResponse(response);
+  },
+
   async createSale(data: CreateSaleRequest): Promise<SaleDetail> {
     const response = await api.post<ApiResponse<SaleDetail>>('/sales', data);
     return unwrapApiResponse(response);
@@ -22,6 +27,11 @@ export const saleService = {
     return response.data as Blob;
   },
 
+  async searchSales(q: string, limit?: number): Promise<SaleList[]> {
+    const response = await api.get<ApiResponse<SaleList[]>>('/sales/search', { params: { q, limit } });
+    return unwrapApiResponse(response);
+  },
+
   async getSales(params?: {
     startDate?: string;
     endDate?: string;
@@ -1,13 +1,21 @@
 import api, { unwrapApiResponse } from './api';
 import type {
   ApiResponse,
+  PagedResponse,
   Supplier,
   CreateSupplierRequest,
 } from '../domain/types';
 
 export const supplierService = {
-  async getSuppliers(params?: { search?: string }): Promise<Supplier[]> {
-    const response = await api.get<ApiResponse<Supplier[]>>('/suppliers', { params });
+  async getSuppliers(params?: {
+    search?: string;
+    page?: number;
+    size?: number;
+    sort?: string;
+    cursor?: string;
+    count?: boolean;
+  }): Promise<PagedResponse<Supplier>> {
+    const response = await api.get<ApiResponse<PagedResponse<Supplier>>>('/suppliers', { params });
     return unwrapApiResponse(response);
   },
 